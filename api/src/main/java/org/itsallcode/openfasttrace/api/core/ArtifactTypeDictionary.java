@@ -0,0 +1,115 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+
+/**
+ * Dictionary that assigns each artifact type of a trace a dense index, so that
+ * sets of artifact types can be stored as bit sets.
+ */
+final class ArtifactTypeDictionary
+{
+    private final List<String> artifactTypes;
+    private final Map<String, Integer> indexes;
+
+    ArtifactTypeDictionary()
+    {
+        this(new ArrayList<>(), new HashMap<>());
+    }
+
+    private ArtifactTypeDictionary(final List<String> artifactTypes,
+            final Map<String, Integer> indexes)
+    {
+        this.artifactTypes = artifactTypes;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Get the index of an artifact type and add the artifact type if it is not
+     * yet known.
+     * 
+     * @param artifactType
+     *            artifact type
+     * @return index of the artifact type
+     */
+    int index(final String artifactType)
+    {
+        final Integer index = this.indexes.get(artifactType);
+        if (index != null)
+        {
+            return index;
+        }
+        final int newIndex = this.artifactTypes.size();
+        this.artifactTypes.add(artifactType);
+        this.indexes.put(artifactType, newIndex);
+        return newIndex;
+    }
+
+    /**
+     * Get the index of an artifact type.
+     * 
+     * @param artifactType
+     *            artifact type
+     * @return index of the artifact type or <code>-1</code> if it is unknown
+     */
+    int indexOf(final Object artifactType)
+    {
+        final Integer index = this.indexes.get(artifactType);
+        return (index == null) ? -1 : index;
+    }
+
+    /**
+     * Get the artifact type with an index.
+     * 
+     * @param index
+     *            index of the artifact type
+     * @return artifact type
+     */
+    String get(final int index)
+    {
+        return this.artifactTypes.get(index);
+    }
+
+    /**
+     * Get the number of known artifact types.
+     * 
+     * @return number of artifact types
+     */
+    int size()
+    {
+        return this.artifactTypes.size();
+    }
+
+    /**
+     * Create a copy that is not affected by artifact types added to this
+     * dictionary later.
+     * 
+     * @return copy of this dictionary
+     */
+    ArtifactTypeDictionary copy()
+    {
+        return new ArtifactTypeDictionary(new ArrayList<>(this.artifactTypes),
+                new HashMap<>(this.indexes));
+    }
+}
@@ -0,0 +1,95 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+
+/**
+ * List of specification items that keeps the items created from coverage tags
+ * as {@link CoverageTag}s.
+ * 
+ * <p>
+ * The list contains the regular items followed by the items of the coverage
+ * tags. The items of the coverage tags are created each time they are
+ * accessed, so code that only works with lists of specification items still
+ * sees all items. The linker processes the coverage tags directly.
+ * </p>
+ */
+public final class CompactItemList extends AbstractList<SpecificationItem>
+        implements RandomAccess
+{
+    private final List<SpecificationItem> items;
+    private final List<CoverageTag> coverageTags;
+
+    /**
+     * Create a new {@link CompactItemList}
+     * 
+     * @param items
+     *            regular specification items
+     * @param coverageTags
+     *            coverage tags
+     */
+    public CompactItemList(final List<SpecificationItem> items,
+            final List<CoverageTag> coverageTags)
+    {
+        this.items = new ArrayList<>(items);
+        this.coverageTags = new ArrayList<>(coverageTags);
+    }
+
+    /**
+     * Get the regular specification items
+     * 
+     * @return items that were not created from coverage tags
+     */
+    public List<SpecificationItem> getItems()
+    {
+        return Collections.unmodifiableList(this.items);
+    }
+
+    /**
+     * Get the coverage tags
+     * 
+     * @return coverage tags
+     */
+    public List<CoverageTag> getCoverageTags()
+    {
+        return Collections.unmodifiableList(this.coverageTags);
+    }
+
+    @Override
+    public SpecificationItem get(final int index)
+    {
+        final int itemCount = this.items.size();
+        if (index < itemCount)
+        {
+            return this.items.get(index);
+        }
+        return this.coverageTags.get(index - itemCount).toSpecificationItem();
+    }
+
+    @Override
+    public int size()
+    {
+        return this.items.size() + this.coverageTags.size();
+    }
+}
@@ -0,0 +1,76 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+
+/**
+ * List of linked specification items that were linked together with
+ * {@link CoverageTag}s. Coverage tags that cover their item without defects
+ * are not contained in the list. Only their number is kept, so that a
+ * {@link Trace} can report the total number of items.
+ */
+public final class CompactLinkedItemList extends AbstractList<LinkedSpecificationItem>
+        implements RandomAccess
+{
+    private final List<LinkedSpecificationItem> items;
+    private final int aggregatedItemCount;
+
+    /**
+     * Create a new {@link CompactLinkedItemList}
+     * 
+     * @param items
+     *            linked items
+     * @param aggregatedItemCount
+     *            number of coverage tags that are not contained in the list
+     */
+    public CompactLinkedItemList(final List<LinkedSpecificationItem> items,
+            final int aggregatedItemCount)
+    {
+        this.items = new ArrayList<>(items);
+        this.aggregatedItemCount = aggregatedItemCount;
+    }
+
+    /**
+     * Get the number of items created from coverage tags that are not
+     * contained in the list
+     * 
+     * @return number of aggregated items
+     */
+    public int countAggregatedItems()
+    {
+        return this.aggregatedItemCount;
+    }
+
+    @Override
+    public LinkedSpecificationItem get(final int index)
+    {
+        return this.items.get(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return this.items.size();
+    }
+}
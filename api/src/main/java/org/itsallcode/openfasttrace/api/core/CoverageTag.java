@@ -0,0 +1,234 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.Objects;
+
+/**
+ * Compact record of a coverage tag found in a source file, e.g.
+ * <code>[impl-&gt;dsn~name~1]</code>.
+ * 
+ * <p>
+ * A coverage tag stands for a specification item that only covers a single
+ * other item. Instead of the full {@link SpecificationItem} the record keeps
+ * only the covering artifact type, the covered ID, the location and the
+ * checksum from which the name of the item is generated. The item ID and the
+ * full item are created on demand.
+ * </p>
+ */
+public final class CoverageTag
+{
+    private static final int GENERATED_REVISION = 0;
+
+    private final String coveringArtifactType;
+    private final SpecificationItemId coveredId;
+    private final String path;
+    private final int line;
+    private final long checksum;
+
+    private CoverageTag(final Builder builder)
+    {
+        this.coveringArtifactType = builder.coveringArtifactType;
+        this.coveredId = builder.coveredId;
+        this.path = builder.path;
+        this.line = builder.line;
+        this.checksum = builder.checksum;
+    }
+
+    /**
+     * Get the artifact type of the item that the tag stands for
+     * 
+     * @return covering artifact type
+     */
+    public String getCoveringArtifactType()
+    {
+        return this.coveringArtifactType;
+    }
+
+    /**
+     * Get the ID of the item covered by the tag
+     * 
+     * @return covered ID
+     */
+    public SpecificationItemId getCoveredId()
+    {
+        return this.coveredId;
+    }
+
+    /**
+     * Get the path of the file that contains the tag
+     * 
+     * @return path
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * Get the line of the tag
+     * 
+     * @return line number
+     */
+    public int getLine()
+    {
+        return this.line;
+    }
+
+    /**
+     * Get the checksum that makes the generated item name unique
+     * 
+     * @return checksum
+     */
+    public long getChecksum()
+    {
+        return this.checksum;
+    }
+
+    /**
+     * Create the ID of the item that the tag stands for. The name of the ID
+     * consists of the name of the covered ID and the checksum.
+     * 
+     * @return generated ID
+     */
+    public SpecificationItemId getId()
+    {
+        return SpecificationItemId.createId(this.coveringArtifactType,
+                this.coveredId.getName() + "-" + this.checksum, GENERATED_REVISION);
+    }
+
+    /**
+     * Create the full specification item that the tag stands for
+     * 
+     * @return specification item
+     */
+    public SpecificationItem toSpecificationItem()
+    {
+        return SpecificationItem.builder() //
+                .id(getId()) //
+                .addCoveredId(this.coveredId) //
+                .location(Location.create(this.path, this.line)) //
+                .build();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.path + ":" + this.line + ": " + this.coveringArtifactType + " -> "
+                + this.coveredId;
+    }
+
+    /**
+     * Create a new {@link Builder}
+     * 
+     * @return builder
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link CoverageTag}s
+     */
+    public static class Builder
+    {
+        private String coveringArtifactType;
+        private SpecificationItemId coveredId;
+        private String path;
+        private int line;
+        private long checksum;
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Set the artifact type of the item that the tag stands for
+         * 
+         * @param coveringArtifactType
+         *            covering artifact type
+         * @return this builder instance
+         */
+        public Builder coveringArtifactType(final String coveringArtifactType)
+        {
+            this.coveringArtifactType = coveringArtifactType;
+            return this;
+        }
+
+        /**
+         * Set the ID of the covered item
+         * 
+         * @param coveredId
+         *            covered ID
+         * @return this builder instance
+         */
+        public Builder coveredId(final SpecificationItemId coveredId)
+        {
+            this.coveredId = coveredId;
+            return this;
+        }
+
+        /**
+         * Set the location of the tag
+         * 
+         * @param path
+         *            path of the file that contains the tag
+         * @param line
+         *            line of the tag
+         * @return this builder instance
+         */
+        public Builder location(final String path, final int line)
+        {
+            this.path = path;
+            this.line = line;
+            return this;
+        }
+
+        /**
+         * Set the checksum that makes the generated item name unique
+         * 
+         * @param checksum
+         *            checksum
+         * @return this builder instance
+         */
+        public Builder checksum(final long checksum)
+        {
+            this.checksum = checksum;
+            return this;
+        }
+
+        /**
+         * Create a new {@link CoverageTag}
+         * 
+         * @return coverage tag
+         */
+        public CoverageTag build()
+        {
+            Objects.requireNonNull(this.coveringArtifactType, "coveringArtifactType");
+            Objects.requireNonNull(this.coveredId, "coveredId");
+            Objects.requireNonNull(this.path, "path");
+            return new CoverageTag(this);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache for the contents of the files that {@link TextRange}s are read from.
+ * 
+ * The cache keeps the least recently used files up to a maximum total size.
+ * Files that are larger than this limit are never cached. For these only the
+ * requested range is read.
+ */
+final class FileContentCache
+{
+    private static final long DEFAULT_MAX_CACHED_BYTES = 16L * 1024 * 1024;
+    private static final FileContentCache INSTANCE = new FileContentCache(
+            DEFAULT_MAX_CACHED_BYTES);
+
+    private final long maxCachedBytes;
+    private final Map<TextRange.Source, byte[]> contents = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes = 0;
+
+    FileContentCache(final long maxCachedBytes)
+    {
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    static FileContentCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Read the raw text of a range, i.e. without normalizing line breaks.
+     * 
+     * @param range
+     *            the range to read
+     * @return the decoded text of the range
+     */
+    synchronized String read(final TextRange range)
+    {
+        final TextRange.Source source = range.getSource();
+        try
+        {
+            final int length = Math.toIntExact(range.getEnd() - range.getStart());
+            final byte[] content = getContent(source);
+            if (content == null)
+            {
+                return new String(readRange(source, range.getStart(), length), 0, length,
+                        source.getCharset());
+            }
+            if (range.getEnd() > content.length)
+            {
+                throw new IOException("Text range " + range + " exceeds file size "
+                        + content.length + ". The file was changed after the import.");
+            }
+            return new String(content, (int) range.getStart(), length, source.getCharset());
+        }
+        catch (final IOException exception)
+        {
+            throw new UncheckedIOException(
+                    "Error reading text range " + range + " from file " + source.getPath(),
+                    exception);
+        }
+    }
+
+    private byte[] getContent(final TextRange.Source source) throws IOException
+    {
+        final byte[] cachedContent = this.contents.get(source);
+        if (cachedContent != null)
+        {
+            return cachedContent;
+        }
+        if (Files.size(source.getPath()) > this.maxCachedBytes)
+        {
+            return null;
+        }
+        final byte[] content = Files.readAllBytes(source.getPath());
+        this.contents.put(source, content);
+        this.cachedBytes += content.length;
+        evictLeastRecentlyUsed();
+        return content;
+    }
+
+    private void evictLeastRecentlyUsed()
+    {
+        final Iterator<byte[]> iterator = this.contents.values().iterator();
+        while (this.cachedBytes > this.maxCachedBytes && iterator.hasNext())
+        {
+            this.cachedBytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private static byte[] readRange(final TextRange.Source source, final long start,
+            final int length) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(source.getPath(), StandardOpenOption.READ))
+        {
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer, start + buffer.position()) < 0)
+                {
+                    throw new IOException("Text range [" + start + ", " + (start + length)
+                            + ") exceeds file size. The file was changed after the import.");
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    synchronized int getCachedFileCount()
+    {
+        return this.contents.size();
+    }
+}
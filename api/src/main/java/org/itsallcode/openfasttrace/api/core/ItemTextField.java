@@ -0,0 +1,38 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * The text fields of a {@link SpecificationItem}. None of them is needed for
+ * linking and tracing, so importers can skip the fields that the report or
+ * export will not show.
+ */
+public enum ItemTextField
+{
+    //@formatter:off
+    /** Title, e.g. the heading of a Markdown item */   TITLE,
+    /** Description */                                  DESCRIPTION,
+    /** Rationale */                                    RATIONALE,
+    /** Comment */                                      COMMENT
+    //@formatter:on
+}
@@ -0,0 +1,722 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Frozen link graph of a set of {@link LinkedSpecificationItem}s.
+ * 
+ * <p>
+ * Each item gets an ordinal. The links of all items are stored in compressed
+ * sparse row format: the links of the item with ordinal <code>n</code> are
+ * located between <code>linkOffsets[n]</code> (inclusive) and
+ * <code>linkOffsets[n + 1]</code> (exclusive) in the arrays holding the target
+ * ordinals and the link status. Within this range the links are ordered by
+ * status and then by the order in which they were added.
+ * </p>
+ * <p>
+ * Needed, covered and over-covered artifact types are stored as bit sets over
+ * a dictionary of all artifact types in the graph. This turns checks like
+ * {@link LinkedSpecificationItem#isCoveredShallow()} into bitwise operations.
+ * </p>
+ * <p>
+ * Use a {@link Builder} to create the graph. Building the graph attaches it to
+ * all contained items. From then on their link accessors read from the graph
+ * instead of from per-item collections. The collections these accessors return
+ * are read-only. Links and artifact types can only be added through the
+ * mutators of {@link LinkedSpecificationItem}, which detach the item from the
+ * graph.
+ * </p>
+ */
+public final class LinkGraph
+{
+    private static final LinkStatus[] STATUSES = LinkStatus.values();
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private final LinkedSpecificationItem[] items;
+    private final int[] linkOffsets;
+    private final int[] linkTargets;
+    private final byte[] linkStatuses;
+    private final ArtifactTypeDictionary artifactTypes;
+    private final int wordsPerItem;
+    private final long[] neededArtifactTypes;
+    private final long[] coveredArtifactTypes;
+    private final long[] overCoveredArtifactTypes;
+
+    private LinkGraph(final Builder builder, final int[] linkOffsets, final int[] linkTargets,
+            final byte[] linkStatuses)
+    {
+        this.items = builder.items.toArray(new LinkedSpecificationItem[0]);
+        this.linkOffsets = linkOffsets;
+        this.linkTargets = linkTargets;
+        this.linkStatuses = linkStatuses;
+        this.artifactTypes = builder.artifactTypes.copy();
+        this.wordsPerItem = (this.artifactTypes.size() + BITS_PER_WORD - 1) / BITS_PER_WORD;
+        this.neededArtifactTypes = builder.needed.toBitSets(this.items.length,
+                this.wordsPerItem);
+        this.coveredArtifactTypes = builder.covered.toBitSets(this.items.length,
+                this.wordsPerItem);
+        this.overCoveredArtifactTypes = builder.overCovered.toBitSets(this.items.length,
+                this.wordsPerItem);
+    }
+
+    /**
+     * Get the number of items in the graph.
+     * 
+     * @return number of items
+     */
+    public int countItems()
+    {
+        return this.items.length;
+    }
+
+    /**
+     * Get the number of links in the graph.
+     * 
+     * @return number of links
+     */
+    public int countLinks()
+    {
+        return this.linkTargets.length;
+    }
+
+    /**
+     * Get the item with the given ordinal.
+     * 
+     * @param ordinal
+     *            ordinal of the item
+     * @return the item
+     */
+    public LinkedSpecificationItem getItem(final int ordinal)
+    {
+        return this.items[ordinal];
+    }
+
+    List<LinkedSpecificationItem> getLinksByStatus(final int ordinal, final LinkStatus status)
+    {
+        int start = this.linkOffsets[ordinal];
+        final int end = this.linkOffsets[ordinal + 1];
+        final byte wanted = (byte) status.ordinal();
+        while (start < end && this.linkStatuses[start] != wanted)
+        {
+            ++start;
+        }
+        int stop = start;
+        while (stop < end && this.linkStatuses[stop] == wanted)
+        {
+            ++stop;
+        }
+        return (start == stop) ? Collections.emptyList() : new TargetList(start, stop);
+    }
+
+    Map<LinkStatus, List<LinkedSpecificationItem>> getLinks(final int ordinal)
+    {
+        final Map<LinkStatus, List<LinkedSpecificationItem>> links = new EnumMap<>(
+                LinkStatus.class);
+        final int end = this.linkOffsets[ordinal + 1];
+        int start = this.linkOffsets[ordinal];
+        while (start < end)
+        {
+            final byte status = this.linkStatuses[start];
+            int stop = start + 1;
+            while (stop < end && this.linkStatuses[stop] == status)
+            {
+                ++stop;
+            }
+            links.put(STATUSES[status], new TargetList(start, stop));
+            start = stop;
+        }
+        return Collections.unmodifiableMap(links);
+    }
+
+    List<TracedLink> getTracedLinks(final int ordinal)
+    {
+        final int start = this.linkOffsets[ordinal];
+        final int end = this.linkOffsets[ordinal + 1];
+        return new AbstractList<TracedLink>()
+        {
+            @Override
+            public TracedLink get(final int index)
+            {
+                final int position = start + Objects.checkIndex(index, end - start);
+                return new TracedLink(LinkGraph.this.items[LinkGraph.this.linkTargets[position]],
+                        STATUSES[LinkGraph.this.linkStatuses[position]]);
+            }
+
+            @Override
+            public int size()
+            {
+                return end - start;
+            }
+        };
+    }
+
+    boolean hasLinks(final int ordinal)
+    {
+        return this.linkOffsets[ordinal + 1] > this.linkOffsets[ordinal];
+    }
+
+    boolean hasLinkWithStatus(final int ordinal, final Predicate<LinkStatus> predicate)
+    {
+        for (int i = this.linkOffsets[ordinal]; i < this.linkOffsets[ordinal + 1]; ++i)
+        {
+            if (predicate.test(STATUSES[this.linkStatuses[i]]))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int countLinks(final int ordinal, final Predicate<LinkStatus> predicate)
+    {
+        int count = 0;
+        for (int i = this.linkOffsets[ordinal]; i < this.linkOffsets[ordinal + 1]; ++i)
+        {
+            if (predicate.test(STATUSES[this.linkStatuses[i]]))
+            {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    boolean isCoveredShallow(final int ordinal)
+    {
+        final int offset = ordinal * this.wordsPerItem;
+        for (int i = offset; i < offset + this.wordsPerItem; ++i)
+        {
+            if ((this.neededArtifactTypes[i] & ~this.coveredArtifactTypes[i]) != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    List<String> getUncoveredArtifactTypes(final int ordinal)
+    {
+        if (isCoveredShallow(ordinal))
+        {
+            return Collections.emptyList();
+        }
+        final int offset = ordinal * this.wordsPerItem;
+        final List<String> uncovered = new ArrayList<>();
+        for (final String artifactType : this.items[ordinal].getNeedsArtifactTypes())
+        {
+            if (!isSet(this.coveredArtifactTypes, offset,
+                    this.artifactTypes.indexOf(artifactType)))
+            {
+                uncovered.add(artifactType);
+            }
+        }
+        return uncovered;
+    }
+
+    private static boolean isSet(final long[] bits, final int offset, final int index)
+    {
+        return (bits[offset + index / BITS_PER_WORD] & (1L << (index % BITS_PER_WORD))) != 0;
+    }
+
+    Set<String> getCoveredArtifactTypes(final int ordinal)
+    {
+        return new ArtifactTypeSet(this.coveredArtifactTypes, ordinal * this.wordsPerItem);
+    }
+
+    Set<String> getOverCoveredArtifactTypes(final int ordinal)
+    {
+        return new ArtifactTypeSet(this.overCoveredArtifactTypes, ordinal * this.wordsPerItem);
+    }
+
+    /**
+     * Read-only view of the link targets in a range of the link arrays.
+     */
+    private final class TargetList extends AbstractList<LinkedSpecificationItem>
+            implements RandomAccess
+    {
+        private final int start;
+        private final int end;
+
+        private TargetList(final int start, final int end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public LinkedSpecificationItem get(final int index)
+        {
+            return LinkGraph.this.items[LinkGraph.this.linkTargets[this.start
+                    + Objects.checkIndex(index, this.end - this.start)]];
+        }
+
+        @Override
+        public int size()
+        {
+            return this.end - this.start;
+        }
+    }
+
+    /**
+     * Read-only view of the artifact types in the bit set of a single item.
+     */
+    private final class ArtifactTypeSet extends AbstractSet<String>
+    {
+        private final long[] bits;
+        private final int offset;
+
+        private ArtifactTypeSet(final long[] bits, final int offset)
+        {
+            this.bits = bits;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean contains(final Object artifactType)
+        {
+            final int index = LinkGraph.this.artifactTypes.indexOf(artifactType);
+            return index >= 0 && isSet(this.bits, this.offset, index);
+        }
+
+        @Override
+        public int size()
+        {
+            int size = 0;
+            for (int i = 0; i < LinkGraph.this.wordsPerItem; ++i)
+            {
+                size += Long.bitCount(this.bits[this.offset + i]);
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<String> iterator()
+        {
+            return new Iterator<String>()
+            {
+                private int next = findNext(0);
+
+                @Override
+                public boolean hasNext()
+                {
+                    return this.next >= 0;
+                }
+
+                @Override
+                public String next()
+                {
+                    if (this.next < 0)
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    final String artifactType = LinkGraph.this.artifactTypes.get(this.next);
+                    this.next = findNext(this.next + 1);
+                    return artifactType;
+                }
+            };
+        }
+
+        private int findNext(final int from)
+        {
+            for (int index = from; index < LinkGraph.this.artifactTypes.size(); ++index)
+            {
+                if (isSet(this.bits, this.offset, index))
+                {
+                    return index;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Create a builder for a {@link LinkGraph}.
+     * 
+     * @return new builder
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Builder for a {@link LinkGraph}.
+     * 
+     * <p>
+     * Links and artifact types that were added to the items directly (e.g.
+     * duplicate links) before the graph is built are taken over into the graph.
+     * </p>
+     */
+    public static final class Builder
+    {
+        private final List<LinkedSpecificationItem> items = new ArrayList<>();
+        private final IntPairs links = new IntPairs();
+        private final ByteArray statuses = new ByteArray();
+        private final ArtifactTypeDictionary artifactTypes = new ArtifactTypeDictionary();
+        private final IntPairs needed = new IntPairs();
+        private long[] neededMasks = new long[32];
+        private final Map<Integer, BitSet> wideNeededMasks = new HashMap<>();
+        private final IntPairs covered = new IntPairs();
+        private final IntPairs overCovered = new IntPairs();
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Add items to the graph. Items that are linked but not added
+         * explicitly are added automatically when they are first linked.
+         * 
+         * @param linkedItems
+         *            items to be added
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder addItems(final List<LinkedSpecificationItem> linkedItems)
+        {
+            for (final LinkedSpecificationItem item : linkedItems)
+            {
+                register(item);
+            }
+            return this;
+        }
+
+        /**
+         * Add a link from one item to another.
+         * 
+         * @param from
+         *            item the link starts at
+         * @param to
+         *            item the link points to
+         * @param status
+         *            link status
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder addLink(final LinkedSpecificationItem from, final LinkedSpecificationItem to,
+                final LinkStatus status)
+        {
+            this.links.add(register(from), register(to));
+            this.statuses.add((byte) status.ordinal());
+            return this;
+        }
+
+        /**
+         * Add an artifact type in which an item is covered.
+         * 
+         * @param item
+         *            covered item
+         * @param artifactType
+         *            covered artifact type
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder addCoveredArtifactType(final LinkedSpecificationItem item,
+                final String artifactType)
+        {
+            this.covered.add(register(item), indexArtifactType(artifactType));
+            return this;
+        }
+
+        /**
+         * Add an artifact type in which an item has unwanted coverage.
+         * 
+         * @param item
+         *            over-covered item
+         * @param artifactType
+         *            over-covered artifact type
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder addOverCoveredArtifactType(final LinkedSpecificationItem item,
+                final String artifactType)
+        {
+            this.overCovered.add(register(item), indexArtifactType(artifactType));
+            return this;
+        }
+
+        /**
+         * Check if an item needs coverage in an artifact type.
+         * 
+         * <p>
+         * For items of this builder this is a bit test on the needed artifact
+         * types that were recorded when the item was added. The check only
+         * reads the builder, so it may be called from multiple threads as long
+         * as the builder is not modified at the same time.
+         * </p>
+         * 
+         * @param item
+         *            item that is checked
+         * @param artifactType
+         *            artifact type
+         * @return <code>true</code> if the item needs coverage in the artifact
+         *         type
+         */
+        public boolean needsArtifactType(final LinkedSpecificationItem item,
+                final String artifactType)
+        {
+            if (!isRegistered(item))
+            {
+                return item.getNeedsArtifactTypes().contains(artifactType);
+            }
+            final int index = this.artifactTypes.indexOf(artifactType);
+            if (index < 0)
+            {
+                return false;
+            }
+            if (index < BITS_PER_WORD)
+            {
+                return (this.neededMasks[item.getOrdinal()] & (1L << index)) != 0;
+            }
+            final BitSet wideMask = this.wideNeededMasks.get(item.getOrdinal());
+            return wideMask != null && wideMask.get(index);
+        }
+
+        private boolean isRegistered(final LinkedSpecificationItem item)
+        {
+            final int ordinal = item.getOrdinal();
+            return ordinal >= 0 && ordinal < this.items.size() && this.items.get(ordinal) == item;
+        }
+
+        private int register(final LinkedSpecificationItem item)
+        {
+            if (isRegistered(item))
+            {
+                return item.getOrdinal();
+            }
+            final int newOrdinal = this.items.size();
+            this.items.add(item);
+            item.setOrdinal(newOrdinal);
+            registerNeededArtifactTypes(item, newOrdinal);
+            return newOrdinal;
+        }
+
+        /**
+         * Record the needed artifact types of a new item as a bit mask. Artifact
+         * types beyond the first 64 of the dictionary go into a {@link BitSet}.
+         */
+        private void registerNeededArtifactTypes(final LinkedSpecificationItem item,
+                final int ordinal)
+        {
+            if (ordinal == this.neededMasks.length)
+            {
+                this.neededMasks = Arrays.copyOf(this.neededMasks, 2 * ordinal);
+            }
+            for (final String artifactType : item.getNeedsArtifactTypes())
+            {
+                final int index = indexArtifactType(artifactType);
+                this.needed.add(ordinal, index);
+                if (index < BITS_PER_WORD)
+                {
+                    this.neededMasks[ordinal] |= 1L << index;
+                }
+                else
+                {
+                    this.wideNeededMasks.computeIfAbsent(ordinal, key -> new BitSet()).set(index);
+                }
+            }
+        }
+
+        private int indexArtifactType(final String artifactType)
+        {
+            return this.artifactTypes.index(artifactType);
+        }
+
+        /**
+         * Freeze the graph and attach it to all contained items.
+         * 
+         * @return the link graph
+         */
+        public LinkGraph build()
+        {
+            final IntPairs allLinks = new IntPairs();
+            final ByteArray allStatuses = new ByteArray();
+            takeOverItemState(allLinks, allStatuses);
+            allLinks.addAll(this.links);
+            allStatuses.addAll(this.statuses);
+            final int itemCount = this.items.size();
+            final int[] offsets = new int[itemCount + 1];
+            final int[] targets = new int[allLinks.size()];
+            final byte[] sortedStatuses = new byte[allLinks.size()];
+            sortLinks(allLinks, allStatuses, offsets, targets, sortedStatuses);
+            final LinkGraph graph = new LinkGraph(this, offsets, targets, sortedStatuses);
+            for (int ordinal = 0; ordinal < itemCount; ++ordinal)
+            {
+                this.items.get(ordinal).attachToGraph(graph, ordinal);
+            }
+            return graph;
+        }
+
+        private void takeOverItemState(final IntPairs allLinks, final ByteArray allStatuses)
+        {
+            for (int ordinal = 0; ordinal < this.items.size(); ++ordinal)
+            {
+                final LinkedSpecificationItem item = this.items.get(ordinal);
+                for (final TracedLink link : item.getTracedLinks())
+                {
+                    allLinks.add(ordinal, register(link.getOtherLinkEnd()));
+                    allStatuses.add((byte) link.getStatus().ordinal());
+                }
+                for (final String artifactType : item.getCoveredArtifactTypes())
+                {
+                    this.covered.add(ordinal, indexArtifactType(artifactType));
+                }
+                for (final String artifactType : item.getOverCoveredArtifactTypes())
+                {
+                    this.overCovered.add(ordinal, indexArtifactType(artifactType));
+                }
+            }
+        }
+
+        /**
+         * Stable counting sort of the links, first by source item, then by
+         * status.
+         */
+        private static void sortLinks(final IntPairs links, final ByteArray statuses,
+                final int[] offsets, final int[] targets, final byte[] sortedStatuses)
+        {
+            final int linkCount = links.size();
+            for (int i = 0; i < linkCount; ++i)
+            {
+                ++offsets[links.first(i) + 1];
+            }
+            for (int ordinal = 1; ordinal < offsets.length; ++ordinal)
+            {
+                offsets[ordinal] += offsets[ordinal - 1];
+            }
+            final int[] bySource = new int[linkCount];
+            final int[] fill = Arrays.copyOf(offsets, offsets.length - 1);
+            for (int i = 0; i < linkCount; ++i)
+            {
+                bySource[fill[links.first(i)]++] = i;
+            }
+            final int[] statusOffsets = new int[STATUSES.length + 1];
+            for (int ordinal = 0; ordinal < offsets.length - 1; ++ordinal)
+            {
+                final int start = offsets[ordinal];
+                final int end = offsets[ordinal + 1];
+                Arrays.fill(statusOffsets, 0);
+                for (int i = start; i < end; ++i)
+                {
+                    ++statusOffsets[statuses.get(bySource[i]) + 1];
+                }
+                statusOffsets[0] = start;
+                for (int status = 1; status < statusOffsets.length; ++status)
+                {
+                    statusOffsets[status] += statusOffsets[status - 1];
+                }
+                for (int i = start; i < end; ++i)
+                {
+                    final int link = bySource[i];
+                    final int position = statusOffsets[statuses.get(link)]++;
+                    targets[position] = links.second(link);
+                    sortedStatuses[position] = statuses.get(link);
+                }
+            }
+        }
+    }
+
+    /**
+     * Growable list of pairs of primitive integers.
+     */
+    private static final class IntPairs
+    {
+        private int[] values = new int[32];
+        private int size = 0;
+
+        private void add(final int first, final int second)
+        {
+            if (2 * this.size + 2 > this.values.length)
+            {
+                this.values = Arrays.copyOf(this.values, 2 * this.values.length);
+            }
+            this.values[2 * this.size] = first;
+            this.values[2 * this.size + 1] = second;
+            ++this.size;
+        }
+
+        private void addAll(final IntPairs other)
+        {
+            for (int i = 0; i < other.size; ++i)
+            {
+                add(other.first(i), other.second(i));
+            }
+        }
+
+        private int first(final int index)
+        {
+            return this.values[2 * index];
+        }
+
+        private int second(final int index)
+        {
+            return this.values[2 * index + 1];
+        }
+
+        private int size()
+        {
+            return this.size;
+        }
+
+        private long[] toBitSets(final int itemCount, final int wordsPerItem)
+        {
+            final long[] bits = new long[itemCount * wordsPerItem];
+            for (int i = 0; i < this.size; ++i)
+            {
+                final int bit = second(i);
+                bits[first(i) * wordsPerItem + bit / BITS_PER_WORD] |= 1L << (bit
+                        % BITS_PER_WORD);
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * Growable list of primitive bytes.
+     */
+    private static final class ByteArray
+    {
+        private byte[] values = new byte[32];
+        private int size = 0;
+
+        private void add(final byte value)
+        {
+            if (this.size == this.values.length)
+            {
+                this.values = Arrays.copyOf(this.values, 2 * this.values.length);
+            }
+            this.values[this.size++] = value;
+        }
+
+        private void addAll(final ByteArray other)
+        {
+            for (int i = 0; i < other.size; ++i)
+            {
+                add(other.values[i]);
+            }
+        }
+
+        private byte get(final int index)
+        {
+            return this.values[index];
+        }
+    }
+}
@@ -28,15 +28,25 @@ import java.util.stream.Collectors;
 
 /**
  * Specification items with links that can be followed.
+ * 
+ * <p>
+ * While the items are being linked, each item keeps its links in its own
+ * collections. After linking the links of all items are usually frozen into a
+ * shared {@link LinkGraph} and the accessors of this class read from there.
+ * The links of an item attached to a graph are read-only. Adding links or
+ * covered artifact types to the item afterwards detaches it from the graph.
+ * </p>
  */
 // [impl->dsn~linked-specification-item~1]
 public class LinkedSpecificationItem
 {
     private final SpecificationItem item;
-    private final Map<LinkStatus, List<LinkedSpecificationItem>> links = new EnumMap<>(
-            LinkStatus.class);
-    private final Set<String> coveredArtifactTypes = new HashSet<>();
-    private final Set<String> overCoveredArtifactTypes = new HashSet<>();
+    private Map<LinkStatus, List<LinkedSpecificationItem>> links = null;
+    private Set<String> coveredArtifactTypes = null;
+    private Set<String> overCoveredArtifactTypes = null;
+    private LinkGraph graph = null;
+    private int ordinal = -1;
+    private DeepCoverageStatus deepCoverageStatus = null;
 
     /**
      * Create a new instance of class {@link LinkedSpecificationItem}.
@@ -154,17 +164,70 @@ public class LinkedSpecificationItem
      */
     public void addLinkToItemWithStatus(final LinkedSpecificationItem item, final LinkStatus status)
     {
+        detachFromGraph();
+        if (this.links == null)
+        {
+            this.links = new EnumMap<>(LinkStatus.class);
+        }
         this.links.computeIfAbsent(status, key -> new ArrayList<>());
         this.links.get(status).add(item);
+        discardDeepCoverageStatus();
+    }
+
+    int getOrdinal()
+    {
+        return this.ordinal;
+    }
+
+    void setOrdinal(final int ordinal)
+    {
+        this.ordinal = ordinal;
+    }
+
+    void attachToGraph(final LinkGraph graph, final int ordinal)
+    {
+        this.graph = graph;
+        this.ordinal = ordinal;
+        this.links = null;
+        this.coveredArtifactTypes = null;
+        this.overCoveredArtifactTypes = null;
+    }
+
+    private void detachFromGraph()
+    {
+        if (this.graph != null)
+        {
+            final LinkGraph oldGraph = this.graph;
+            this.links = new EnumMap<>(LinkStatus.class);
+            for (final Entry<LinkStatus, List<LinkedSpecificationItem>> entry : oldGraph
+                    .getLinks(this.ordinal).entrySet())
+            {
+                this.links.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+            this.coveredArtifactTypes = new HashSet<>(
+                    oldGraph.getCoveredArtifactTypes(this.ordinal));
+            this.overCoveredArtifactTypes = new HashSet<>(
+                    oldGraph.getOverCoveredArtifactTypes(this.ordinal));
+            this.graph = null;
+        }
     }
 
     /**
      * Get all links to the item
      *
-     * @return linked item
+     * @return linked item, read-only while the item is attached to a
+     *         {@link LinkGraph}
      */
     public Map<LinkStatus, List<LinkedSpecificationItem>> getLinks()
     {
+        if (this.graph != null)
+        {
+            return this.graph.getLinks(this.ordinal);
+        }
+        if (this.links == null)
+        {
+            this.links = new EnumMap<>(LinkStatus.class);
+        }
         return this.links;
     }
 
@@ -178,7 +241,12 @@ public class LinkedSpecificationItem
      */
     public List<LinkedSpecificationItem> getLinksByStatus(final LinkStatus status)
     {
-        final List<LinkedSpecificationItem> linksWithStatus = this.links.get(status);
+        if (this.graph != null)
+        {
+            return this.graph.getLinksByStatus(this.ordinal, status);
+        }
+        final List<LinkedSpecificationItem> linksWithStatus = (this.links == null) ? null
+                : this.links.get(status);
         return (linksWithStatus == null) ? Collections.emptyList()
                 : linksWithStatus;
     }
@@ -190,8 +258,12 @@ public class LinkedSpecificationItem
      */
     public List<TracedLink> getTracedLinks()
     {
+        if (this.graph != null)
+        {
+            return this.graph.getTracedLinks(this.ordinal);
+        }
         final List<TracedLink> tracedLinks = new ArrayList<>();
-        for (final Entry<LinkStatus, List<LinkedSpecificationItem>> entry : this.links.entrySet())
+        for (final Entry<LinkStatus, List<LinkedSpecificationItem>> entry : getLinks().entrySet())
         {
             for (final LinkedSpecificationItem other : entry.getValue())
             {
@@ -229,12 +301,24 @@ public class LinkedSpecificationItem
      */
     public void addCoveredArtifactType(final String artifactType)
     {
+        detachFromGraph();
+        if (this.coveredArtifactTypes == null)
+        {
+            this.coveredArtifactTypes = new HashSet<>();
+        }
         this.coveredArtifactTypes.add(artifactType);
+        discardDeepCoverageStatus();
     }
 
     public void addOverCoveredArtifactType(final String artifactType)
     {
+        detachFromGraph();
+        if (this.overCoveredArtifactTypes == null)
+        {
+            this.overCoveredArtifactTypes = new HashSet<>();
+        }
         this.overCoveredArtifactTypes.add(artifactType);
+        discardDeepCoverageStatus();
     }
 
     /**
@@ -244,7 +328,12 @@ public class LinkedSpecificationItem
      */
     public Set<String> getCoveredArtifactTypes()
     {
-        return this.coveredArtifactTypes;
+        if (this.graph != null)
+        {
+            return this.graph.getCoveredArtifactTypes(this.ordinal);
+        }
+        return (this.coveredArtifactTypes == null) ? Collections.emptySet()
+                : this.coveredArtifactTypes;
     }
 
     /**
@@ -254,8 +343,12 @@ public class LinkedSpecificationItem
      */
     public Set<String> getOverCoveredArtifactTypes()
     {
-
-        return this.overCoveredArtifactTypes;
+        if (this.graph != null)
+        {
+            return this.graph.getOverCoveredArtifactTypes(this.ordinal);
+        }
+        return (this.overCoveredArtifactTypes == null) ? Collections.emptySet()
+                : this.overCoveredArtifactTypes;
     }
 
     /**
@@ -265,6 +358,10 @@ public class LinkedSpecificationItem
      */
     public List<String> getUncoveredArtifactTypes()
     {
+        if (this.graph != null)
+        {
+            return this.graph.getUncoveredArtifactTypes(this.ordinal);
+        }
         final List<String> uncovered = new ArrayList<>(getNeedsArtifactTypes());
         uncovered.removeAll(getCoveredArtifactTypes());
         return uncovered;
@@ -278,21 +375,82 @@ public class LinkedSpecificationItem
      */
     public boolean isCoveredShallow()
     {
+        if (this.graph != null)
+        {
+            return this.graph.isCoveredShallow(this.ordinal);
+        }
         return this.getCoveredArtifactTypes().containsAll(this.getNeedsArtifactTypes());
     }
 
     /**
      * Check if this item and all items providing coverage for it are covered.
      * 
+     * <p>
+     * If the status was evaluated for the whole link graph before (see
+     * {@link #setDeepCoverageStatus(DeepCoverageStatus)}), the stored result is
+     * returned. Otherwise the status is determined by following the links
+     * recursively.
+     * </p>
+     * 
      * @return covered, uncovered or ring.
      */
     // [impl->dsn~tracing.deep-coverage~1]
     public DeepCoverageStatus getDeepCoverageStatus()
     {
+        if (this.deepCoverageStatus != null)
+        {
+            return this.deepCoverageStatus;
+        }
         return getDeepCoverageStatusEndRecursionStartingAt(this.getId(),
                 DeepCoverageStatus.COVERED);
     }
 
+    /**
+     * Store the deep coverage status evaluated for the complete link graph.
+     * 
+     * <p>
+     * Adding links or covered artifact types afterwards discards the stored
+     * status of this item and of all items it covers directly or indirectly.
+     * </p>
+     * 
+     * @param deepCoverageStatus
+     *            the evaluated deep coverage status
+     */
+    public void setDeepCoverageStatus(final DeepCoverageStatus deepCoverageStatus)
+    {
+        this.deepCoverageStatus = deepCoverageStatus;
+    }
+
+    /**
+     * Discard the stored deep coverage status of this item and of all items it
+     * covers directly or indirectly, since their status depends on the
+     * coverage of this item.
+     * 
+     * An item only gets a stored status after all items covering it got one.
+     * So the search can stop at items without a stored status.
+     */
+    private void discardDeepCoverageStatus()
+    {
+        final Deque<LinkedSpecificationItem> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty())
+        {
+            final LinkedSpecificationItem next = pending.pop();
+            if (next.deepCoverageStatus != null)
+            {
+                next.deepCoverageStatus = null;
+                for (final Entry<LinkStatus, List<LinkedSpecificationItem>> entry : next
+                        .getLinks().entrySet())
+                {
+                    if (entry.getKey().isOutgoing())
+                    {
+                        entry.getValue().forEach(pending::push);
+                    }
+                }
+            }
+        }
+    }
+
     // [impl->dsn~tracing.link-cycle~1]
     private DeepCoverageStatus getDeepCoverageStatusEndRecursionStartingAt(
             final SpecificationItemId startId, final DeepCoverageStatus worstStatusSeen)
@@ -327,7 +485,7 @@ public class LinkedSpecificationItem
 
     private List<LinkedSpecificationItem> getIncomingItems()
     {
-        return this.links.entrySet() //
+        return getLinks().entrySet() //
                 .stream() //
                 .filter(entry -> entry.getKey().isIncoming()) //
                 .flatMap(entry -> entry.getValue().stream()) //
@@ -364,12 +522,20 @@ public class LinkedSpecificationItem
      */
     public boolean hasLinks()
     {
-        return !this.links.isEmpty();
+        if (this.graph != null)
+        {
+            return this.graph.hasLinks(this.ordinal);
+        }
+        return (this.links != null) && !this.links.isEmpty();
     }
 
     private boolean hasBadLinks()
     {
-        for (final LinkStatus status : this.links.keySet())
+        if (this.graph != null)
+        {
+            return this.graph.hasLinkWithStatus(this.ordinal, LinkStatus::isBad);
+        }
+        for (final LinkStatus status : getLinks().keySet())
         {
             if (status.isBad())
             {
@@ -386,13 +552,16 @@ public class LinkedSpecificationItem
      */
     public int countOutgoingLinks()
     {
-        return countLinksWithPredicate(entry -> entry.getKey().isOutgoing());
+        return countLinksWithPredicate(LinkStatus::isOutgoing);
     }
 
-    private int countLinksWithPredicate(
-            final Predicate<Map.Entry<LinkStatus, List<LinkedSpecificationItem>>> predicate)
+    private int countLinksWithPredicate(final Predicate<LinkStatus> predicate)
     {
-        return this.links.entrySet().stream().filter(predicate)
+        if (this.graph != null)
+        {
+            return this.graph.countLinks(this.ordinal, predicate);
+        }
+        return getLinks().entrySet().stream().filter(entry -> predicate.test(entry.getKey()))
                 .mapToInt(entry -> entry.getValue().size()).sum();
     }
 
@@ -403,7 +572,7 @@ public class LinkedSpecificationItem
      */
     public int countOutgoingBadLinks()
     {
-        return countLinksWithPredicate(entry -> entry.getKey().isBadOutgoing());
+        return countLinksWithPredicate(LinkStatus::isBadOutgoing);
     }
 
     /**
@@ -413,7 +582,7 @@ public class LinkedSpecificationItem
      */
     public int countIncomingLinks()
     {
-        return countLinksWithPredicate(entry -> entry.getKey().isIncoming());
+        return countLinksWithPredicate(LinkStatus::isIncoming);
     }
 
     /**
@@ -423,7 +592,7 @@ public class LinkedSpecificationItem
      */
     public int countIncomingBadLinks()
     {
-        return countLinksWithPredicate(entry -> entry.getKey().isBadIncoming());
+        return countLinksWithPredicate(LinkStatus::isBadIncoming);
     }
 
     /**
@@ -433,7 +602,7 @@ public class LinkedSpecificationItem
      */
     public int countDuplicateLinks()
     {
-        return countLinksWithPredicate(entry -> entry.getKey().isDuplicate());
+        return countLinksWithPredicate(LinkStatus::isDuplicate);
     }
 
     /**
@@ -34,8 +34,11 @@ public class SpecificationItem
     private final SpecificationItemId id;
     private final String title;
     private final String description;
+    private final TextRange descriptionRange;
     private final String rationale;
+    private final TextRange rationaleRange;
     private final String comment;
+    private final TextRange commentRange;
     private final Location location;
     private final ItemStatus status;
     private final List<SpecificationItemId> coveredIds;
@@ -49,8 +52,11 @@ public class SpecificationItem
         this.id = builder.id;
         this.title = builder.title;
         this.description = builder.description;
+        this.descriptionRange = builder.descriptionRange;
         this.rationale = builder.rationale;
+        this.rationaleRange = builder.rationaleRange;
         this.comment = builder.comment;
+        this.commentRange = builder.commentRange;
         this.location = builder.location;
         this.status = builder.status;
         this.coveredIds = builder.coveredIds;
@@ -118,32 +124,78 @@ public class SpecificationItem
 
     /**
      * Get the description of the specification item
+     * 
+     * <p>
+     * If the description was imported as a {@link TextRange}, it is read from
+     * its source file on each call.
+     * </p>
      *
      * @return description
      */
     public String getDescription()
     {
-        return this.description;
+        return readText(this.description, this.descriptionRange);
     }
 
     /**
      * Get the rationale of the specification item
+     * 
+     * <p>
+     * If the rationale was imported as a {@link TextRange}, it is read from
+     * its source file on each call.
+     * </p>
      *
      * @return rationale
      */
     public String getRationale()
     {
-        return this.rationale;
+        return readText(this.rationale, this.rationaleRange);
     }
 
     /**
      * Get the comment of the specification item
+     * 
+     * <p>
+     * If the comment was imported as a {@link TextRange}, it is read from
+     * its source file on each call.
+     * </p>
      *
      * @return comment
      */
     public String getComment()
     {
-        return this.comment;
+        return readText(this.comment, this.commentRange);
+    }
+
+    private static String readText(final String text, final TextRange range)
+    {
+        return (range == null) ? text : range.getText();
+    }
+
+    /**
+     * Get the text range from which a text field is read without reading it
+     * 
+     * <p>
+     * This allows storing or passing on the item while keeping its texts lazy.
+     * </p>
+     * 
+     * @param field
+     *            the text field
+     * @return the text range or <code>null</code> if the field holds a string
+     */
+    public TextRange getTextRange(final ItemTextField field)
+    {
+        switch (field)
+        {
+        case DESCRIPTION:
+            return this.descriptionRange;
+        case RATIONALE:
+            return this.rationaleRange;
+        case COMMENT:
+            return this.commentRange;
+        default:
+            return null;
+        }
     }
 
     /**
@@ -247,15 +299,21 @@ public class SpecificationItem
         final int prime = 31;
         int result = 1;
         result = prime * result + ((this.comment == null) ? 0 : this.comment.hashCode());
+        result = prime * result
+                + ((this.commentRange == null) ? 0 : this.commentRange.hashCode());
         result = prime * result + ((this.coveredIds == null) ? 0 : this.coveredIds.hashCode());
         result = prime * result + ((this.dependOnIds == null) ? 0 : this.dependOnIds.hashCode());
         result = prime * result + ((this.description == null) ? 0 : this.description.hashCode());
+        result = prime * result
+                + ((this.descriptionRange == null) ? 0 : this.descriptionRange.hashCode());
         result = prime * result + (this.forwards ? 1231 : 1237);
         result = prime * result + ((this.id == null) ? 0 : this.id.hashCode());
         result = prime * result + ((this.location == null) ? 0 : this.location.hashCode());
         result = prime * result
                 + ((this.needsArtifactTypes == null) ? 0 : this.needsArtifactTypes.hashCode());
         result = prime * result + ((this.rationale == null) ? 0 : this.rationale.hashCode());
+        result = prime * result
+                + ((this.rationaleRange == null) ? 0 : this.rationaleRange.hashCode());
         result = prime * result + ((this.status == null) ? 0 : this.status.hashCode());
         result = prime * result + ((this.tags == null) ? 0 : this.tags.hashCode());
         result = prime * result + ((this.title == null) ? 0 : this.title.hashCode());
@@ -290,6 +348,17 @@ public class SpecificationItem
         {
             return false;
         }
+        if (this.commentRange == null)
+        {
+            if (other.commentRange != null)
+            {
+                return false;
+            }
+        }
+        else if (!this.commentRange.equals(other.commentRange))
+        {
+            return false;
+        }
         if (this.coveredIds == null)
         {
             if (other.coveredIds != null)
@@ -323,6 +392,17 @@ public class SpecificationItem
         {
             return false;
         }
+        if (this.descriptionRange == null)
+        {
+            if (other.descriptionRange != null)
+            {
+                return false;
+            }
+        }
+        else if (!this.descriptionRange.equals(other.descriptionRange))
+        {
+            return false;
+        }
         if (this.forwards != other.forwards)
         {
             return false;
@@ -371,6 +451,17 @@ public class SpecificationItem
         {
             return false;
         }
+        if (this.rationaleRange == null)
+        {
+            if (other.rationaleRange != null)
+            {
+                return false;
+            }
+        }
+        else if (!this.rationaleRange.equals(other.rationaleRange))
+        {
+            return false;
+        }
         if (this.status != other.status)
         {
             return false;
@@ -418,8 +509,11 @@ public class SpecificationItem
         private SpecificationItemId id;
         private String title;
         private String description;
+        private TextRange descriptionRange;
         private String rationale;
+        private TextRange rationaleRange;
         private String comment;
+        private TextRange commentRange;
         private ItemStatus status;
         private Location location;
         private final List<SpecificationItemId> coveredIds;
@@ -501,6 +595,22 @@ public class SpecificationItem
         public Builder description(final String description)
         {
             this.description = description;
+            this.descriptionRange = null;
+            return this;
+        }
+
+        /**
+         * Set the description to a text range that is read only when the
+         * description is requested
+         *
+         * @param descriptionRange
+         *            the text range of the description
+         * @return this builder instance
+         */
+        public Builder descriptionRange(final TextRange descriptionRange)
+        {
+            this.description = null;
+            this.descriptionRange = descriptionRange;
             return this;
         }
 
@@ -514,6 +624,22 @@ public class SpecificationItem
         public Builder rationale(final String rationale)
         {
             this.rationale = rationale;
+            this.rationaleRange = null;
+            return this;
+        }
+
+        /**
+         * Set the rationale to a text range that is read only when the
+         * rationale is requested
+         *
+         * @param rationaleRange
+         *            the text range of the rationale
+         * @return this builder instance
+         */
+        public Builder rationaleRange(final TextRange rationaleRange)
+        {
+            this.rationale = null;
+            this.rationaleRange = rationaleRange;
             return this;
         }
 
@@ -527,6 +653,22 @@ public class SpecificationItem
         public Builder comment(final String comment)
         {
             this.comment = comment;
+            this.commentRange = null;
+            return this;
+        }
+
+        /**
+         * Set the comment to a text range that is read only when the
+         * comment is requested
+         *
+         * @param commentRange
+         *            the text range of the comment
+         * @return this builder instance
+         */
+        public Builder commentRange(final TextRange commentRange)
+        {
+            this.comment = null;
+            this.commentRange = commentRange;
             return this;
         }
 
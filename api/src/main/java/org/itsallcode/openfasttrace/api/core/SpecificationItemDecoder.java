@@ -0,0 +1,295 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Reads {@link SpecificationItem}s and {@link CoverageTag}s written by a
+ * {@link SpecificationItemEncoder}.
+ */
+public final class SpecificationItemDecoder
+{
+    private static final ItemStatus[] STATUSES = ItemStatus.values();
+
+    private final DataInput input;
+    private final ReferenceReader references;
+    private final TextRange.Source rangeSource;
+
+    /**
+     * Create a new {@link SpecificationItemDecoder}
+     * 
+     * @param input
+     *            input to read from
+     * @param references
+     *            reader for artifact types, names, tags and paths matching the
+     *            reference writer of the encoder
+     */
+    public SpecificationItemDecoder(final DataInput input, final ReferenceReader references)
+    {
+        this(input, references, null);
+    }
+
+    /**
+     * Create a new {@link SpecificationItemDecoder} for items with text
+     * ranges
+     * 
+     * @param input
+     *            input to read from
+     * @param references
+     *            reader for artifact types, names, tags and paths matching the
+     *            reference writer of the encoder
+     * @param rangeSource
+     *            source for the text ranges kept by the encoder
+     */
+    public SpecificationItemDecoder(final DataInput input, final ReferenceReader references,
+            final TextRange.Source rangeSource)
+    {
+        this.input = input;
+        this.references = references;
+        this.rangeSource = rangeSource;
+    }
+
+    /**
+     * Create a new {@link SpecificationItemDecoder} for items with all strings
+     * written inline
+     * 
+     * @param input
+     *            input to read from
+     * @return the decoder
+     */
+    public static SpecificationItemDecoder inline(final DataInput input)
+    {
+        return new SpecificationItemDecoder(input, SpecificationItemDecoder::readText);
+    }
+
+    /**
+     * Read the next item
+     * 
+     * @return the item
+     * @throws IOException
+     *             if reading fails or the data is corrupt
+     */
+    public SpecificationItem read() throws IOException
+    {
+        final SpecificationItem.Builder builder = SpecificationItem.builder() //
+                .id(readId()) //
+                .title(readText(this.input));
+        readLazyText(builder::description, builder::descriptionRange);
+        readLazyText(builder::rationale, builder::rationaleRange);
+        readLazyText(builder::comment, builder::commentRange);
+        builder.status(readStatus());
+        for (int i = readNumber(this.input); i > 0; --i)
+        {
+            builder.addCoveredId(readId());
+        }
+        for (int i = readNumber(this.input); i > 0; --i)
+        {
+            builder.addDependOnId(readId());
+        }
+        for (int i = readNumber(this.input); i > 0; --i)
+        {
+            builder.addNeedsArtifactType(this.references.readReference(this.input));
+        }
+        for (int i = readNumber(this.input); i > 0; --i)
+        {
+            builder.addTag(this.references.readReference(this.input));
+        }
+        return builder.location(readLocation()) //
+                .forwards(this.input.readBoolean()) //
+                .build();
+    }
+
+    /**
+     * Read the next coverage tag
+     * 
+     * @return the coverage tag
+     * @throws IOException
+     *             if reading fails or the data is corrupt
+     */
+    public CoverageTag readCoverageTag() throws IOException
+    {
+        return CoverageTag.builder() //
+                .coveringArtifactType(this.references.readReference(this.input)) //
+                .coveredId(readId()) //
+                .location(this.references.readReference(this.input),
+                        readSignedNumber(this.input)) //
+                .checksum(this.input.readLong()) //
+                .build();
+    }
+
+    private void readLazyText(final Consumer<String> textConsumer,
+            final Consumer<TextRange> rangeConsumer) throws IOException
+    {
+        final int header = readNumber(this.input);
+        if (header == SpecificationItemEncoder.TEXT_RANGE)
+        {
+            if (this.rangeSource == null)
+            {
+                throw new IOException("Text range without source");
+            }
+            final long start = readLong(this.input);
+            rangeConsumer.accept(this.rangeSource.range(start, start + readLong(this.input)));
+        }
+        else
+        {
+            textConsumer.accept(readText(this.input, header));
+        }
+    }
+
+    private SpecificationItemId readId() throws IOException
+    {
+        final String artifactType = this.references.readReference(this.input);
+        final String name = this.references.readReference(this.input);
+        return SpecificationItemId.createId(artifactType, name, readSignedNumber(this.input));
+    }
+
+    private ItemStatus readStatus() throws IOException
+    {
+        final int ordinal = this.input.readUnsignedByte();
+        if (ordinal >= STATUSES.length)
+        {
+            throw new IOException("Invalid item status " + ordinal);
+        }
+        return STATUSES[ordinal];
+    }
+
+    private Location readLocation() throws IOException
+    {
+        if (!this.input.readBoolean())
+        {
+            return null;
+        }
+        return Location.builder() //
+                .path(this.references.readReference(this.input)) //
+                .line(readSignedNumber(this.input)) //
+                .column(readSignedNumber(this.input)) //
+                .build();
+    }
+
+    /**
+     * Read a text written inline
+     * 
+     * @param input
+     *            input to read from
+     * @return the text or <code>null</code>
+     * @throws IOException
+     *             if reading fails or the data is corrupt
+     */
+    public static String readText(final DataInput input) throws IOException
+    {
+        return readText(input, readNumber(input));
+    }
+
+    private static String readText(final DataInput input, final int header) throws IOException
+    {
+        if (header == SpecificationItemEncoder.NULL_TEXT)
+        {
+            return null;
+        }
+        if ((header & SpecificationItemEncoder.INLINE_TEXT_FLAG) == 0)
+        {
+            throw new IOException("Invalid text header " + header);
+        }
+        final byte[] bytes = new byte[header >>> 1];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read an unsigned variable-length integer of up to 31 bits
+     * 
+     * @param input
+     *            input to read from
+     * @return the value
+     * @throws IOException
+     *             if reading fails or the value is too large
+     */
+    public static int readNumber(final DataInput input) throws IOException
+    {
+        final int value = readRawNumber(input);
+        if (value < 0)
+        {
+            throw new IOException("Invalid number " + Integer.toUnsignedString(value));
+        }
+        return value;
+    }
+
+    private static long readLong(final DataInput input) throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE - 1; shift += 7)
+        {
+            final int next = input.readUnsignedByte();
+            value |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Number too long");
+    }
+
+    private static int readSignedNumber(final DataInput input) throws IOException
+    {
+        final int value = readRawNumber(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readRawNumber(final DataInput input) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7)
+        {
+            final int next = input.readUnsignedByte();
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Number too long");
+    }
+
+    /**
+     * Reads strings written by a
+     * {@link SpecificationItemEncoder.ReferenceWriter}
+     */
+    @FunctionalInterface
+    public interface ReferenceReader
+    {
+        /**
+         * Read a string or a reference to it
+         * 
+         * @param input
+         *            input to read from
+         * @return the string or <code>null</code>
+         * @throws IOException
+         *             if reading fails or the data is corrupt
+         */
+        String readReference(DataInput input) throws IOException;
+    }
+}
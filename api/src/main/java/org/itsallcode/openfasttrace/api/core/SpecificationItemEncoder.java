@@ -0,0 +1,321 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes {@link SpecificationItem}s in the binary item encoding that the import
+ * cache, the snapshot format and temporary files of exporters share.
+ * 
+ * <p>
+ * Numbers are written as variable-length integers, so that small values take a
+ * single byte. Texts are written inline. Strings that repeat across items,
+ * i.e. artifact types, names, tags and paths, are written by a
+ * {@link ReferenceWriter}, either inline or as reference into a
+ * {@link StringDictionary}. Items written with this class are read with a
+ * {@link SpecificationItemDecoder} that uses the matching reference reader.
+ * </p>
+ * <p>
+ * The encoding of an item is:
+ * </p>
+ * <ol>
+ * <li>ID: artifact type, name and revision</li>
+ * <li>title, description, rationale and comment</li>
+ * <li>status as ordinal byte</li>
+ * <li>covered IDs and depend-on IDs, each with their count</li>
+ * <li>needed artifact types and tags, each with their count</li>
+ * <li>location: presence flag, path, line and column</li>
+ * <li>forwarding flag</li>
+ * </ol>
+ * <p>
+ * Texts start with a header of <code>0</code> for <code>null</code> or the
+ * UTF-8 length shifted left by one with the lowest bit set. Revisions, lines
+ * and columns may be negative and are zig-zag encoded.
+ * </p>
+ * <p>
+ * An encoder can keep the lazy {@link TextRange}s of descriptions, rationales
+ * and comments that are read from one file. These are written as header
+ * {@value #TEXT_RANGE} followed by start and length of the range, so that the
+ * text is not read while encoding. A decoder needs the file as
+ * {@link TextRange.Source} to read them back. All other texts are read and
+ * written inline.
+ * </p>
+ * <p>
+ * {@link CoverageTag}s have their own, shorter encoding: covering artifact
+ * type, covered ID, path, line and checksum.
+ * </p>
+ */
+public final class SpecificationItemEncoder
+{
+    static final int NULL_TEXT = 0;
+    static final int INLINE_TEXT_FLAG = 1;
+    static final int TEXT_RANGE = 2;
+
+    private final DataOutput output;
+    private final ReferenceWriter references;
+    private final TextRange.Source rangeSource;
+
+    /**
+     * Create a new {@link SpecificationItemEncoder}
+     * 
+     * @param output
+     *            output to write to
+     * @param references
+     *            writer for artifact types, names, tags and paths
+     */
+    public SpecificationItemEncoder(final DataOutput output, final ReferenceWriter references)
+    {
+        this(output, references, null);
+    }
+
+    /**
+     * Create a new {@link SpecificationItemEncoder} that keeps text ranges
+     * 
+     * @param output
+     *            output to write to
+     * @param references
+     *            writer for artifact types, names, tags and paths
+     * @param rangeSource
+     *            file whose text ranges are written as ranges. Ranges are only
+     *            kept if their source has the same path and charset.
+     */
+    public SpecificationItemEncoder(final DataOutput output, final ReferenceWriter references,
+            final TextRange.Source rangeSource)
+    {
+        this.output = output;
+        this.references = references;
+        this.rangeSource = rangeSource;
+    }
+
+    /**
+     * Create a new {@link SpecificationItemEncoder} that writes all strings
+     * inline
+     * 
+     * @param output
+     *            output to write to
+     * @return the encoder
+     */
+    public static SpecificationItemEncoder inline(final DataOutput output)
+    {
+        return new SpecificationItemEncoder(output, SpecificationItemEncoder::writeText);
+    }
+
+    /**
+     * Write a single item
+     * 
+     * @param item
+     *            the item to write
+     * @throws IOException
+     *             if writing fails
+     */
+    public void write(final SpecificationItem item) throws IOException
+    {
+        writeId(item.getId());
+        writeText(this.output, item.getTitle());
+        writeLazyText(item, ItemTextField.DESCRIPTION);
+        writeLazyText(item, ItemTextField.RATIONALE);
+        writeLazyText(item, ItemTextField.COMMENT);
+        this.output.writeByte(item.getStatus().ordinal());
+        writeIds(item.getCoveredIds());
+        writeIds(item.getDependOnIds());
+        writeReferences(item.getNeedsArtifactTypes());
+        writeReferences(item.getTags());
+        writeLocation(item.getLocation());
+        this.output.writeBoolean(item.isForwarding());
+    }
+
+    /**
+     * Write a single coverage tag
+     * 
+     * @param tag
+     *            the coverage tag to write
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeCoverageTag(final CoverageTag tag) throws IOException
+    {
+        this.references.writeReference(this.output, tag.getCoveringArtifactType());
+        writeId(tag.getCoveredId());
+        this.references.writeReference(this.output, tag.getPath());
+        writeSignedNumber(this.output, tag.getLine());
+        this.output.writeLong(tag.getChecksum());
+    }
+
+    private void writeLazyText(final SpecificationItem item, final ItemTextField field)
+            throws IOException
+    {
+        final TextRange range = item.getTextRange(field);
+        if (range != null && isRangeSource(range.getSource()))
+        {
+            writeNumber(this.output, TEXT_RANGE);
+            writeLong(this.output, range.getStart());
+            writeLong(this.output, range.getEnd() - range.getStart());
+        }
+        else
+        {
+            writeText(this.output, getText(item, field));
+        }
+    }
+
+    private boolean isRangeSource(final TextRange.Source source)
+    {
+        return this.rangeSource != null && source.getPath().equals(this.rangeSource.getPath())
+                && source.getCharset().equals(this.rangeSource.getCharset());
+    }
+
+    private static String getText(final SpecificationItem item, final ItemTextField field)
+    {
+        switch (field)
+        {
+        case DESCRIPTION:
+            return item.getDescription();
+        case RATIONALE:
+            return item.getRationale();
+        case COMMENT:
+            return item.getComment();
+        default:
+            return item.getTitle();
+        }
+    }
+
+    private void writeIds(final List<SpecificationItemId> ids) throws IOException
+    {
+        writeNumber(this.output, ids.size());
+        for (final SpecificationItemId id : ids)
+        {
+            writeId(id);
+        }
+    }
+
+    private void writeId(final SpecificationItemId id) throws IOException
+    {
+        this.references.writeReference(this.output, id.getArtifactType());
+        this.references.writeReference(this.output, id.getName());
+        writeSignedNumber(this.output, id.getRevision());
+    }
+
+    private void writeReferences(final List<String> values) throws IOException
+    {
+        writeNumber(this.output, values.size());
+        for (final String value : values)
+        {
+            this.references.writeReference(this.output, value);
+        }
+    }
+
+    private void writeLocation(final Location location) throws IOException
+    {
+        this.output.writeBoolean(location != null);
+        if (location != null)
+        {
+            this.references.writeReference(this.output, location.getPath());
+            writeSignedNumber(this.output, location.getLine());
+            writeSignedNumber(this.output, location.getColumn());
+        }
+    }
+
+    /**
+     * Write a text inline
+     * 
+     * @param output
+     *            output to write to
+     * @param text
+     *            the text or <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeText(final DataOutput output, final String text) throws IOException
+    {
+        if (text == null)
+        {
+            writeNumber(output, NULL_TEXT);
+        }
+        else
+        {
+            final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeNumber(output, (bytes.length << 1) | INLINE_TEXT_FLAG);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Write an unsigned variable-length integer of up to 32 bits
+     * 
+     * @param output
+     *            output to write to
+     * @param value
+     *            the value, interpreted as unsigned
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeNumber(final DataOutput output, final int value) throws IOException
+    {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0)
+        {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+
+    private static void writeLong(final DataOutput output, final long value) throws IOException
+    {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0)
+        {
+            output.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        output.writeByte((int) remaining);
+    }
+
+    private static void writeSignedNumber(final DataOutput output, final int value)
+            throws IOException
+    {
+        writeNumber(output, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes strings that repeat across items
+     */
+    @FunctionalInterface
+    public interface ReferenceWriter
+    {
+        /**
+         * Write a string or a reference to it
+         * 
+         * @param output
+         *            output to write to
+         * @param value
+         *            the string or <code>null</code>
+         * @throws IOException
+         *             if writing fails
+         */
+        void writeReference(DataOutput output, String value) throws IOException;
+    }
+}
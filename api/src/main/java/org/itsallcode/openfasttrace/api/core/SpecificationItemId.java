@@ -33,6 +33,10 @@ import javax.annotation.processing.Generated;
  * Specification item ID
  *
  * Consists of an artifact type (e.g. "test"), a name and a revision number.
+ *
+ * IDs created by a {@link Builder} are interned: identical IDs share one
+ * instance while they are in use, have a unique ordinal and compare mostly by
+ * reference.
  */
 // [impl->dsn~specification-item-id~1]
 public class SpecificationItemId implements Comparable<SpecificationItemId>
@@ -58,20 +62,34 @@ public class SpecificationItemId implements Comparable<SpecificationItemId>
             + ITEM_REVISION_PATTERN;
     private static final int ARTIFACT_TYPE_MATCHING_GROUP = 1;
     private static final int NAME_MATCHING_GROUP = 2;
-    private static final int REVISION_MATCHING_GROUP = 3;
     public static final Pattern ID_PATTERN = Pattern.compile(ID);
     public static final Pattern LEGACY_NAME_PATTERN = Pattern.compile(LEGACY_ID_NAME);
     public static final Pattern LEGACY_ID_PATTERN = Pattern.compile(LEGACY_ID);
+    private static final SpecificationItemIdTable ID_TABLE = new SpecificationItemIdTable();
+    private static final int PARSE_CACHE_SIZE = 4096;
+    private static final SpecificationItemIdParser PARSER = new SpecificationItemIdParser(ID_TABLE,
+            PARSE_CACHE_SIZE);
+    private static final int NOT_INTERNED = -1;
 
     private final String name;
     private final int revision;
     private final String artifactType;
+    private final int cachedHashCode;
+    private final int ordinal;
 
     protected SpecificationItemId(final String name, final String artifactType, final int revision)
+    {
+        this(name, artifactType, revision, NOT_INTERNED);
+    }
+
+    SpecificationItemId(final String name, final String artifactType, final int revision,
+            final int ordinal)
     {
         this.name = name;
         this.artifactType = artifactType;
         this.revision = revision;
+        this.ordinal = ordinal;
+        this.cachedHashCode = calculateHashCode();
     }
 
     /**
@@ -104,15 +122,36 @@ public class SpecificationItemId implements Comparable<SpecificationItemId>
         return this.artifactType;
     }
 
+    /**
+     * Get the ordinal of this ID in the table of interned IDs
+     *
+     * @return the ordinal or <code>-1</code> if the ID is not interned
+     */
+    public int getOrdinal()
+    {
+        return this.ordinal;
+    }
+
     @Override
-    @Generated(value = "org.eclipse.Eclipse")
     public final int hashCode()
+    {
+        return this.cachedHashCode;
+    }
+
+    private int calculateHashCode()
+    {
+        return calculateHashCode(this.artifactType, this.name, this.revision);
+    }
+
+    @Generated(value = "org.eclipse.Eclipse")
+    static int calculateHashCode(final String artifactType, final String name,
+            final int revision)
     {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((this.artifactType == null) ? 0 : this.artifactType.hashCode());
-        result = prime * result + ((this.name == null) ? 0 : this.name.hashCode());
-        result = prime * result + this.revision;
+        result = prime * result + ((artifactType == null) ? 0 : artifactType.hashCode());
+        result = prime * result + ((name == null) ? 0 : name.hashCode());
+        result = prime * result + revision;
         return result;
     }
 
@@ -314,17 +353,13 @@ public class SpecificationItemId implements Comparable<SpecificationItemId>
          */
         public SpecificationItemId build()
         {
-            if (this.id == null)
+            if (this.id != null)
             {
-                validateFields();
-                cleanUpLegacyIds();
+                return PARSER.parse(this.id);
             }
-            else
-            {
-                parseId();
-            }
-
-            return new SpecificationItemId(this.name, this.artifactType, this.revision);
+            validateFields();
+            cleanUpLegacyIds();
+            return ID_TABLE.intern(this.artifactType, this.name, this.revision);
         }
 
         private void validateFields()
@@ -369,50 +404,6 @@ public class SpecificationItemId implements Comparable<SpecificationItemId>
                 this.name = matcher.group(NAME_MATCHING_GROUP);
             }
         }
-
-        private void parseId()
-        {
-            final Matcher matcher = ID_PATTERN.matcher(this.id);
-            if (matcher.matches())
-            {
-                setIdPartsFromMatches(matcher);
-            }
-            else
-            {
-                final Matcher legacyMatcher = LEGACY_ID_PATTERN.matcher(this.id);
-                if (legacyMatcher.matches())
-                {
-                    setIdPartsFromMatches(legacyMatcher);
-                }
-                else
-                {
-                    throw new IllegalStateException("String \"" + this.id
-                            + "\" cannot be parsed to a specification item ID");
-                }
-            }
-        }
-
-        private void setIdPartsFromMatches(final Matcher matcher)
-        {
-            this.artifactType = matcher.group(ARTIFACT_TYPE_MATCHING_GROUP);
-            this.name = matcher.group(NAME_MATCHING_GROUP);
-            parseRevision(matcher.group(REVISION_MATCHING_GROUP));
-        }
-
-        private void parseRevision(final String text)
-        {
-            try
-            {
-                this.revision = Integer.parseInt(text);
-            }
-            catch (final NumberFormatException exception)
-            {
-                throw new IllegalArgumentException(
-                        "Error parsing version number from specification item ID: \"" + this.id
-                                + "\"",
-                        exception);
-            }
-        }
     }
 
     @Override
@@ -0,0 +1,288 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Hand-written parser for the textual form of {@link SpecificationItemId}s.
+ * 
+ * <p>
+ * The parser accepts exactly the strings that match
+ * {@link SpecificationItemId#ID_PATTERN} or, failing that,
+ * {@link SpecificationItemId#LEGACY_ID_PATTERN}. It reads each string in a
+ * single pass without a regular expression engine.
+ * </p>
+ * <p>
+ * The same covered IDs appear thousands of times in a code base, so the
+ * parser remembers the last parsed text in each slot of a small direct-mapped
+ * cache. The cache has a fixed size and needs no locks: entries are immutable
+ * and a slot that another thread overwrites concurrently only causes a cache
+ * miss.
+ * </p>
+ */
+final class SpecificationItemIdParser
+{
+    private static final int MAX_SAFE_REVISION_DIGITS = 9;
+
+    private final SpecificationItemIdTable table;
+    private final CacheEntry[] cache;
+
+    /**
+     * Create a new parser.
+     * 
+     * @param table
+     *            table that interns the parsed IDs
+     * @param cacheSize
+     *            number of cache slots, must be a power of two
+     */
+    SpecificationItemIdParser(final SpecificationItemIdTable table, final int cacheSize)
+    {
+        this.table = table;
+        this.cache = new CacheEntry[cacheSize];
+    }
+
+    /**
+     * Parse a specification item ID.
+     * 
+     * @param text
+     *            textual form of the ID
+     * @return the interned ID
+     * @throws IllegalStateException
+     *             if the text is not a valid ID
+     * @throws IllegalArgumentException
+     *             if the revision is too large
+     */
+    SpecificationItemId parse(final String text)
+    {
+        final int hash = text.hashCode();
+        final int slot = (hash ^ (hash >>> 16)) & (this.cache.length - 1);
+        final CacheEntry entry = this.cache[slot];
+        if (entry != null && entry.text.equals(text))
+        {
+            return entry.id;
+        }
+        final SpecificationItemId id = parseUncached(text);
+        this.cache[slot] = new CacheEntry(text, id);
+        return id;
+    }
+
+    private SpecificationItemId parseUncached(final String text)
+    {
+        SpecificationItemId id = parseId(text);
+        if (id == null)
+        {
+            id = parseLegacyId(text);
+        }
+        if (id == null)
+        {
+            throw new IllegalStateException(
+                    "String \"" + text + "\" cannot be parsed to a specification item ID");
+        }
+        return id;
+    }
+
+    /**
+     * Parse an ID of the form <code>type~name~revision</code>.
+     */
+    private SpecificationItemId parseId(final String text)
+    {
+        final int typeEnd = skipLetters(text, 0);
+        if (typeEnd == 0 || !isCharAt(text, typeEnd, '~'))
+        {
+            return null;
+        }
+        final int nameStart = typeEnd + 1;
+        final int nameEnd = skipName(text, nameStart);
+        if (nameEnd == nameStart || !isCharAt(text, nameEnd, '~'))
+        {
+            return null;
+        }
+        return createId(text, typeEnd, nameStart, nameEnd, nameEnd + 1);
+    }
+
+    /**
+     * Parse an ID of the form <code>type:name, vrevision</code> or
+     * <code>type~subtype:name, vrevision</code>.
+     */
+    private SpecificationItemId parseLegacyId(final String text)
+    {
+        final int typeEnd = skipLetters(text, 0);
+        if (typeEnd == 0)
+        {
+            return null;
+        }
+        int position = typeEnd;
+        if (isCharAt(text, position, '~'))
+        {
+            final int subTypeEnd = skipLetters(text, position + 1);
+            if (subTypeEnd == position + 1)
+            {
+                return null;
+            }
+            position = subTypeEnd;
+        }
+        if (!isCharAt(text, position, ':'))
+        {
+            return null;
+        }
+        final int nameStart = position + 1;
+        final int nameEnd = skipName(text, nameStart);
+        if (nameEnd == nameStart || !isCharAt(text, nameEnd, ','))
+        {
+            return null;
+        }
+        position = nameEnd + 1;
+        while (isCharAt(text, position, ' '))
+        {
+            ++position;
+        }
+        if (!isCharAt(text, position, 'v'))
+        {
+            return null;
+        }
+        return createId(text, typeEnd, nameStart, nameEnd, position + 1);
+    }
+
+    private SpecificationItemId createId(final String text, final int typeEnd,
+            final int nameStart, final int nameEnd, final int revisionStart)
+    {
+        final int revisionEnd = skipDigits(text, revisionStart);
+        if (revisionEnd == revisionStart || revisionEnd != text.length())
+        {
+            return null;
+        }
+        return this.table.intern(text.substring(0, typeEnd), text.substring(nameStart, nameEnd),
+                parseRevision(text, revisionStart, revisionEnd));
+    }
+
+    private static int parseRevision(final String text, final int start, final int end)
+    {
+        if (end - start > MAX_SAFE_REVISION_DIGITS)
+        {
+            try
+            {
+                return Integer.parseInt(text.substring(start, end));
+            }
+            catch (final NumberFormatException exception)
+            {
+                throw new IllegalArgumentException(
+                        "Error parsing version number from specification item ID: \"" + text
+                                + "\"",
+                        exception);
+            }
+        }
+        int revision = 0;
+        for (int i = start; i < end; ++i)
+        {
+            revision = 10 * revision + (text.charAt(i) - '0');
+        }
+        return revision;
+    }
+
+    /**
+     * Skip a name of dot-separated parts. Each part starts with a letter
+     * followed by letters, digits, underscores and hyphens.
+     * 
+     * @return end of the name or <code>start</code> if there is no name
+     */
+    private static int skipName(final String text, final int start)
+    {
+        if (!isLetterAt(text, start))
+        {
+            return start;
+        }
+        int position = start + 1;
+        while (true)
+        {
+            while (position < text.length() && isNameChar(text.charAt(position)))
+            {
+                ++position;
+            }
+            if (isCharAt(text, position, '.') && isLetterAt(text, position + 1))
+            {
+                position += 2;
+            }
+            else
+            {
+                return position;
+            }
+        }
+    }
+
+    private static int skipLetters(final String text, final int start)
+    {
+        int position = start;
+        while (isLetterAt(text, position))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static int skipDigits(final String text, final int start)
+    {
+        int position = start;
+        while (position < text.length() && isDigit(text.charAt(position)))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static boolean isCharAt(final String text, final int position, final char expected)
+    {
+        return position < text.length() && text.charAt(position) == expected;
+    }
+
+    private static boolean isLetterAt(final String text, final int position)
+    {
+        return position < text.length() && isLetter(text.charAt(position));
+    }
+
+    private static boolean isLetter(final char character)
+    {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+    }
+
+    private static boolean isDigit(final char character)
+    {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isNameChar(final char character)
+    {
+        return isLetter(character) || isDigit(character) || character == '_'
+                || character == '-';
+    }
+
+    private static final class CacheEntry
+    {
+        private final String text;
+        private final SpecificationItemId id;
+
+        private CacheEntry(final String text, final SpecificationItemId id)
+        {
+            this.text = text;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interning table for {@link SpecificationItemId}s.
+ * 
+ * <p>
+ * The table holds exactly one canonical instance per combination of artifact
+ * type, name and revision. Artifact types and names are kept in dictionaries,
+ * so that all IDs share the same string instances. Each canonical ID gets a
+ * unique ordinal in the order of creation.
+ * </p>
+ * <p>
+ * The table only references its entries weakly. IDs and strings that are no
+ * longer used anywhere else are garbage collected and their slots are reused,
+ * so that a long running process (e.g. in watch mode) does not accumulate
+ * the IDs of all item versions it has ever seen. An ID that is interned again
+ * after it has been collected gets a new ordinal.
+ * </p>
+ * <p>
+ * IDs and strings are stored in open addressing hash tables. The tables are
+ * split into segments with separate locks, so that importers running in
+ * parallel rarely block each other.
+ * </p>
+ */
+final class SpecificationItemIdTable
+{
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final IdSegment[] idSegments = new IdSegment[SEGMENT_COUNT];
+    private final StringSegment[] stringSegments = new StringSegment[SEGMENT_COUNT];
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    SpecificationItemIdTable()
+    {
+        for (int i = 0; i < SEGMENT_COUNT; ++i)
+        {
+            this.idSegments[i] = new IdSegment();
+            this.stringSegments[i] = new StringSegment();
+        }
+    }
+
+    /**
+     * Get the canonical ID for the given parts, creating it if necessary
+     * 
+     * @param artifactType
+     *            the artifact type
+     * @param name
+     *            the name
+     * @param revision
+     *            the revision or {@link SpecificationItemId#REVISION_WILDCARD}
+     * @return the canonical ID
+     */
+    SpecificationItemId intern(final String artifactType, final String name, final int revision)
+    {
+        final int hash = SpecificationItemId.calculateHashCode(artifactType, name, revision);
+        return this.idSegments[segmentIndex(hash)].intern(hash, artifactType, name, revision);
+    }
+
+    /**
+     * Get the canonical instance of an artifact type or name
+     * 
+     * @param text
+     *            artifact type or name
+     * @return canonical string with the same content
+     */
+    String internString(final String text)
+    {
+        final int hash = text.hashCode();
+        return this.stringSegments[segmentIndex(hash)].intern(hash, text);
+    }
+
+    /**
+     * Get the number of canonical IDs in this table that have not been
+     * garbage collected yet
+     * 
+     * @return number of IDs
+     */
+    int size()
+    {
+        int size = 0;
+        for (final IdSegment segment : this.idSegments)
+        {
+            size += segment.liveEntries();
+        }
+        return size;
+    }
+
+    /**
+     * Scramble the hash code with the MurmurHash3 finalizer. String hash codes
+     * of similar names are close to each other, which would form long probe
+     * sequences otherwise.
+     */
+    private static int spread(final int hash)
+    {
+        int scrambled = hash ^ (hash >>> 16);
+        scrambled *= 0x85ebca6b;
+        scrambled ^= scrambled >>> 13;
+        scrambled *= 0xc2b2ae35;
+        return scrambled ^ (scrambled >>> 16);
+    }
+
+    private static int segmentIndex(final int hash)
+    {
+        return spread(hash) >>> (Integer.SIZE - SEGMENT_BITS);
+    }
+
+    /**
+     * Open addressing hash table of weakly referenced entries.
+     * 
+     * <p>
+     * Slots of collected entries stay in the probe sequences until the next
+     * rehash, but new entries may take their place. A rehash drops all
+     * collected entries and only grows the table if it is still more than
+     * half full afterwards.
+     * </p>
+     *
+     * @param <T>
+     *            type of the entries
+     */
+    private abstract static class WeakSegment<T>
+    {
+        private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+        private Slot<T>[] slots = newSlots(INITIAL_SEGMENT_CAPACITY);
+        private int used;
+
+        /**
+         * Check whether an entry is the one the caller is looking for
+         * 
+         * @param candidate
+         *            live entry with the same hash code
+         * @return <code>true</code> if the candidate matches
+         */
+        protected abstract boolean matches(T candidate);
+
+        /**
+         * Create the entry the caller is looking for
+         * 
+         * @return new entry
+         */
+        protected abstract T create();
+
+        /**
+         * Get the matching entry or add a new one. Must be called while
+         * holding the lock of the segment.
+         */
+        protected final T findOrCreate(final int hash)
+        {
+            expungeCollected();
+            final int mask = this.slots.length - 1;
+            int index = spread(hash) & mask;
+            int freeIndex = -1;
+            Slot<T> slot;
+            while ((slot = this.slots[index]) != null)
+            {
+                final T candidate = slot.get();
+                if (candidate == null)
+                {
+                    if (freeIndex < 0)
+                    {
+                        freeIndex = index;
+                    }
+                }
+                else if (slot.hash == hash && matches(candidate))
+                {
+                    return candidate;
+                }
+                index = (index + 1) & mask;
+            }
+            final T entry = create();
+            if (freeIndex >= 0)
+            {
+                this.slots[freeIndex] = new Slot<>(entry, hash, this.collected);
+            }
+            else
+            {
+                this.slots[index] = new Slot<>(entry, hash, this.collected);
+                if (++this.used * 2 > this.slots.length)
+                {
+                    rehash();
+                }
+            }
+            return entry;
+        }
+
+        protected final synchronized int liveEntries()
+        {
+            int live = 0;
+            for (final Slot<T> slot : this.slots)
+            {
+                if (slot != null && slot.get() != null)
+                {
+                    ++live;
+                }
+            }
+            return live;
+        }
+
+        private void expungeCollected()
+        {
+            if (this.collected.poll() != null)
+            {
+                while (this.collected.poll() != null)
+                {
+                    // Drain the queue, the rehash drops all collected slots
+                }
+                rehash();
+            }
+        }
+
+        private void rehash()
+        {
+            final int live = liveEntries();
+            int capacity = this.slots.length;
+            if (live * 2 > capacity)
+            {
+                capacity *= 2;
+            }
+            final Slot<T>[] newSlots = newSlots(capacity);
+            final int mask = capacity - 1;
+            for (final Slot<T> slot : this.slots)
+            {
+                if (slot != null && slot.get() != null)
+                {
+                    int index = spread(slot.hash) & mask;
+                    while (newSlots[index] != null)
+                    {
+                        index = (index + 1) & mask;
+                    }
+                    newSlots[index] = slot;
+                }
+            }
+            this.slots = newSlots;
+            this.used = live;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Slot<T>[] newSlots(final int capacity)
+        {
+            return (Slot<T>[]) new Slot<?>[capacity];
+        }
+    }
+
+    private static final class Slot<T> extends WeakReference<T>
+    {
+        private final int hash;
+
+        private Slot(final T referent, final int hash, final ReferenceQueue<T> queue)
+        {
+            super(referent, queue);
+            this.hash = hash;
+        }
+    }
+
+    private final class IdSegment extends WeakSegment<SpecificationItemId>
+    {
+        private String artifactType;
+        private String name;
+        private int revision;
+
+        private synchronized SpecificationItemId intern(final int hash, final String artifactType,
+                final String name, final int revision)
+        {
+            this.artifactType = artifactType;
+            this.name = name;
+            this.revision = revision;
+            try
+            {
+                return findOrCreate(hash);
+            }
+            finally
+            {
+                this.artifactType = null;
+                this.name = null;
+            }
+        }
+
+        @Override
+        protected boolean matches(final SpecificationItemId candidate)
+        {
+            return candidate.getRevision() == this.revision
+                    && candidate.getName().equals(this.name)
+                    && candidate.getArtifactType().equals(this.artifactType);
+        }
+
+        @Override
+        protected SpecificationItemId create()
+        {
+            return new SpecificationItemId(internString(this.name),
+                    internString(this.artifactType), this.revision,
+                    nextOrdinal.getAndIncrement());
+        }
+    }
+
+    private static final class StringSegment extends WeakSegment<String>
+    {
+        private String text;
+
+        private synchronized String intern(final int hash, final String text)
+        {
+            this.text = text;
+            try
+            {
+                return findOrCreate(hash);
+            }
+            finally
+            {
+                this.text = null;
+            }
+        }
+
+        @Override
+        protected boolean matches(final String candidate)
+        {
+            return candidate.equals(this.text);
+        }
+
+        @Override
+        protected String create()
+        {
+            return this.text;
+        }
+    }
+}
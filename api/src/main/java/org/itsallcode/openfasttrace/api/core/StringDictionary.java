@@ -0,0 +1,141 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Dictionary of the strings that repeat across encoded
+ * {@link SpecificationItem}s.
+ * 
+ * <p>
+ * The dictionary assigns each distinct string an index in the order in which
+ * the strings are first written. Items refer to the strings by index plus
+ * one, so that <code>0</code> stands for <code>null</code>. The dictionary
+ * entries are written separately, e.g. before or after the items.
+ * </p>
+ */
+public final class StringDictionary implements SpecificationItemEncoder.ReferenceWriter
+{
+    private static final int NULL_REFERENCE = 0;
+
+    private final Map<String, Integer> references = new HashMap<>();
+    private final List<String> entries = new ArrayList<>();
+
+    @Override
+    public void writeReference(final DataOutput output, final String value) throws IOException
+    {
+        SpecificationItemEncoder.writeNumber(output,
+                (value == null) ? NULL_REFERENCE : getReference(value));
+    }
+
+    private int getReference(final String value)
+    {
+        final Integer reference = this.references.get(value);
+        if (reference != null)
+        {
+            return reference;
+        }
+        this.entries.add(value);
+        this.references.put(value, this.entries.size());
+        return this.entries.size();
+    }
+
+    /**
+     * Get the number of strings in the dictionary
+     * 
+     * @return number of strings
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * Write all strings of the dictionary in the order of their index
+     * 
+     * @param output
+     *            output to write to
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeEntries(final DataOutput output) throws IOException
+    {
+        for (final String value : this.entries)
+        {
+            SpecificationItemEncoder.writeText(output, value);
+        }
+    }
+
+    /**
+     * Read the strings written by {@link #writeEntries(DataOutput)}
+     * 
+     * @param input
+     *            input to read from
+     * @param count
+     *            number of strings in the dictionary
+     * @return the strings in the order of their index
+     * @throws IOException
+     *             if reading fails or the data is corrupt
+     */
+    public static String[] readEntries(final DataInput input, final int count)
+            throws IOException
+    {
+        final String[] entries = new String[count];
+        for (int i = 0; i < count; ++i)
+        {
+            entries[i] = SpecificationItemDecoder.readText(input);
+            if (entries[i] == null)
+            {
+                throw new IOException("Missing dictionary entry " + i);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Create a reader that resolves references to the given strings
+     * 
+     * @param entries
+     *            the strings read with {@link #readEntries(DataInput, int)}
+     * @return reader for references written by a {@link StringDictionary}
+     */
+    public static SpecificationItemDecoder.ReferenceReader reader(final String[] entries)
+    {
+        return input -> {
+            final int reference = SpecificationItemDecoder.readNumber(input);
+            if (reference == NULL_REFERENCE)
+            {
+                return null;
+            }
+            if (reference > entries.length)
+            {
+                throw new IOException("Invalid string reference " + reference);
+            }
+            return entries[reference - 1];
+        };
+    }
+}
@@ -22,28 +22,65 @@ package org.itsallcode.openfasttrace.api.core;
  * #L%
  */
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * The result of tracing a list of linked specification items.
+ * 
+ * <p>
+ * Defects are determined on demand. {@link #hasNoDefects()} stops at the first
+ * defect item unless the complete list of defect items was already requested.
+ * The list is only collected when {@link #getDefectItems()},
+ * {@link #getDefectIds()} or {@link #countDefects()} is called.
+ * </p>
+ * <p>
+ * If the items are a {@link CompactLinkedItemList}, the coverage tags that
+ * were aggregated during linking count as items of the trace without defects.
+ * </p>
+ */
 public class Trace
 {
     private final List<LinkedSpecificationItem> items;
-    private final List<LinkedSpecificationItem> defectItems;
+    private final Predicate<LinkedSpecificationItem> defectCheck;
+    private final int aggregatedItemCount;
+    private List<LinkedSpecificationItem> defectItems;
+    private Boolean noDefects;
 
-    private Trace(final List<LinkedSpecificationItem> items,
-            final List<LinkedSpecificationItem> uncleanItems)
+    private Trace(final Builder builder)
     {
-        this.items = items;
-        this.defectItems = uncleanItems;
+        this.items = builder.items;
+        this.aggregatedItemCount = (this.items instanceof CompactLinkedItemList)
+                ? ((CompactLinkedItemList) this.items).countAggregatedItems()
+                : 0;
+        this.defectCheck = builder.defectCheck;
+        this.defectItems = builder.defectItems;
     }
 
-    public boolean hasNoDefects()
+    public synchronized boolean hasNoDefects()
     {
-        return this.defectItems.isEmpty();
+        if (this.defectItems != null)
+        {
+            return this.defectItems.isEmpty();
+        }
+        if (this.noDefects == null)
+        {
+            this.noDefects = this.items.stream().noneMatch(this.defectCheck);
+        }
+        return this.noDefects;
     }
 
-    public List<LinkedSpecificationItem> getDefectItems()
+    public synchronized List<LinkedSpecificationItem> getDefectItems()
     {
+        if (this.defectItems == null)
+        {
+            this.defectItems = (Boolean.TRUE.equals(this.noDefects)) ? Collections.emptyList()
+                    : this.items.stream() //
+                            .filter(this.defectCheck) //
+                            .collect(Collectors.toList());
+        }
         return this.defectItems;
     }
 
@@ -54,19 +91,19 @@ public class Trace
 
     public List<SpecificationItemId> getDefectIds()
     {
-        return this.defectItems.stream() //
+        return getDefectItems().stream() //
                 .map(LinkedSpecificationItem::getId) //
                 .collect(Collectors.toList());
     }
 
     public int countDefects()
     {
-        return this.defectItems.size();
+        return getDefectItems().size();
     }
 
     public int count()
     {
-        return this.items.size();
+        return this.items.size() + this.aggregatedItemCount;
     }
 
     /**
@@ -83,6 +120,7 @@ public class Trace
     {
         private List<LinkedSpecificationItem> items;
         private List<LinkedSpecificationItem> defectItems;
+        private Predicate<LinkedSpecificationItem> defectCheck = LinkedSpecificationItem::isDefect;
 
         private Builder()
         {
@@ -94,15 +132,39 @@ public class Trace
             return this;
         }
 
+        /**
+         * Set the defect items. If this is not set, the defect items are
+         * determined on demand with the {@link #defectCheck(Predicate) defect
+         * check}.
+         * 
+         * @param uncleanItems
+         *            the defect items
+         * @return this builder
+         */
         public Builder defectItems(final List<LinkedSpecificationItem> uncleanItems)
         {
             this.defectItems = uncleanItems;
             return this;
         }
 
+        /**
+         * Set the check that decides if an item is a defect. It may be called
+         * more than once for the same item. The default check is
+         * {@link LinkedSpecificationItem#isDefect()}.
+         * 
+         * @param defectCheck
+         *            the defect check
+         * @return this builder
+         */
+        public Builder defectCheck(final Predicate<LinkedSpecificationItem> defectCheck)
+        {
+            this.defectCheck = defectCheck;
+            return this;
+        }
+
         public Trace build()
         {
-            return new Trace(this.items, this.defectItems);
+            return new Trace(this);
         }
     }
-}
\ No newline at end of file
+}
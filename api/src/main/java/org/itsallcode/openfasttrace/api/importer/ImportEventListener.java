@@ -22,9 +22,11 @@ package org.itsallcode.openfasttrace.api.importer;
  * #L%
  */
 
+import org.itsallcode.openfasttrace.api.core.CoverageTag;
 import org.itsallcode.openfasttrace.api.core.ItemStatus;
 import org.itsallcode.openfasttrace.api.core.Location;
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.itsallcode.openfasttrace.api.core.TextRange;
 
 /**
  * Interface for listeners of requirement import events
@@ -73,6 +75,19 @@ public interface ImportEventListener
      */
     void appendDescription(final String fragment);
 
+    /**
+     * Append a text block that is read lazily from a file to an item description.
+     * 
+     * Listeners that do not support lazy text read the text immediately.
+     *
+     * @param fragment
+     *            the text range to be appended to the description
+     */
+    default void appendDescription(final TextRange fragment)
+    {
+        appendDescription(fragment.getText());
+    }
+
     /**
      * Append a text block to the rationale
      *
@@ -81,6 +96,19 @@ public interface ImportEventListener
      */
     void appendRationale(final String fragment);
 
+    /**
+     * Append a text block that is read lazily from a file to the rationale.
+     * 
+     * Listeners that do not support lazy text read the text immediately.
+     *
+     * @param fragment
+     *            the text range to be appended to the rationale
+     */
+    default void appendRationale(final TextRange fragment)
+    {
+        appendRationale(fragment.getText());
+    }
+
     /**
      * Append a text block to the comment
      *
@@ -89,6 +117,19 @@ public interface ImportEventListener
      */
     void appendComment(final String fragment);
 
+    /**
+     * Append a text block that is read lazily from a file to the comment.
+     * 
+     * Listeners that do not support lazy text read the text immediately.
+     *
+     * @param fragment
+     *            the text range to be appended to the comment
+     */
+    default void appendComment(final TextRange fragment)
+    {
+        appendComment(fragment.getText());
+    }
+
     /**
      * The importer found a reference that indicates coverage of another
      * specification item
@@ -156,4 +197,23 @@ public interface ImportEventListener
      *            coverage
      */
     void setForwards(boolean forwards);
+
+    /**
+     * The importer found a coverage tag that stands for a specification item
+     * covering a single other item.
+     * 
+     * Listeners that do not keep coverage tags receive the events of the
+     * complete specification item instead.
+     *
+     * @param tag
+     *            the coverage tag
+     */
+    default void addCoverageTag(final CoverageTag tag)
+    {
+        beginSpecificationItem();
+        setLocation(tag.getPath(), tag.getLine());
+        setId(tag.getId());
+        addCoveredId(tag.getCoveredId());
+        endSpecificationItem();
+    }
 }
@@ -0,0 +1,100 @@
+package org.itsallcode.openfasttrace.api.importer;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Replays complete {@link SpecificationItem}s as import events.
+ * 
+ * <p>
+ * Importers that read items from a store, e.g. a cache or a snapshot, use this
+ * to pass the items to an {@link ImportEventListener}, so that filters apply
+ * as for items imported from their original source. Texts that the item reads
+ * lazily from a {@link TextRange} are passed on as range, so that replaying
+ * does not read them.
+ * </p>
+ */
+public final class ImportEventReplay
+{
+    private ImportEventReplay()
+    {
+        // not instantiable
+    }
+
+    /**
+     * Issue the import events for a specification item
+     * 
+     * @param item
+     *            the item to replay
+     * @param listener
+     *            listener that receives the events
+     */
+    public static void replay(final SpecificationItem item, final ImportEventListener listener)
+    {
+        listener.beginSpecificationItem();
+        listener.setId(item.getId());
+        listener.setTitle(item.getTitle());
+        listener.setStatus(item.getStatus());
+        final TextRange descriptionRange = item.getTextRange(ItemTextField.DESCRIPTION);
+        if (descriptionRange == null)
+        {
+            listener.appendDescription(item.getDescription());
+        }
+        else
+        {
+            listener.appendDescription(descriptionRange);
+        }
+        final TextRange rationaleRange = item.getTextRange(ItemTextField.RATIONALE);
+        if (rationaleRange == null)
+        {
+            listener.appendRationale(item.getRationale());
+        }
+        else
+        {
+            listener.appendRationale(rationaleRange);
+        }
+        final TextRange commentRange = item.getTextRange(ItemTextField.COMMENT);
+        if (commentRange == null)
+        {
+            listener.appendComment(item.getComment());
+        }
+        else
+        {
+            listener.appendComment(commentRange);
+        }
+        for (final SpecificationItemId coveredId : item.getCoveredIds())
+        {
+            listener.addCoveredId(coveredId);
+        }
+        for (final SpecificationItemId dependOnId : item.getDependOnIds())
+        {
+            listener.addDependsOnId(dependOnId);
+        }
+        item.getNeedsArtifactTypes().forEach(listener::addNeededArtifactType);
+        item.getTags().forEach(listener::addTag);
+        listener.setLocation(item.getLocation());
+        listener.setForwards(item.isForwarding());
+        listener.endSpecificationItem();
+    }
+}
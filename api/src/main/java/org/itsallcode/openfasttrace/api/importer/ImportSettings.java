@@ -2,9 +2,13 @@ package org.itsallcode.openfasttrace.api.importer;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import org.itsallcode.openfasttrace.api.FilterSettings;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
 
 /*-
@@ -34,12 +38,24 @@ public class ImportSettings
     private final List<Path> inputs;
     private final FilterSettings filter;
     private final List<PathConfig> pathConfigs;
+    private final int jobs;
+    private final List<String> excludePatterns;
+    private final Path cacheDirectory;
+    private final boolean lazyText;
+    private final Set<ItemTextField> requiredTextFields;
+    private final boolean compactCoverageTags;
 
     protected ImportSettings(final Builder builder)
     {
         this.inputs = builder.inputs;
         this.filter = builder.filter;
         this.pathConfigs = builder.pathConfigs;
+        this.jobs = builder.jobs;
+        this.excludePatterns = builder.excludePatterns;
+        this.cacheDirectory = builder.cacheDirectory;
+        this.lazyText = builder.lazyText;
+        this.requiredTextFields = builder.requiredTextFields;
+        this.compactCoverageTags = builder.compactCoverageTags;
     }
 
     /**
@@ -73,6 +89,76 @@ public class ImportSettings
         return this.pathConfigs;
     }
 
+    /**
+     * Get the number of files that are imported in parallel. A value of
+     * <code>1</code> means that all files are imported one after the other on
+     * the calling thread.
+     * 
+     * @return number of parallel import jobs
+     */
+    public int getJobs()
+    {
+        return this.jobs;
+    }
+
+    /**
+     * Get the patterns of files and directories that are skipped while input
+     * directories are scanned. The patterns use the syntax of
+     * <code>.gitignore</code> files and are relative to each input directory.
+     * 
+     * @return exclude patterns
+     */
+    public List<String> getExcludePatterns()
+    {
+        return this.excludePatterns;
+    }
+
+    /**
+     * Get the directory of the import cache. The cache keeps the items
+     * imported from each file, so that unchanged files do not need to be
+     * imported again.
+     * 
+     * @return cache directory or an empty {@link Optional} if the import cache
+     *         is disabled
+     */
+    public Optional<Path> getCacheDirectory()
+    {
+        return Optional.ofNullable(this.cacheDirectory);
+    }
+
+    /**
+     * Check if importers should keep only the location of descriptions,
+     * rationales and comments and read their text when it is requested.
+     * 
+     * @return <code>true</code> if item texts are loaded lazily
+     */
+    public boolean isLazyText()
+    {
+        return this.lazyText;
+    }
+
+    /**
+     * Get the text fields of specification items that are needed after the
+     * import. Importers may skip all other text fields.
+     * 
+     * @return required text fields
+     */
+    public Set<ItemTextField> getRequiredTextFields()
+    {
+        return this.requiredTextFields;
+    }
+
+    /**
+     * Check if coverage tags are kept as compact records instead of full
+     * specification items. The linker handles these records directly.
+     * 
+     * @return <code>true</code> if coverage tags are kept in compact form
+     */
+    public boolean isCompactCoverageTags()
+    {
+        return this.compactCoverageTags;
+    }
+
     /**
      * Create a the default import settings
      * 
@@ -101,6 +187,12 @@ public class ImportSettings
         private final List<Path> inputs = new ArrayList<>();
         private FilterSettings filter = FilterSettings.createAllowingEverything();
         private List<PathConfig> pathConfigs = new ArrayList<>();
+        private int jobs = 1;
+        private final List<String> excludePatterns = new ArrayList<>();
+        private Path cacheDirectory;
+        private boolean lazyText = false;
+        private Set<ItemTextField> requiredTextFields = EnumSet.allOf(ItemTextField.class);
+        private boolean compactCoverageTags = false;
 
         private Builder()
         {
@@ -161,6 +253,102 @@ public class ImportSettings
             return this;
         }
 
+        /**
+         * Set the number of files that are imported in parallel
+         * 
+         * @param jobs
+         *            number of parallel import jobs, must be at least
+         *            <code>1</code>
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder jobs(final int jobs)
+        {
+            if (jobs < 1)
+            {
+                throw new IllegalArgumentException(
+                        "Number of import jobs must be at least 1 but was " + jobs);
+            }
+            this.jobs = jobs;
+            return this;
+        }
+
+        /**
+         * Add patterns of files and directories that are skipped while input
+         * directories are scanned
+         * 
+         * @param excludePatterns
+         *            patterns in the syntax of <code>.gitignore</code> files,
+         *            relative to each input directory
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder addExcludePatterns(final List<String> excludePatterns)
+        {
+            this.excludePatterns.addAll(excludePatterns);
+            return this;
+        }
+
+        /**
+         * Set the directory of the import cache
+         * 
+         * @param cacheDirectory
+         *            cache directory or <code>null</code> to disable the import
+         *            cache
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder cacheDirectory(final Path cacheDirectory)
+        {
+            this.cacheDirectory = cacheDirectory;
+            return this;
+        }
+
+        /**
+         * Enable or disable loading the texts of specification items lazily.
+         * Use this when the texts are rarely needed and the imported files are
+         * not changed before the texts are read.
+         * 
+         * @param lazyText
+         *            <code>true</code> to read item texts only when they are
+         *            requested
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder lazyText(final boolean lazyText)
+        {
+            this.lazyText = lazyText;
+            return this;
+        }
+
+        /**
+         * Set the text fields of specification items that are needed after
+         * the import. All text fields are required by default.
+         * 
+         * @param requiredTextFields
+         *            required text fields
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder requiredTextFields(final Set<ItemTextField> requiredTextFields)
+        {
+            this.requiredTextFields = requiredTextFields.isEmpty()
+                    ? EnumSet.noneOf(ItemTextField.class)
+                    : EnumSet.copyOf(requiredTextFields);
+            return this;
+        }
+
+        /**
+         * Enable or disable keeping coverage tags in compact form. Use this
+         * when the items created from coverage tags are only needed for
+         * tracing and are not listed individually.
+         * 
+         * @param compactCoverageTags
+         *            <code>true</code> to keep coverage tags as compact
+         *            records
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder compactCoverageTags(final boolean compactCoverageTags)
+        {
+            this.compactCoverageTags = compactCoverageTags;
+            return this;
+        }
+
         /**
          * Create a new instance of {@link ImportSettings}
          * 
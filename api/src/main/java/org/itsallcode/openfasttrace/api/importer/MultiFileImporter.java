@@ -26,6 +26,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
@@ -69,4 +70,26 @@ public interface MultiFileImporter {
 	 * @return all imported {@link SpecificationItem}s.
 	 */
     List<SpecificationItem> getImportedItems();
+
+	/**
+	 * Import from the paths lazily while the returned stream is consumed. The
+	 * files are imported one after another and only the items of the current
+	 * file are kept in memory. The items are not added to the
+	 * {@link #getImportedItems() imported items}.
+	 * <p>
+	 * The default implementation imports all paths with
+	 * {@link #importAny(List)} before it returns the
+	 * {@link #getImportedItems() imported items}, so it neither saves memory
+	 * nor keeps the imported items apart. Implementations should override it.
+	 * </p>
+	 * 
+	 * @param paths
+	 *            lists of paths to files or directories
+	 * @return a sequential stream of the items of all files in the order of the
+	 *         paths.
+	 */
+    default Stream<SpecificationItem> streamAny(final List<Path> paths)
+    {
+        return importAny(paths).getImportedItems().stream();
+    }
 }
@@ -24,8 +24,9 @@ import java.util.Collections;
  * #L%
  */
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.itsallcode.openfasttrace.api.FilterSettings;
 import org.itsallcode.openfasttrace.api.core.*;
@@ -34,31 +35,59 @@ import org.itsallcode.openfasttrace.api.core.*;
  * The {@link SpecificationListBuilder} consumes import events and generates a
  * map of specification items from them. The key to the map is the specification
  * item ID.
+ * 
+ * <p>
+ * A builder that keeps compact coverage tags stores {@link CoverageTag}s as
+ * they are and returns a {@link CompactItemList} if it found any. The
+ * covering artifact types of the tags are shared between all tags with equal
+ * values.
+ * </p>
  */
 public class SpecificationListBuilder implements ImportEventListener
 {
     private final FilterSettings filterSettings;
+    private final boolean compactCoverageTags;
     private final List<SpecificationItem> items = new LinkedList<>();
+    private final List<CoverageTag> coverageTags = new ArrayList<>();
+    private final Map<String, String> sharedArtifactTypes = new HashMap<>();
     private SpecificationItem.Builder itemBuilder = null;
     private SpecificationItemId id = null;
-    private StringBuilder description = new StringBuilder();
-    private StringBuilder rationale = new StringBuilder();
-    private StringBuilder comment = new StringBuilder();
+    private TextBuffer description = new TextBuffer();
+    private TextBuffer rationale = new TextBuffer();
+    private TextBuffer comment = new TextBuffer();
     private Location location;
 
-    private SpecificationListBuilder(final FilterSettings filterSettings)
+    private SpecificationListBuilder(final FilterSettings filterSettings,
+            final boolean compactCoverageTags)
     {
         this.filterSettings = filterSettings;
+        this.compactCoverageTags = compactCoverageTags;
     }
 
     public static SpecificationListBuilder create()
     {
-        return new SpecificationListBuilder(new FilterSettings.Builder().build());
+        return new SpecificationListBuilder(new FilterSettings.Builder().build(), false);
     }
 
     public static SpecificationListBuilder createWithFilter(final FilterSettings filterSettings)
     {
-        return new SpecificationListBuilder(filterSettings);
+        return new SpecificationListBuilder(filterSettings, false);
+    }
+
+    /**
+     * Create a builder that applies the given filter
+     * 
+     * @param filterSettings
+     *            filter settings
+     * @param compactCoverageTags
+     *            <code>true</code> to keep coverage tags as
+     *            {@link CoverageTag}s instead of full specification items
+     * @return new builder
+     */
+    public static SpecificationListBuilder createWithFilter(final FilterSettings filterSettings,
+            final boolean compactCoverageTags)
+    {
+        return new SpecificationListBuilder(filterSettings, compactCoverageTags);
     }
 
     @Override
@@ -70,9 +99,9 @@ public class SpecificationListBuilder implements ImportEventListener
     private void resetState()
     {
         this.itemBuilder = null;
-        this.description = new StringBuilder();
-        this.rationale = new StringBuilder();
-        this.comment = new StringBuilder();
+        this.description = new TextBuffer();
+        this.rationale = new TextBuffer();
+        this.comment = new TextBuffer();
         this.location = null;
         this.id = null;
     }
@@ -105,18 +134,36 @@ public class SpecificationListBuilder implements ImportEventListener
         this.description.append(fragment);
     }
 
+    @Override
+    public void appendDescription(final TextRange fragment)
+    {
+        this.description.append(fragment);
+    }
+
     @Override
     public void appendRationale(final String fragment)
     {
         this.rationale.append(fragment);
     }
 
+    @Override
+    public void appendRationale(final TextRange fragment)
+    {
+        this.rationale.append(fragment);
+    }
+
     @Override
     public void appendComment(final String fragment)
     {
         this.comment.append(fragment);
     }
 
+    @Override
+    public void appendComment(final TextRange fragment)
+    {
+        this.comment.append(fragment);
+    }
+
     @Override
     public void addDependsOnId(final SpecificationItemId id)
     {
@@ -143,20 +190,74 @@ public class SpecificationListBuilder implements ImportEventListener
         this.itemBuilder.addTag(tag);
     }
 
+    // [impl->dsn~filtering-by-artifact-types-during-import~1]
+    @Override
+    public void addCoverageTag(final CoverageTag tag)
+    {
+        if (this.compactCoverageTags
+                && isAcceptedArtifactType(tag.getCoveredId().getArtifactType()))
+        {
+            if (isAcceptedArtifactType(tag.getCoveringArtifactType())
+                    && matchesTagsCriteria(Collections.emptyList()))
+            {
+                addSharedCoverageTag(tag);
+            }
+        }
+        else
+        {
+            ImportEventListener.super.addCoverageTag(tag);
+        }
+    }
+
+    private void addSharedCoverageTag(final CoverageTag tag)
+    {
+        this.coverageTags.add(CoverageTag.builder() //
+                .coveringArtifactType(this.sharedArtifactTypes
+                        .computeIfAbsent(tag.getCoveringArtifactType(), Function.identity())) //
+                .coveredId(tag.getCoveredId()) //
+                .location(tag.getPath(), tag.getLine()) //
+                .checksum(tag.getChecksum()) //
+                .build());
+    }
+
     /**
      * Build the list of specification items
      *
-     * @return the list of specification items collected up to this point
+     * @return the list of specification items collected up to this point. This
+     *         is a {@link CompactItemList} if the builder keeps compact
+     *         coverage tags and found any.
      */
     public List<SpecificationItem> build()
     {
         this.endSpecificationItem();
-        return this.items;
+        return this.coverageTags.isEmpty() ? this.items
+                : new CompactItemList(this.items, this.coverageTags);
+    }
+
+    /**
+     * Append specification items that were already built elsewhere, e.g. by
+     * a separate builder that imported a single file.
+     * 
+     * @param builtItems
+     *            items to be appended in the given order
+     */
+    public void addItems(final List<SpecificationItem> builtItems)
+    {
+        if (this.compactCoverageTags && (builtItems instanceof CompactItemList))
+        {
+            final CompactItemList compactItems = (CompactItemList) builtItems;
+            this.items.addAll(compactItems.getItems());
+            compactItems.getCoverageTags().forEach(this::addSharedCoverageTag);
+        }
+        else
+        {
+            this.items.addAll(builtItems);
+        }
     }
 
     public int getItemCount()
     {
-        return this.items.size();
+        return this.items.size() + this.coverageTags.size();
     }
 
     @Override
@@ -194,11 +295,14 @@ public class SpecificationListBuilder implements ImportEventListener
 
     private SpecificationItem createNewSpecificationItem()
     {
+        this.description.applyTo(this.itemBuilder::description,
+                this.itemBuilder::descriptionRange);
+        this.rationale.applyTo(this.itemBuilder::rationale,
+                this.itemBuilder::rationaleRange);
+        this.comment.applyTo(this.itemBuilder::comment,
+                this.itemBuilder::commentRange);
         return this.itemBuilder //
                 .id(this.id) //
-                .description(this.description.toString()) //
-                .rationale(this.rationale.toString()) //
-                .comment(this.comment.toString()) //
                 .location(this.location) //
                 .build();
     }
@@ -234,4 +338,59 @@ public class SpecificationListBuilder implements ImportEventListener
     {
         this.itemBuilder.forwards(forwards);
     }
+
+    /**
+     * Collects the fragments of a text. A text that consists of a single
+     * {@link TextRange} is kept as a range, so that it is only read when the
+     * item text is requested. As soon as a second fragment arrives the text is
+     * read and the fragments are concatenated.
+     */
+    private static class TextBuffer
+    {
+        private final StringBuilder text = new StringBuilder();
+        private TextRange range = null;
+
+        private void append(final String fragment)
+        {
+            if (!fragment.isEmpty())
+            {
+                readRange();
+                this.text.append(fragment);
+            }
+        }
+
+        private void append(final TextRange fragment)
+        {
+            if (this.range == null && this.text.length() == 0)
+            {
+                this.range = fragment;
+            }
+            else
+            {
+                append(fragment.getText());
+            }
+        }
+
+        private void readRange()
+        {
+            if (this.range != null)
+            {
+                this.text.append(this.range.getText());
+                this.range = null;
+            }
+        }
+
+        private void applyTo(final Consumer<String> textConsumer,
+                final Consumer<TextRange> rangeConsumer)
+        {
+            if (this.range == null)
+            {
+                textConsumer.accept(this.text.toString());
+            }
+            else
+            {
+                rangeConsumer.accept(this.range);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -24,6 +24,8 @@ package org.itsallcode.openfasttrace.api.importer.input;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -40,6 +42,30 @@ public interface InputFile {
 	 */
 	BufferedReader createReader() throws IOException;
 
+	/**
+	 * Get an {@link InputStream} for reading the raw bytes of the file, e.g.
+	 * for binary formats.
+	 * <p>
+	 * The default implementation opens the file returned by {@link #toPath()}
+	 * and throws an {@link UnsupportedOperationException} for files that are
+	 * not real files.
+	 * 
+	 * @return an {@link InputStream} for reading the file.
+	 * @throws IOException
+	 *             when there is an error reading the file.
+	 * @throws UnsupportedOperationException
+	 *             when this file does not provide its raw bytes.
+	 */
+	default InputStream createInputStream() throws IOException
+	{
+		if (!isRealFile())
+		{
+			throw new UnsupportedOperationException(
+					"createInputStream() not supported for " + getPath());
+		}
+		return Files.newInputStream(toPath());
+	}
+
 	/**
 	 * Get a string representation of the path.
 	 * 
@@ -76,6 +76,16 @@ public class RealFileInput implements InputFile
         return Files.newBufferedReader(this.path, this.charset);
     }
 
+    /**
+     * Get the {@link Charset} used when reading this file.
+     *
+     * @return the charset of this file.
+     */
+    public Charset getCharset()
+    {
+        return this.charset;
+    }
+
     @Override
     public String getPath()
     {
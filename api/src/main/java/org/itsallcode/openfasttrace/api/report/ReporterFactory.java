@@ -21,8 +21,11 @@ package org.itsallcode.openfasttrace.api.report;
  * <http://www.gnu.org/licenses/gpl-3.0.html>.
  * #L%
  */
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.Trace;
 import org.itsallcode.openfasttrace.api.core.serviceloader.Initializable;
 
@@ -53,6 +56,35 @@ public abstract class ReporterFactory implements Initializable<ReporterContext>
      */
     public abstract Reportable createImporter(final Trace trace);
 
+    /**
+     * Get the text fields of specification items that reports created by this
+     * factory show with the {@link ReporterContext#getSettings() settings} of
+     * the context. Importers may skip all other text fields.
+     * 
+     * @return text fields required by the report. The default implementation
+     *         requires all text fields.
+     */
+    public Set<ItemTextField> getRequiredTextFields()
+    {
+        return EnumSet.allOf(ItemTextField.class);
+    }
+
+    /**
+     * Check if reports created by this factory with the
+     * {@link ReporterContext#getSettings() settings} of the context can work
+     * with coverage tags in compact form. Such reports only show defect items
+     * and the number of items, but never list items without defects or the
+     * links of items.
+     * 
+     * @return <code>true</code> if the report does not need the full items of
+     *         coverage tags without defects. The default implementation
+     *         returns <code>false</code>.
+     */
+    public boolean supportsCompactCoverageTags()
+    {
+        return false;
+    }
+
     @Override
     public void init(final ReporterContext context)
     {
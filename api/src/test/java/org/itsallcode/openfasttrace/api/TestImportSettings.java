@@ -24,9 +24,11 @@ import static org.hamcrest.MatcherAssert.assertThat;
  * #L%
  */
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.collection.IsEmptyIterable.emptyIterableOf;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -100,4 +102,52 @@ class TestImportSettings
         assertThat(ImportSettings.builder().pathConfigs(expectedPathConfigs).build()
                 .getPathConfigs().get(0), equalTo(expectedFirstPathConfig));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDefaultJobs()
+    {
+        assertThat(ImportSettings.createDefault().getJobs(), equalTo(1));
+    }
+
+    @Test
+    void testBuildWithJobs()
+    {
+        assertThat(ImportSettings.builder().jobs(4).build().getJobs(), equalTo(4));
+    }
+
+    @Test
+    void testBuildWithZeroJobsFails()
+    {
+        final ImportSettings.Builder builder = ImportSettings.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.jobs(0));
+    }
+
+    @Test
+    void testExcludePatternsAreEmptyByDefault()
+    {
+        assertThat(ImportSettings.createDefault().getExcludePatterns(),
+                emptyIterableOf(String.class));
+    }
+
+    @Test
+    void testBuildWithExcludePatterns()
+    {
+        assertThat(ImportSettings.builder() //
+                .addExcludePatterns(Arrays.asList("target/", ".git/")) //
+                .addExcludePatterns(Arrays.asList("*.bak")) //
+                .build().getExcludePatterns(), contains("target/", ".git/", "*.bak"));
+    }
+
+    @Test
+    void testCoverageTagsAreNotCompactByDefault()
+    {
+        assertThat(ImportSettings.createDefault().isCompactCoverageTags(), equalTo(false));
+    }
+
+    @Test
+    void testBuildWithCompactCoverageTags()
+    {
+        assertThat(ImportSettings.builder().compactCoverageTags(true).build()
+                .isCompactCoverageTags(), equalTo(true));
+    }
+}
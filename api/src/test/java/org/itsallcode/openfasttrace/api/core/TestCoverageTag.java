@@ -0,0 +1,84 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class TestCoverageTag
+{
+    private static final SpecificationItemId COVERED_ID = SpecificationItemId
+            .parseId("dsn~covered.name~2");
+
+    private static CoverageTag createTag()
+    {
+        return CoverageTag.builder() //
+                .coveringArtifactType("impl") //
+                .coveredId(COVERED_ID) //
+                .location("src/Foo.java", 17) //
+                .checksum(4711) //
+                .build();
+    }
+
+    @Test
+    void testGetters()
+    {
+        final CoverageTag tag = createTag();
+        assertThat(tag.getCoveringArtifactType(), equalTo("impl"));
+        assertThat(tag.getCoveredId(), equalTo(COVERED_ID));
+        assertThat(tag.getPath(), equalTo("src/Foo.java"));
+        assertThat(tag.getLine(), equalTo(17));
+        assertThat(tag.getChecksum(), equalTo(4711L));
+    }
+
+    @Test
+    void testGeneratedId()
+    {
+        assertThat(createTag().getId(),
+                equalTo(SpecificationItemId.createId("impl", "covered.name-4711", 0)));
+    }
+
+    @Test
+    void testToSpecificationItem()
+    {
+        final SpecificationItem item = createTag().toSpecificationItem();
+        assertThat(item.getId(), equalTo(createTag().getId()));
+        assertThat(item.getCoveredIds(), contains(COVERED_ID));
+        assertThat(item.getLocation(), equalTo(Location.create("src/Foo.java", 17)));
+        assertThat(item.getNeedsArtifactTypes().isEmpty(), equalTo(true));
+        assertThat(item.getDescription(), equalTo(""));
+    }
+
+    @Test
+    void testBuildWithoutCoveredIdFails()
+    {
+        final CoverageTag.Builder builder = CoverageTag.builder() //
+                .coveringArtifactType("impl") //
+                .location("src/Foo.java", 17);
+        assertThrows(NullPointerException.class, builder::build);
+    }
+}
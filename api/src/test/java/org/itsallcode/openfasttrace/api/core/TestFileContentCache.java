@@ -0,0 +1,90 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class TestFileContentCache
+{
+    private Path tempDir;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.tempDir = tempDir;
+    }
+
+    @Test
+    void testCachedFileIsNotReadAgain() throws IOException
+    {
+        final FileContentCache cache = new FileContentCache(100);
+        final TextRange.Source source = createSource("a.txt", "0123456789");
+        assertThat(cache.read(source.range(0, 3)), equalTo("012"));
+        Files.delete(source.getPath());
+        assertThat(cache.read(source.range(5, 8)), equalTo("567"));
+        assertThat(cache.getCachedFileCount(), equalTo(1));
+    }
+
+    @Test
+    void testLeastRecentlyUsedFileIsEvicted() throws IOException
+    {
+        final FileContentCache cache = new FileContentCache(15);
+        final TextRange.Source first = createSource("a.txt", "0123456789");
+        final TextRange.Source second = createSource("b.txt", "abcdefghij");
+        cache.read(first.range(0, 1));
+        cache.read(second.range(0, 1));
+        assertThat(cache.getCachedFileCount(), equalTo(1));
+        Files.delete(second.getPath());
+        assertThat(cache.read(second.range(1, 2)), equalTo("b"));
+    }
+
+    @Test
+    void testFileLargerThanCacheIsReadWithoutCaching() throws IOException
+    {
+        final FileContentCache cache = new FileContentCache(5);
+        final TextRange.Source source = createSource("a.txt", "0123456789");
+        assertThat(cache.read(source.range(4, 9)), equalTo("45678"));
+        assertThat(cache.getCachedFileCount(), equalTo(0));
+    }
+
+    private TextRange.Source createSource(final String name, final String content)
+            throws IOException
+    {
+        final Path file = this.tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return TextRange.Source.forFile(file, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,262 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+import static org.itsallcode.openfasttrace.api.core.SampleArtifactTypes.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestLinkGraph
+{
+    private LinkedSpecificationItem dsn;
+    private LinkedSpecificationItem implA;
+    private LinkedSpecificationItem implB;
+    private LinkedSpecificationItem utest;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.dsn = createItem("dsn~a~1");
+        this.implA = createItem("impl~a~1");
+        this.implB = createItem("impl~b~1");
+        this.utest = createItem("utest~a~1");
+    }
+
+    private static LinkedSpecificationItem createItem(final String id)
+    {
+        return new LinkedSpecificationItem(
+                SpecificationItem.builder().id(SpecificationItemId.parseId(id)).build());
+    }
+
+    @Test
+    void testLinksKeepOrderWithinStatus()
+    {
+        final LinkGraph graph = LinkGraph.builder() //
+                .addItems(asList(this.dsn, this.implA, this.implB, this.utest)) //
+                .addLink(this.dsn, this.implB, LinkStatus.COVERED_SHALLOW) //
+                .addLink(this.dsn, this.utest, LinkStatus.COVERED_UNWANTED) //
+                .addLink(this.dsn, this.implA, LinkStatus.COVERED_SHALLOW) //
+                .build();
+        assertAll(() -> assertThat(graph.countItems(), equalTo(4)),
+                () -> assertThat(graph.countLinks(), equalTo(3)),
+                () -> assertThat(this.dsn.getLinksByStatus(LinkStatus.COVERED_SHALLOW),
+                        contains(this.implB, this.implA)),
+                () -> assertThat(this.dsn.getLinksByStatus(LinkStatus.COVERED_UNWANTED),
+                        contains(this.utest)),
+                () -> assertThat(this.dsn.getLinksByStatus(LinkStatus.COVERS), empty()),
+                () -> assertThat(this.dsn.getLinks().keySet(),
+                        contains(LinkStatus.COVERED_SHALLOW, LinkStatus.COVERED_UNWANTED)),
+                () -> assertThat(this.dsn.countIncomingLinks(), equalTo(3)),
+                () -> assertThat(this.dsn.countIncomingBadLinks(), equalTo(1)),
+                () -> assertThat(this.implA.hasLinks(), equalTo(false)));
+    }
+
+    @Test
+    void testLinksOfAttachedItemAreReadOnly()
+    {
+        LinkGraph.builder() //
+                .addItems(asList(this.dsn, this.implA)) //
+                .addLink(this.dsn, this.implA, LinkStatus.COVERED_SHALLOW) //
+                .build();
+        final Map<LinkStatus, List<LinkedSpecificationItem>> links = this.dsn.getLinks();
+        assertAll(
+                () -> assertThrows(UnsupportedOperationException.class,
+                        () -> links.put(LinkStatus.COVERS, asList(this.implA))),
+                () -> assertThrows(UnsupportedOperationException.class,
+                        () -> links.remove(LinkStatus.COVERED_SHALLOW)),
+                () -> assertThrows(UnsupportedOperationException.class,
+                        () -> links.get(LinkStatus.COVERED_SHALLOW).add(this.implA)));
+    }
+
+    @Test
+    void testTracedLinks()
+    {
+        LinkGraph.builder() //
+                .addLink(this.implA, this.dsn, LinkStatus.COVERS) //
+                .addLink(this.implA, this.utest, LinkStatus.ORPHANED) //
+                .build();
+        assertThat(this.implA.getTracedLinks(),
+                contains(new TracedLink(this.dsn, LinkStatus.COVERS),
+                        new TracedLink(this.utest, LinkStatus.ORPHANED)));
+    }
+
+    @Test
+    void testLinkedItemsAreAddedAutomatically()
+    {
+        final LinkGraph graph = LinkGraph.builder() //
+                .addItems(asList(this.implA)) //
+                .addLink(this.implA, this.dsn, LinkStatus.ORPHANED) //
+                .build();
+        assertAll(() -> assertThat(graph.countItems(), equalTo(2)),
+                () -> assertThat(graph.getItem(1), equalTo(this.dsn)),
+                () -> assertThat(this.implA.countOutgoingBadLinks(), equalTo(1)));
+    }
+
+    @Test
+    void testArtifactTypes()
+    {
+        LinkGraph.builder() //
+                .addItems(asList(this.dsn, this.implA)) //
+                .addCoveredArtifactType(this.dsn, IMPL) //
+                .addCoveredArtifactType(this.dsn, UTEST) //
+                .addOverCoveredArtifactType(this.dsn, ITEST) //
+                .addCoveredArtifactType(this.implA, UTEST) //
+                .build();
+        assertAll(
+                () -> assertThat(this.dsn.getCoveredArtifactTypes(),
+                        containsInAnyOrder(IMPL, UTEST)),
+                () -> assertThat(this.dsn.getOverCoveredArtifactTypes(),
+                        containsInAnyOrder(ITEST)),
+                () -> assertThat(this.dsn.getCoveredArtifactTypes().contains(ITEST),
+                        equalTo(false)),
+                () -> assertThat(this.implA.getCoveredArtifactTypes(), containsInAnyOrder(UTEST)),
+                () -> assertThat(this.implA.getOverCoveredArtifactTypes(), empty()));
+    }
+
+    @Test
+    void testLinksAddedToItemsBeforeBuildingAreTakenOver()
+    {
+        this.implA.addLinkToItemWithStatus(this.implB, LinkStatus.DUPLICATE);
+        this.dsn.addCoveredArtifactType(IMPL);
+        LinkGraph.builder() //
+                .addItems(asList(this.dsn, this.implA)) //
+                .addLink(this.implA, this.dsn, LinkStatus.COVERS) //
+                .build();
+        assertAll(
+                () -> assertThat(this.implA.getLinksByStatus(LinkStatus.DUPLICATE),
+                        contains(this.implB)),
+                () -> assertThat(this.implA.getLinksByStatus(LinkStatus.COVERS),
+                        contains(this.dsn)),
+                () -> assertThat(this.implA.hasDuplicates(), equalTo(true)),
+                () -> assertThat(this.dsn.getCoveredArtifactTypes(), containsInAnyOrder(IMPL)));
+    }
+
+    @Test
+    void testAddingLinkAfterBuildingDetachesItem()
+    {
+        LinkGraph.builder() //
+                .addLink(this.implA, this.dsn, LinkStatus.COVERS) //
+                .addCoveredArtifactType(this.dsn, IMPL) //
+                .build();
+        this.implA.addLinkToItemWithStatus(this.utest, LinkStatus.COVERS);
+        this.dsn.addCoveredArtifactType(UTEST);
+        assertAll(
+                () -> assertThat(this.implA.getLinksByStatus(LinkStatus.COVERS),
+                        contains(this.dsn, this.utest)),
+                () -> assertThat(this.dsn.getCoveredArtifactTypes(),
+                        containsInAnyOrder(IMPL, UTEST)));
+    }
+
+    @Test
+    void testManyArtifactTypes()
+    {
+        final LinkGraph.Builder builder = LinkGraph.builder().addItems(asList(this.dsn));
+        for (int i = 0; i < 100; ++i)
+        {
+            builder.addCoveredArtifactType(this.dsn, "type" + i);
+        }
+        builder.build();
+        assertAll(() -> assertThat(this.dsn.getCoveredArtifactTypes().size(), equalTo(100)),
+                () -> assertThat(this.dsn.getCoveredArtifactTypes().contains("type99"),
+                        equalTo(true)));
+    }
+
+    @Test
+    void testNeedsArtifactType()
+    {
+        final LinkedSpecificationItem covered = createItemNeeding("dsn~b~1", IMPL, UTEST);
+        final LinkedSpecificationItem notAdded = createItemNeeding("dsn~c~1", ITEST);
+        final LinkGraph.Builder builder = LinkGraph.builder()
+                .addItems(asList(covered, this.implA));
+        assertAll(() -> assertThat(builder.needsArtifactType(covered, IMPL), equalTo(true)),
+                () -> assertThat(builder.needsArtifactType(covered, UTEST), equalTo(true)),
+                () -> assertThat(builder.needsArtifactType(covered, ITEST), equalTo(false)),
+                () -> assertThat(builder.needsArtifactType(covered, "unknown"), equalTo(false)),
+                () -> assertThat(builder.needsArtifactType(this.implA, IMPL), equalTo(false)),
+                () -> assertThat(builder.needsArtifactType(notAdded, ITEST), equalTo(true)));
+    }
+
+    private static LinkedSpecificationItem createItemNeeding(final String id,
+            final String... artifactTypes)
+    {
+        final SpecificationItem.Builder builder = SpecificationItem.builder()
+                .id(SpecificationItemId.parseId(id));
+        for (final String artifactType : artifactTypes)
+        {
+            builder.addNeedsArtifactType(artifactType);
+        }
+        return new LinkedSpecificationItem(builder.build());
+    }
+
+    @Test
+    void testShallowCoverage()
+    {
+        final LinkedSpecificationItem partlyCovered = createItemNeeding("dsn~b~1", IMPL, UTEST,
+                ITEST);
+        final LinkedSpecificationItem covered = createItemNeeding("dsn~c~1", IMPL);
+        LinkGraph.builder() //
+                .addItems(asList(partlyCovered, covered, this.implA)) //
+                .addCoveredArtifactType(partlyCovered, UTEST) //
+                .addCoveredArtifactType(covered, IMPL) //
+                .addOverCoveredArtifactType(covered, UTEST) //
+                .build();
+        assertAll(() -> assertThat(partlyCovered.isCoveredShallow(), equalTo(false)),
+                () -> assertThat(partlyCovered.getUncoveredArtifactTypes(),
+                        contains(IMPL, ITEST)),
+                () -> assertThat(covered.isCoveredShallow(), equalTo(true)),
+                () -> assertThat(covered.getUncoveredArtifactTypes(), empty()),
+                () -> assertThat(this.implA.isCoveredShallow(), equalTo(true)),
+                () -> assertThat(this.implA.getUncoveredArtifactTypes(), empty()));
+    }
+
+    @Test
+    void testManyNeededArtifactTypes()
+    {
+        final String[] artifactTypes = new String[100];
+        for (int i = 0; i < artifactTypes.length; ++i)
+        {
+            artifactTypes[i] = "type" + i;
+        }
+        final LinkedSpecificationItem covered = createItemNeeding("dsn~b~1", artifactTypes);
+        final LinkGraph.Builder builder = LinkGraph.builder().addItems(asList(covered));
+        for (int i = 0; i < artifactTypes.length - 1; ++i)
+        {
+            builder.addCoveredArtifactType(covered, artifactTypes[i]);
+        }
+        assertThat(builder.needsArtifactType(covered, "type80"), equalTo(true));
+        builder.build();
+        assertAll(() -> assertThat(covered.isCoveredShallow(), equalTo(false)),
+                () -> assertThat(covered.getUncoveredArtifactTypes(), contains("type99")));
+    }
+}
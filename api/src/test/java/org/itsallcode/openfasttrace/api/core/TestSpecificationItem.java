@@ -22,6 +22,12 @@ package org.itsallcode.openfasttrace.api.core;
  * #L%
  */
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
 import org.junit.jupiter.api.Test;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
@@ -33,4 +39,34 @@ class TestSpecificationItem
     {
         EqualsVerifier.forClass(SpecificationItem.class).verify();
     }
+
+    @Test
+    void testTextRangeReplacesText()
+    {
+        final TextRange range = TextRange.Source
+                .forFile(Paths.get("file.md"), StandardCharsets.UTF_8).range(1, 5);
+        final SpecificationItem item = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "lazy", 1)) //
+                .description("text") //
+                .descriptionRange(range) //
+                .build();
+        assertThat(item.getTextRange(ItemTextField.DESCRIPTION), equalTo(range));
+    }
+
+    @Test
+    void testTextReplacesTextRange()
+    {
+        final TextRange range = TextRange.Source
+                .forFile(Paths.get("file.md"), StandardCharsets.UTF_8).range(1, 5);
+        final SpecificationItem item = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "eager", 1)) //
+                .rationaleRange(range) //
+                .rationale(null) //
+                .commentRange(range) //
+                .comment("text") //
+                .build();
+        assertThat(item.getTextRange(ItemTextField.RATIONALE), equalTo(null));
+        assertThat(item.getTextRange(ItemTextField.COMMENT), equalTo(null));
+        assertThat(item.getComment(), equalTo("text"));
+    }
 }
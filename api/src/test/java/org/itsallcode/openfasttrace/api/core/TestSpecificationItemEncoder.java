@@ -0,0 +1,236 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TestSpecificationItemEncoder
+{
+    @Test
+    void testInlineRoundTripOfFullItem() throws IOException
+    {
+        assertInlineRoundTrip(createFullItem(1));
+    }
+
+    @Test
+    void testInlineRoundTripOfMinimalItem() throws IOException
+    {
+        assertInlineRoundTrip(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("impl", "minimal", 0)) //
+                .build());
+    }
+
+    @Test
+    void testInlineRoundTripOfLocationWithoutPath() throws IOException
+    {
+        assertInlineRoundTrip(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("impl", "no-path", 0)) //
+                .location(Location.builder().line(7).column(2).build()) //
+                .build(), createFullItem(2));
+    }
+
+    @Test
+    void testInlineRoundTripOfWildcardRevision() throws IOException
+    {
+        assertInlineRoundTrip(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("impl", "wildcard", 1)) //
+                .addCoveredId(SpecificationItemId.createId("dsn", "any",
+                        SpecificationItemId.REVISION_WILDCARD)) //
+                .build());
+    }
+
+    @Test
+    void testDictionaryRoundTrip() throws IOException
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (int i = 0; i < 10; ++i)
+        {
+            items.add(createFullItem(i));
+        }
+        final StringDictionary dictionary = new StringDictionary();
+        final ByteArrayOutputStream encodedItems = new ByteArrayOutputStream();
+        final SpecificationItemEncoder encoder = new SpecificationItemEncoder(
+                new DataOutputStream(encodedItems), dictionary);
+        for (final SpecificationItem item : items)
+        {
+            encoder.write(item);
+        }
+        final ByteArrayOutputStream encodedDictionary = new ByteArrayOutputStream();
+        dictionary.writeEntries(new DataOutputStream(encodedDictionary));
+        final String[] entries = StringDictionary.readEntries(createInput(encodedDictionary),
+                dictionary.size());
+        final SpecificationItemDecoder decoder = new SpecificationItemDecoder(
+                createInput(encodedItems), StringDictionary.reader(entries));
+        for (final SpecificationItem item : items)
+        {
+            assertThat(decoder.read(), equalTo(item));
+        }
+        assertThat(dictionary.size(), lessThan(items.size() * 4));
+    }
+
+    @Test
+    void testRoundTripOfCoverageTag() throws IOException
+    {
+        final CoverageTag tag = CoverageTag.builder() //
+                .coveringArtifactType("impl") //
+                .coveredId(SpecificationItemId.createId("dsn", "covered", 2)) //
+                .location("src/Main.java", 17) //
+                .checksum(-42L) //
+                .build();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        SpecificationItemEncoder.inline(new DataOutputStream(buffer)).writeCoverageTag(tag);
+        final CoverageTag decoded = SpecificationItemDecoder.inline(createInput(buffer))
+                .readCoverageTag();
+        assertThat(decoded.toSpecificationItem(), equalTo(tag.toSpecificationItem()));
+        assertThat(decoded.getChecksum(), equalTo(-42L));
+    }
+
+    @Test
+    void testRoundTripOfTextRangesInSource() throws IOException
+    {
+        final TextRange.Source source = TextRange.Source.forFile(Paths.get("/the/file.md"),
+                StandardCharsets.UTF_8);
+        final SpecificationItem item = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "ranges", 1)) //
+                .descriptionRange(source.range(10, 20)) //
+                .rationaleRange(source.range(0, 3)) //
+                .comment("inline comment") //
+                .build();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new SpecificationItemEncoder(new DataOutputStream(buffer),
+                SpecificationItemEncoder::writeText, source).write(item);
+        final SpecificationItem decoded = new SpecificationItemDecoder(createInput(buffer),
+                SpecificationItemDecoder::readText, source).read();
+        assertThat(decoded.getTextRange(ItemTextField.DESCRIPTION),
+                equalTo(source.range(10, 20)));
+        assertThat(decoded.getTextRange(ItemTextField.RATIONALE), equalTo(source.range(0, 3)));
+        assertThat(decoded.getTextRange(ItemTextField.COMMENT), equalTo(null));
+        assertThat(decoded.getComment(), equalTo("inline comment"));
+    }
+
+    @Test
+    void testTextRangeWithoutSourceFails() throws IOException
+    {
+        final TextRange.Source source = TextRange.Source.forFile(Paths.get("/the/file.md"),
+                StandardCharsets.UTF_8);
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new SpecificationItemEncoder(new DataOutputStream(buffer),
+                SpecificationItemEncoder::writeText, source).write(SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("req", "range", 1)) //
+                        .descriptionRange(source.range(1, 2)) //
+                        .build());
+        assertThrows(IOException.class,
+                () -> SpecificationItemDecoder.inline(createInput(buffer)).read());
+    }
+
+    @Test
+    void testInvalidStatusFails() throws IOException
+    {
+        final byte[] encoded = encodeInline(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("a", "b", 1)) //
+                .build());
+        // Two one-letter references, the revision and four empty texts
+        final int statusOffset = 2 + 2 + 1 + 4;
+        encoded[statusOffset] = (byte) ItemStatus.values().length;
+        assertThrows(IOException.class, () -> SpecificationItemDecoder
+                .inline(new DataInputStream(new ByteArrayInputStream(encoded))).read());
+    }
+
+    @Test
+    void testTruncatedItemFails() throws IOException
+    {
+        final byte[] encoded = encodeInline(createFullItem(1));
+        final byte[] truncated = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        assertThrows(EOFException.class, () -> SpecificationItemDecoder
+                .inline(new DataInputStream(new ByteArrayInputStream(truncated))).read());
+    }
+
+    @Test
+    void testInvalidDictionaryReferenceFails()
+    {
+        final DataInputStream input = new DataInputStream(
+                new ByteArrayInputStream(new byte[] { 2 }));
+        assertThrows(IOException.class,
+                () -> StringDictionary.reader(new String[] { "only" }).readReference(input));
+    }
+
+    private static void assertInlineRoundTrip(final SpecificationItem... items)
+            throws IOException
+    {
+        final byte[] encoded = encodeInline(items);
+        final SpecificationItemDecoder decoder = SpecificationItemDecoder
+                .inline(new DataInputStream(new ByteArrayInputStream(encoded)));
+        for (final SpecificationItem item : items)
+        {
+            assertThat(decoder.read(), equalTo(item));
+        }
+    }
+
+    private static byte[] encodeInline(final SpecificationItem... items) throws IOException
+    {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final SpecificationItemEncoder encoder = SpecificationItemEncoder
+                .inline(new DataOutputStream(buffer));
+        for (final SpecificationItem item : items)
+        {
+            encoder.write(item);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static DataInputStream createInput(final ByteArrayOutputStream buffer)
+    {
+        return new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+    }
+
+    private static SpecificationItem createFullItem(final int number)
+    {
+        return SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "item-" + number, number)) //
+                .title("Title " + number) //
+                .status(ItemStatus.PROPOSED) //
+                .description("First line\nsecond line with \u00e4\u00f6\u00fc " + number) //
+                .rationale("the rationale") //
+                .comment("the comment") //
+                .addCoveredId("feat", "covered", 1) //
+                .addDependOnId("req", "depend-on", 1) //
+                .addNeedsArtifactType("impl") //
+                .addNeedsArtifactType("utest") //
+                .addTag("the tag") //
+                .location(Location.create("/the/file.md", number + 1, 3)) //
+                .forwards(number % 2 == 0) //
+                .build();
+    }
+}
@@ -25,6 +25,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
  */
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.itsallcode.openfasttrace.api.core.SpecificationItemId.createId;
 import static org.itsallcode.openfasttrace.api.core.SpecificationItemId.parseId;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -136,6 +137,22 @@ class TestSpecificationItemId
                 equalTo(SpecificationItemId.REVISION_WILDCARD));
     }
 
+    @Test
+    void testIdenticalIdsShareInstance()
+    {
+        final SpecificationItemId id = parseId("feat~shared~2");
+        assertThat(createId("feat", "shared", 2), sameInstance(id));
+        assertThat(new Builder().artifactType("feat").name("shared").revision(2).build(),
+                sameInstance(id));
+    }
+
+    @Test
+    void testToRevisionWildcardSharesInstance()
+    {
+        assertThat(parseId("feat~shared-wildcard~1").toRevisionWildcard(),
+                sameInstance(createId("feat", "shared-wildcard")));
+    }
+
     @Test
     void testToString()
     {
@@ -164,6 +181,10 @@ class TestSpecificationItemId
     @Test
     void testEqualsAndHashContract()
     {
-        EqualsVerifier.forClass(SpecificationItemId.class).verify();
+        EqualsVerifier.forClass(SpecificationItemId.class) //
+                .withCachedHashCode("cachedHashCode", "calculateHashCode",
+                        createId(ARTIFACT_TYPE_FEATURE, NAME, REVISION)) //
+                .withIgnoredFields("ordinal") //
+                .verify();
     }
 }
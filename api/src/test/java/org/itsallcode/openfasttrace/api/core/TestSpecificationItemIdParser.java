@@ -0,0 +1,125 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestSpecificationItemIdParser
+{
+    private SpecificationItemIdTable table;
+    private SpecificationItemIdParser parser;
+
+    @BeforeEach
+    void prepareTest()
+    {
+        this.table = new SpecificationItemIdTable();
+        this.parser = new SpecificationItemIdParser(this.table, 16);
+    }
+
+    @Test
+    void testParseId()
+    {
+        assertParsed("feat~foo.bar_zoo.baz-narf~42", "feat", "foo.bar_zoo.baz-narf", 42);
+    }
+
+    private void assertParsed(final String text, final String artifactType, final String name,
+            final int revision)
+    {
+        assertThat(this.parser.parse(text),
+                sameInstance(this.table.intern(artifactType, name, revision)));
+    }
+
+    @Test
+    void testParseLegacyIds()
+    {
+        assertAll(() -> assertParsed("req:dep-a, v1", "req", "dep-a", 1),
+                () -> assertParsed("req:foo,v12", "req", "foo", 12),
+                () -> assertParsed("dsn~sub:foo.bar,   v3", "dsn", "foo.bar", 3));
+    }
+
+    @Test
+    void testParseRevisionLimits()
+    {
+        assertAll(() -> assertParsed("a~b~007", "a", "b", 7),
+                () -> assertParsed("a~b~0", "a", "b", 0),
+                () -> assertParsed("a~b~2147483647", "a", "b", Integer.MAX_VALUE),
+                () -> assertParsed("a~b~00000000001", "a", "b", 1));
+    }
+
+    @Test
+    void testRevisionOverflowFails()
+    {
+        assertThrows(IllegalArgumentException.class, () -> this.parser.parse("a~b~2147483648"));
+    }
+
+    @Test
+    void testParseIllegalIdsFails()
+    {
+        final String[] negatives = { "", "a", "a~b", "a~b~", "~a~1", "a~~1", "a~b.~1", "a~.b~1",
+                "a~b..c~1", "a~b.1~1", "a~1b~1", "a~b~1 ", " a~b~1", "a~b~1x", "a~b~c~1",
+                "a1~b~1", "a~f\u00e4o~1", "a:b, v", "a:b v1", "a:b, V1", "a~b:c, v1x", "a~:b, v1",
+                "a~1:b, v1", ":b, v1", "a:b, v-1" };
+        for (final String negative : negatives)
+        {
+            assertThrows(IllegalStateException.class, () -> this.parser.parse(negative),
+                    negative);
+        }
+    }
+
+    @Test
+    void testCachedIdIsReturnedForEqualText()
+    {
+        final SpecificationItemId id = this.parser.parse("impl~foo~1");
+        assertThat(this.parser.parse(new String("impl~foo~1")), sameInstance(id));
+    }
+
+    @Test
+    void testCacheSlotCollisionsKeepResultsCorrect()
+    {
+        final SpecificationItemIdParser singleSlotParser = new SpecificationItemIdParser(
+                this.table, 1);
+        for (int round = 0; round < 2; ++round)
+        {
+            for (int i = 0; i < 100; ++i)
+            {
+                final SpecificationItemId id = singleSlotParser.parse("impl~foo" + i + "~" + i);
+                assertThat(id, sameInstance(this.table.intern("impl", "foo" + i, i)));
+            }
+        }
+    }
+
+    @Test
+    void testFailedParsingIsNotCached()
+    {
+        assertThrows(IllegalStateException.class, () -> this.parser.parse("impl~foo"));
+        assertThrows(IllegalStateException.class, () -> this.parser.parse("impl~foo"));
+        assertThat(this.table.size(), equalTo(0));
+    }
+}
@@ -0,0 +1,156 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestSpecificationItemIdTable
+{
+    private SpecificationItemIdTable table;
+
+    @BeforeEach
+    void prepareTest()
+    {
+        this.table = new SpecificationItemIdTable();
+    }
+
+    @Test
+    void testInternReturnsCanonicalInstance()
+    {
+        final SpecificationItemId id = this.table.intern("dsn", "foo", 1);
+        assertThat(this.table.intern(new String("dsn"), new String("foo"), 1), sameInstance(id));
+        assertThat(this.table.size(), equalTo(1));
+    }
+
+    @Test
+    void testDifferentRevisionsAreDifferentIds()
+    {
+        final SpecificationItemId first = this.table.intern("dsn", "foo", 1);
+        final SpecificationItemId second = this.table.intern("dsn", "foo", 2);
+        final SpecificationItemId wildcard = this.table.intern("dsn", "foo",
+                SpecificationItemId.REVISION_WILDCARD);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(wildcard.getRevision(), equalTo(SpecificationItemId.REVISION_WILDCARD));
+        assertThat(this.table.size(), equalTo(3));
+    }
+
+    @Test
+    void testOrdinalsFollowCreationOrder()
+    {
+        assertThat(this.table.intern("dsn", "foo", 1).getOrdinal(), equalTo(0));
+        assertThat(this.table.intern("impl", "foo", 1).getOrdinal(), equalTo(1));
+        assertThat(this.table.intern("dsn", "foo", 1).getOrdinal(), equalTo(0));
+    }
+
+    @Test
+    void testNamesAndArtifactTypesAreShared()
+    {
+        final SpecificationItemId dsn = this.table.intern("dsn", "foo", 1);
+        final SpecificationItemId impl = this.table.intern("impl", new String("foo"), 1);
+        final SpecificationItemId otherDsn = this.table.intern(new String("dsn"), "bar", 1);
+        assertThat(impl.getName(), sameInstance(dsn.getName()));
+        assertThat(otherDsn.getArtifactType(), sameInstance(dsn.getArtifactType()));
+    }
+
+    @Test
+    void testIdsSurviveGrowingTable()
+    {
+        final List<SpecificationItemId> ids = new ArrayList<>();
+        for (int i = 0; i < 10000; ++i)
+        {
+            ids.add(this.table.intern("impl", "name" + i, i % 3));
+        }
+        for (int i = 0; i < 10000; ++i)
+        {
+            assertThat(this.table.intern("impl", "name" + i, i % 3), sameInstance(ids.get(i)));
+        }
+        assertThat(this.table.size(), equalTo(10000));
+    }
+
+    @Test
+    void testUnreferencedIdsAreCollected() throws InterruptedException
+    {
+        final SpecificationItemId kept = this.table.intern("dsn", "kept", 1);
+        for (int i = 0; i < 10000; ++i)
+        {
+            this.table.intern("impl", "name" + i, 1);
+        }
+        for (int attempt = 0; attempt < 50 && this.table.size() > 1; ++attempt)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(this.table.size(), equalTo(1));
+        assertThat(this.table.intern("dsn", "kept", 1), sameInstance(kept));
+    }
+
+    @Test
+    void testReinternedIdGetsNewOrdinal() throws InterruptedException
+    {
+        final int firstOrdinal = this.table.intern("dsn", "foo", 1).getOrdinal();
+        for (int attempt = 0; attempt < 50 && this.table.size() > 0; ++attempt)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        final SpecificationItemId id = this.table.intern("dsn", "foo", 1);
+        assertThat(id.getOrdinal(), greaterThan(firstOrdinal));
+        assertThat(this.table.size(), equalTo(1));
+    }
+
+    @Test
+    void testConcurrentInterningCreatesOneInstance() throws Exception
+    {
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            final List<Future<SpecificationItemId>> results = new ArrayList<>();
+            for (int i = 0; i < 100; ++i)
+            {
+                final int revision = i % 5;
+                results.add(executor.submit(() -> this.table.intern("req", "bar", revision)));
+            }
+            final Map<Integer, SpecificationItemId> firstByRevision = new HashMap<>();
+            for (final Future<SpecificationItemId> result : results)
+            {
+                final SpecificationItemId id = result.get();
+                assertThat(id, sameInstance(firstByRevision.computeIfAbsent(id.getRevision(),
+                        revision -> id)));
+            }
+            assertThat(this.table.size(), equalTo(5));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
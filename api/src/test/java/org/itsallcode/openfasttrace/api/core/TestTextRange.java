@@ -0,0 +1,150 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+@ExtendWith(TempDirectory.class)
+class TestTextRange
+{
+    private static final String NL = System.lineSeparator();
+    private Path tempDir;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.tempDir = tempDir;
+    }
+
+    @Test
+    void testEqualsAndHashContract()
+    {
+        EqualsVerifier.forClass(TextRange.class).verify();
+    }
+
+    @Test
+    void testGetText() throws IOException
+    {
+        final TextRange.Source source = createSource("0123456789");
+        assertThat(source.range(2, 5).getText(), equalTo("234"));
+    }
+
+    @Test
+    void testGetTextNormalizesLineBreaksAndTrims() throws IOException
+    {
+        final TextRange.Source source = createSource("x\r\n a\r\nb\rc\n\nd \ny");
+        assertThat(source.range(1, 15).getText(),
+                equalTo("a" + NL + "b" + NL + "c" + NL + NL + "d"));
+    }
+
+    @Test
+    void testGetTextDecodesCharset() throws IOException
+    {
+        final String content = "abc\u00e4\u00f6\u00fc\ud834\udd1edef";
+        final Path file = this.tempDir.resolve("utf8.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        final TextRange.Source source = TextRange.Source.forFile(file, StandardCharsets.UTF_8);
+        assertThat(source.range(3, 13).getText(), equalTo("\u00e4\u00f6\u00fc\ud834\udd1e"));
+    }
+
+    @Test
+    void testGetEmptyText() throws IOException
+    {
+        assertThat(createSource("abc").range(3, 3).getText(), equalTo(""));
+    }
+
+    @Test
+    void testGetTextOfMissingFileFails()
+    {
+        final TextRange range = TextRange.Source
+                .forFile(this.tempDir.resolve("missing.txt"), StandardCharsets.UTF_8).range(0, 1);
+        assertThrows(UncheckedIOException.class, range::getText);
+    }
+
+    @Test
+    void testGetTextBeyondEndOfFileFails() throws IOException
+    {
+        final TextRange range = createSource("abc").range(1, 4);
+        assertThrows(UncheckedIOException.class, range::getText);
+    }
+
+    @Test
+    void testCreateRangeWithNegativeStartFails() throws IOException
+    {
+        final TextRange.Source source = createSource("abc");
+        assertThrows(IllegalArgumentException.class, () -> source.range(-1, 1));
+    }
+
+    @Test
+    void testCreateRangeWithEndBeforeStartFails() throws IOException
+    {
+        final TextRange.Source source = createSource("abc");
+        assertThrows(IllegalArgumentException.class, () -> source.range(2, 1));
+    }
+
+    @Test
+    void testRangesOfSameSourceAreEqual() throws IOException
+    {
+        final TextRange.Source source = createSource("abc");
+        assertThat(source.range(0, 2), equalTo(source.range(0, 2)));
+    }
+
+    @Test
+    void testRangesOfDifferentSourcesAreNotEqual() throws IOException
+    {
+        final TextRange.Source source = createSource("abc");
+        final TextRange.Source otherSource = TextRange.Source.forFile(source.getPath(),
+                source.getCharset());
+        assertThat(source.range(0, 2).equals(otherSource.range(0, 2)), equalTo(false));
+    }
+
+    @Test
+    void testToString() throws IOException
+    {
+        final TextRange.Source source = createSource("abc");
+        assertThat(source.range(1, 2).toString(), equalTo(source.getPath() + " [1, 2)"));
+    }
+
+    private TextRange.Source createSource(final String content) throws IOException
+    {
+        final Path file = this.tempDir.resolve("text.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return TextRange.Source.forFile(file, StandardCharsets.UTF_8);
+    }
+}
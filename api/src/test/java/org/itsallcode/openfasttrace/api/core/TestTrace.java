@@ -0,0 +1,134 @@
+package org.itsallcode.openfasttrace.api.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestTrace
+{
+    private LinkedSpecificationItem cleanItem;
+    private LinkedSpecificationItem defectItem;
+    private LinkedSpecificationItem otherDefectItem;
+    private List<LinkedSpecificationItem> checkedItems;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.cleanItem = createItem("req~clean~1");
+        this.defectItem = createItem("req~defect~1");
+        this.otherDefectItem = createItem("req~other-defect~1");
+        this.checkedItems = new ArrayList<>();
+    }
+
+    private static LinkedSpecificationItem createItem(final String id)
+    {
+        return new LinkedSpecificationItem(
+                SpecificationItem.builder().id(SpecificationItemId.parseId(id)).build());
+    }
+
+    @Test
+    void testHasNoDefectsStopsAtFirstDefect()
+    {
+        final Trace trace = createTrace(this.cleanItem, this.defectItem, this.otherDefectItem);
+        assertThat(trace.hasNoDefects(), equalTo(false));
+        assertThat(this.checkedItems, contains(this.cleanItem, this.defectItem));
+    }
+
+    @Test
+    void testHasNoDefectsIsOnlyEvaluatedOnce()
+    {
+        final Trace trace = createTrace(this.cleanItem);
+        assertThat(trace.hasNoDefects(), equalTo(true));
+        assertThat(trace.hasNoDefects(), equalTo(true));
+        assertThat(this.checkedItems, contains(this.cleanItem));
+    }
+
+    @Test
+    void testDefectItemsAreCollectedOnDemand()
+    {
+        final Trace trace = createTrace(this.defectItem, this.cleanItem, this.otherDefectItem);
+        assertThat(this.checkedItems, empty());
+        assertThat(trace.getDefectItems(), contains(this.defectItem, this.otherDefectItem));
+        assertThat(trace.countDefects(), equalTo(2));
+        assertThat(trace.hasNoDefects(), equalTo(false));
+        assertThat(this.checkedItems.size(), equalTo(3));
+    }
+
+    @Test
+    void testCleanTraceHasNoDefectItems()
+    {
+        final Trace trace = createTrace(this.cleanItem);
+        assertThat(trace.hasNoDefects(), equalTo(true));
+        assertThat(trace.getDefectIds(), empty());
+        assertThat(this.checkedItems.size(), equalTo(1));
+    }
+
+    @Test
+    void testGivenDefectItemsAreUsed()
+    {
+        final Trace trace = Trace.builder() //
+                .items(asList(this.cleanItem, this.defectItem)) //
+                .defectItems(asList(this.defectItem)) //
+                .defectCheck(this::recordCheck) //
+                .build();
+        assertThat(trace.hasNoDefects(), equalTo(false));
+        assertThat(trace.getDefectIds(), contains(this.defectItem.getId()));
+        assertThat(trace.count(), equalTo(2));
+        assertThat(this.checkedItems, empty());
+    }
+
+    @Test
+    void testCountIncludesAggregatedItems()
+    {
+        final Trace trace = Trace.builder() //
+                .items(new CompactLinkedItemList(asList(this.cleanItem, this.defectItem), 3)) //
+                .defectCheck(this::recordCheck) //
+                .build();
+        assertThat(trace.count(), equalTo(5));
+        assertThat(trace.countDefects(), equalTo(1));
+    }
+
+    private Trace createTrace(final LinkedSpecificationItem... items)
+    {
+        return Trace.builder() //
+                .items(asList(items)) //
+                .defectCheck(this::recordCheck) //
+                .build();
+    }
+
+    private boolean recordCheck(final LinkedSpecificationItem item)
+    {
+        this.checkedItems.add(item);
+        return (item == this.defectItem) || (item == this.otherDefectItem);
+    }
+}
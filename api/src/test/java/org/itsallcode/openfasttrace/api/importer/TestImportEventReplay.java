@@ -0,0 +1,96 @@
+package org.itsallcode.openfasttrace.api.importer;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.FilterSettings;
+import org.itsallcode.openfasttrace.api.core.*;
+import org.junit.jupiter.api.Test;
+
+class TestImportEventReplay
+{
+    @Test
+    void testReplayedItemEqualsOriginal()
+    {
+        final SpecificationItem item = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", "replayed", 2)) //
+                .title("Title") //
+                .status(ItemStatus.DRAFT) //
+                .description("Description") //
+                .rationale("Rationale") //
+                .comment("Comment") //
+                .addCoveredId("req", "covered", 1) //
+                .addDependOnId("dsn", "other", 1) //
+                .addNeedsArtifactType("impl") //
+                .addTag("tag") //
+                .location(Location.create("file.md", 3)) //
+                .forwards(false) //
+                .build();
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        ImportEventReplay.replay(item, builder);
+        assertThat(builder.build(), contains(item));
+    }
+
+    @Test
+    void testReplayKeepsTextRanges()
+    {
+        final TextRange.Source source = TextRange.Source.forFile(Paths.get("file.md"),
+                StandardCharsets.UTF_8);
+        final SpecificationItem item = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", "lazy", 1)) //
+                .descriptionRange(source.range(4, 8)) //
+                .commentRange(source.range(9, 12)) //
+                .build();
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        ImportEventReplay.replay(item, builder);
+        final SpecificationItem replayed = builder.build().get(0);
+        assertThat(replayed.getTextRange(ItemTextField.DESCRIPTION),
+                equalTo(source.range(4, 8)));
+        assertThat(replayed.getTextRange(ItemTextField.RATIONALE), equalTo(null));
+        assertThat(replayed.getTextRange(ItemTextField.COMMENT), equalTo(source.range(9, 12)));
+    }
+
+    @Test
+    void testReplayAppliesFilters()
+    {
+        final SpecificationListBuilder builder = SpecificationListBuilder
+                .createWithFilter(new FilterSettings.Builder() //
+                        .artifactTypes(Set.of("impl")) //
+                        .build());
+        final SpecificationItem included = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("impl", "included", 1)) //
+                .build();
+        ImportEventReplay.replay(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", "excluded", 1)) //
+                .build(), builder);
+        ImportEventReplay.replay(included, builder);
+        assertThat(builder.build(), contains(included));
+    }
+}
@@ -25,23 +25,46 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
  * #L%
  */
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import org.itsallcode.openfasttrace.api.FilterSettings;
+import org.itsallcode.openfasttrace.api.core.CompactItemList;
+import org.itsallcode.openfasttrace.api.core.CoverageTag;
 import org.itsallcode.openfasttrace.api.core.ItemStatus;
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.itsallcode.openfasttrace.api.core.TextRange;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
 
+@ExtendWith(TempDirectory.class)
 class TestSpecificationListBuilder
 {
 
     private static final String DESCRIPTION = "description";
     private static final String TITLE = "title";
     private final static SpecificationItemId ID = SpecificationItemId.parseId("feat~id~1");
+    private Path tempDir;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.tempDir = tempDir;
+    }
 
     @Test
     void testBuildBasicItem()
@@ -56,6 +79,38 @@ class TestSpecificationListBuilder
         assertThat(items.get(0).getTitle(), equalTo(TITLE));
     }
 
+    @Test
+    void testTextRangeIsReadOnlyWhenRequested() throws IOException
+    {
+        final Path file = this.tempDir.resolve("spec.md");
+        final TextRange.Source source = TextRange.Source.forFile(file, StandardCharsets.UTF_8);
+        final SpecificationListBuilder builder = createBasicListBuilder();
+        builder.appendDescription(source.range(0, 5));
+        builder.appendRationale(source.range(6, 9));
+        builder.appendComment(source.range(10, 13));
+        final List<SpecificationItem> items = builder.build();
+        Files.write(file, "descr why com".getBytes(StandardCharsets.UTF_8));
+        assertThat(items.get(0).getDescription(), equalTo("descr"));
+        assertThat(items.get(0).getRationale(), equalTo("why"));
+        assertThat(items.get(0).getComment(), equalTo("com"));
+    }
+
+    @Test
+    void testTextRangeIsConcatenatedWithOtherFragments() throws IOException
+    {
+        final Path file = this.tempDir.resolve("spec.md");
+        Files.write(file, "lazy".getBytes(StandardCharsets.UTF_8));
+        final TextRange.Source source = TextRange.Source.forFile(file, StandardCharsets.UTF_8);
+        final SpecificationListBuilder builder = createBasicListBuilder();
+        builder.appendDescription(source.range(0, 4));
+        builder.appendDescription(" and eager");
+        builder.appendRationale("eager and ");
+        builder.appendRationale(source.range(0, 4));
+        final List<SpecificationItem> items = builder.build();
+        assertThat(items.get(0).getDescription(), equalTo("lazy and eager"));
+        assertThat(items.get(0).getRationale(), equalTo("eager and lazy"));
+    }
+
     private SpecificationListBuilder createBasicListBuilder()
     {
         final SpecificationListBuilder builder = SpecificationListBuilder.create();
@@ -230,4 +285,89 @@ class TestSpecificationListBuilder
         assertThat(items.stream().map(SpecificationItem::getName).collect(Collectors.toList()),
                 containsInAnyOrder("in-A", "in-B", "in-D"));
     }
+
+    @Test
+    void testCoverageTagIsImportedAsFullItemByDefault()
+    {
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        final CoverageTag tag = createCoverageTag("impl", ID);
+        builder.addCoverageTag(tag);
+        final List<SpecificationItem> items = builder.build();
+        assertThat(items, not(instanceOf(CompactItemList.class)));
+        assertThat(items, contains(tag.toSpecificationItem()));
+    }
+
+    private static CoverageTag createCoverageTag(final String coveringArtifactType,
+            final SpecificationItemId coveredId)
+    {
+        return CoverageTag.builder() //
+                .coveringArtifactType(coveringArtifactType) //
+                .coveredId(coveredId) //
+                .location("src/Foo.java", 42) //
+                .checksum(1234) //
+                .build();
+    }
+
+    @Test
+    void testCoverageTagIsKeptCompact()
+    {
+        final SpecificationListBuilder builder = SpecificationListBuilder
+                .createWithFilter(FilterSettings.createAllowingEverything(), true);
+        final CoverageTag tag = createCoverageTag("impl", ID);
+        builder.addCoverageTag(tag);
+        builder.beginSpecificationItem();
+        builder.setId(ID);
+        builder.endSpecificationItem();
+        final List<SpecificationItem> items = builder.build();
+        assertThat(items, instanceOf(CompactItemList.class));
+        final CompactItemList compactItems = (CompactItemList) items;
+        assertThat(compactItems.getItems().size(), equalTo(1));
+        assertThat(compactItems.getCoverageTags().size(), equalTo(1));
+        assertThat(builder.getItemCount(), equalTo(2));
+        assertThat(items.get(1), equalTo(tag.toSpecificationItem()));
+    }
+
+    // [utest->dsn~filtering-by-artifact-types-during-import~1]
+    @Test
+    void testFilterCompactCoverageTagOfType()
+    {
+        final FilterSettings filterSettings = new FilterSettings.Builder() //
+                .artifactTypes(new HashSet<>(Arrays.asList("feat"))) //
+                .build();
+        final SpecificationListBuilder builder = SpecificationListBuilder
+                .createWithFilter(filterSettings, true);
+        builder.addCoverageTag(createCoverageTag("impl", ID));
+        assertThat(builder.build(), empty());
+    }
+
+    // [utest->dsn~filtering-by-artifact-types-during-import~1]
+    @Test
+    void testCompactCoverageTagWithFilteredCoveredIdBecomesFullItem()
+    {
+        final FilterSettings filterSettings = new FilterSettings.Builder() //
+                .artifactTypes(new HashSet<>(Arrays.asList("impl"))) //
+                .build();
+        final SpecificationListBuilder builder = SpecificationListBuilder
+                .createWithFilter(filterSettings, true);
+        final CoverageTag tag = createCoverageTag("impl", ID);
+        builder.addCoverageTag(tag);
+        final List<SpecificationItem> items = builder.build();
+        assertThat(items, not(instanceOf(CompactItemList.class)));
+        assertThat(items.get(0).getId(), equalTo(tag.getId()));
+        assertThat(items.get(0).getCoveredIds(), empty());
+    }
+
+    @Test
+    void testAddItemsKeepsCoverageTagsCompact()
+    {
+        final SpecificationListBuilder fileBuilder = SpecificationListBuilder
+                .createWithFilter(FilterSettings.createAllowingEverything(), true);
+        fileBuilder.addCoverageTag(createCoverageTag("impl", ID));
+        final SpecificationListBuilder builder = SpecificationListBuilder
+                .createWithFilter(FilterSettings.createAllowingEverything(), true);
+        builder.addItems(fileBuilder.build());
+        final List<SpecificationItem> items = builder.build();
+        assertThat(items, instanceOf(CompactItemList.class));
+        assertThat(((CompactItemList) items).getCoverageTags().size(), equalTo(1));
+    }
 }
@@ -93,6 +93,16 @@ class TestRealFileInput
         assertThat(inputFile.isRealFile(), equalTo(true));
     }
 
+    @Test
+    void testGetCharset() throws IOException
+    {
+        final Path path = Paths.get("blah");
+        assertThat(((RealFileInput) RealFileInput.forPath(path)).getCharset(),
+                equalTo(StandardCharsets.UTF_8));
+        assertThat(((RealFileInput) RealFileInput.forPath(path, StandardCharsets.ISO_8859_1))
+                .getCharset(), equalTo(StandardCharsets.ISO_8859_1));
+    }
+
     @Test
     void testReadWithDefaultEncoding() throws IOException
     {
@@ -0,0 +1,133 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.*;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.importer.markdown.MarkdownImporterFactory;
+import org.itsallcode.openfasttrace.importer.specobject.SpecobjectImporterFactory;
+import org.itsallcode.openfasttrace.importer.tag.TagImporterFactory;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusFormat;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusSettings;
+import org.itsallcode.openfasttrace.testutil.corpus.SyntheticCorpus;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Common settings of all benchmarks. Each benchmark operation processes a
+ * synthetic corpus of {@link #itemCount} specification items, so the
+ * throughput is reported in corpora per second. Importer benchmarks only
+ * import the files of the corpus that their importer supports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx8g" })
+public abstract class AbstractCorpusBenchmark
+{
+    private static final long SEED = 1;
+    private static final double DEFECT_RATIO = 0.01;
+    private static final int CYCLE_COUNT = 10;
+
+    /** Number of specification items in the corpus */
+    @Param({ "10000", "100000", "1000000", "5000000" })
+    public int itemCount;
+
+    /**
+     * Generate the corpus for this benchmark
+     * 
+     * @param specificationFormat
+     *            format of the specification documents
+     * @return corpus with one percent defect links and a few link cycles
+     */
+    protected SyntheticCorpus generateCorpus(final CorpusFormat specificationFormat)
+    {
+        return SyntheticCorpus.generate(CorpusSettings.builder() //
+                .seed(SEED) //
+                .itemCount(this.itemCount) //
+                .defectRatio(DEFECT_RATIO) //
+                .cycleCount(CYCLE_COUNT) //
+                .specificationFormat(specificationFormat) //
+                .build());
+    }
+
+    /**
+     * Import all files of a corpus
+     * 
+     * @param corpus
+     *            corpus to be imported
+     * @return imported items
+     */
+    protected static List<SpecificationItem> importAll(final SyntheticCorpus corpus)
+    {
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        importFiles(initFactory(new MarkdownImporterFactory(), corpus),
+                corpus.getInputFiles(CorpusFormat.MARKDOWN), builder);
+        importFiles(initFactory(new SpecobjectImporterFactory(), corpus),
+                corpus.getInputFiles(CorpusFormat.SPECOBJECT), builder);
+        importFiles(initFactory(new TagImporterFactory(), corpus),
+                corpus.getInputFiles(CorpusFormat.TAG), builder);
+        return builder.build();
+    }
+
+    /**
+     * Initialize an importer factory with the path configurations of a corpus
+     * 
+     * @param factory
+     *            importer factory
+     * @param corpus
+     *            corpus to be imported
+     * @return the initialized factory
+     */
+    protected static ImporterFactory initFactory(final ImporterFactory factory,
+            final SyntheticCorpus corpus)
+    {
+        factory.init(new ImporterContext(
+                ImportSettings.builder().pathConfigs(corpus.getPathConfigs()).build()));
+        return factory;
+    }
+
+    /**
+     * Import files with a single importer
+     * 
+     * @param factory
+     *            factory of the importer
+     * @param files
+     *            files to be imported
+     * @param listener
+     *            listener receiving the import events
+     */
+    protected static void importFiles(final ImporterFactory factory, final List<InputFile> files,
+            final ImportEventListener listener)
+    {
+        for (final InputFile file : files)
+        {
+            factory.createImporter(file, listener).runImport();
+        }
+    }
+}
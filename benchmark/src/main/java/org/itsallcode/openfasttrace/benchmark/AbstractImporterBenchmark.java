@@ -0,0 +1,77 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusFormat;
+import org.itsallcode.openfasttrace.testutil.corpus.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Base class for benchmarks that import the files of a synthetic corpus with
+ * a single importer. The files are kept in memory, so only parsing and
+ * building the items is measured.
+ */
+public abstract class AbstractImporterBenchmark extends AbstractCorpusBenchmark
+{
+    private ImporterFactory factory;
+    private List<InputFile> files;
+
+    @Setup
+    public void prepare()
+    {
+        final CorpusFormat format = getFormat();
+        final SyntheticCorpus corpus = generateCorpus(
+                (format == CorpusFormat.TAG) ? CorpusFormat.MARKDOWN : format);
+        this.factory = initFactory(createFactory(), corpus);
+        this.files = corpus.getInputFiles(format);
+    }
+
+    @Benchmark
+    public List<SpecificationItem> importCorpus()
+    {
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        importFiles(this.factory, this.files, builder);
+        return builder.build();
+    }
+
+    /**
+     * Create the factory of the importer under test
+     * 
+     * @return importer factory
+     */
+    protected abstract ImporterFactory createFactory();
+
+    /**
+     * Get the format of the files the importer under test supports
+     * 
+     * @return file format
+     */
+    protected abstract CorpusFormat getFormat();
+}
@@ -0,0 +1,65 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.OutputStream;
+
+import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.report.Reportable;
+import org.itsallcode.openfasttrace.core.Linker;
+import org.itsallcode.openfasttrace.core.Tracer;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Base class for benchmarks that render a report of a traced synthetic
+ * corpus. The report is written to a stream that discards the output, so only
+ * the rendering is measured.
+ */
+public abstract class AbstractReportBenchmark extends AbstractCorpusBenchmark
+{
+    private Trace trace;
+
+    @Setup
+    public void prepare()
+    {
+        this.trace = new Tracer()
+                .trace(new Linker(importAll(generateCorpus(CorpusFormat.MARKDOWN))).link());
+    }
+
+    @Benchmark
+    public void renderReport()
+    {
+        createReport(this.trace).renderToStream(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Create the report under test
+     * 
+     * @param trace
+     *            trace to be reported
+     * @return report
+     */
+    protected abstract Reportable createReport(Trace trace);
+}
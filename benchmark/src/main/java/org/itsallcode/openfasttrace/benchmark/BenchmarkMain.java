@@ -0,0 +1,63 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. It accepts the regular JMH command line
+ * options and always adds the GC profiler, so that each result also shows the
+ * allocation rate.
+ */
+public final class BenchmarkMain
+{
+    private BenchmarkMain()
+    {
+        // prevent instantiation
+    }
+
+    /**
+     * Run the benchmarks
+     * 
+     * @param args
+     *            JMH command line options, e.g. a benchmark name pattern or
+     *            <code>-p itemCount=10000</code>
+     * @throws CommandLineOptionException
+     *             if the command line options are invalid
+     * @throws RunnerException
+     *             if running the benchmarks fails
+     */
+    public static void main(final String[] args)
+            throws CommandLineOptionException, RunnerException
+    {
+        new Runner(new OptionsBuilder() //
+                .parent(new CommandLineOptions(args)) //
+                .addProfiler(GCProfiler.class) //
+                .build()).run();
+    }
+}
@@ -1,4 +1,4 @@
-package org.itsallcode.openfasttrace.importer.tag;
+package org.itsallcode.openfasttrace.benchmark;
 
 /*-
  * #%L
@@ -21,22 +21,19 @@ package org.itsallcode.openfasttrace.importer.tag;
  * <http://www.gnu.org/licenses/gpl-3.0.html>.
  * #L%
  */
-import java.util.List;
 
-import org.itsallcode.openfasttrace.importer.tag.LineReader.LineConsumer;
+import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.report.Reportable;
+import org.itsallcode.openfasttrace.report.html.HtmlReport;
 
-class DelegatingLineConsumer implements LineConsumer
+/**
+ * Benchmark for rendering an HTML report
+ */
+public class HtmlReportBenchmark extends AbstractReportBenchmark
 {
-    private final List<LineConsumer> delegates;
-
-    DelegatingLineConsumer(final List<LineConsumer> delegates)
-    {
-        this.delegates = delegates;
-    }
-
     @Override
-    public void readLine(final int lineNumber, final String line)
+    protected Reportable createReport(final Trace trace)
     {
-        this.delegates.forEach(delegate -> delegate.readLine(lineNumber, line));
+        return new HtmlReport(trace);
     }
 }
@@ -0,0 +1,45 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.importer.markdown.MarkdownImporterFactory;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusFormat;
+
+/**
+ * Benchmark for importing Markdown specification documents
+ */
+public class MarkdownImporterBenchmark extends AbstractImporterBenchmark
+{
+    @Override
+    protected ImporterFactory createFactory()
+    {
+        return new MarkdownImporterFactory();
+    }
+
+    @Override
+    protected CorpusFormat getFormat()
+    {
+        return CorpusFormat.MARKDOWN;
+    }
+}
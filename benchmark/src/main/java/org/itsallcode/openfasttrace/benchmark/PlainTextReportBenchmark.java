@@ -0,0 +1,45 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.itsallcode.openfasttrace.api.ReportSettings;
+import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
+import org.itsallcode.openfasttrace.api.report.Reportable;
+import org.itsallcode.openfasttrace.report.plaintext.PlainTextReport;
+
+/**
+ * Benchmark for rendering a plain text report that lists all items
+ */
+public class PlainTextReportBenchmark extends AbstractReportBenchmark
+{
+    private static final ReportSettings SETTINGS = ReportSettings.builder() //
+            .verbosity(ReportVerbosity.ALL) //
+            .build();
+
+    @Override
+    protected Reportable createReport(final Trace trace)
+    {
+        return new PlainTextReport(trace, SETTINGS);
+    }
+}
@@ -0,0 +1,114 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for parsing specification item IDs. It compares
+ * {@link SpecificationItemId#parseId(String)} with matching the ID patterns,
+ * which is how IDs were parsed before. Each operation parses
+ * {@link #ID_COUNT} IDs that are drawn from {@link #distinctIds} different
+ * IDs, so that a small number of distinct IDs shows the effect of the parse
+ * cache and a large number shows the parser itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SpecificationItemIdBenchmark
+{
+    private static final int ID_COUNT = 10000;
+    private static final int LEGACY_ID_RATIO = 10;
+    private static final long SEED = 1;
+
+    /** Number of different IDs among the parsed IDs */
+    @Param({ "100", "100000" })
+    public int distinctIds;
+
+    private String[] texts;
+
+    @Setup
+    public void prepare()
+    {
+        final Random random = new Random(SEED);
+        this.texts = new String[ID_COUNT];
+        for (int i = 0; i < ID_COUNT; ++i)
+        {
+            final int id = random.nextInt(this.distinctIds);
+            // Create new strings, like an importer does for each line it reads
+            this.texts[i] = new StringBuilder(createText(id)).toString();
+        }
+    }
+
+    private static String createText(final int id)
+    {
+        if (id % LEGACY_ID_RATIO == 0)
+        {
+            return "req:component.feature-" + id + ", v" + (id % 3 + 1);
+        }
+        return "dsn~component.feature_" + id + ".detail~" + (id % 3 + 1);
+    }
+
+    @Benchmark
+    public void parseId(final Blackhole blackhole)
+    {
+        for (final String text : this.texts)
+        {
+            blackhole.consume(SpecificationItemId.parseId(text));
+        }
+    }
+
+    @Benchmark
+    public void parseIdWithPatterns(final Blackhole blackhole)
+    {
+        for (final String text : this.texts)
+        {
+            blackhole.consume(parseWithPatterns(text));
+        }
+    }
+
+    private static SpecificationItemId parseWithPatterns(final String text)
+    {
+        Matcher matcher = SpecificationItemId.ID_PATTERN.matcher(text);
+        if (!matcher.matches())
+        {
+            matcher = SpecificationItemId.LEGACY_ID_PATTERN.matcher(text);
+            if (!matcher.matches())
+            {
+                throw new IllegalStateException(
+                        "String \"" + text + "\" cannot be parsed to a specification item ID");
+            }
+        }
+        return SpecificationItemId.createId(matcher.group(1), matcher.group(2),
+                Integer.parseInt(matcher.group(3)));
+    }
+}
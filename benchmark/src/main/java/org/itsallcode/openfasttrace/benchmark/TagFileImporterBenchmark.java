@@ -0,0 +1,97 @@
+package org.itsallcode.openfasttrace.benchmark;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.importer.tag.TagImporterFactory;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusFormat;
+import org.itsallcode.openfasttrace.testutil.corpus.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark for importing coverage tags from source files on disk. Unlike the
+ * {@link TagImporterBenchmark} this includes reading the files, which the tag
+ * importer does on the byte level for real files.
+ */
+public class TagFileImporterBenchmark extends AbstractCorpusBenchmark
+{
+    private Path directory;
+    private ImporterFactory factory;
+    private List<InputFile> files;
+
+    @Setup
+    public void prepare() throws IOException
+    {
+        final SyntheticCorpus corpus = generateCorpus(CorpusFormat.MARKDOWN);
+        this.directory = Files.createTempDirectory("oft-benchmark");
+        corpus.writeTo(this.directory);
+        this.factory = initFactory(new TagImporterFactory(), corpus);
+        this.files = corpus.getInputFiles(CorpusFormat.TAG).stream() //
+                .map(file -> RealFileInput.forPath(this.directory.resolve(file.getPath()))) //
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(this.directory))
+        {
+            paths.sorted(Comparator.reverseOrder()).forEach(TagFileImporterBenchmark::delete);
+        }
+    }
+
+    private static void delete(final Path path)
+    {
+        try
+        {
+            Files.delete(path);
+        }
+        catch (final IOException exception)
+        {
+            throw new UncheckedIOException("Error deleting " + path, exception);
+        }
+    }
+
+    @Benchmark
+    public List<SpecificationItem> importCorpus()
+    {
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        importFiles(this.factory, this.files, builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,298 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Decides which {@link CoverageTag}s the {@link Linker} can aggregate instead
+ * of linking the full items of the tags.
+ * 
+ * <p>
+ * A tag is aggregated if its item would have exactly one link that covers a
+ * needed artifact type of an item without duplicates and if no other item
+ * refers to it. The trace result of such an item is known in advance: it is
+ * not a defect and only adds its artifact type to the covered artifact types
+ * of the covered item. All other tags are materialized and linked like
+ * regular items, so that they are reported exactly as before.
+ * </p>
+ */
+class CoverageTagAggregator
+{
+    private static final int GENERATED_REVISION = 0;
+
+    private final Map<SpecificationItemId, SpecificationItem> itemsById = new HashMap<>();
+    private final Set<SpecificationItemId> duplicateIds = new HashSet<>();
+    private final Map<GeneratedName, SpecificationItemId> referencedGeneratedNames = new HashMap<>();
+    private final List<SpecificationItem> itemsToLink;
+    private final List<CoverageTag> aggregatedTags = new ArrayList<>();
+
+    /**
+     * Create a new {@link CoverageTagAggregator}
+     * 
+     * @param items
+     *            regular items and coverage tags to be linked
+     */
+    CoverageTagAggregator(final CompactItemList items)
+    {
+        this.itemsToLink = new ArrayList<>(items.getItems());
+        indexItems(items.getItems());
+        aggregate(items.getCoverageTags());
+    }
+
+    private void indexItems(final List<SpecificationItem> items)
+    {
+        for (final SpecificationItem item : items)
+        {
+            final SpecificationItemId id = item.getId();
+            if (this.itemsById.putIfAbsent(id, item) != null)
+            {
+                this.duplicateIds.add(id);
+            }
+            addReferencedId(id);
+            item.getCoveredIds().forEach(this::addReferencedId);
+        }
+    }
+
+    /**
+     * Remember IDs whose name looks like the generated name of a coverage tag.
+     * For IDs of regular items with the revision of generated IDs the ID is
+     * kept, so that a tag with an equal ID can be detected as duplicate.
+     */
+    private void addReferencedId(final SpecificationItemId id)
+    {
+        final GeneratedName name = GeneratedName.parse(id);
+        if (name != null)
+        {
+            final boolean isItemWithGeneratedRevision = (id.getRevision() == GENERATED_REVISION)
+                    && this.itemsById.containsKey(id);
+            if (isItemWithGeneratedRevision)
+            {
+                this.referencedGeneratedNames.put(name, id);
+            }
+            else
+            {
+                this.referencedGeneratedNames.putIfAbsent(name, null);
+            }
+        }
+    }
+
+    private void aggregate(final List<CoverageTag> tags)
+    {
+        tags.forEach(tag -> addReferencedId(tag.getCoveredId()));
+        final boolean[] materialize = findTagsWithConflictingIds(tags);
+        for (int i = 0; i < tags.size(); ++i)
+        {
+            final CoverageTag tag = tags.get(i);
+            if (materialize[i] || !coversNeededArtifactType(tag))
+            {
+                this.itemsToLink.add(tag.toSpecificationItem());
+            }
+            else
+            {
+                this.aggregatedTags.add(tag);
+            }
+        }
+    }
+
+    /**
+     * Find the tags whose generated ID has the same artifact type and name as
+     * any other ID. IDs of tags that are equal to each other are found by
+     * sorting their hash codes. Generated IDs are compared by their parts, so
+     * that the IDs of aggregated tags are never created.
+     */
+    private boolean[] findTagsWithConflictingIds(final List<CoverageTag> tags)
+    {
+        final int tagCount = tags.size();
+        final boolean[] conflicting = new boolean[tagCount];
+        final long[] hashesAndPositions = new long[tagCount];
+        for (int i = 0; i < tagCount; ++i)
+        {
+            final GeneratedName name = GeneratedName.of(tags.get(i));
+            if (this.referencedGeneratedNames.containsKey(name))
+            {
+                conflicting[i] = true;
+                final SpecificationItemId itemId = this.referencedGeneratedNames.get(name);
+                if (itemId != null)
+                {
+                    this.duplicateIds.add(itemId);
+                }
+            }
+            hashesAndPositions[i] = ((long) name.hashCode() << Integer.SIZE) | i;
+        }
+        Arrays.sort(hashesAndPositions);
+        int start = 0;
+        while (start < tagCount)
+        {
+            int end = start + 1;
+            while (end < tagCount && hash(hashesAndPositions[end]) == hash(
+                    hashesAndPositions[start]))
+            {
+                ++end;
+            }
+            if (end - start > 1)
+            {
+                markEqualNames(tags, hashesAndPositions, start, end, conflicting);
+            }
+            start = end;
+        }
+        return conflicting;
+    }
+
+    private static int hash(final long hashAndPosition)
+    {
+        return (int) (hashAndPosition >> Integer.SIZE);
+    }
+
+    private static int position(final long hashAndPosition)
+    {
+        return (int) hashAndPosition;
+    }
+
+    private static void markEqualNames(final List<CoverageTag> tags,
+            final long[] hashesAndPositions, final int start, final int end,
+            final boolean[] conflicting)
+    {
+        final Map<GeneratedName, Integer> firstPositions = new HashMap<>();
+        for (int i = start; i < end; ++i)
+        {
+            final int position = position(hashesAndPositions[i]);
+            final Integer firstPosition = firstPositions
+                    .putIfAbsent(GeneratedName.of(tags.get(position)), position);
+            if (firstPosition != null)
+            {
+                conflicting[firstPosition] = true;
+                conflicting[position] = true;
+            }
+        }
+    }
+
+    private boolean coversNeededArtifactType(final CoverageTag tag)
+    {
+        final SpecificationItemId coveredId = tag.getCoveredId();
+        final SpecificationItem coveredItem = this.itemsById.get(coveredId);
+        return (coveredItem != null) && !this.duplicateIds.contains(coveredId)
+                && coveredItem.getNeedsArtifactTypes().contains(tag.getCoveringArtifactType());
+    }
+
+    /**
+     * Get the regular items together with the items of all tags that could
+     * not be aggregated
+     * 
+     * @return items to be linked
+     */
+    List<SpecificationItem> getItemsToLink()
+    {
+        return this.itemsToLink;
+    }
+
+    /**
+     * Get the tags that only add their artifact type to the covered item
+     * 
+     * @return aggregated tags
+     */
+    List<CoverageTag> getAggregatedTags()
+    {
+        return this.aggregatedTags;
+    }
+
+    /**
+     * Artifact type and name of a generated ID, split into the name of the
+     * covered ID and the checksum. The revision is ignored.
+     */
+    private static final class GeneratedName
+    {
+        private final String artifactType;
+        private final String coveredName;
+        private final long checksum;
+
+        private GeneratedName(final String artifactType, final String coveredName,
+                final long checksum)
+        {
+            this.artifactType = artifactType;
+            this.coveredName = coveredName;
+            this.checksum = checksum;
+        }
+
+        private static GeneratedName of(final CoverageTag tag)
+        {
+            return new GeneratedName(tag.getCoveringArtifactType(),
+                    tag.getCoveredId().getName(), tag.getChecksum());
+        }
+
+        private static GeneratedName parse(final SpecificationItemId id)
+        {
+            final String name = id.getName();
+            final int separator = name.lastIndexOf('-');
+            if (separator < 0 || separator == name.length() - 1)
+            {
+                return null;
+            }
+            for (int i = separator + 1; i < name.length(); ++i)
+            {
+                if (!Character.isDigit(name.charAt(i)))
+                {
+                    return null;
+                }
+            }
+            final String checksumText = name.substring(separator + 1);
+            try
+            {
+                final long checksum = Long.parseLong(checksumText);
+                return Long.toString(checksum).equals(checksumText)
+                        ? new GeneratedName(id.getArtifactType(), name.substring(0, separator),
+                                checksum)
+                        : null;
+            }
+            catch (final NumberFormatException exception)
+            {
+                return null;
+            }
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(this.artifactType, this.coveredName, this.checksum);
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof GeneratedName))
+            {
+                return false;
+            }
+            final GeneratedName other = (GeneratedName) obj;
+            return (this.checksum == other.checksum)
+                    && this.artifactType.equals(other.artifactType)
+                    && this.coveredName.equals(other.coveredName);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Computes the {@link DeepCoverageStatus} of all linked specification items in
+ * a single pass over the link graph.
+ * 
+ * The graph follows incoming coverage links, i.e. from an item to the items
+ * covering it. Its strongly connected components are determined with Tarjan's
+ * algorithm. A component with more than one item or an item covering itself is
+ * a link cycle. Since the components are completed in reverse topological
+ * order, the status of all items providing coverage is known when a component
+ * is completed. This makes the evaluation linear in the number of items and
+ * links.
+ * 
+ * The results are stored in the items, so that later calls to
+ * {@link LinkedSpecificationItem#getDeepCoverageStatus()} and
+ * {@link LinkedSpecificationItem#isDefect()} do not need to walk the graph
+ * again.
+ */
+// [impl->dsn~tracing.deep-coverage~1]
+// [impl->dsn~tracing.link-cycle~1]
+public class DeepCoverageEvaluator
+{
+    private static final List<LinkStatus> INCOMING_STATUSES = Arrays
+            .stream(LinkStatus.values()).filter(LinkStatus::isIncoming)
+            .collect(Collectors.toList());
+
+    private final Map<LinkedSpecificationItem, Node> nodes = new HashMap<>();
+    private final Deque<Node> componentStack = new ArrayDeque<>();
+    private int nextIndex = 0;
+
+    /**
+     * Evaluate the deep coverage of the given items and store the results in
+     * the items.
+     * 
+     * Linking must be complete before calling this method.
+     * 
+     * @param items
+     *            the linked items to be evaluated
+     */
+    public void evaluate(final List<LinkedSpecificationItem> items)
+    {
+        for (final LinkedSpecificationItem item : items)
+        {
+            if (!this.nodes.containsKey(item))
+            {
+                visitFrom(item);
+            }
+        }
+        this.nodes.clear();
+    }
+
+    /**
+     * Evaluate the deep coverage of a single item and of all items covering it
+     * directly or indirectly. Items evaluated by earlier calls on this
+     * evaluator are not visited again, so evaluating all items one by one
+     * takes as long as evaluating the complete list at once.
+     * 
+     * Linking must be complete before calling this method.
+     * 
+     * @param item
+     *            the linked item to be evaluated
+     */
+    public void evaluate(final LinkedSpecificationItem item)
+    {
+        if (!this.nodes.containsKey(item))
+        {
+            visitFrom(item);
+        }
+    }
+
+    private void visitFrom(final LinkedSpecificationItem root)
+    {
+        final Deque<Node> callStack = new ArrayDeque<>();
+        callStack.push(enter(root));
+        while (!callStack.isEmpty())
+        {
+            final Node node = callStack.peek();
+            if (node.pendingCoveringItems.hasNext())
+            {
+                final LinkedSpecificationItem coveringItem = node.pendingCoveringItems.next();
+                final Node coveringNode = this.nodes.get(coveringItem);
+                if (coveringNode == null)
+                {
+                    callStack.push(enter(coveringItem));
+                }
+                else if (coveringNode.onStack)
+                {
+                    node.lowLink = Math.min(node.lowLink, coveringNode.index);
+                }
+            }
+            else
+            {
+                callStack.pop();
+                if (node.lowLink == node.index)
+                {
+                    completeComponent(node);
+                }
+                final Node caller = callStack.peek();
+                if (caller != null)
+                {
+                    caller.lowLink = Math.min(caller.lowLink, node.lowLink);
+                }
+            }
+        }
+    }
+
+    private Node enter(final LinkedSpecificationItem item)
+    {
+        final Node node = new Node(item, this.nextIndex++);
+        this.nodes.put(item, node);
+        this.componentStack.push(node);
+        node.onStack = true;
+        return node;
+    }
+
+    private void completeComponent(final Node root)
+    {
+        final List<Node> component = new ArrayList<>();
+        Node member;
+        do
+        {
+            member = this.componentStack.pop();
+            member.onStack = false;
+            member.componentIndex = root.index;
+            component.add(member);
+        }
+        while (member != root);
+        final DeepCoverageStatus status = evaluateComponent(component, root.index);
+        for (final Node node : component)
+        {
+            node.item.setDeepCoverageStatus(status);
+        }
+    }
+
+    private DeepCoverageStatus evaluateComponent(final List<Node> component,
+            final int componentIndex)
+    {
+        DeepCoverageStatus status = DeepCoverageStatus.COVERED;
+        for (final Node node : component)
+        {
+            for (final LinkedSpecificationItem coveringItem : getCoveringItems(node.item))
+            {
+                final Node coveringNode = this.nodes.get(coveringItem);
+                if (coveringNode.componentIndex == componentIndex)
+                {
+                    return DeepCoverageStatus.CYCLE;
+                }
+                status = DeepCoverageStatus.getWorst(status,
+                        coveringItem.getDeepCoverageStatus());
+            }
+            if (!node.item.isCoveredShallow())
+            {
+                status = DeepCoverageStatus.getWorst(status, DeepCoverageStatus.UNCOVERED);
+            }
+        }
+        return status;
+    }
+
+    private static List<LinkedSpecificationItem> getCoveringItems(
+            final LinkedSpecificationItem item)
+    {
+        final List<LinkedSpecificationItem> coveringItems = new ArrayList<>();
+        for (final LinkStatus status : INCOMING_STATUSES)
+        {
+            coveringItems.addAll(item.getLinksByStatus(status));
+        }
+        return coveringItems;
+    }
+
+    private static final class Node
+    {
+        private final LinkedSpecificationItem item;
+        private final int index;
+        private final Iterator<LinkedSpecificationItem> pendingCoveringItems;
+        private int lowLink;
+        private int componentIndex = -1;
+        private boolean onStack;
+
+        private Node(final LinkedSpecificationItem item, final int index)
+        {
+            this.item = item;
+            this.index = index;
+            this.lowLink = index;
+            this.pendingCoveringItems = getCoveringItems(item).iterator();
+        }
+    }
+}
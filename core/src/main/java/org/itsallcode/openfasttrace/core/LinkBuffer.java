@@ -0,0 +1,138 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * {@link LinkRecorder} that keeps the recorded calls in the order in which
+ * they were made, so that they can be passed on to another recorder later.
+ * 
+ * <p>
+ * The parallel {@link Linker} records the links of each partition of items in
+ * its own buffer and replays the buffers in the order of the partitions.
+ * </p>
+ */
+final class LinkBuffer implements LinkRecorder
+{
+    private static final byte LINK = 0;
+    private static final byte ORPHANED_LINK = 1;
+    private static final byte COVERED_ARTIFACT_TYPE = 2;
+    private static final byte OVER_COVERED_ARTIFACT_TYPE = 3;
+    private static final LinkStatus[] STATUSES = LinkStatus.values();
+
+    private byte[] kinds = new byte[64];
+    private byte[] statuses = new byte[64];
+    private Object[] subjects = new Object[64];
+    private Object[] objects = new Object[64];
+    private int size = 0;
+
+    @Override
+    public void addLink(final LinkedSpecificationItem from, final LinkedSpecificationItem to,
+            final LinkStatus status)
+    {
+        add(LINK, from, to, status);
+    }
+
+    @Override
+    public void addOrphanedLink(final LinkedSpecificationItem from,
+            final SpecificationItemId coveredId)
+    {
+        add(ORPHANED_LINK, from, coveredId, LinkStatus.ORPHANED);
+    }
+
+    @Override
+    public void addCoveredArtifactType(final LinkedSpecificationItem item,
+            final String artifactType)
+    {
+        add(COVERED_ARTIFACT_TYPE, item, artifactType, null);
+    }
+
+    @Override
+    public void addOverCoveredArtifactType(final LinkedSpecificationItem item,
+            final String artifactType)
+    {
+        add(OVER_COVERED_ARTIFACT_TYPE, item, artifactType, null);
+    }
+
+    private void add(final byte kind, final LinkedSpecificationItem subject, final Object object,
+            final LinkStatus status)
+    {
+        if (this.size == this.kinds.length)
+        {
+            final int capacity = 2 * this.size;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.statuses = Arrays.copyOf(this.statuses, capacity);
+            this.subjects = Arrays.copyOf(this.subjects, capacity);
+            this.objects = Arrays.copyOf(this.objects, capacity);
+        }
+        this.kinds[this.size] = kind;
+        this.statuses[this.size] = (status == null) ? 0 : (byte) status.ordinal();
+        this.subjects[this.size] = subject;
+        this.objects[this.size] = object;
+        ++this.size;
+    }
+
+    /**
+     * Pass all recorded calls on to another recorder in the order in which
+     * they were recorded.
+     * 
+     * @param recorder
+     *            recorder that receives the calls
+     */
+    void replayTo(final LinkRecorder recorder)
+    {
+        for (int i = 0; i < this.size; ++i)
+        {
+            final LinkedSpecificationItem subject = (LinkedSpecificationItem) this.subjects[i];
+            switch (this.kinds[i])
+            {
+            case LINK:
+                recorder.addLink(subject, (LinkedSpecificationItem) this.objects[i],
+                        STATUSES[this.statuses[i]]);
+                break;
+            case ORPHANED_LINK:
+                recorder.addOrphanedLink(subject, (SpecificationItemId) this.objects[i]);
+                break;
+            case COVERED_ARTIFACT_TYPE:
+                recorder.addCoveredArtifactType(subject, (String) this.objects[i]);
+                break;
+            default:
+                recorder.addOverCoveredArtifactType(subject, (String) this.objects[i]);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get the number of recorded calls.
+     * 
+     * @return number of recorded calls
+     */
+    int size()
+    {
+        return this.size;
+    }
+}
@@ -0,0 +1,73 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Receives the links and coverage that the {@link Linker} finds.
+ */
+interface LinkRecorder
+{
+    /**
+     * Add a link from one item to another.
+     * 
+     * @param from
+     *            item the link starts at
+     * @param to
+     *            item the link points to
+     * @param status
+     *            link status
+     */
+    void addLink(LinkedSpecificationItem from, LinkedSpecificationItem to, LinkStatus status);
+
+    /**
+     * Add an orphaned link to an ID that matches no item.
+     * 
+     * @param from
+     *            item the link starts at
+     * @param coveredId
+     *            ID for which no item exists
+     */
+    void addOrphanedLink(LinkedSpecificationItem from, SpecificationItemId coveredId);
+
+    /**
+     * Add an artifact type in which an item is covered.
+     * 
+     * @param item
+     *            covered item
+     * @param artifactType
+     *            covered artifact type
+     */
+    void addCoveredArtifactType(LinkedSpecificationItem item, String artifactType);
+
+    /**
+     * Add an artifact type in which an item has unwanted coverage.
+     * 
+     * @param item
+     *            over-covered item
+     * @param artifactType
+     *            over-covered artifact type
+     */
+    void addOverCoveredArtifactType(LinkedSpecificationItem item, String artifactType);
+}
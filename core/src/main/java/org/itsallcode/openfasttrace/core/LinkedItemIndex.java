@@ -22,23 +22,33 @@ package org.itsallcode.openfasttrace.core;
  * #L%
  */
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import org.itsallcode.openfasttrace.api.core.*;
 
+/**
+ * Index of linked items by artifact type and name.
+ * 
+ * <p>
+ * All revisions of an artifact type and name are kept together in one
+ * {@link ItemRevisions} entry. So a single lookup finds the item with the
+ * exact ID as well as the items with other revisions that the linker needs
+ * for outdated and predated links.
+ * </p>
+ */
 public class LinkedItemIndex
 {
-    private final Map<SpecificationItemId, LinkedSpecificationItem> idIndex;
-    private final Map<SpecificationItemIdWithoutVersion, List<LinkedSpecificationItem>> idIndexIgnoringVersion;
+    private final Map<String, Map<String, ItemRevisions>> idIndex;
+    private final int size;
+    private final int sizeIgnoringVersion;
 
-    private LinkedItemIndex(final Map<SpecificationItemId, LinkedSpecificationItem> idIndex,
-            final Map<SpecificationItemIdWithoutVersion, List<LinkedSpecificationItem>> idIndexIgnoringVersion)
+    private LinkedItemIndex(final Map<String, Map<String, ItemRevisions>> idIndex,
+            final int size, final int sizeIgnoringVersion)
     {
         this.idIndex = idIndex;
-        this.idIndexIgnoringVersion = idIndexIgnoringVersion;
+        this.size = size;
+        this.sizeIgnoringVersion = sizeIgnoringVersion;
     }
 
     public static LinkedItemIndex create(final List<SpecificationItem> items)
@@ -54,124 +64,193 @@ public class LinkedItemIndex
     public static LinkedItemIndex createFromWrappedItems(
             final List<LinkedSpecificationItem> wrappedItems)
     {
-        return new LinkedItemIndex( //
-                createIdIndex(wrappedItems), //
-                createIdIndexIgnoringVersion(wrappedItems));
-
-    }
-
-    private static Map<SpecificationItemIdWithoutVersion, List<LinkedSpecificationItem>> createIdIndexIgnoringVersion(
-            final List<LinkedSpecificationItem> wrappedItems)
-    {
-        return wrappedItems.stream()
-                .collect(Collectors.groupingBy(SpecificationItemIdWithoutVersion::new));
-    }
-
-    private static Map<SpecificationItemId, LinkedSpecificationItem> createIdIndex(
-            final List<LinkedSpecificationItem> wrappedItems)
-    {
-        return wrappedItems.stream().collect(Collectors.toMap(LinkedSpecificationItem::getId, //
-                item -> item, //
-                LinkedItemIndex::handleDuplicates));
+        final Map<String, Map<String, ItemRevisions>> idIndex = new HashMap<>();
+        final List<ItemRevisions> allRevisions = new ArrayList<>();
+        for (final LinkedSpecificationItem item : wrappedItems)
+        {
+            final SpecificationItemId id = item.getId();
+            final Map<String, ItemRevisions> revisionsByName = idIndex
+                    .computeIfAbsent(id.getArtifactType(), key -> new HashMap<>());
+            ItemRevisions revisions = revisionsByName.get(id.getName());
+            if (revisions == null)
+            {
+                revisions = new ItemRevisions(item);
+                revisionsByName.put(id.getName(), revisions);
+                allRevisions.add(revisions);
+            }
+            else
+            {
+                revisions.add(item);
+            }
+        }
+        int size = 0;
+        for (final ItemRevisions revisions : allRevisions)
+        {
+            size += revisions.sortRevisions();
+        }
+        return new LinkedItemIndex(idIndex, size, allRevisions.size());
     }
 
     // [impl->dsn~tracing.tracing.duplicate-items~1]
-    private static LinkedSpecificationItem handleDuplicates(final LinkedSpecificationItem item1,
+    private static void handleDuplicates(final LinkedSpecificationItem item1,
             final LinkedSpecificationItem item2)
     {
         item1.addLinkToItemWithStatus(item2, LinkStatus.DUPLICATE);
         item2.addLinkToItemWithStatus(item1, LinkStatus.DUPLICATE);
-        return item1;
     }
 
     public int size()
     {
-        return this.idIndex.size();
+        return this.size;
     }
 
+    /**
+     * Get the item with the given ID. If multiple items have this ID, the
+     * first one is returned.
+     * 
+     * @param id
+     *            ID of the item
+     * @return item with the ID or <code>null</code> if no item has this ID
+     */
     public LinkedSpecificationItem getById(final SpecificationItemId id)
     {
-        return this.idIndex.get(id);
+        final ItemRevisions revisions = getRevisions(id);
+        return (revisions == null) ? null : revisions.getByRevision(id.getRevision());
     }
 
     public int sizeIgnoringVersion()
     {
-        return this.idIndexIgnoringVersion.size();
+        return this.sizeIgnoringVersion;
     }
 
     public List<LinkedSpecificationItem> getByIdIgnoringVersion(final SpecificationItemId id)
     {
-        final List<LinkedSpecificationItem> items = this.idIndexIgnoringVersion
-                .get(new SpecificationItemIdWithoutVersion(id));
-        return items == null ? Collections.emptyList() : items;
+        final ItemRevisions revisions = getRevisions(id);
+        return (revisions == null) ? Collections.emptyList() : revisions.getItems();
     }
 
-    static final class SpecificationItemIdWithoutVersion
+    /**
+     * Get all revisions of the items with the artifact type and name of an
+     * ID.
+     * 
+     * @param id
+     *            ID of which the revision is ignored
+     * @return revisions or <code>null</code> if no item has the artifact type
+     *         and name of the ID
+     */
+    public ItemRevisions getRevisions(final SpecificationItemId id)
     {
-        private final String name;
-        private final String artifcatType;
+        final Map<String, ItemRevisions> revisionsByName = this.idIndex.get(id.getArtifactType());
+        return (revisionsByName == null) ? null : revisionsByName.get(id.getName());
+    }
 
-        public SpecificationItemIdWithoutVersion(final SpecificationItemId id)
-        {
-            this.name = id.getName();
-            this.artifcatType = id.getArtifactType();
-        }
+    /**
+     * The items that share an artifact type and name.
+     * 
+     * <p>
+     * The items are kept in the order in which they were added. Their
+     * revisions are additionally kept sorted in a primitive array together
+     * with the position of the item they belong to, so that the item with a
+     * given revision is found with a binary search.
+     * </p>
+     */
+    public static final class ItemRevisions
+    {
+        private LinkedSpecificationItem[] items;
+        private int[] revisions;
+        private int[] positions;
+        private int count;
 
-        public SpecificationItemIdWithoutVersion(final LinkedSpecificationItem linkedItem)
+        private ItemRevisions(final LinkedSpecificationItem item)
         {
-            this(linkedItem.getId());
+            this.items = new LinkedSpecificationItem[] { item };
+            this.count = 1;
         }
 
-        @Override
-        public int hashCode()
+        private void add(final LinkedSpecificationItem item)
         {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result
-                    + ((this.artifcatType == null) ? 0 : this.artifcatType.hashCode());
-            result = prime * result + ((this.name == null) ? 0 : this.name.hashCode());
-            return result;
+            if (this.count == this.items.length)
+            {
+                this.items = Arrays.copyOf(this.items, 2 * this.count);
+            }
+            this.items[this.count++] = item;
         }
 
-        @Override
-        public boolean equals(final Object obj)
+        /**
+         * Sort the revisions, link items with the same revision as duplicates
+         * and count the distinct revisions.
+         * 
+         * The revision is stored in the upper half of a <code>long</code> and
+         * the position in the lower half, so that a single primitive sort
+         * orders items with the same revision by position.
+         */
+        private int sortRevisions()
         {
-            if (this == obj)
-            {
-                return true;
-            }
-            if (obj == null)
+            if (this.items.length != this.count)
             {
-                return false;
+                this.items = Arrays.copyOf(this.items, this.count);
             }
-            if (getClass() != obj.getClass())
+            final long[] keys = new long[this.count];
+            for (int i = 0; i < this.count; ++i)
             {
-                return false;
+                keys[i] = ((long) this.items[i].getId().getRevision() << 32) | i;
             }
-            final SpecificationItemIdWithoutVersion other = (SpecificationItemIdWithoutVersion) obj;
-            if (this.artifcatType == null)
+            Arrays.sort(keys);
+            this.revisions = new int[this.count];
+            this.positions = new int[this.count];
+            int distinctRevisions = 0;
+            int first = 0;
+            for (int i = 0; i < this.count; ++i)
             {
-                if (other.artifcatType != null)
+                this.revisions[i] = (int) (keys[i] >> 32);
+                this.positions[i] = (int) keys[i];
+                if (i == 0 || this.revisions[i] != this.revisions[i - 1])
+                {
+                    ++distinctRevisions;
+                    first = i;
+                }
+                else
                 {
-                    return false;
+                    handleDuplicates(this.items[this.positions[first]],
+                            this.items[this.positions[i]]);
                 }
             }
-            else if (!this.artifcatType.equals(other.artifcatType))
+            return distinctRevisions;
+        }
+
+        /**
+         * Get the first added item with a revision.
+         * 
+         * @param revision
+         *            revision of the item
+         * @return item or <code>null</code> if no item has this revision
+         */
+        public LinkedSpecificationItem getByRevision(final int revision)
+        {
+            if (this.count == 1)
             {
-                return false;
+                return (this.revisions[0] == revision) ? this.items[0] : null;
             }
-            if (this.name == null)
+            int index = Arrays.binarySearch(this.revisions, revision);
+            if (index < 0)
             {
-                if (other.name != null)
-                {
-                    return false;
-                }
+                return null;
             }
-            else if (!this.name.equals(other.name))
+            while (index > 0 && this.revisions[index - 1] == revision)
             {
-                return false;
+                --index;
             }
-            return true;
+            return this.items[this.positions[index]];
+        }
+
+        /**
+         * Get all items in the order in which they were added.
+         * 
+         * @return all items
+         */
+        public List<LinkedSpecificationItem> getItems()
+        {
+            return Collections.unmodifiableList(Arrays.asList(this.items));
         }
     }
 }
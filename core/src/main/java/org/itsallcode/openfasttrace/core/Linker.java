@@ -24,29 +24,81 @@ import java.util.HashMap;
  * #L%
  */
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
 
 import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.core.LinkedItemIndex.ItemRevisions;
 
 public class Linker
 {
+    private static final int DEFAULT_PARTITION_SIZE = 2048;
+
     private final List<LinkedSpecificationItem> linkedItems;
     private final LinkedItemIndex index;
+    private final Set<LinkedSpecificationItem> duplicatedItems;
     private final Map<SpecificationItemId, LinkedSpecificationItem> staleIndex;
+    private final LinkGraph.Builder graphBuilder;
+    private final List<CoverageTag> aggregatedTags;
+    private final int jobs;
+    private final int partitionSize;
 
     /**
      * Create a {@link Linker} for specification items.
+     * 
+     * If the items are a {@link CompactItemList}, coverage tags that cleanly
+     * cover a needed artifact type are not turned into linked items. They only
+     * add their artifact type to the covered item.
      *
      * @param items
      *            the specification items to be linked.
      */
     public Linker(final List<SpecificationItem> items)
     {
-        this.linkedItems = wrapItems(items);
+        this(items, 1);
+    }
+
+    /**
+     * Create a {@link Linker} for specification items that links the items on
+     * multiple threads.
+     * 
+     * The result is identical to linking on a single thread, including the
+     * order of the links.
+     *
+     * @param items
+     *            the specification items to be linked.
+     * @param jobs
+     *            number of threads that link items in parallel.
+     */
+    public Linker(final List<SpecificationItem> items, final int jobs)
+    {
+        this(items, jobs, DEFAULT_PARTITION_SIZE);
+    }
+
+    Linker(final List<SpecificationItem> items, final int jobs, final int partitionSize)
+    {
+        final List<SpecificationItem> itemsToLink;
+        if (items instanceof CompactItemList)
+        {
+            final CoverageTagAggregator aggregator = new CoverageTagAggregator(
+                    (CompactItemList) items);
+            itemsToLink = aggregator.getItemsToLink();
+            this.aggregatedTags = aggregator.getAggregatedTags();
+        }
+        else
+        {
+            itemsToLink = items;
+            this.aggregatedTags = Collections.emptyList();
+        }
+        this.linkedItems = wrapItems(itemsToLink);
         this.index = LinkedItemIndex.createFromWrappedItems(this.linkedItems);
+        this.duplicatedItems = findDuplicatedItems(this.linkedItems);
         this.staleIndex = new HashMap<>();
+        this.graphBuilder = LinkGraph.builder().addItems(this.linkedItems);
+        this.jobs = jobs;
+        this.partitionSize = partitionSize;
     }
 
     private List<LinkedSpecificationItem> wrapItems(final List<SpecificationItem> items)
@@ -56,90 +108,143 @@ public class Linker
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Look up the items with duplicates once, because the link accessors of
+     * items that are not yet part of a {@link LinkGraph} must not be used from
+     * multiple threads.
+     */
+    private static Set<LinkedSpecificationItem> findDuplicatedItems(
+            final List<LinkedSpecificationItem> items)
+    {
+        final Set<LinkedSpecificationItem> duplicatedItems = Collections
+                .newSetFromMap(new IdentityHashMap<>());
+        for (final LinkedSpecificationItem item : items)
+        {
+            if (item.hasDuplicates())
+            {
+                duplicatedItems.add(item);
+            }
+        }
+        return duplicatedItems;
+    }
+
     /**
      * Turn the items into linked items.
+     * 
+     * The links of all items are frozen into a {@link LinkGraph} that the
+     * linked items read from afterwards.
      *
-     * @return a list of {@link LinkedSpecificationItem}s.
+     * @return a list of {@link LinkedSpecificationItem}s. This is a
+     *         {@link CompactLinkedItemList} if coverage tags were aggregated.
      */
     // [impl->dsn~tracing.needed-coverage-status~1]
     public List<LinkedSpecificationItem> link()
     {
+        final LinkRecorder recorder = new GraphRecorder();
+        if (this.jobs > 1 && this.linkedItems.size() > this.partitionSize)
+        {
+            linkInParallel(recorder);
+        }
+        else
+        {
+            linkItems(0, this.linkedItems.size(), recorder);
+        }
+        for (final CoverageTag tag : this.aggregatedTags)
+        {
+            this.graphBuilder.addCoveredArtifactType(this.index.getById(tag.getCoveredId()),
+                    tag.getCoveringArtifactType());
+        }
+        this.graphBuilder.build();
+        return this.aggregatedTags.isEmpty() ? this.linkedItems
+                : new CompactLinkedItemList(this.linkedItems, this.aggregatedTags.size());
+    }
 
-        for (final LinkedSpecificationItem linkedItem : this.linkedItems)
+    /**
+     * Link the partitions of the items on a fork-join pool and replay the
+     * buffered links in the order of the partitions. This adds all links to
+     * the graph in the same order as a sequential run.
+     */
+    private void linkInParallel(final LinkRecorder recorder)
+    {
+        final ForkJoinPool pool = new ForkJoinPool(this.jobs);
+        try
+        {
+            final List<LinkBuffer> buffers = pool
+                    .invoke(new PartitionTask(0, this.linkedItems.size()));
+            for (final LinkBuffer buffer : buffers)
+            {
+                buffer.replayTo(recorder);
+            }
+        }
+        finally
         {
-            linkItem(linkedItem);
+            pool.shutdownNow();
         }
-        return this.linkedItems;
     }
 
-    private void linkItem(final LinkedSpecificationItem item)
+    private void linkItems(final int start, final int end, final LinkRecorder recorder)
+    {
+        for (int i = start; i < end; ++i)
+        {
+            linkItem(this.linkedItems.get(i), recorder);
+        }
+    }
+
+    private void linkItem(final LinkedSpecificationItem item, final LinkRecorder recorder)
     {
         for (final SpecificationItemId id : item.getCoveredIds())
         {
-            linkItemToItemWithId(item, id);
+            linkItemToItemWithId(item, id, recorder);
         }
     }
 
     // [impl->dsn~tracing.outgoing-coverage-link-status~3]
     // [impl->dsn~tracing.incoming-coverage-link-status~1]
     private void linkItemToItemWithId(final LinkedSpecificationItem item,
-            final SpecificationItemId id)
+            final SpecificationItemId id, final LinkRecorder recorder)
     {
-        LinkedSpecificationItem coveredLinkedItem;
-        if ((coveredLinkedItem = this.index.getById(id)) != null)
+        final ItemRevisions revisions = this.index.getRevisions(id);
+        final LinkedSpecificationItem coveredLinkedItem = (revisions == null) ? null
+                : revisions.getByRevision(id.getRevision());
+        if (coveredLinkedItem != null)
         {
-            linkMatchingRevision(item, coveredLinkedItem);
+            linkMatchingRevision(item, coveredLinkedItem, recorder);
         }
         else
         {
-            linkOrphanToStaleId(item, id);
-            linkIgnoringRevision(item, id);
+            recorder.addOrphanedLink(item, id);
+            if (revisions != null)
+            {
+                linkToOutdatedOrPredated(item, id, revisions.getItems(), recorder);
+            }
         }
     }
 
     private void linkMatchingRevision(final LinkedSpecificationItem covering,
-            final LinkedSpecificationItem covered)
+            final LinkedSpecificationItem covered, final LinkRecorder recorder)
     {
         final String coveringArtifactType = covering.getArtifactType();
-        if (covered.getItem().getNeedsArtifactTypes().contains(coveringArtifactType))
+        if (this.graphBuilder.needsArtifactType(covered, coveringArtifactType))
         {
-            if (covered.hasDuplicates())
+            if (this.duplicatedItems.contains(covered))
             {
-                covering.addLinkToItemWithStatus(covered, LinkStatus.AMBIGUOUS);
+                recorder.addLink(covering, covered, LinkStatus.AMBIGUOUS);
             }
             else
             {
-                covering.addLinkToItemWithStatus(covered, LinkStatus.COVERS);
-                covered.addLinkToItemWithStatus(covering, LinkStatus.COVERED_SHALLOW);
-                covered.addCoveredArtifactType(coveringArtifactType);
+                recorder.addLink(covering, covered, LinkStatus.COVERS);
+                recorder.addLink(covered, covering, LinkStatus.COVERED_SHALLOW);
+                recorder.addCoveredArtifactType(covered, coveringArtifactType);
             }
         }
         else
         {
-            covering.addLinkToItemWithStatus(covered, LinkStatus.UNWANTED);
-            covered.addLinkToItemWithStatus(covering, LinkStatus.COVERED_UNWANTED);
-            covered.addOverCoveredArtifactType(coveringArtifactType);
+            recorder.addLink(covering, covered, LinkStatus.UNWANTED);
+            recorder.addLink(covered, covering, LinkStatus.COVERED_UNWANTED);
+            recorder.addOverCoveredArtifactType(covered, coveringArtifactType);
         }
     }
 
-    private void linkIgnoringRevision(final LinkedSpecificationItem item,
-            final SpecificationItemId id)
-    {
-        final List<LinkedSpecificationItem> coveredLinkedItems = this.index
-                .getByIdIgnoringVersion(id);
-        if (!coveredLinkedItems.isEmpty())
-        {
-            linkToOutdatedOrPredated(item, id, coveredLinkedItems);
-        }
-    }
-
-    private void linkOrphanToStaleId(final LinkedSpecificationItem item,
-            final SpecificationItemId id)
-    {
-        final LinkedSpecificationItem deadItem = findOrCreateStaleItem(id);
-        item.addLinkToItemWithStatus(deadItem, LinkStatus.ORPHANED);
-    }
-
     private LinkedSpecificationItem findOrCreateStaleItem(final SpecificationItemId id)
     {
         this.staleIndex.computeIfAbsent(id,
@@ -148,7 +253,8 @@ public class Linker
     }
 
     private void linkToOutdatedOrPredated(final LinkedSpecificationItem item,
-            final SpecificationItemId id, final List<LinkedSpecificationItem> coveredLinkedItems)
+            final SpecificationItemId id, final List<LinkedSpecificationItem> coveredLinkedItems,
+            final LinkRecorder recorder)
     {
 
         for (final LinkedSpecificationItem itemCoveredIgnoringVersion : coveredLinkedItems)
@@ -156,15 +262,13 @@ public class Linker
             final int coveredItemRevision = itemCoveredIgnoringVersion.getRevision();
             if (id.getRevision() < coveredItemRevision)
             {
-                item.addLinkToItemWithStatus(itemCoveredIgnoringVersion, LinkStatus.OUTDATED);
-                itemCoveredIgnoringVersion.addLinkToItemWithStatus(item,
-                        LinkStatus.COVERED_OUTDATED);
+                recorder.addLink(item, itemCoveredIgnoringVersion, LinkStatus.OUTDATED);
+                recorder.addLink(itemCoveredIgnoringVersion, item, LinkStatus.COVERED_OUTDATED);
             }
             else if (id.getRevision() > coveredItemRevision)
             {
-                item.addLinkToItemWithStatus(itemCoveredIgnoringVersion, LinkStatus.PREDATED);
-                itemCoveredIgnoringVersion.addLinkToItemWithStatus(item,
-                        LinkStatus.COVERED_PREDATED);
+                recorder.addLink(item, itemCoveredIgnoringVersion, LinkStatus.PREDATED);
+                recorder.addLink(itemCoveredIgnoringVersion, item, LinkStatus.COVERED_PREDATED);
             }
             else
             {
@@ -173,4 +277,76 @@ public class Linker
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds the links directly to the graph of this linker. Orphaned links
+     * point to a stale item that is shared by all links to the same ID.
+     */
+    private class GraphRecorder implements LinkRecorder
+    {
+        @Override
+        public void addLink(final LinkedSpecificationItem from, final LinkedSpecificationItem to,
+                final LinkStatus status)
+        {
+            Linker.this.graphBuilder.addLink(from, to, status);
+        }
+
+        @Override
+        public void addOrphanedLink(final LinkedSpecificationItem from,
+                final SpecificationItemId coveredId)
+        {
+            Linker.this.graphBuilder.addLink(from, findOrCreateStaleItem(coveredId),
+                    LinkStatus.ORPHANED);
+        }
+
+        @Override
+        public void addCoveredArtifactType(final LinkedSpecificationItem item,
+                final String artifactType)
+        {
+            Linker.this.graphBuilder.addCoveredArtifactType(item, artifactType);
+        }
+
+        @Override
+        public void addOverCoveredArtifactType(final LinkedSpecificationItem item,
+                final String artifactType)
+        {
+            Linker.this.graphBuilder.addOverCoveredArtifactType(item, artifactType);
+        }
+    }
+
+    /**
+     * Links a range of the items into buffers, one per partition, in the
+     * order of the partitions.
+     */
+    private class PartitionTask extends RecursiveTask<List<LinkBuffer>>
+    {
+        private static final long serialVersionUID = 1L;
+        private final int start;
+        private final int end;
+
+        PartitionTask(final int start, final int end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<LinkBuffer> compute()
+        {
+            if (this.end - this.start <= Linker.this.partitionSize)
+            {
+                final LinkBuffer buffer = new LinkBuffer();
+                linkItems(this.start, this.end, buffer);
+                return Collections.singletonList(buffer);
+            }
+            final int middle = (this.start + this.end) >>> 1;
+            final PartitionTask left = new PartitionTask(this.start, middle);
+            final PartitionTask right = new PartitionTask(middle, this.end);
+            left.fork();
+            final List<LinkBuffer> rightBuffers = right.compute();
+            final List<LinkBuffer> buffers = new ArrayList<>(left.join());
+            buffers.addAll(rightBuffers);
+            return buffers;
+        }
+    }
+}
@@ -23,7 +23,9 @@ package org.itsallcode.openfasttrace.core;
  */
 
 import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.itsallcode.openfasttrace.api.ReportSettings;
 import org.itsallcode.openfasttrace.api.core.*;
@@ -60,6 +62,26 @@ public interface Oft
      */
     List<LinkedSpecificationItem> link(List<SpecificationItem> items);
 
+    /**
+     * Link specification items on multiple threads
+     * 
+     * <p>
+     * The result is identical to {@link #link(List)}, including the order of
+     * the links. The default implementation links on a single thread.
+     * </p>
+     * 
+     * @param items
+     *            specification items to be interlinked
+     * @param jobs
+     *            number of threads that link items in parallel
+     * @return list of linked specification items
+     */
+    default List<LinkedSpecificationItem> link(final List<SpecificationItem> items,
+            final int jobs)
+    {
+        return link(items);
+    }
+
     /**
      * Trace a list of linked specification items
      * 
@@ -69,6 +91,26 @@ public interface Oft
      */
     Trace trace(List<LinkedSpecificationItem> linkedItems);
 
+    /**
+     * Trace a list of linked specification items lazily
+     * 
+     * <p>
+     * Items are only evaluated when the trace is asked for its result, and
+     * {@link Trace#hasNoDefects()} stops at the first defect. Use this when
+     * only the result or the defect items are needed. The number of defect
+     * items is not added to the {@link #getStatistics() statistics}. The
+     * default implementation traces all items right away.
+     * </p>
+     * 
+     * @param linkedItems
+     *            items to be traced
+     * @return trace result
+     */
+    default Trace traceLazily(final List<LinkedSpecificationItem> linkedItems)
+    {
+        return trace(linkedItems);
+    }
+
     /**
      * Export items with default settings
      * 
@@ -92,6 +134,30 @@ public interface Oft
     void exportToPath(final List<SpecificationItem> items, final Path path,
                       ExportSettings settings);
 
+    /**
+     * Import items and export them while they are being imported
+     * 
+     * <p>
+     * Each input file is imported when the exporter asks for its items, so
+     * that memory use does not grow with the number of input files. The time
+     * spent importing is counted as export time in the
+     * {@link #getStatistics() statistics}. The default implementation imports
+     * all items before exporting them.
+     * </p>
+     * 
+     * @param importSettings
+     *            import stage settings
+     * @param path
+     *            output path for export
+     * @param exportSettings
+     *            export settings
+     */
+    default void convertToPath(final ImportSettings importSettings, final Path path,
+            final ExportSettings exportSettings)
+    {
+        exportToPath(importItems(importSettings), path, exportSettings);
+    }
+
     /**
      * Generate a report with default settings
      * 
@@ -138,6 +204,45 @@ public interface Oft
      */
     void reportToPath(Trace trace, Path outputPath, ReportSettings settings);
 
+    /**
+     * Get the text fields of specification items that a report shows. The
+     * default implementation requires all text fields.
+     * 
+     * @param settings
+     *            report settings
+     * @return text fields that an import must provide for the report
+     */
+    default Set<ItemTextField> getRequiredTextFields(final ReportSettings settings)
+    {
+        return EnumSet.allOf(ItemTextField.class);
+    }
+
+    /**
+     * Check if a report can work with coverage tags in compact form. The
+     * default implementation always imports coverage tags as full items.
+     * 
+     * @param settings
+     *            report settings
+     * @return <code>true</code> if the import may keep coverage tags in
+     *         compact form for the report
+     */
+    default boolean supportsCompactCoverageTags(final ReportSettings settings)
+    {
+        return false;
+    }
+
+    /**
+     * Get the statistics of all phases that ran on this instance so far. The
+     * default implementation does not record statistics and returns empty
+     * ones.
+     * 
+     * @return phase timing and throughput statistics
+     */
+    default TraceStatistics getStatistics()
+    {
+        return new TraceStatistics();
+    }
+
     /**
      * Create a new instance of a object implementing the {@link Oft} interface
      * 
@@ -23,17 +23,26 @@ package org.itsallcode.openfasttrace.core;
  */
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.itsallcode.openfasttrace.api.ReportSettings;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.LinkedSpecificationItem;
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.core.Trace;
 import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.TraceStatistics.Phase;
+import org.itsallcode.openfasttrace.core.watch.IncrementalImporter;
 
 public class OftRunner implements Oft
 {
     private final ServiceFactory serviceFactory;
+    private final TraceStatistics statistics = new TraceStatistics();
 
     public OftRunner()
     {
@@ -48,10 +57,13 @@ public class OftRunner implements Oft
     @Override
     public List<SpecificationItem> importItems(final ImportSettings settings)
     {
-        return serviceFactory.createImporterService(settings) //
-                .createImporter() //
-                .importAny(settings.getInputs()) //
-                .getImportedItems();
+        final List<SpecificationItem> items = measure(Phase.IMPORT,
+                () -> serviceFactory.createImporterService(settings, this.statistics) //
+                        .createImporter() //
+                        .importAny(settings.getInputs()) //
+                        .getImportedItems());
+        this.statistics.addImportedItems(items.size());
+        return items;
     }
 
     @Override
@@ -60,16 +72,52 @@ public class OftRunner implements Oft
         return importItems(ImportSettings.createDefault());
     }
 
+    /**
+     * Create an importer that keeps the items of each input file, so that
+     * changed files can be imported again without importing all other files.
+     * The importer records the scanned files in the
+     * {@link #getStatistics() statistics} of this runner.
+     * 
+     * @param settings
+     *            import stage settings
+     * @return incremental importer
+     */
+    public IncrementalImporter createIncrementalImporter(final ImportSettings settings)
+    {
+        return serviceFactory.createIncrementalImporter(settings, this.statistics);
+    }
+
     @Override
     public List<LinkedSpecificationItem> link(final List<SpecificationItem> items)
     {
-        return serviceFactory.createLinker(items).link();
+        return link(items, 1);
+    }
+
+    @Override
+    public List<LinkedSpecificationItem> link(final List<SpecificationItem> items,
+            final int jobs)
+    {
+        final List<LinkedSpecificationItem> linkedItems = measure(Phase.LINK,
+                () -> serviceFactory.createLinker(items, jobs).link());
+        this.statistics.addLinkedItems(linkedItems.size(), linkedItems.stream() //
+                .mapToLong(LinkedSpecificationItem::countOutgoingLinks) //
+                .sum());
+        return linkedItems;
     }
 
     @Override
     public Trace trace(final List<LinkedSpecificationItem> linkedItems)
     {
-        return serviceFactory.createTracer().trace(linkedItems);
+        final Trace trace = measure(Phase.TRACE,
+                () -> serviceFactory.createTracer().trace(linkedItems));
+        this.statistics.addDefectItems(trace.countDefects());
+        return trace;
+    }
+
+    @Override
+    public Trace traceLazily(final List<LinkedSpecificationItem> linkedItems)
+    {
+        return serviceFactory.createTracer().traceLazily(linkedItems);
     }
 
     @Override
@@ -82,37 +130,102 @@ public class OftRunner implements Oft
     public void exportToPath(final List<SpecificationItem> items, final Path path,
             final ExportSettings settings)
     {
-        serviceFactory.createExporterService().exportToPath(items.stream(), path, settings);
+        measure(Phase.EXPORT, () -> serviceFactory.createExporterService()
+                .exportToPath(items.stream(), path, settings));
+        recordBytesWritten(path);
+    }
+
+    @Override
+    public void convertToPath(final ImportSettings importSettings, final Path path,
+            final ExportSettings exportSettings)
+    {
+        final AtomicInteger itemCount = new AtomicInteger();
+        measure(Phase.EXPORT, () -> {
+            final Stream<SpecificationItem> items = serviceFactory
+                    .createImporterService(importSettings, this.statistics) //
+                    .createImporter() //
+                    .streamAny(importSettings.getInputs()) //
+                    .peek(item -> itemCount.incrementAndGet());
+            serviceFactory.createExporterService().exportToPath(items, path, exportSettings);
+        });
+        this.statistics.addImportedItems(itemCount.get());
+        recordBytesWritten(path);
     }
 
     @Override
     public void reportToStdOut(final Trace trace)
     {
-        final ReportSettings settings = ReportSettings.createDefault();
-        serviceFactory.createReportService(settings).reportTraceToStdOut(trace,
-                settings.getOutputFormat());
+        reportToStdOut(trace, ReportSettings.createDefault());
     }
 
     @Override
     public void reportToStdOut(final Trace trace, final ReportSettings settings)
     {
-        serviceFactory.createReportService(settings).reportTraceToStdOut(trace,
-                settings.getOutputFormat());
+        measure(Phase.REPORT, () -> serviceFactory.createReportService(settings)
+                .reportTraceToStdOut(trace, settings.getOutputFormat()));
     }
 
     @Override
     public void reportToPath(final Trace trace, final Path outputPath)
     {
-        final ReportSettings settings = ReportSettings.createDefault();
-        serviceFactory.createReportService(settings).reportTraceToPath(trace, outputPath,
-                settings.getOutputFormat());
+        reportToPath(trace, outputPath, ReportSettings.createDefault());
     }
 
     @Override
     public void reportToPath(final Trace trace, final Path outputPath,
             final ReportSettings settings)
     {
-        serviceFactory.createReportService(settings).reportTraceToPath(trace, outputPath,
-                settings.getOutputFormat());
+        measure(Phase.REPORT, () -> serviceFactory.createReportService(settings)
+                .reportTraceToPath(trace, outputPath, settings.getOutputFormat()));
+        recordBytesWritten(outputPath);
+    }
+
+    @Override
+    public Set<ItemTextField> getRequiredTextFields(final ReportSettings settings)
+    {
+        return serviceFactory.createReportService(settings)
+                .getRequiredTextFields(settings.getOutputFormat());
+    }
+
+    @Override
+    public boolean supportsCompactCoverageTags(final ReportSettings settings)
+    {
+        return serviceFactory.createReportService(settings)
+                .supportsCompactCoverageTags(settings.getOutputFormat());
+    }
+
+    @Override
+    public TraceStatistics getStatistics()
+    {
+        return this.statistics;
+    }
+
+    private <T> T measure(final Phase phase, final Supplier<T> action)
+    {
+        final long start = System.nanoTime();
+        try
+        {
+            return action.get();
+        }
+        finally
+        {
+            this.statistics.addDuration(phase, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private void measure(final Phase phase, final Runnable action)
+    {
+        measure(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void recordBytesWritten(final Path path)
+    {
+        if (path != null)
+        {
+            this.statistics.addBytesWritten(path.toFile().length());
+        }
     }
 }
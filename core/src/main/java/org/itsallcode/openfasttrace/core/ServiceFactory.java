@@ -36,6 +36,7 @@ import org.itsallcode.openfasttrace.core.importer.ImporterServiceImpl;
 import org.itsallcode.openfasttrace.core.report.ReportService;
 import org.itsallcode.openfasttrace.core.report.ReporterFactoryLoader;
 import org.itsallcode.openfasttrace.core.serviceloader.InitializingServiceLoader;
+import org.itsallcode.openfasttrace.core.watch.IncrementalImporter;
 
 class ServiceFactory
 {
@@ -44,20 +45,42 @@ class ServiceFactory
         return new ExporterService(new ExporterFactoryLoader(new ExporterContext()));
     }
 
-    ImporterService createImporterService(final ImportSettings settings)
+    ImporterService createImporterService(final ImportSettings settings,
+            final TraceStatistics statistics)
     {
         final ImporterContext context = new ImporterContext(settings);
+        return createImporterService(context, createImporterFactoryLoader(context), statistics);
+    }
+
+    IncrementalImporter createIncrementalImporter(final ImportSettings settings,
+            final TraceStatistics statistics)
+    {
+        final ImporterContext context = new ImporterContext(settings);
+        final ImporterFactoryLoader factoryLoader = createImporterFactoryLoader(context);
+        return new IncrementalImporter(factoryLoader,
+                createImporterService(context, factoryLoader, statistics), settings);
+    }
+
+    private static ImporterFactoryLoader createImporterFactoryLoader(
+            final ImporterContext context)
+    {
         final InitializingServiceLoader<ImporterFactory, ImporterContext> serviceLoader = InitializingServiceLoader
                 .load(ImporterFactory.class, context);
-        final ImporterService service = new ImporterServiceImpl(
-                new ImporterFactoryLoader(serviceLoader), settings);
+        return new ImporterFactoryLoader(serviceLoader);
+    }
+
+    private static ImporterService createImporterService(final ImporterContext context,
+            final ImporterFactoryLoader factoryLoader, final TraceStatistics statistics)
+    {
+        final ImporterService service = new ImporterServiceImpl(factoryLoader,
+                context.getImportSettings(), statistics);
         context.setImporterService(service);
         return service;
     }
 
-    Linker createLinker(List<SpecificationItem> items)
+    Linker createLinker(final List<SpecificationItem> items, final int jobs)
     {
-        return new Linker(items);
+        return new Linker(items, jobs);
     }
 
     Tracer createTracer()
@@ -0,0 +1,314 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Statistics about the phases of an OFT run: how long each phase took, how
+ * many files each importer scanned and how many items, links and bytes were
+ * processed. This helps finding out which phase is the bottleneck of a slow
+ * trace.
+ * 
+ * Values accumulate when a phase runs more than once.
+ */
+public class TraceStatistics
+{
+    private static final String IMPORTER_FACTORY_SUFFIX = "ImporterFactory";
+
+    /**
+     * Phases of an OFT run
+     */
+    public enum Phase
+    {
+        /** Importing specification items from files */
+        IMPORT,
+        /** Linking the imported items */
+        LINK,
+        /** Evaluating coverage and collecting defects */
+        TRACE,
+        /** Rendering a report */
+        REPORT,
+        /** Exporting items to another format */
+        EXPORT
+    }
+
+    private final Map<Phase, Duration> durations = new EnumMap<>(Phase.class);
+    private final Map<String, Integer> scannedFiles = new TreeMap<>();
+    private int importedItemCount;
+    private int linkedItemCount;
+    private long linkCount;
+    private int defectItemCount;
+    private long bytesRead;
+    private long bytesWritten;
+
+    /**
+     * Add the time spent in a phase
+     * 
+     * @param phase
+     *            phase of the run
+     * @param duration
+     *            wall time the phase took
+     */
+    public synchronized void addDuration(final Phase phase, final Duration duration)
+    {
+        this.durations.merge(phase, duration, Duration::plus);
+    }
+
+    /**
+     * Get the time spent in a phase
+     * 
+     * @param phase
+     *            phase of the run
+     * @return wall time of the phase or {@link Duration#ZERO} if the phase did
+     *         not run
+     */
+    public synchronized Duration getDuration(final Phase phase)
+    {
+        return this.durations.getOrDefault(phase, Duration.ZERO);
+    }
+
+    /**
+     * Get the total time spent in all phases
+     * 
+     * @return total wall time
+     */
+    public synchronized Duration getTotalDuration()
+    {
+        return this.durations.values().stream().reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * Record a file that was handed to an importer
+     * 
+     * @param importerType
+     *            type of the importer, e.g. the simple name of its factory
+     * @param size
+     *            size of the file in bytes
+     */
+    public synchronized void addScannedFile(final String importerType, final long size)
+    {
+        this.scannedFiles.merge(toImporterName(importerType), 1, Integer::sum);
+        this.bytesRead += size;
+    }
+
+    private static String toImporterName(final String importerType)
+    {
+        if (importerType.endsWith(IMPORTER_FACTORY_SUFFIX)
+                && importerType.length() > IMPORTER_FACTORY_SUFFIX.length())
+        {
+            return importerType
+                    .substring(0, importerType.length() - IMPORTER_FACTORY_SUFFIX.length())
+                    .toLowerCase(Locale.ENGLISH);
+        }
+        return importerType;
+    }
+
+    /**
+     * Get the number of scanned files per importer type
+     * 
+     * @return number of files by importer type, sorted by importer type
+     */
+    public synchronized Map<String, Integer> getScannedFiles()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(this.scannedFiles));
+    }
+
+    /**
+     * Get the total number of scanned files
+     * 
+     * @return number of files handed to any importer
+     */
+    public synchronized int getScannedFileCount()
+    {
+        return this.scannedFiles.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Add imported items
+     * 
+     * @param count
+     *            number of imported items
+     */
+    public synchronized void addImportedItems(final int count)
+    {
+        this.importedItemCount += count;
+    }
+
+    /**
+     * Get the number of imported items
+     * 
+     * @return number of imported items
+     */
+    public synchronized int getImportedItemCount()
+    {
+        return this.importedItemCount;
+    }
+
+    /**
+     * Add linked items
+     * 
+     * @param itemCount
+     *            number of linked items
+     * @param links
+     *            number of outgoing links between these items
+     */
+    public synchronized void addLinkedItems(final int itemCount, final long links)
+    {
+        this.linkedItemCount += itemCount;
+        this.linkCount += links;
+    }
+
+    /**
+     * Get the number of linked items
+     * 
+     * @return number of linked items
+     */
+    public synchronized int getLinkedItemCount()
+    {
+        return this.linkedItemCount;
+    }
+
+    /**
+     * Get the number of links created by the linker
+     * 
+     * @return number of outgoing links
+     */
+    public synchronized long getLinkCount()
+    {
+        return this.linkCount;
+    }
+
+    /**
+     * Add items that the trace found to be defect
+     * 
+     * @param count
+     *            number of defect items
+     */
+    public synchronized void addDefectItems(final int count)
+    {
+        this.defectItemCount += count;
+    }
+
+    /**
+     * Get the number of defect items
+     * 
+     * @return number of defect items
+     */
+    public synchronized int getDefectItemCount()
+    {
+        return this.defectItemCount;
+    }
+
+    /**
+     * Get the number of bytes read from input files
+     * 
+     * @return size of all scanned files that exist on disk
+     */
+    public synchronized long getBytesRead()
+    {
+        return this.bytesRead;
+    }
+
+    /**
+     * Add bytes written to an output file
+     * 
+     * @param bytes
+     *            number of bytes written
+     */
+    public synchronized void addBytesWritten(final long bytes)
+    {
+        this.bytesWritten += bytes;
+    }
+
+    /**
+     * Get the number of bytes written to output files
+     * 
+     * @return number of bytes written
+     */
+    public synchronized long getBytesWritten()
+    {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Render the statistics as a JSON object
+     * 
+     * @return machine-readable statistics
+     */
+    public synchronized String toJson()
+    {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("{\n  \"phases\": {");
+        builder.append(Arrays.stream(Phase.values()) //
+                .map(phase -> "\n    \"" + phase.name().toLowerCase(Locale.ENGLISH) + "\": "
+                        + getDuration(phase).toMillis()) //
+                .collect(Collectors.joining(",")));
+        builder.append("\n  },\n  \"totalMillis\": ").append(getTotalDuration().toMillis());
+        builder.append(",\n  \"scannedFiles\": {");
+        builder.append(this.scannedFiles.entrySet().stream() //
+                .map(entry -> "\n    \"" + escapeJson(entry.getKey()) + "\": " + entry.getValue())
+                .collect(Collectors.joining(",")));
+        builder.append(this.scannedFiles.isEmpty() ? "}" : "\n  }");
+        builder.append(",\n  \"importedItems\": ").append(this.importedItemCount);
+        builder.append(",\n  \"linkedItems\": ").append(this.linkedItemCount);
+        builder.append(",\n  \"links\": ").append(this.linkCount);
+        builder.append(",\n  \"defectItems\": ").append(this.defectItemCount);
+        builder.append(",\n  \"bytesRead\": ").append(this.bytesRead);
+        builder.append(",\n  \"bytesWritten\": ").append(this.bytesWritten);
+        builder.append("\n}\n");
+        return builder.toString();
+    }
+
+    private static String escapeJson(final String text)
+    {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (final Phase phase : Phase.values())
+        {
+            builder.append(String.format("%-8s %8d ms%n", phase.name().toLowerCase(Locale.ENGLISH),
+                    getDuration(phase).toMillis()));
+        }
+        builder.append(String.format("%-8s %8d ms%n", "total", getTotalDuration().toMillis()));
+        builder.append("files    ").append(getScannedFileCount());
+        if (!this.scannedFiles.isEmpty())
+        {
+            builder.append(this.scannedFiles.entrySet().stream() //
+                    .map(entry -> entry.getKey() + ": " + entry.getValue()) //
+                    .collect(Collectors.joining(", ", " (", ")")));
+        }
+        builder.append(String.format("%nitems    %d imported, %d linked, %d defect%n",
+                this.importedItemCount, this.linkedItemCount, this.defectItemCount));
+        builder.append(String.format("links    %d%n", this.linkCount));
+        builder.append(String.format("bytes    %d read, %d written%n", this.bytesRead,
+                this.bytesWritten));
+        return builder.toString();
+    }
+}
@@ -23,20 +23,50 @@ package org.itsallcode.openfasttrace.core;
  */
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.itsallcode.openfasttrace.api.core.LinkedSpecificationItem;
 import org.itsallcode.openfasttrace.api.core.Trace;
 
 public class Tracer
 {
+    /**
+     * Evaluate the coverage of all items
+     * 
+     * @param items
+     *            linked items to be traced
+     * @return trace result
+     */
     public Trace trace(final List<LinkedSpecificationItem> items)
     {
-        final Trace.Builder builder = Trace.builder();
-        builder.items(items);
-        builder.defectItems(items.stream() //
-                .filter(LinkedSpecificationItem::isDefect) //
-                .collect(Collectors.toList()));
-        return builder.build();
+        new DeepCoverageEvaluator().evaluate(items);
+        return Trace.builder() //
+                .items(items) //
+                .build();
+    }
+
+    /**
+     * Trace the items without evaluating them up front. The coverage of an
+     * item is evaluated when the trace checks if it is a defect, so
+     * {@link Trace#hasNoDefects()} only evaluates the items up to the first
+     * defect.
+     * 
+     * Use this when only the result of the trace or the defect items are
+     * needed. The deep coverage status of items that were not checked is not
+     * stored in the items.
+     * 
+     * @param items
+     *            linked items to be traced
+     * @return trace result
+     */
+    public Trace traceLazily(final List<LinkedSpecificationItem> items)
+    {
+        final DeepCoverageEvaluator evaluator = new DeepCoverageEvaluator();
+        return Trace.builder() //
+                .items(items) //
+                .defectCheck(item -> {
+                    evaluator.evaluate(item);
+                    return item.isDefect();
+                }) //
+                .build();
     }
 }
@@ -31,6 +31,7 @@ import java.util.stream.Collectors;
 import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
 import org.itsallcode.openfasttrace.core.cli.commands.ConvertCommand;
 import org.itsallcode.openfasttrace.core.cli.commands.TraceCommand;
+import org.itsallcode.openfasttrace.core.cli.commands.WatchCommand;
 import org.itsallcode.openfasttrace.core.exporter.ExporterFactoryLoader;
 
 /**
@@ -40,7 +41,7 @@ import org.itsallcode.openfasttrace.core.exporter.ExporterFactoryLoader;
 public class ArgumentValidator
 {
     private static final List<String> AVAILABLE_COMMANDS = asList(ConvertCommand.COMMAND_NAME,
-            TraceCommand.COMMAND_NAME);
+            TraceCommand.COMMAND_NAME, WatchCommand.COMMAND_NAME);
 
     private final CliArguments arguments;
     private String error = "";
@@ -68,7 +69,14 @@ public class ArgumentValidator
             this.error = "Missing command";
             this.suggestion = "Add one of " + listCommands();
         }
-        else if (TraceCommand.COMMAND_NAME.equals(command.get()))
+        else if (this.arguments.getJobs() < 1)
+        {
+            this.error = "number of jobs must be at least 1 but was " + this.arguments.getJobs()
+                    + ".";
+            this.suggestion = "set '--jobs' to a positive number.";
+        }
+        else if (TraceCommand.COMMAND_NAME.equals(command.get())
+                || WatchCommand.COMMAND_NAME.equals(command.get()))
         {
             ok = validateTraceCommand();
         }
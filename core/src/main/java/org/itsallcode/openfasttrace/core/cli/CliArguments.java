@@ -34,6 +34,7 @@ import org.itsallcode.openfasttrace.api.report.ReportConstants;
 import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
 import org.itsallcode.openfasttrace.core.cli.commands.ConvertCommand;
 import org.itsallcode.openfasttrace.core.cli.commands.TraceCommand;
+import org.itsallcode.openfasttrace.core.cli.commands.WatchCommand;
 import org.itsallcode.openfasttrace.core.exporter.ExporterConstants;
 
 /**
@@ -51,6 +52,11 @@ public class CliArguments
     private ReportVerbosity reportVerbosity;
     private Set<String> wantedArtifactTypes = Collections.emptySet();
     private Set<String> wantedTags = Collections.emptySet();
+    private int jobs = 1;
+    private List<String> excludePatterns = Collections.emptyList();
+    private Path cacheDirectory;
+    private boolean stats;
+    private Path statsFile;
 
     // [impl->dsn~reporting.plain-text.specification-item-origin~1]]
     // [impl->dsn~reporting.plain-text.linked-specification-item-origin~1]
@@ -155,7 +161,8 @@ public class CliArguments
         if (this.outputFormat == null)
         {
             final Optional<String> command = this.getCommand();
-            if (command.isPresent() && command.get().equals(TraceCommand.COMMAND_NAME))
+            if (command.isPresent() && (command.get().equals(TraceCommand.COMMAND_NAME)
+                    || command.get().equals(WatchCommand.COMMAND_NAME)))
             {
                 return ReportConstants.DEFAULT_REPORT_FORMAT;
             }
@@ -363,4 +370,116 @@ public class CliArguments
     {
         setShowOrigin(showOrigin);
     }
+
+    /**
+     * Get the number of files that are imported in parallel, which is also
+     * the number of threads that link the items
+     * 
+     * @return number of parallel import and link jobs
+     */
+    public int getJobs()
+    {
+        return this.jobs;
+    }
+
+    /**
+     * Set the number of files that are imported in parallel, which is also
+     * the number of threads that link the items
+     * 
+     * @param jobs
+     *            number of parallel import and link jobs
+     */
+    public void setJobs(final int jobs)
+    {
+        this.jobs = jobs;
+    }
+
+    /**
+     * Get the patterns of files and directories that are skipped while input
+     * directories are scanned
+     * 
+     * @return exclude patterns
+     */
+    public List<String> getExcludePatterns()
+    {
+        return this.excludePatterns;
+    }
+
+    /**
+     * Set the patterns of files and directories that are skipped while input
+     * directories are scanned
+     * 
+     * @param excludePatterns
+     *            comma separated list of exclude patterns
+     */
+    public void setExclude(final String excludePatterns)
+    {
+        this.excludePatterns = Arrays.asList(excludePatterns.split(",\\s*"));
+    }
+
+    /**
+     * Get the directory of the import cache
+     * 
+     * @return import cache directory or <code>null</code> if the import cache
+     *         is disabled
+     */
+    public Path getCacheDirectory()
+    {
+        return this.cacheDirectory;
+    }
+
+    /**
+     * Set the directory of the import cache
+     * 
+     * @param cacheDirectory
+     *            import cache directory
+     */
+    public void setCacheDir(final String cacheDirectory)
+    {
+        this.cacheDirectory = Paths.get(cacheDirectory);
+    }
+
+    /**
+     * Check if the statistics of the run should be printed to standard error
+     * 
+     * @return <code>true</code> if the statistics should be printed
+     */
+    public boolean getStats()
+    {
+        return this.stats;
+    }
+
+    /**
+     * Choose whether to print the statistics of the run to standard error
+     * 
+     * @param stats
+     *            <code>true</code> if the statistics should be printed
+     */
+    public void setStats(final boolean stats)
+    {
+        this.stats = stats;
+    }
+
+    /**
+     * Get the path of the file the statistics of the run are written to
+     * 
+     * @return statistics file path or <code>null</code> if no statistics file
+     *         should be written
+     */
+    public Path getStatsFile()
+    {
+        return this.statsFile;
+    }
+
+    /**
+     * Set the path of the file the statistics of the run are written to in JSON
+     * format
+     * 
+     * @param statsFile
+     *            statistics file path
+     */
+    public void setStatsFile(final String statsFile)
+    {
+        this.statsFile = Paths.get(statsFile);
+    }
 }
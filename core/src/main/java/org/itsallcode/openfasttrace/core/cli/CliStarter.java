@@ -28,6 +28,7 @@ import org.itsallcode.openfasttrace.api.cli.DirectoryService;
 import org.itsallcode.openfasttrace.core.cli.commands.ConvertCommand;
 import org.itsallcode.openfasttrace.core.cli.commands.Performable;
 import org.itsallcode.openfasttrace.core.cli.commands.TraceCommand;
+import org.itsallcode.openfasttrace.core.cli.commands.WatchCommand;
 
 public class CliStarter
 {
@@ -116,6 +117,9 @@ public class CliStarter
         case TraceCommand.COMMAND_NAME:
             performable = new TraceCommand(this.arguments);
             break;
+        case WatchCommand.COMMAND_NAME:
+            performable = new WatchCommand(this.arguments);
+            break;
         default:
             throw new IllegalStateException(
                     "Unknown command '" + command.get() + "' trying to execute OFT mode.");
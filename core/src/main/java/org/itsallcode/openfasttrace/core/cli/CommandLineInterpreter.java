@@ -217,6 +217,10 @@ public class CommandLineInterpreter
         {
             return convertEnum(stringValue, type);
         }
+        if (type.equals(int.class) || type.equals(Integer.class))
+        {
+            return convertInteger(stringValue, type);
+        }
         throw new CliException(
                 "Type '" + type + "' not supported for converting argument '" + stringValue + "'");
     }
@@ -239,6 +243,21 @@ public class CommandLineInterpreter
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> T convertInteger(final String stringValue, final Class<T> type)
+            throws CliException
+    {
+        try
+        {
+            return (T) Integer.valueOf(stringValue);
+        }
+        catch (final NumberFormatException e)
+        {
+            throw new CliException(
+                    "Cannot convert value '" + stringValue + "' to " + type.getName(), e);
+        }
+    }
+
     private void reportUnsupportedSetterArgumentCount(final Method setter) throws CliException
     {
         throw new CliException("Unsupported argument count for setter '" + setter
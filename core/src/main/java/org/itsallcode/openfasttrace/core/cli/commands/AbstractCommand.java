@@ -23,16 +23,23 @@ package org.itsallcode.openfasttrace.core.cli.commands;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 import org.itsallcode.openfasttrace.api.FilterSettings;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.importer.ImportSettings;
 import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.TraceStatistics;
 import org.itsallcode.openfasttrace.core.cli.CliArguments;
 
 /**
@@ -45,9 +52,22 @@ public abstract class AbstractCommand implements Performable
     protected final Oft oft;
 
     protected AbstractCommand(final CliArguments arguments)
+    {
+        this(arguments, Oft.create());
+    }
+
+    /**
+     * Create a command that runs on the given {@link Oft} instance.
+     * 
+     * @param arguments
+     *            command line arguments
+     * @param oft
+     *            instance that imports, links, traces and reports
+     */
+    protected AbstractCommand(final CliArguments arguments, final Oft oft)
     {
         this.arguments = arguments;
-        this.oft = Oft.create();
+        this.oft = oft;
     }
 
     protected List<Path> toPaths(final List<String> inputs)
@@ -97,11 +117,90 @@ public abstract class AbstractCommand implements Performable
 
     protected List<SpecificationItem> importItems()
     {
-        final ImportSettings importSettings = ImportSettings //
+        return this.oft.importItems(createImportSettingsFromArguments());
+    }
+
+    protected ImportSettings createImportSettingsFromArguments()
+    {
+        return ImportSettings //
                 .builder() //
                 .addInputs(this.toPaths(this.arguments.getInputs())) //
                 .filter(createFilterSettingsFromArguments()) //
+                .jobs(this.arguments.getJobs()) //
+                .addExcludePatterns(this.arguments.getExcludePatterns()) //
+                .cacheDirectory(this.arguments.getCacheDirectory()) //
+                .lazyText(isItemTextRarelyNeeded()) //
+                .requiredTextFields(getRequiredTextFields()) //
+                .compactCoverageTags(isCompactCoverageTagsSupported()) //
                 .build();
-        return this.oft.importItems(importSettings);
     }
-}
\ No newline at end of file
+
+    /**
+     * Check if the command rarely needs the descriptions, rationales and
+     * comments of the imported items. In this case the importers only record
+     * where the texts are located and read them when they are requested.
+     * 
+     * @return <code>true</code> if item texts should be loaded lazily
+     */
+    protected boolean isItemTextRarelyNeeded()
+    {
+        return false;
+    }
+
+    /**
+     * Get the text fields of the imported items that the command uses.
+     * Importers skip all other text fields.
+     * 
+     * @return text fields required by the command
+     */
+    protected Set<ItemTextField> getRequiredTextFields()
+    {
+        return EnumSet.allOf(ItemTextField.class);
+    }
+
+    /**
+     * Check if the command can work with coverage tags in compact form. In
+     * this case the importers keep coverage tags as compact records that the
+     * linker handles directly.
+     * 
+     * @return <code>true</code> if coverage tags may be kept in compact form
+     */
+    protected boolean isCompactCoverageTagsSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Print the statistics of the run and write them to a file if the user
+     * asked for that.
+     */
+    protected void reportStatistics()
+    {
+        final TraceStatistics statistics = this.oft.getStatistics();
+        if (this.arguments.getStats())
+        {
+            printToStdError(statistics.toString());
+        }
+        final Path statsFile = this.arguments.getStatsFile();
+        if (statsFile != null)
+        {
+            try
+            {
+                Files.write(statsFile, statistics.toJson().getBytes(StandardCharsets.UTF_8));
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException(
+                        "Error writing statistics to file " + statsFile, e);
+            }
+        }
+    }
+
+    // Writing to standard error by intention, standard out may carry the
+    // report
+    @SuppressWarnings("squid:S106")
+    private static void printToStdError(final String message)
+    {
+        System.err.print(message);
+    }
+}
@@ -23,9 +23,6 @@ package org.itsallcode.openfasttrace.core.cli.commands;
  * #L%
  */
 
-import java.util.List;
-
-import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.core.ExportSettings;
 import org.itsallcode.openfasttrace.core.cli.CliArguments;
 
@@ -50,17 +47,12 @@ public class ConvertCommand extends AbstractCommand implements Performable
     @Override
     public boolean run()
     {
-        final List<SpecificationItem> items = importItems();
-        convert(items);
+        this.oft.convertToPath(createImportSettingsFromArguments(),
+                this.arguments.getOutputPath(), createExportSettingsFromArguments());
+        reportStatistics();
         return true;
     }
 
-    private void convert(final List<SpecificationItem> items)
-    {
-        final ExportSettings exportSettings = createExportSettingsFromArguments();
-        this.oft.exportToPath(items, this.arguments.getOutputPath(), exportSettings);
-    }
-
     private ExportSettings createExportSettingsFromArguments()
     {
         return ExportSettings.builder() //
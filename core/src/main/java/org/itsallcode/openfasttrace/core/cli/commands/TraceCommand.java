@@ -25,11 +25,15 @@ package org.itsallcode.openfasttrace.core.cli.commands;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
 
 import org.itsallcode.openfasttrace.api.ReportSettings;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.LinkedSpecificationItem;
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.report.ReportConstants;
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
 import org.itsallcode.openfasttrace.core.Oft;
 import org.itsallcode.openfasttrace.core.cli.CliArguments;
 
@@ -51,19 +55,93 @@ public class TraceCommand extends AbstractCommand
         super(arguments);
     }
 
+    /**
+     * Create a {@link TraceCommand} that runs on the given {@link Oft}
+     * instance.
+     * 
+     * @param arguments
+     *            command line arguments.
+     * @param oft
+     *            instance that imports, links, traces and reports
+     */
+    protected TraceCommand(final CliArguments arguments, final Oft oft)
+    {
+        super(arguments, oft);
+    }
+
     @Override
     public boolean run()
     {
-        final List<SpecificationItem> items = importItems();
+        final Trace trace = traceAndReport(importItems());
+        reportStatistics();
+        return trace.hasNoDefects();
+    }
+
+    /**
+     * Link and trace specification items and report the result.
+     * 
+     * @param items
+     *            specification items to be traced
+     * @return trace result
+     */
+    protected Trace traceAndReport(final List<SpecificationItem> items)
+    {
         final List<LinkedSpecificationItem> linkedItems = linkItems(items);
-        final Trace trace = traceItems(linkedItems);
+        final Trace trace = isOnlyResultNeeded() ? this.oft.traceLazily(linkedItems)
+                : traceItems(linkedItems);
         report(this.oft, trace);
-        return trace.hasNoDefects();
+        return trace;
+    }
+
+    /**
+     * The plain text report with verbosity {@link ReportVerbosity#QUIET} or
+     * {@link ReportVerbosity#MINIMAL} only shows if the trace has defects. In
+     * this case tracing stops at the first defect, unless statistics are
+     * requested.
+     */
+    private boolean isOnlyResultNeeded()
+    {
+        final ReportVerbosity verbosity = this.arguments.getReportVerbosity();
+        return ReportConstants.DEFAULT_REPORT_FORMAT.equals(this.arguments.getOutputFormat())
+                && ((verbosity == ReportVerbosity.QUIET) || (verbosity == ReportVerbosity.MINIMAL))
+                && !this.arguments.getStats() && (this.arguments.getStatsFile() == null);
+    }
+
+    /**
+     * Only the plain text report with verbosity {@link ReportVerbosity#ALL}
+     * prints the descriptions of all items.
+     */
+    @Override
+    protected boolean isItemTextRarelyNeeded()
+    {
+        return ReportConstants.DEFAULT_REPORT_FORMAT.equals(this.arguments.getOutputFormat())
+                && (this.arguments.getReportVerbosity() != ReportVerbosity.ALL);
+    }
+
+    /**
+     * The report decides which item texts are imported.
+     */
+    @Override
+    protected Set<ItemTextField> getRequiredTextFields()
+    {
+        return this.oft.getRequiredTextFields(convertCommandLineArgumentsToReportSettings());
+    }
+
+    /**
+     * The report decides if coverage tags are kept in compact form. Statistics
+     * need the full items.
+     */
+    @Override
+    protected boolean isCompactCoverageTagsSupported()
+    {
+        return !this.arguments.getStats() && (this.arguments.getStatsFile() == null)
+                && this.oft.supportsCompactCoverageTags(
+                        convertCommandLineArgumentsToReportSettings());
     }
 
     private List<LinkedSpecificationItem> linkItems(final List<SpecificationItem> items)
     {
-        return this.oft.link(items);
+        return this.oft.link(items, this.arguments.getJobs());
     }
 
     private Trace traceItems(final List<LinkedSpecificationItem> linkedItems)
@@ -0,0 +1,131 @@
+package org.itsallcode.openfasttrace.core.cli.commands;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.core.cli.CliArguments;
+import org.itsallcode.openfasttrace.core.importer.DirectoryWalker;
+import org.itsallcode.openfasttrace.core.watch.DirectoryWatcher;
+import org.itsallcode.openfasttrace.core.watch.IncrementalImporter;
+
+/**
+ * Handler for the CLI command that traces the inputs and traces them again
+ * each time an input file changes.
+ * 
+ * The imported items are kept in memory per file, so that only changed files
+ * are imported again. Linking and tracing run on the items in memory and are
+ * skipped if a change did not affect any specification item.
+ */
+public class WatchCommand extends TraceCommand
+{
+    public static final String COMMAND_NAME = "watch";
+    private static final Logger LOG = Logger.getLogger(WatchCommand.class.getName());
+
+    private final OftRunner runner;
+
+    /**
+     * Create a {@link WatchCommand}.
+     * 
+     * @param arguments
+     *            command line arguments.
+     */
+    public WatchCommand(final CliArguments arguments)
+    {
+        this(arguments, new OftRunner());
+    }
+
+    private WatchCommand(final CliArguments arguments, final OftRunner runner)
+    {
+        super(arguments, runner);
+        this.runner = runner;
+    }
+
+    /**
+     * Watched files change while the items imported from them are still in
+     * use, so item texts must be read during the import.
+     */
+    @Override
+    protected boolean isItemTextRarelyNeeded()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean run()
+    {
+        final ImportSettings settings = createImportSettingsFromArguments();
+        final IncrementalImporter importer = this.runner.createIncrementalImporter(settings);
+        Trace trace = traceAndReport(importer.importAll());
+        LOG.info(() -> "Watching " + importer.getFileCount() + " files for changes.");
+        try (DirectoryWatcher watcher = new DirectoryWatcher(settings.getInputs(),
+                new DirectoryWalker(settings.getExcludePatterns(), settings.getJobs())))
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                trace = traceChanges(importer, watcher.waitForChanges(), trace);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Unable to watch input files", e);
+        }
+        return trace.hasNoDefects();
+    }
+
+    private Trace traceChanges(final IncrementalImporter importer, final Set<Path> changedPaths,
+            final Trace previousTrace)
+    {
+        final long start = System.nanoTime();
+        try
+        {
+            if (!importer.update(changedPaths))
+            {
+                LOG.fine(() -> "Changes in " + changedPaths + " do not affect any item.");
+                return previousTrace;
+            }
+            final Trace trace = traceAndReport(importer.getItems());
+            LOG.info(() -> "Traced " + trace.count() + " items after changes in "
+                    + changedPaths.size() + " paths in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            return trace;
+        }
+        catch (final ImporterException e)
+        {
+            LOG.warning(() -> "Import failed, waiting for the next change: " + e.getMessage());
+            return previousTrace;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.Optional;
+
+import org.itsallcode.openfasttrace.api.core.CoverageTag;
+import org.itsallcode.openfasttrace.api.core.TextRange;
+import org.itsallcode.openfasttrace.api.importer.*;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+
+/**
+ * {@link Importer} that takes the items of a file from the {@link ImportCache}
+ * if possible. Otherwise it imports the file and stores the result in the
+ * cache.
+ * 
+ * <p>
+ * In case of a cache miss the listener receives the events of the importer
+ * while they are recorded. In case of a hit the cached items are replayed as
+ * import events, so that filters are applied exactly as for an uncached
+ * import. Coverage tags are recorded as such and replayed as
+ * {@link CoverageTag}. Texts that items read
+ * lazily from a {@link TextRange} are kept as ranges in the cache and during
+ * replay, so that the cache does not read them. The actual importer is only
+ * created in case of a cache miss.
+ * </p>
+ */
+class CachingImporter implements Importer
+{
+    private final ImportCache cache;
+    private final InputFile file;
+    private final ImporterFactory importerFactory;
+    private final ImportEventListener listener;
+
+    /**
+     * Create a new {@link CachingImporter}
+     * 
+     * @param cache
+     *            the import cache
+     * @param file
+     *            real file to be imported
+     * @param importerFactory
+     *            factory of the importer responsible for the file
+     * @param listener
+     *            listener that receives the import events
+     */
+    CachingImporter(final ImportCache cache, final InputFile file,
+            final ImporterFactory importerFactory, final ImportEventListener listener)
+    {
+        this.cache = cache;
+        this.file = file;
+        this.importerFactory = importerFactory;
+        this.listener = listener;
+    }
+
+    @Override
+    public void runImport()
+    {
+        final ImportCache.Entry entry = this.cache.lookup(this.file, this.importerFactory);
+        final Optional<ImportRecording> cachedRecording = entry.getRecording();
+        if (cachedRecording.isPresent())
+        {
+            cachedRecording.get().replay(this.listener);
+        }
+        else
+        {
+            final ImportRecording.Recorder recorder = ImportRecording.recorder(this.listener);
+            this.importerFactory.createImporter(this.file, recorder).runImport();
+            entry.store(recorder.build());
+        }
+    }
+}
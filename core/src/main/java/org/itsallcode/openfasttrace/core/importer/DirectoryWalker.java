@@ -0,0 +1,389 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+
+/**
+ * Finds the files and directories below an input directory.
+ * 
+ * The walker reads the type of each entry from the attributes that come with
+ * the directory listing, so it does not query the file system again for every
+ * file. Directories that match an exclude pattern are skipped completely.
+ * The patterns come from the import settings and from
+ * {@value #IGNORE_FILE_NAME} files in the walked directories. See
+ * {@link ExcludeRules} for the pattern syntax.
+ * 
+ * With more than one job, subdirectories of wide directories are walked in
+ * parallel. The result is the same as a walk on a single thread, including
+ * the order of the paths.
+ */
+public class DirectoryWalker
+{
+    /** Name of the files that contain exclude patterns for their directory */
+    public static final String IGNORE_FILE_NAME = ".oftignore";
+    private static final int MIN_PARALLEL_SUBDIRECTORIES = 4;
+
+    private final List<String> excludePatterns;
+    private final int jobs;
+
+    /**
+     * Create a new {@link DirectoryWalker}
+     * 
+     * @param excludePatterns
+     *            patterns of files and directories that are skipped, relative
+     *            to the walked input directory
+     * @param jobs
+     *            number of threads that walk subdirectories in parallel
+     */
+    public DirectoryWalker(final List<String> excludePatterns, final int jobs)
+    {
+        this.excludePatterns = excludePatterns;
+        this.jobs = jobs;
+    }
+
+    /**
+     * Find all files below an input directory that are not excluded
+     * 
+     * @param directory
+     *            input directory
+     * @return files in the order of the directory listings
+     */
+    public List<Path> findFiles(final Path directory)
+    {
+        return findFiles(directory, directory);
+    }
+
+    /**
+     * Find all files below a directory that are not excluded, applying the
+     * exclude patterns of the input directory that contains it
+     * 
+     * @param root
+     *            input directory
+     * @param directory
+     *            directory below the input directory
+     * @return files in the order of the directory listings
+     */
+    public List<Path> findFiles(final Path root, final Path directory)
+    {
+        return walk(root, directory, false);
+    }
+
+    /**
+     * Find a directory and all directories below it that are not excluded,
+     * applying the exclude patterns of the input directory that contains it
+     * 
+     * @param root
+     *            input directory
+     * @param directory
+     *            directory below the input directory
+     * @return the directory followed by its subdirectories in the order of the
+     *         directory listings
+     */
+    public List<Path> findDirectories(final Path root, final Path directory)
+    {
+        return walk(root, directory, true);
+    }
+
+    /**
+     * Check if a path below an input directory or any of its parent
+     * directories is excluded
+     * 
+     * @param root
+     *            input directory
+     * @param path
+     *            file or directory below the input directory
+     * @return <code>true</code> if the path is excluded
+     */
+    public boolean isExcluded(final Path root, final Path path)
+    {
+        final Path relativePath = relativize(root, path);
+        if (relativePath.toString().isEmpty())
+        {
+            return false;
+        }
+        ExcludeRules rules = createRootRules(root);
+        Path current = root;
+        final Iterator<Path> names = relativePath.iterator();
+        while (names.hasNext())
+        {
+            rules = readIgnoreFileIfPresent(rules, current);
+            current = current.resolve(names.next());
+            if (rules.isExcluded(current, names.hasNext() || Files.isDirectory(current)))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Path> walk(final Path root, final Path directory, final boolean directories)
+    {
+        final WalkTask task = createStartTask(root, directory, directories);
+        if (this.jobs <= 1)
+        {
+            return task.compute();
+        }
+        final ForkJoinPool pool = new ForkJoinPool(this.jobs);
+        try
+        {
+            return pool.invoke(task);
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private WalkTask createStartTask(final Path root, final Path directory,
+            final boolean directories)
+    {
+        ExcludeRules rules = createRootRules(root);
+        if (directory.equals(root))
+        {
+            return new WalkTask(root, rules, directories);
+        }
+        Path current = root;
+        for (final Path name : relativize(root, directory))
+        {
+            rules = readIgnoreFileIfPresent(rules, current);
+            current = current.resolve(name);
+        }
+        return new WalkTask(current, rules, directories);
+    }
+
+    private ExcludeRules createRootRules(final Path root)
+    {
+        return ExcludeRules.none().withPatterns(root, this.excludePatterns);
+    }
+
+    private static Path relativize(final Path root, final Path path)
+    {
+        return toKey(root).relativize(toKey(path));
+    }
+
+    private static Path toKey(final Path path)
+    {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static ExcludeRules readIgnoreFileIfPresent(final ExcludeRules rules,
+            final Path directory)
+    {
+        final Path ignoreFile = directory.resolve(IGNORE_FILE_NAME);
+        return Files.isRegularFile(ignoreFile) ? readIgnoreFile(rules, directory, ignoreFile)
+                : rules;
+    }
+
+    private static ExcludeRules readIgnoreFile(final ExcludeRules rules, final Path directory,
+            final Path ignoreFile)
+    {
+        try
+        {
+            return rules.withPatterns(directory,
+                    Files.readAllLines(ignoreFile, StandardCharsets.UTF_8));
+        }
+        catch (final IOException e)
+        {
+            throw new ImporterException("Error reading ignore file " + ignoreFile, e);
+        }
+    }
+
+    /**
+     * List the entries of a directory together with their type, taken from the
+     * attributes that the file tree walk reads anyway. Only symbolic links need
+     * another look-up.
+     */
+    private static List<Entry> listEntries(final Path directory)
+    {
+        final List<Entry> entries = new ArrayList<>();
+        try
+        {
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1,
+                    new SimpleFileVisitor<Path>()
+                    {
+                        @Override
+                        public FileVisitResult visitFile(final Path file,
+                                final BasicFileAttributes attributes)
+                        {
+                            entries.add(new Entry(file, getType(file, attributes)));
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        }
+        catch (final IOException e)
+        {
+            throw new ImporterException("Error walking directory " + directory, e);
+        }
+        return entries;
+    }
+
+    private static EntryType getType(final Path path, final BasicFileAttributes attributes)
+    {
+        if (attributes.isDirectory())
+        {
+            return EntryType.DIRECTORY;
+        }
+        if (attributes.isRegularFile())
+        {
+            return EntryType.FILE;
+        }
+        if (attributes.isSymbolicLink())
+        {
+            if (Files.isDirectory(path))
+            {
+                return EntryType.LINKED_DIRECTORY;
+            }
+            if (Files.isRegularFile(path))
+            {
+                return EntryType.FILE;
+            }
+        }
+        return EntryType.OTHER;
+    }
+
+    private enum EntryType
+    {
+        FILE, DIRECTORY, LINKED_DIRECTORY, OTHER
+    }
+
+    private static final class Entry
+    {
+        private final Path path;
+        private final EntryType type;
+
+        private Entry(final Path path, final EntryType type)
+        {
+            this.path = path;
+            this.type = type;
+        }
+
+        private boolean isDirectory()
+        {
+            return this.type == EntryType.DIRECTORY || this.type == EntryType.LINKED_DIRECTORY;
+        }
+
+        private boolean isIgnoreFile()
+        {
+            return this.type == EntryType.FILE
+                    && IGNORE_FILE_NAME.equals(this.path.getFileName().toString());
+        }
+    }
+
+    /**
+     * Walks a directory and the subdirectories that are not excluded.
+     * Subdirectories of wide directories are walked in parallel when the
+     * walker has more than one job. Their results are appended in the order
+     * of the directory listing.
+     */
+    private final class WalkTask extends RecursiveTask<List<Path>>
+    {
+        private static final long serialVersionUID = 1L;
+        private final Path directory;
+        private final transient ExcludeRules inheritedRules;
+        private final boolean directories;
+
+        WalkTask(final Path directory, final ExcludeRules inheritedRules,
+                final boolean directories)
+        {
+            this.directory = directory;
+            this.inheritedRules = inheritedRules;
+            this.directories = directories;
+        }
+
+        @Override
+        protected List<Path> compute()
+        {
+            final List<Entry> entries = listEntries(this.directory);
+            final ExcludeRules rules = applyIgnoreFile(entries);
+            final List<Path> paths = new ArrayList<>();
+            if (this.directories)
+            {
+                paths.add(this.directory);
+            }
+            final List<Entry> includedEntries = new ArrayList<>(entries.size());
+            final List<WalkTask> subtasks = new ArrayList<>();
+            for (final Entry entry : entries)
+            {
+                if (!rules.isExcluded(entry.path, entry.isDirectory()))
+                {
+                    if (entry.type == EntryType.DIRECTORY)
+                    {
+                        subtasks.add(new WalkTask(entry.path, rules, this.directories));
+                        includedEntries.add(entry);
+                    }
+                    else if (isIncluded(entry))
+                    {
+                        includedEntries.add(entry);
+                    }
+                }
+            }
+            final boolean parallel = DirectoryWalker.this.jobs > 1
+                    && subtasks.size() >= MIN_PARALLEL_SUBDIRECTORIES;
+            if (parallel)
+            {
+                invokeAll(subtasks);
+            }
+            final Iterator<WalkTask> subtaskIterator = subtasks.iterator();
+            for (final Entry entry : includedEntries)
+            {
+                if (entry.type == EntryType.DIRECTORY)
+                {
+                    final WalkTask subtask = subtaskIterator.next();
+                    paths.addAll(parallel ? subtask.join() : subtask.compute());
+                }
+                else
+                {
+                    paths.add(entry.path);
+                }
+            }
+            return paths;
+        }
+
+        private ExcludeRules applyIgnoreFile(final List<Entry> entries)
+        {
+            for (final Entry entry : entries)
+            {
+                if (entry.isIgnoreFile())
+                {
+                    return readIgnoreFile(this.inheritedRules, this.directory, entry.path);
+                }
+            }
+            return this.inheritedRules;
+        }
+
+        private boolean isIncluded(final Entry entry)
+        {
+            return this.directories ? (entry.type == EntryType.LINKED_DIRECTORY)
+                    : (entry.type == EntryType.FILE);
+        }
+    }
+}
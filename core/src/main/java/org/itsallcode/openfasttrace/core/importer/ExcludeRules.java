@@ -0,0 +1,210 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.*;
+import java.util.regex.PatternSyntaxException;
+
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+
+/**
+ * Rules that exclude files and directories from a directory walk. The
+ * patterns follow the syntax of <code>.gitignore</code> files:
+ * <ul>
+ * <li>Blank lines and lines starting with <code>#</code> are ignored.</li>
+ * <li>A pattern without a slash matches the name of a file or directory at
+ * any depth below the directory that defines the pattern.</li>
+ * <li>A pattern with a slash is matched against the path relative to that
+ * directory. A leading slash only anchors the pattern.</li>
+ * <li>A trailing slash matches directories only.</li>
+ * <li>A leading <code>!</code> includes a path again that an earlier pattern
+ * excluded.</li>
+ * <li><code>*</code>, <code>?</code> and <code>[...]</code> do not match a
+ * slash, <code>**</code> matches across directories.</li>
+ * </ul>
+ * Later patterns take precedence over earlier ones. Rules are only applied to
+ * paths below the directory that defines them.
+ */
+final class ExcludeRules
+{
+    private static final ExcludeRules NONE = new ExcludeRules(Collections.emptyList());
+    private final List<Rule> rules;
+
+    private ExcludeRules(final List<Rule> rules)
+    {
+        this.rules = rules;
+    }
+
+    /**
+     * Get the rules that exclude nothing
+     * 
+     * @return empty rules
+     */
+    static ExcludeRules none()
+    {
+        return NONE;
+    }
+
+    /**
+     * Create rules that additionally contain the given patterns. The new
+     * patterns take precedence over the existing ones.
+     * 
+     * @param base
+     *            directory that anchored patterns are relative to
+     * @param patterns
+     *            exclude patterns, one per entry
+     * @return combined rules
+     */
+    ExcludeRules withPatterns(final Path base, final List<String> patterns)
+    {
+        final List<Rule> combined = new ArrayList<>(this.rules);
+        for (final String pattern : patterns)
+        {
+            final String trimmed = pattern.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#"))
+            {
+                combined.add(Rule.parse(base, trimmed));
+            }
+        }
+        return (combined.size() == this.rules.size()) ? this : new ExcludeRules(combined);
+    }
+
+    /**
+     * Check if a path is excluded
+     * 
+     * @param path
+     *            path below the base directories of the rules
+     * @param directory
+     *            <code>true</code> if the path is a directory
+     * @return <code>true</code> if the last matching pattern excludes the
+     *         path
+     */
+    boolean isExcluded(final Path path, final boolean directory)
+    {
+        for (int i = this.rules.size() - 1; i >= 0; --i)
+        {
+            final Rule rule = this.rules.get(i);
+            if (rule.matches(path, directory))
+            {
+                return !rule.negated;
+            }
+        }
+        return false;
+    }
+
+    private static final class Rule
+    {
+        private static final String ANY_DIRECTORY_PREFIX = "**/";
+        private final Path base;
+        private final List<PathMatcher> matchers;
+        private final boolean anchored;
+        private final boolean directoryOnly;
+        private final boolean negated;
+
+        private Rule(final Path base, final List<PathMatcher> matchers, final boolean anchored,
+                final boolean directoryOnly, final boolean negated)
+        {
+            this.base = base;
+            this.matchers = matchers;
+            this.anchored = anchored;
+            this.directoryOnly = directoryOnly;
+            this.negated = negated;
+        }
+
+        private static Rule parse(final Path base, final String pattern)
+        {
+            String glob = pattern;
+            final boolean negated = glob.startsWith("!");
+            if (negated)
+            {
+                glob = glob.substring(1);
+            }
+            final boolean directoryOnly = glob.endsWith("/");
+            if (directoryOnly)
+            {
+                glob = glob.substring(0, glob.length() - 1);
+            }
+            boolean anchored = glob.startsWith("/");
+            if (anchored)
+            {
+                glob = glob.substring(1);
+            }
+            final List<String> globs = new ArrayList<>(2);
+            if (!anchored && glob.startsWith(ANY_DIRECTORY_PREFIX))
+            {
+                final String remainder = glob.substring(ANY_DIRECTORY_PREFIX.length());
+                if (!remainder.contains("/"))
+                {
+                    glob = remainder;
+                }
+                else
+                {
+                    globs.add(remainder);
+                }
+            }
+            globs.add(glob);
+            anchored = anchored || glob.contains("/");
+            return new Rule(base, createMatchers(base, pattern, globs), anchored, directoryOnly,
+                    negated);
+        }
+
+        private static List<PathMatcher> createMatchers(final Path base, final String pattern,
+                final List<String> globs)
+        {
+            final List<PathMatcher> matchers = new ArrayList<>(globs.size());
+            try
+            {
+                for (final String glob : globs)
+                {
+                    matchers.add(base.getFileSystem().getPathMatcher("glob:" + glob));
+                }
+            }
+            catch (final PatternSyntaxException e)
+            {
+                throw new ImporterException(
+                        "Invalid exclude pattern '" + pattern + "' for directory " + base, e);
+            }
+            return matchers;
+        }
+
+        private boolean matches(final Path path, final boolean directory)
+        {
+            if (this.directoryOnly && !directory)
+            {
+                return false;
+            }
+            final Path matchedPath = this.anchored ? this.base.relativize(path)
+                    : path.getFileName();
+            for (final PathMatcher matcher : this.matchers)
+            {
+                if (matcher.matches(matchedPath))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
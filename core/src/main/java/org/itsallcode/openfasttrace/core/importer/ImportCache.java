@@ -0,0 +1,604 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.core.TextRange;
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+
+/**
+ * On-disk cache for the {@link SpecificationItem}s imported from files.
+ * 
+ * <p>
+ * The cache keeps one entry per input file in the cache directory. An entry
+ * holds the items the file produced before filtering in a compact binary form.
+ * It is valid as long as the file has the same path, size and modification
+ * time as during the import. Lazy texts are stored as ranges of the file, which
+ * stay valid as long as the entry does.
+ * </p>
+ * <p>
+ * Hashing the content of each file would make importing with an empty cache
+ * noticeably slower than importing without cache. So the content hash is only
+ * computed when the file still has the size of the cached entry but a
+ * different modification time. It is then stored with the new entry. The next
+ * time only the modification time changes, e.g. after a fresh checkout, the
+ * entry is still valid when the content hash matches.
+ * </p>
+ * <p>
+ * For the same reason new entries are written by a background thread while
+ * the import goes on. At most {@value #MAX_PENDING_STORES} entries wait for
+ * the writer, so that a slow cache directory cannot hold all imported items in
+ * memory. Call {@link #awaitStores()} once the import is finished.
+ * </p>
+ * <p>
+ * Entries are also invalidated when the importer that created them, its
+ * version, the path configuration or the required text fields change. The
+ * version of an importer consists of its implementation version and a
+ * fingerprint of the JAR file or class directory it was loaded from, so that
+ * changes to the importer code are detected even if the version number stays
+ * the same. Files imported by importers without such a fingerprint are never
+ * cached.
+ * </p>
+ */
+class ImportCache
+{
+    private static final Logger LOG = Logger.getLogger(ImportCache.class.getName());
+    private static final int MAGIC = 0x4F465443;
+    private static final int FORMAT_VERSION = 5;
+    private static final String ENTRY_SUFFIX = ".oftcache";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String UNVERSIONED = "unversioned";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] NO_CONTENT_HASH = new byte[0];
+    private static final int MAX_PENDING_STORES = 64;
+    private static final long WRITER_KEEP_ALIVE_SECONDS = 1;
+
+    private final Path directory;
+    private final String settingsFingerprint;
+    private final Map<Class<?>, Optional<String>> importerKeys = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final Semaphore pendingStores = new Semaphore(MAX_PENDING_STORES);
+    private final ThreadPoolExecutor writer = createWriter();
+
+    /**
+     * Create a new {@link ImportCache} for items with all text fields
+     * 
+     * @param directory
+     *            directory that holds the cache entries, created if missing
+     * @param pathConfigs
+     *            path configurations that influence how files are imported
+     */
+    ImportCache(final Path directory, final List<PathConfig> pathConfigs)
+    {
+        this(directory, pathConfigs, EnumSet.allOf(ItemTextField.class));
+    }
+
+    /**
+     * Create a new {@link ImportCache}
+     * 
+     * @param directory
+     *            directory that holds the cache entries, created if missing
+     * @param pathConfigs
+     *            path configurations that influence how files are imported
+     * @param requiredTextFields
+     *            text fields the importers read, so that entries without some
+     *            texts are never used for an import that needs them
+     */
+    ImportCache(final Path directory, final List<PathConfig> pathConfigs,
+            final Set<ItemTextField> requiredTextFields)
+    {
+        this.directory = directory;
+        this.settingsFingerprint = pathConfigs.stream() //
+                .map(PathConfig::toString) //
+                .collect(Collectors.joining(";")) + "|" + requiredTextFields;
+        try
+        {
+            Files.createDirectories(directory);
+        }
+        catch (final IOException exception)
+        {
+            throw new ImporterException("Unable to create import cache directory " + directory,
+                    exception);
+        }
+    }
+
+    /**
+     * Check if the results of an importer can be cached
+     * 
+     * @param importerFactory
+     *            factory of the importer
+     * @return <code>true</code> if the code of the importer can be
+     *         fingerprinted, so that outdated entries are detected
+     */
+    boolean isCacheable(final ImporterFactory importerFactory)
+    {
+        return getImporterKey(importerFactory).isPresent();
+    }
+
+    /**
+     * Look up the cache entry for a file
+     * 
+     * @param file
+     *            real file to be imported
+     * @param importerFactory
+     *            factory of the importer responsible for the file, must be
+     *            {@link #isCacheable(ImporterFactory) cacheable}
+     * @return cache entry that either contains the cached items or can store
+     *         the items after importing the file
+     */
+    Entry lookup(final InputFile file, final ImporterFactory importerFactory)
+    {
+        final Entry entry = new Entry(file, getImporterKey(importerFactory)
+                .orElseThrow(() -> new IllegalArgumentException("Importer factory "
+                        + importerFactory.getClass().getName() + " is not cacheable")));
+        if (entry.load())
+        {
+            this.hits.incrementAndGet();
+        }
+        else
+        {
+            this.misses.incrementAndGet();
+        }
+        return entry;
+    }
+
+    private Optional<String> getImporterKey(final ImporterFactory importerFactory)
+    {
+        return this.importerKeys.computeIfAbsent(importerFactory.getClass(),
+                this::createImporterKey);
+    }
+
+    private Optional<String> createImporterKey(final Class<?> factoryClass)
+    {
+        final Optional<String> codeFingerprint = fingerprintCodeSource(factoryClass);
+        if (!codeFingerprint.isPresent())
+        {
+            LOG.fine(() -> "Import cache disabled for importer " + factoryClass.getName()
+                    + " because its code source cannot be fingerprinted");
+            return Optional.empty();
+        }
+        final Package factoryPackage = factoryClass.getPackage();
+        final String version = (factoryPackage == null) ? null
+                : factoryPackage.getImplementationVersion();
+        return Optional.of(factoryClass.getName() + "@"
+                + ((version == null) ? UNVERSIONED : version) + "#" + codeFingerprint.get() + "|"
+                + this.settingsFingerprint);
+    }
+
+    /**
+     * Create a fingerprint of the code a class was loaded from. For a JAR file
+     * this is its size and modification time. For a class directory it is a
+     * hash over the paths, sizes and modification times of all files in it.
+     * 
+     * @param type
+     *            class to fingerprint
+     * @return fingerprint or an empty {@link Optional} if the class does not
+     *         come from a local JAR file or directory
+     */
+    static Optional<String> fingerprintCodeSource(final Class<?> type)
+    {
+        final CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null)
+        {
+            return Optional.empty();
+        }
+        try
+        {
+            return fingerprintPath(Paths.get(codeSource.getLocation().toURI()));
+        }
+        catch (final URISyntaxException | IllegalArgumentException
+                | FileSystemNotFoundException exception)
+        {
+            return Optional.empty();
+        }
+    }
+
+    static Optional<String> fingerprintPath(final Path path)
+    {
+        try
+        {
+            final BasicFileAttributes attributes = Files.readAttributes(path,
+                    BasicFileAttributes.class);
+            if (attributes.isRegularFile())
+            {
+                return Optional.of(attributes.size() + ":"
+                        + attributes.lastModifiedTime().toMillis());
+            }
+            else if (attributes.isDirectory())
+            {
+                return Optional.of(fingerprintDirectory(path));
+            }
+        }
+        catch (final IOException | UncheckedIOException exception)
+        {
+            LOG.log(Level.FINE, exception, () -> "Unable to fingerprint code source " + path);
+        }
+        return Optional.empty();
+    }
+
+    private static String fingerprintDirectory(final Path directory) throws IOException
+    {
+        final MessageDigest digest = createDigest();
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            final Iterator<Path> sortedFiles = files.filter(Files::isRegularFile).sorted()
+                    .iterator();
+            while (sortedFiles.hasNext())
+            {
+                final Path file = sortedFiles.next();
+                final BasicFileAttributes attributes = Files.readAttributes(file,
+                        BasicFileAttributes.class);
+                digest.update((directory.relativize(file) + ":" + attributes.size() + ":"
+                        + attributes.lastModifiedTime().toMillis() + "\n")
+                                .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static ThreadPoolExecutor createWriter()
+    {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+                WRITER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "import-cache-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Wait until all entries passed to {@link Entry#store(ImportRecording)}
+     * are written
+     */
+    void awaitStores()
+    {
+        this.pendingStores.acquireUninterruptibly(MAX_PENDING_STORES);
+        this.pendingStores.release(MAX_PENDING_STORES);
+    }
+
+    /**
+     * Get the number of files that were found in the cache
+     * 
+     * @return number of cache hits
+     */
+    int getHits()
+    {
+        return this.hits.get();
+    }
+
+    /**
+     * Get the number of files that had to be imported
+     * 
+     * @return number of cache misses
+     */
+    int getMisses()
+    {
+        return this.misses.get();
+    }
+
+    /**
+     * Get the directory that holds the cache entries
+     * 
+     * @return cache directory
+     */
+    Path getDirectory()
+    {
+        return this.directory;
+    }
+
+    /**
+     * Cache entry of a single input file
+     */
+    final class Entry
+    {
+        private final InputFile file;
+        private final String importerKey;
+        private final Path entryPath;
+        private final long size;
+        private final long lastModified;
+        private byte[] contentHash;
+        private ImportRecording recording;
+
+        private Entry(final InputFile file, final String importerKey)
+        {
+            this.file = file;
+            this.importerKey = importerKey;
+            final Path absolutePath = file.toPath().toAbsolutePath().normalize();
+            this.entryPath = ImportCache.this.directory
+                    .resolve(toHex(hash(absolutePath.toString()
+                            .getBytes(StandardCharsets.UTF_8))) + ENTRY_SUFFIX);
+            final BasicFileAttributes attributes = readAttributes(file.toPath());
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+
+        /**
+         * Get the cached items and coverage tags
+         * 
+         * @return recording of the import or an empty {@link Optional} in case
+         *         of a cache miss
+         */
+        Optional<ImportRecording> getRecording()
+        {
+            return Optional.ofNullable(this.recording);
+        }
+
+        private boolean load()
+        {
+            if (!Files.exists(this.entryPath))
+            {
+                return false;
+            }
+            try (DataInputStream input = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(this.entryPath), BUFFER_SIZE)))
+            {
+                if (isMatchingEntry(input))
+                {
+                    this.recording = SpecificationItemCodec.read(input, createTextSource());
+                    return true;
+                }
+            }
+            catch (final IOException | RuntimeException exception)
+            {
+                LOG.log(Level.WARNING, exception, () -> "Ignoring unreadable import cache entry '"
+                        + this.entryPath + "' for file '" + this.file + "'");
+            }
+            return false;
+        }
+
+        private boolean isMatchingEntry(final DataInputStream input) throws IOException
+        {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION
+                    || !this.importerKey.equals(input.readUTF())
+                    || !this.file.getPath().equals(input.readUTF()))
+            {
+                return false;
+            }
+            final long cachedSize = input.readLong();
+            final long cachedLastModified = input.readLong();
+            final byte[] cachedContentHash = new byte[input.readUnsignedShort()];
+            input.readFully(cachedContentHash);
+            if (cachedSize != this.size)
+            {
+                return false;
+            }
+            if (cachedLastModified == this.lastModified)
+            {
+                return true;
+            }
+            // Computed before the file is imported again, so that changes
+            // during the import are detected on the next run.
+            return Arrays.equals(cachedContentHash, getContentHash());
+        }
+
+        /**
+         * Store the items and coverage tags imported from the file in the
+         * background. Blocks while too many entries wait for the writer.
+         * Failures are logged, because the import itself succeeded.
+         * 
+         * @param importRecording
+         *            recording of the import of the file
+         */
+        void store(final ImportRecording importRecording)
+        {
+            ImportCache.this.pendingStores.acquireUninterruptibly();
+            try
+            {
+                ImportCache.this.writer.execute(() -> {
+                    try
+                    {
+                        write(importRecording);
+                    }
+                    finally
+                    {
+                        ImportCache.this.pendingStores.release();
+                    }
+                });
+            }
+            catch (final RejectedExecutionException exception)
+            {
+                ImportCache.this.pendingStores.release();
+                throw exception;
+            }
+        }
+
+        private void write(final ImportRecording importRecording)
+        {
+            Path temporaryPath = null;
+            try
+            {
+                final byte[] hash = (this.contentHash == null) ? NO_CONTENT_HASH
+                        : this.contentHash;
+                temporaryPath = createTemporaryPath();
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(temporaryPath), BUFFER_SIZE)))
+                {
+                    output.writeInt(MAGIC);
+                    output.writeInt(FORMAT_VERSION);
+                    output.writeUTF(this.importerKey);
+                    output.writeUTF(this.file.getPath());
+                    output.writeLong(this.size);
+                    output.writeLong(this.lastModified);
+                    output.writeShort(hash.length);
+                    output.write(hash);
+                    SpecificationItemCodec.write(importRecording, output, createTextSource());
+                }
+                moveIntoPlace(temporaryPath);
+            }
+            catch (final IOException | RuntimeException exception)
+            {
+                LOG.log(Level.WARNING, exception,
+                        () -> "Unable to store import cache entry for file '" + this.file + "'");
+                deleteQuietly(temporaryPath);
+            }
+        }
+
+        /**
+         * Create a path for writing the entry before it is moved into place.
+         * The name is unique per process and thread, so that concurrent
+         * imports never write to the same file.
+         */
+        private Path createTemporaryPath()
+        {
+            return this.entryPath.resolveSibling(this.entryPath.getFileName() + "."
+                    + ProcessHandle.current().pid() + "-" + Thread.currentThread().getId()
+                    + TEMPORARY_SUFFIX);
+        }
+
+        private void moveIntoPlace(final Path temporaryPath) throws IOException
+        {
+            try
+            {
+                Files.move(temporaryPath, this.entryPath, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (final AtomicMoveNotSupportedException exception)
+            {
+                Files.move(temporaryPath, this.entryPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        /**
+         * Create a new text source for each import of the file, because the
+         * contents of text sources are cached by identity.
+         */
+        private TextRange.Source createTextSource()
+        {
+            final Charset charset = (this.file instanceof RealFileInput)
+                    ? ((RealFileInput) this.file).getCharset()
+                    : StandardCharsets.UTF_8;
+            return TextRange.Source.forFile(this.file.toPath(), charset);
+        }
+
+        private byte[] getContentHash()
+        {
+            if (this.contentHash == null)
+            {
+                this.contentHash = hashFile(this.file.toPath());
+            }
+            return this.contentHash;
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(final Path path)
+    {
+        try
+        {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        catch (final IOException exception)
+        {
+            throw new ImporterException("Unable to read attributes of file " + path, exception);
+        }
+    }
+
+    private static byte[] hashFile(final Path path)
+    {
+        final MessageDigest digest = createDigest();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(path))
+        {
+            int read;
+            while ((read = input.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, read);
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new ImporterException("Unable to read file " + path, exception);
+        }
+        return digest.digest();
+    }
+
+    private static byte[] hash(final byte[] data)
+    {
+        return createDigest().digest(data);
+    }
+
+    private static MessageDigest createDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        }
+        catch (final NoSuchAlgorithmException exception)
+        {
+            throw new IllegalStateException("Hash algorithm " + HASH_ALGORITHM + " not available",
+                    exception);
+        }
+    }
+
+    private static String toHex(final byte[] bytes)
+    {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (final byte value : bytes)
+        {
+            builder.append(Character.forDigit((value >> 4) & 0xF, 16))
+                    .append(Character.forDigit(value & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private static void deleteQuietly(final Path path)
+    {
+        if (path != null)
+        {
+            try
+            {
+                Files.deleteIfExists(path);
+            }
+            catch (final IOException exception)
+            {
+                LOG.log(Level.FINE, exception, () -> "Unable to delete " + path);
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
+import org.itsallcode.openfasttrace.api.importer.ImportEventReplay;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+
+/**
+ * Specification items and {@link CoverageTag}s imported from a single file, in
+ * the order in which the importer reported them.
+ * 
+ * <p>
+ * Coverage tags are kept as they were reported, so that replaying the
+ * recording passes them to the listener as coverage tags again.
+ * </p>
+ */
+final class ImportRecording
+{
+    private final List<SpecificationItem> items;
+    private final List<CoverageTag> coverageTags;
+    private final BitSet coverageTagPositions;
+
+    /**
+     * Create a new {@link ImportRecording}
+     * 
+     * @param items
+     *            regular specification items
+     * @param coverageTags
+     *            coverage tags
+     * @param coverageTagPositions
+     *            positions of the coverage tags among all records
+     */
+    ImportRecording(final List<SpecificationItem> items, final List<CoverageTag> coverageTags,
+            final BitSet coverageTagPositions)
+    {
+        this.items = items;
+        this.coverageTags = coverageTags;
+        this.coverageTagPositions = coverageTagPositions;
+    }
+
+    /**
+     * Create a listener that records import events and passes them on to
+     * another listener at the same time
+     * 
+     * @param listener
+     *            listener that receives all events
+     * @return new recorder
+     */
+    static Recorder recorder(final ImportEventListener listener)
+    {
+        return new Recorder(listener);
+    }
+
+    /**
+     * Get the number of records
+     * 
+     * @return number of items and coverage tags
+     */
+    int size()
+    {
+        return this.items.size() + this.coverageTags.size();
+    }
+
+    /**
+     * Check if the record at the given position is a coverage tag
+     * 
+     * @param position
+     *            position among all records
+     * @return <code>true</code> for a coverage tag, <code>false</code> for a
+     *         regular item
+     */
+    boolean isCoverageTag(final int position)
+    {
+        return this.coverageTagPositions.get(position);
+    }
+
+    /**
+     * Get the regular specification items
+     * 
+     * @return items in the order of import
+     */
+    List<SpecificationItem> getItems()
+    {
+        return Collections.unmodifiableList(this.items);
+    }
+
+    /**
+     * Get the coverage tags
+     * 
+     * @return coverage tags in the order of import
+     */
+    List<CoverageTag> getCoverageTags()
+    {
+        return Collections.unmodifiableList(this.coverageTags);
+    }
+
+    /**
+     * Issue the import events of all records in their original order
+     * 
+     * @param listener
+     *            listener that receives the events
+     */
+    void replay(final ImportEventListener listener)
+    {
+        final Iterator<SpecificationItem> nextItem = this.items.iterator();
+        final Iterator<CoverageTag> nextCoverageTag = this.coverageTags.iterator();
+        for (int position = 0; position < size(); ++position)
+        {
+            if (isCoverageTag(position))
+            {
+                listener.addCoverageTag(nextCoverageTag.next());
+            }
+            else
+            {
+                ImportEventReplay.replay(nextItem.next(), listener);
+            }
+        }
+    }
+
+    /**
+     * {@link ImportEventListener} that creates an {@link ImportRecording} while
+     * passing all events on to another listener
+     */
+    static final class Recorder implements ImportEventListener
+    {
+        private final SpecificationListBuilder itemBuilder = SpecificationListBuilder.create();
+        private final List<CoverageTag> coverageTags = new ArrayList<>();
+        private final BitSet coverageTagPositions = new BitSet();
+        private final ImportEventListener listener;
+
+        private Recorder(final ImportEventListener listener)
+        {
+            this.listener = listener;
+        }
+
+        /**
+         * Create the recording of all events received so far
+         * 
+         * @return the recording
+         */
+        ImportRecording build()
+        {
+            return new ImportRecording(this.itemBuilder.build(), this.coverageTags,
+                    this.coverageTagPositions);
+        }
+
+        @Override
+        public void addCoverageTag(final CoverageTag tag)
+        {
+            this.coverageTagPositions
+                    .set(this.itemBuilder.getItemCount() + this.coverageTags.size());
+            this.coverageTags.add(tag);
+            this.listener.addCoverageTag(tag);
+        }
+
+        @Override
+        public void beginSpecificationItem()
+        {
+            this.itemBuilder.beginSpecificationItem();
+            this.listener.beginSpecificationItem();
+        }
+
+        @Override
+        public void setId(final SpecificationItemId id)
+        {
+            this.itemBuilder.setId(id);
+            this.listener.setId(id);
+        }
+
+        @Override
+        public void setTitle(final String title)
+        {
+            this.itemBuilder.setTitle(title);
+            this.listener.setTitle(title);
+        }
+
+        @Override
+        public void setStatus(final ItemStatus status)
+        {
+            this.itemBuilder.setStatus(status);
+            this.listener.setStatus(status);
+        }
+
+        @Override
+        public void appendDescription(final String fragment)
+        {
+            this.itemBuilder.appendDescription(fragment);
+            this.listener.appendDescription(fragment);
+        }
+
+        @Override
+        public void appendDescription(final TextRange fragment)
+        {
+            this.itemBuilder.appendDescription(fragment);
+            this.listener.appendDescription(fragment);
+        }
+
+        @Override
+        public void appendRationale(final String fragment)
+        {
+            this.itemBuilder.appendRationale(fragment);
+            this.listener.appendRationale(fragment);
+        }
+
+        @Override
+        public void appendRationale(final TextRange fragment)
+        {
+            this.itemBuilder.appendRationale(fragment);
+            this.listener.appendRationale(fragment);
+        }
+
+        @Override
+        public void appendComment(final String fragment)
+        {
+            this.itemBuilder.appendComment(fragment);
+            this.listener.appendComment(fragment);
+        }
+
+        @Override
+        public void appendComment(final TextRange fragment)
+        {
+            this.itemBuilder.appendComment(fragment);
+            this.listener.appendComment(fragment);
+        }
+
+        @Override
+        public void addCoveredId(final SpecificationItemId id)
+        {
+            this.itemBuilder.addCoveredId(id);
+            this.listener.addCoveredId(id);
+        }
+
+        @Override
+        public void addDependsOnId(final SpecificationItemId id)
+        {
+            this.itemBuilder.addDependsOnId(id);
+            this.listener.addDependsOnId(id);
+        }
+
+        @Override
+        public void addNeededArtifactType(final String artifactType)
+        {
+            this.itemBuilder.addNeededArtifactType(artifactType);
+            this.listener.addNeededArtifactType(artifactType);
+        }
+
+        @Override
+        public void addTag(final String tag)
+        {
+            this.itemBuilder.addTag(tag);
+            this.listener.addTag(tag);
+        }
+
+        @Override
+        public void setLocation(final String path, final int line)
+        {
+            this.itemBuilder.setLocation(path, line);
+            this.listener.setLocation(path, line);
+        }
+
+        @Override
+        public void setLocation(final Location location)
+        {
+            this.itemBuilder.setLocation(location);
+            this.listener.setLocation(location);
+        }
+
+        @Override
+        public void endSpecificationItem()
+        {
+            this.itemBuilder.endSpecificationItem();
+            this.listener.endSpecificationItem();
+        }
+
+        @Override
+        public void setForwards(final boolean forwards)
+        {
+            this.itemBuilder.setForwards(forwards);
+            this.listener.setForwards(forwards);
+        }
+    }
+}
@@ -26,11 +26,13 @@ import java.util.List;
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.importer.*;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.core.TraceStatistics;
 
 public class ImporterServiceImpl implements ImporterService
 {
     private final ImporterFactoryLoader factoryLoader;
     private final ImportSettings settings;
+    private final TraceStatistics statistics;
 
     /**
      * Create a new instance of an {@link ImporterServiceImpl}
@@ -42,9 +44,27 @@ public class ImporterServiceImpl implements ImporterService
      */
     public ImporterServiceImpl(final ImporterFactoryLoader factoryLoader,
             final ImportSettings settings)
+    {
+        this(factoryLoader, settings, new TraceStatistics());
+    }
+
+    /**
+     * Create a new instance of an {@link ImporterServiceImpl} that records the
+     * scanned files
+     * 
+     * @param factoryLoader
+     *            loader for importer factories depending on the source
+     * @param settings
+     *            import settings (e.g. filters)
+     * @param statistics
+     *            statistics that count the scanned files per importer
+     */
+    public ImporterServiceImpl(final ImporterFactoryLoader factoryLoader,
+            final ImportSettings settings, final TraceStatistics statistics)
     {
         this.factoryLoader = factoryLoader;
         this.settings = settings;
+        this.statistics = statistics;
     }
 
     @Override
@@ -58,13 +78,33 @@ public class ImporterServiceImpl implements ImporterService
     @Override
     public MultiFileImporterImpl createImporter(final ImportEventListener builder)
     {
-        return new MultiFileImporterImpl((SpecificationListBuilder) builder, this.factoryLoader);
+        return new MultiFileImporterImpl((SpecificationListBuilder) builder, this.factoryLoader,
+                this::createListBuilder, this.settings.getJobs(), createDirectoryWalker(),
+                createCache(), this.statistics);
+    }
+
+    private SpecificationListBuilder createListBuilder()
+    {
+        return SpecificationListBuilder.createWithFilter(this.settings.getFilters(),
+                this.settings.isCompactCoverageTags());
+    }
+
+    private DirectoryWalker createDirectoryWalker()
+    {
+        return new DirectoryWalker(this.settings.getExcludePatterns(), this.settings.getJobs());
+    }
+
+    private ImportCache createCache()
+    {
+        return this.settings.getCacheDirectory() //
+                .map(directory -> new ImportCache(directory, this.settings.getPathConfigs(),
+                        this.settings.getRequiredTextFields())) //
+                .orElse(null);
     }
 
     @Override
     public MultiFileImporter createImporter()
     {
-        return createImporter(
-                SpecificationListBuilder.createWithFilter(this.settings.getFilters()));
+        return createImporter(createListBuilder());
     }
 }
\ No newline at end of file
@@ -23,21 +23,24 @@ package org.itsallcode.openfasttrace.core.importer;
  */
 
 import java.io.File;
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.importer.*;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
 import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.core.TraceStatistics;
 
 /**
  * This class allows you to import and collect {@link SpecificationItem}s from
@@ -53,12 +56,53 @@ public class MultiFileImporterImpl implements MultiFileImporter
 
     private final SpecificationListBuilder specItemBuilder;
     private final ImporterFactoryLoader factoryLoader;
+    private final Supplier<SpecificationListBuilder> fileBuilderFactory;
+    private final int jobs;
+    private final DirectoryWalker walker;
+    private final ImportCache cache;
+    private final TraceStatistics statistics;
 
     MultiFileImporterImpl(final SpecificationListBuilder specItemBuilder,
             final ImporterFactoryLoader factoryLoader)
+    {
+        this(specItemBuilder, factoryLoader, SpecificationListBuilder::create, 1,
+                new DirectoryWalker(Collections.emptyList(), 1), null, new TraceStatistics());
+    }
+
+    /**
+     * Create a new {@link MultiFileImporterImpl} that imports files in
+     * parallel.
+     * 
+     * @param specItemBuilder
+     *            builder that collects the items of all files
+     * @param factoryLoader
+     *            loader for importer factories depending on the source
+     * @param fileBuilderFactory
+     *            factory for the builders that collect the items of a single
+     *            file during a parallel import
+     * @param jobs
+     *            number of files that are imported in parallel
+     * @param walker
+     *            walker that finds the files in input directories
+     * @param cache
+     *            cache for the items of real files or <code>null</code> to
+     *            import all files
+     * @param statistics
+     *            statistics that count the scanned files per importer
+     */
+    MultiFileImporterImpl(final SpecificationListBuilder specItemBuilder,
+            final ImporterFactoryLoader factoryLoader,
+            final Supplier<SpecificationListBuilder> fileBuilderFactory, final int jobs,
+            final DirectoryWalker walker, final ImportCache cache,
+            final TraceStatistics statistics)
     {
         this.specItemBuilder = specItemBuilder;
         this.factoryLoader = factoryLoader;
+        this.fileBuilderFactory = fileBuilderFactory;
+        this.jobs = jobs;
+        this.walker = walker;
+        this.cache = cache;
+        this.statistics = statistics;
     }
 
     @Override
@@ -76,65 +120,183 @@ public class MultiFileImporterImpl implements MultiFileImporter
     {
         for (final Path path : paths)
         {
-            final File file = path.toFile();
-            if (file.exists())
-            {
-                if (file.isDirectory())
-                {
-                    importRecursiveDir(path, ALL_RECURSIVE_GLOB);
-                }
-                else
-                {
-                    importFile(RealFileInput.forPath(path));
-                }
-            }
-            else
-            {
-                LOG.warning(() -> "No such input file or directory \"" + path.toString()
-                        + "\". Skipping.");
-            }
+            importFiles(findInputFiles(path), path);
         }
         return this;
     }
 
+    @Override
+    public Stream<SpecificationItem> streamAny(final List<Path> paths)
+    {
+        final List<InputFile> files = paths.stream() //
+                .flatMap(path -> findInputFiles(path).stream()) //
+                .collect(Collectors.toList());
+        return Stream.concat(files.stream().flatMap(this::importLazily), finishLazily());
+    }
+
+    /**
+     * Create an empty stream that finishes the import when it is reached, i.e.
+     * after the items of all files have been passed on.
+     */
+    private Stream<SpecificationItem> finishLazily()
+    {
+        return Stream.<Runnable> of(this::finishImport).flatMap(finish -> {
+            finish.run();
+            return Stream.empty();
+        });
+    }
+
+    /**
+     * Find the files to import from an input path. Both the eager and the
+     * lazy import use this, so that they treat paths the same way.
+     */
+    private List<InputFile> findInputFiles(final Path path)
+    {
+        final File file = path.toFile();
+        if (!file.exists())
+        {
+            LOG.warning(() -> "No such input file or directory \"" + path.toString()
+                    + "\". Skipping.");
+            return Collections.emptyList();
+        }
+        if (file.isDirectory())
+        {
+            return findSupportedFiles(path, ALL_RECURSIVE_GLOB);
+        }
+        return Collections.singletonList(RealFileInput.forPath(path));
+    }
+
+    /**
+     * Import a single file into its own builder, so that its items can be
+     * garbage collected as soon as the stream has passed them on.
+     */
+    private Stream<SpecificationItem> importLazily(final InputFile file)
+    {
+        final SpecificationListBuilder fileBuilder = this.fileBuilderFactory.get();
+        createImporter(file, fileBuilder).runImport();
+        final List<SpecificationItem> items = fileBuilder.build();
+        LOG.fine(() -> "Imported " + items.size() + " items from '" + file + "'.");
+        return items.stream();
+    }
+
     // [impl->dsn~input-directory-recursive-traversal~1]
     @Override
     public MultiFileImporter importRecursiveDir(final Path dir, final String glob)
     {
-        final PathMatcher matcher = dir.getFileSystem().getPathMatcher("glob:" + glob);
-        final AtomicInteger fileCount = new AtomicInteger(0);
+        importFiles(findSupportedFiles(dir, glob), dir);
+        return this;
+    }
+
+    private void importFiles(final List<InputFile> files, final Path source)
+    {
         final int itemCountBefore = this.specItemBuilder.getItemCount();
-        try (Stream<Path> fileStream = Files.walk(dir))
+        if (this.jobs > 1 && files.size() > 1)
         {
-            fileStream.filter(path -> !path.toFile().isDirectory()) //
-                    .filter(matcher::matches) //
-                    .map(path -> RealFileInput.forPath(path, DEFAULT_CHARSET))
-                    .filter(this.factoryLoader::supportsFile)
-                    .map(file -> createImporter(file, this.specItemBuilder)).forEach(importer -> {
-                        importer.runImport();
-                        fileCount.incrementAndGet();
-                    });
+            importInParallel(files);
         }
-        catch (final IOException e)
+        else
         {
-            throw new ImporterException("Error walking directory " + dir, e);
+            files.forEach(file -> createImporter(file, this.specItemBuilder).runImport());
         }
         final int itemCountImported = this.specItemBuilder.getItemCount() - itemCountBefore;
-        LOG.fine(() -> "Imported " + fileCount + " files containing " + itemCountImported
-                + " items from '" + dir + "'.");
-        return this;
+        LOG.fine(() -> "Imported " + files.size() + " files containing " + itemCountImported
+                + " items from '" + source + "'.");
+    }
+
+    private List<InputFile> findSupportedFiles(final Path dir, final String glob)
+    {
+        final PathMatcher matcher = dir.getFileSystem().getPathMatcher("glob:" + glob);
+        return this.walker.findFiles(dir).stream() //
+                .filter(matcher::matches) //
+                .map(path -> RealFileInput.forPath(path, DEFAULT_CHARSET))
+                .filter(this.factoryLoader::supportsFile) //
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Import each file into its own builder on a worker pool and append the
+     * results in the order of the files. This keeps the item order identical
+     * to a serial import.
+     * 
+     * Importers are created on the calling thread, so that the factory loader
+     * is never accessed concurrently.
+     */
+    private void importInParallel(final List<InputFile> files)
+    {
+        final ExecutorService executor = Executors
+                .newFixedThreadPool(Math.min(this.jobs, files.size()));
+        try
+        {
+            final List<Future<List<SpecificationItem>>> results = new ArrayList<>(files.size());
+            for (final InputFile file : files)
+            {
+                final SpecificationListBuilder fileBuilder = this.fileBuilderFactory.get();
+                final Importer importer = createImporter(file, fileBuilder);
+                results.add(executor.submit(() -> {
+                    importer.runImport();
+                    return fileBuilder.build();
+                }));
+            }
+            for (final Future<List<SpecificationItem>> result : results)
+            {
+                this.specItemBuilder.addItems(waitForResult(result));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<SpecificationItem> waitForResult(
+            final Future<List<SpecificationItem>> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ImporterException("Interrupted while waiting for parallel import", e);
+        }
+        catch (final ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new ImporterException("Parallel import failed", cause);
+        }
     }
 
     @Override
     public List<SpecificationItem> getImportedItems()
     {
+        finishImport();
         return this.specItemBuilder.build();
     }
 
+    private void finishImport()
+    {
+        if (this.cache != null)
+        {
+            this.cache.awaitStores();
+            LOG.info(() -> "Import cache '" + this.cache.getDirectory() + "': "
+                    + this.cache.getHits() + " hits, " + this.cache.getMisses() + " misses.");
+        }
+    }
+
     private Importer createImporter(final InputFile file, final SpecificationListBuilder builder)
     {
         final ImporterFactory importerFactory = this.factoryLoader.getImporterFactory(file);
-        final Importer importer = importerFactory.createImporter(file, builder);
+        this.statistics.addScannedFile(importerFactory.getClass().getSimpleName(),
+                file.isRealFile() ? file.toPath().toFile().length() : 0);
+        final Importer importer = (this.cache != null && file.isRealFile()
+                && this.cache.isCacheable(importerFactory))
+                ? new CachingImporter(this.cache, file, importerFactory, builder)
+                : importerFactory.createImporter(file, builder);
         LOG.fine(() -> "Created importer of type '" + importer.getClass().getSimpleName()
                 + "' for file '" + file + "'");
         return importer;
@@ -0,0 +1,171 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.*;
+import java.util.*;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Compact binary encoding of an {@link ImportRecording} for the import cache.
+ * 
+ * <p>
+ * The items use the shared {@link SpecificationItemEncoder item encoding}.
+ * Artifact types, names, tags and paths are written once to a
+ * {@link StringDictionary} at the start of the data. Items refer to these
+ * strings by their index. Lazy texts read from the cached file are stored as
+ * {@link TextRange}s, so that encoding and decoding never reads them.
+ * </p>
+ * <p>
+ * Each record starts with a flag that tells a {@link CoverageTag} from a
+ * regular item.
+ * </p>
+ */
+final class SpecificationItemCodec
+{
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private SpecificationItemCodec()
+    {
+        // not instantiable
+    }
+
+    /**
+     * Write the records of an import
+     * 
+     * @param recording
+     *            items and coverage tags to write
+     * @param output
+     *            output to write to
+     * @param textSource
+     *            the cached file, whose text ranges are kept
+     * @throws IOException
+     *             if writing fails
+     */
+    static void write(final ImportRecording recording, final DataOutput output,
+            final TextRange.Source textSource) throws IOException
+    {
+        final StringDictionary dictionary = new StringDictionary();
+        final RecordBuffer encodedItems = new RecordBuffer();
+        final DataOutputStream recordOutput = new DataOutputStream(encodedItems);
+        final SpecificationItemEncoder encoder = new SpecificationItemEncoder(recordOutput,
+                dictionary, textSource);
+        final Iterator<SpecificationItem> nextItem = recording.getItems().iterator();
+        final Iterator<CoverageTag> nextCoverageTag = recording.getCoverageTags().iterator();
+        for (int position = 0; position < recording.size(); ++position)
+        {
+            final boolean coverageTag = recording.isCoverageTag(position);
+            recordOutput.writeBoolean(coverageTag);
+            if (coverageTag)
+            {
+                encoder.writeCoverageTag(nextCoverageTag.next());
+            }
+            else
+            {
+                encoder.write(nextItem.next());
+            }
+        }
+        SpecificationItemEncoder.writeNumber(output, dictionary.size());
+        dictionary.writeEntries(output);
+        SpecificationItemEncoder.writeNumber(output, recording.size());
+        encodedItems.writeTo(output);
+    }
+
+    /**
+     * Read the records of an import
+     * 
+     * @param input
+     *            input to read from
+     * @param textSource
+     *            the cached file, from which stored text ranges are read
+     * @return the recording
+     * @throws IOException
+     *             if reading fails or the data is corrupt
+     */
+    static ImportRecording read(final DataInput input,
+            final TextRange.Source textSource) throws IOException
+    {
+        final String[] strings = StringDictionary.readEntries(input,
+                SpecificationItemDecoder.readNumber(input));
+        final SpecificationItemDecoder decoder = new SpecificationItemDecoder(input,
+                StringDictionary.reader(strings), textSource);
+        final int count = SpecificationItemDecoder.readNumber(input);
+        final List<SpecificationItem> items = new ArrayList<>(count);
+        final List<CoverageTag> coverageTags = new ArrayList<>();
+        final BitSet coverageTagPositions = new BitSet(count);
+        for (int position = 0; position < count; ++position)
+        {
+            if (input.readBoolean())
+            {
+                coverageTagPositions.set(position);
+                coverageTags.add(decoder.readCoverageTag());
+            }
+            else
+            {
+                items.add(decoder.read());
+            }
+        }
+        return new ImportRecording(items, coverageTags, coverageTagPositions);
+    }
+
+    /**
+     * Growing byte buffer for the encoded records. Unlike
+     * {@link ByteArrayOutputStream} it is not synchronized, which matters
+     * because the records consist of many single bytes.
+     */
+    private static final class RecordBuffer extends OutputStream
+    {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int size;
+
+        @Override
+        public void write(final int value)
+        {
+            ensureCapacity(1);
+            this.bytes[this.size++] = (byte) value;
+        }
+
+        @Override
+        public void write(final byte[] source, final int offset, final int length)
+        {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, this.bytes, this.size, length);
+            this.size += length;
+        }
+
+        private void ensureCapacity(final int additional)
+        {
+            if (this.size + additional > this.bytes.length)
+            {
+                this.bytes = Arrays.copyOf(this.bytes,
+                        Math.max(this.bytes.length * 2, this.size + additional));
+            }
+        }
+
+        private void writeTo(final DataOutput output) throws IOException
+        {
+            output.write(this.bytes, 0, this.size);
+        }
+    }
+}
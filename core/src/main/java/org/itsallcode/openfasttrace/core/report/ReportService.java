@@ -26,7 +26,10 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
 
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.Trace;
 import org.itsallcode.openfasttrace.api.report.ReportException;
 import org.itsallcode.openfasttrace.api.report.Reportable;
@@ -93,6 +96,43 @@ public class ReportService
         reportTraceToStream(trace, getStdOutStream(), outputFormat);
     }
 
+    /**
+     * Get the text fields of specification items that a report in the given
+     * output format shows.
+     * 
+     * @param outputFormat
+     *            the format of the report.
+     * @return text fields that the import must provide for the report. All
+     *         text fields if no reporter supports the format, so that the
+     *         error is reported when the report is generated.
+     */
+    public Set<ItemTextField> getRequiredTextFields(final String outputFormat)
+    {
+        if (!this.reporterFactoryLoader.isFormatSupported(outputFormat))
+        {
+            return EnumSet.allOf(ItemTextField.class);
+        }
+        return this.reporterFactoryLoader.getReporterFactory(outputFormat)
+                .getRequiredTextFields();
+    }
+
+    /**
+     * Check if a report in the given output format can work with coverage
+     * tags in compact form.
+     * 
+     * @param outputFormat
+     *            the format of the report.
+     * @return <code>true</code> if the report does not need the full items of
+     *         coverage tags without defects. <code>false</code> if no reporter
+     *         supports the format.
+     */
+    public boolean supportsCompactCoverageTags(final String outputFormat)
+    {
+        return this.reporterFactoryLoader.isFormatSupported(outputFormat)
+                && this.reporterFactoryLoader.getReporterFactory(outputFormat)
+                        .supportsCompactCoverageTags();
+    }
+
     // Using System.out by intention
     @SuppressWarnings("squid:S106")
     private PrintStream getStdOutStream()
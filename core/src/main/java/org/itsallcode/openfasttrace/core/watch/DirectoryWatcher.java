@@ -0,0 +1,231 @@
+package org.itsallcode.openfasttrace.core.watch;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+import org.itsallcode.openfasttrace.core.importer.DirectoryWalker;
+
+/**
+ * Watches input files and directories for changes using the {@link WatchService}
+ * of the file system. Directories are watched recursively, including
+ * directories that are created later. Excluded directories are not watched.
+ */
+public class DirectoryWatcher implements AutoCloseable
+{
+    private static final Logger LOG = Logger.getLogger(DirectoryWatcher.class.getName());
+    private static final long DEFAULT_QUIET_PERIOD_MILLIS = 100;
+
+    private final WatchService watchService;
+    private final List<Path> inputs;
+    private final DirectoryWalker walker;
+    private final long quietPeriodMillis;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * Create a new {@link DirectoryWatcher}
+     * 
+     * @param inputs
+     *            files and directories to be watched
+     * @throws IOException
+     *             if the directories could not be registered
+     */
+    public DirectoryWatcher(final List<Path> inputs) throws IOException
+    {
+        this(inputs, new DirectoryWalker(Collections.emptyList(), 1));
+    }
+
+    /**
+     * Create a new {@link DirectoryWatcher} that skips excluded directories
+     * 
+     * @param inputs
+     *            files and directories to be watched
+     * @param walker
+     *            walker that finds the directories that are not excluded
+     * @throws IOException
+     *             if the directories could not be registered
+     */
+    public DirectoryWatcher(final List<Path> inputs, final DirectoryWalker walker)
+            throws IOException
+    {
+        this(inputs, walker, DEFAULT_QUIET_PERIOD_MILLIS);
+    }
+
+    DirectoryWatcher(final List<Path> inputs, final long quietPeriodMillis) throws IOException
+    {
+        this(inputs, new DirectoryWalker(Collections.emptyList(), 1), quietPeriodMillis);
+    }
+
+    DirectoryWatcher(final List<Path> inputs, final DirectoryWalker walker,
+            final long quietPeriodMillis) throws IOException
+    {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.inputs = inputs;
+        this.walker = walker;
+        this.quietPeriodMillis = quietPeriodMillis;
+        for (final Path input : inputs)
+        {
+            if (Files.isDirectory(input))
+            {
+                registerRecursive(input, input);
+            }
+            else if (Files.exists(input))
+            {
+                register(input.toAbsolutePath().getParent());
+            }
+        }
+    }
+
+    private void registerRecursive(final Path root, final Path directory) throws IOException
+    {
+        final List<Path> subdirectories;
+        try
+        {
+            subdirectories = this.walker.findDirectories(root, directory);
+        }
+        catch (final ImporterException e)
+        {
+            throw new IOException("Unable to list directories below " + directory, e);
+        }
+        for (final Path subdirectory : subdirectories)
+        {
+            register(subdirectory);
+        }
+    }
+
+    private void register(final Path directory) throws IOException
+    {
+        final WatchKey key = directory.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY,
+                ENTRY_DELETE);
+        this.directories.put(key, directory);
+        LOG.finest(() -> "Watching directory '" + directory + "'");
+    }
+
+    /**
+     * Wait until files or directories change. Changes that arrive in quick
+     * succession, e.g. while an editor saves a file, are collected into one
+     * set.
+     * 
+     * If the file system lost events, the result contains all inputs so that
+     * they can be scanned again.
+     * 
+     * @return paths of the created, modified or deleted files and directories
+     * @throws InterruptedException
+     *             if the thread was interrupted while waiting
+     */
+    public Set<Path> waitForChanges() throws InterruptedException
+    {
+        final Set<Path> changedPaths = new LinkedHashSet<>();
+        do
+        {
+            WatchKey key = this.watchService.take();
+            while (key != null)
+            {
+                collectChanges(key, changedPaths);
+                key = this.watchService.poll(this.quietPeriodMillis, TimeUnit.MILLISECONDS);
+            }
+        } while (changedPaths.isEmpty());
+        return changedPaths;
+    }
+
+    private void collectChanges(final WatchKey key, final Set<Path> changedPaths)
+    {
+        final Path directory = this.directories.get(key);
+        for (final WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == OVERFLOW)
+            {
+                LOG.warning(() -> "Lost file system events. Scanning all inputs again.");
+                changedPaths.addAll(this.inputs);
+            }
+            else if (directory != null)
+            {
+                collectChange(directory.resolve((Path) event.context()), event.kind(),
+                        changedPaths);
+            }
+        }
+        if (!key.reset())
+        {
+            this.directories.remove(key);
+        }
+    }
+
+    private void collectChange(final Path path, final WatchEvent.Kind<?> kind,
+            final Set<Path> changedPaths)
+    {
+        final boolean isDirectory = Files.isDirectory(path);
+        if (kind == ENTRY_CREATE && isDirectory)
+        {
+            registerCreatedDirectory(path);
+        }
+        if (kind != ENTRY_MODIFY || !isDirectory)
+        {
+            changedPaths.add(path);
+        }
+    }
+
+    private void registerCreatedDirectory(final Path directory)
+    {
+        final Path inputDirectory = findInputDirectory(directory);
+        final Path root = (inputDirectory == null) ? directory : inputDirectory;
+        if (this.walker.isExcluded(root, directory))
+        {
+            return;
+        }
+        try
+        {
+            registerRecursive(root, directory);
+        }
+        catch (final IOException e)
+        {
+            LOG.warning(() -> "Unable to watch created directory '" + directory + "': "
+                    + e.getMessage());
+        }
+    }
+
+    private Path findInputDirectory(final Path directory)
+    {
+        final Path key = directory.toAbsolutePath().normalize();
+        for (final Path input : this.inputs)
+        {
+            if (key.startsWith(input.toAbsolutePath().normalize()) && Files.isDirectory(input))
+            {
+                return input;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.watchService.close();
+    }
+}
@@ -0,0 +1,253 @@
+package org.itsallcode.openfasttrace.core.watch;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.importer.ImporterService;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.core.importer.DirectoryWalker;
+import org.itsallcode.openfasttrace.core.importer.ImporterFactoryLoader;
+
+/**
+ * Importer that keeps the specification items of each input file in memory, so
+ * that after a change only the changed files need to be imported again.
+ * 
+ * The items are kept in the order in which the files were first found. Files
+ * that appear later are appended at the end.
+ */
+public class IncrementalImporter
+{
+    private static final Logger LOG = Logger.getLogger(IncrementalImporter.class.getName());
+
+    private final ImporterFactoryLoader factoryLoader;
+    private final ImporterService importerService;
+    private final List<Path> inputs;
+    private final DirectoryWalker walker;
+    private final Map<Path, ImportedFile> files = new LinkedHashMap<>();
+
+    /**
+     * Create a new {@link IncrementalImporter}
+     * 
+     * @param factoryLoader
+     *            loader for importer factories depending on the source
+     * @param importerService
+     *            service that imports single files
+     * @param settings
+     *            import settings containing the input files and directories
+     *            and the exclude patterns
+     */
+    public IncrementalImporter(final ImporterFactoryLoader factoryLoader,
+            final ImporterService importerService, final ImportSettings settings)
+    {
+        this.factoryLoader = factoryLoader;
+        this.importerService = importerService;
+        this.inputs = settings.getInputs();
+        this.walker = new DirectoryWalker(settings.getExcludePatterns(), settings.getJobs());
+    }
+
+    /**
+     * Import all input files and directories
+     * 
+     * @return all imported items
+     */
+    public List<SpecificationItem> importAll()
+    {
+        this.files.clear();
+        for (final Path input : this.inputs)
+        {
+            if (Files.exists(input))
+            {
+                importPath(input);
+            }
+            else
+            {
+                LOG.warning(() -> "No such input file or directory \"" + input
+                        + "\". Skipping.");
+            }
+        }
+        return getItems();
+    }
+
+    /**
+     * Import changed files again. Deleted files and all files below deleted
+     * directories are removed. Created directories and directories given as
+     * changed path are scanned completely. Changed paths that are excluded
+     * from their input directory are ignored.
+     * 
+     * @param changedPaths
+     *            files or directories that were created, modified or deleted
+     * @return <code>true</code> if the items of any file changed
+     */
+    public boolean update(final Collection<Path> changedPaths)
+    {
+        boolean changed = false;
+        for (final Path path : changedPaths)
+        {
+            if (Files.isDirectory(path))
+            {
+                changed |= removeMissingFilesBelow(path);
+                changed |= !isExcluded(path) && importPath(path);
+            }
+            else if (Files.exists(path))
+            {
+                changed |= isInput(path) && !isExcluded(path) && importFile(path);
+            }
+            else
+            {
+                changed |= removeFilesBelow(path, file -> true);
+            }
+        }
+        return changed;
+    }
+
+    private boolean isInput(final Path path)
+    {
+        final Path key = toKey(path);
+        return this.files.containsKey(key) || this.inputs.stream() //
+                .map(IncrementalImporter::toKey) //
+                .anyMatch(key::startsWith);
+    }
+
+    private boolean isExcluded(final Path path)
+    {
+        final Path inputDirectory = findInputDirectory(path);
+        return inputDirectory != null && this.walker.isExcluded(inputDirectory, path);
+    }
+
+    private Path findInputDirectory(final Path path)
+    {
+        final Path key = toKey(path);
+        for (final Path input : this.inputs)
+        {
+            if (key.startsWith(toKey(input)) && Files.isDirectory(input))
+            {
+                return input;
+            }
+        }
+        return null;
+    }
+
+    private boolean importPath(final Path path)
+    {
+        if (Files.isDirectory(path))
+        {
+            final Path inputDirectory = findInputDirectory(path);
+            final Path root = (inputDirectory == null) ? path : inputDirectory;
+            boolean changed = false;
+            for (final Path file : this.walker.findFiles(root, path))
+            {
+                changed |= importFile(file);
+            }
+            return changed;
+        }
+        return importFile(path);
+    }
+
+    private boolean importFile(final Path path)
+    {
+        final Path key = toKey(path);
+        final ImportedFile previous = this.files.get(key);
+        final Path importPath = (previous == null) ? path : previous.path;
+        final InputFile input = RealFileInput.forPath(importPath);
+        if (!this.factoryLoader.supportsFile(input))
+        {
+            return false;
+        }
+        final List<SpecificationItem> items = this.importerService.importFile(input);
+        this.files.put(key, new ImportedFile(importPath, items));
+        LOG.fine(() -> "Imported " + items.size() + " items from '" + importPath + "'.");
+        return (previous == null) ? !items.isEmpty() : !previous.items.equals(items);
+    }
+
+    private boolean removeMissingFilesBelow(final Path directory)
+    {
+        return removeFilesBelow(directory, file -> !Files.exists(file.path));
+    }
+
+    private boolean removeFilesBelow(final Path path, final Predicate<ImportedFile> condition)
+    {
+        final Path pathKey = toKey(path);
+        boolean changed = false;
+        final Iterator<Map.Entry<Path, ImportedFile>> iterator = this.files.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            final Map.Entry<Path, ImportedFile> entry = iterator.next();
+            if (entry.getKey().startsWith(pathKey) && condition.test(entry.getValue()))
+            {
+                changed |= !entry.getValue().items.isEmpty();
+                iterator.remove();
+            }
+        }
+        return changed;
+    }
+
+    private static Path toKey(final Path path)
+    {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Get the items of all imported files
+     * 
+     * @return imported items in file order
+     */
+    public List<SpecificationItem> getItems()
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (final ImportedFile file : this.files.values())
+        {
+            items.addAll(file.items);
+        }
+        return items;
+    }
+
+    /**
+     * Get the number of imported files
+     * 
+     * @return number of files with a matching importer
+     */
+    public int getFileCount()
+    {
+        return this.files.size();
+    }
+
+    private static final class ImportedFile
+    {
+        private final Path path;
+        private final List<SpecificationItem> items;
+
+        private ImportedFile(final Path path, final List<SpecificationItem> items)
+        {
+            this.path = path;
+            this.items = items;
+        }
+    }
+}
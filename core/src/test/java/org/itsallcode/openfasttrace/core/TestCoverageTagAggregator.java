@@ -0,0 +1,158 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ * OpenFastTrace Core
+ * %%
+ * Copyright (C) 2016 - 2019 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.itsallcode.openfasttrace.api.core.SpecificationItemId.createId;
+import static org.itsallcode.openfasttrace.testutil.core.SampleArtifactTypes.DSN;
+import static org.itsallcode.openfasttrace.testutil.core.SampleArtifactTypes.IMPL;
+import static org.itsallcode.openfasttrace.testutil.core.SampleArtifactTypes.UTEST;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.junit.jupiter.api.Test;
+
+class TestCoverageTagAggregator
+{
+    private static final String PATH = "src/Foo.java";
+
+    @Test
+    void testCleanTagIsAggregated()
+    {
+        final CoverageTag tag = tag(IMPL, "a", 1, 100);
+        final List<LinkedSpecificationItem> linkedItems = link(asList(dsn("a", IMPL)), asList(tag));
+        assertThat(linkedItems.size(), equalTo(1));
+        assertThat(((CompactLinkedItemList) linkedItems).countAggregatedItems(), equalTo(1));
+        assertThat(linkedItems.get(0).getCoveredArtifactTypes(), containsInAnyOrder(IMPL));
+        assertSameTrace(asList(dsn("a", IMPL)), asList(tag));
+    }
+
+    @Test
+    void testOrphanedTagIsMaterialized()
+    {
+        final CoverageTag tag = tag(IMPL, "missing", 1, 100);
+        final Trace trace = assertSameTrace(asList(dsn("a", IMPL)), asList(tag));
+        assertThat(trace.getDefectIds(), containsInAnyOrder(createId(DSN, "a", 1), tag.getId()));
+    }
+
+    @Test
+    void testTagCoveringUnwantedArtifactTypeIsMaterialized()
+    {
+        final CoverageTag tag = tag(UTEST, "a", 1, 100);
+        final Trace trace = assertSameTrace(asList(dsn("a", IMPL)), asList(tag));
+        assertThat(trace.getDefectIds(), containsInAnyOrder(createId(DSN, "a", 1), tag.getId()));
+    }
+
+    @Test
+    void testDuplicateTagsAreMaterialized()
+    {
+        final List<SpecificationItem> items = asList(dsn("a", IMPL));
+        final List<CoverageTag> tags = asList(tag(IMPL, "a", 1, 100), tag(IMPL, "a", 2, 100));
+        final List<LinkedSpecificationItem> linkedItems = link(items, tags);
+        assertThat(linkedItems instanceof CompactLinkedItemList, equalTo(false));
+        assertSameTrace(items, tags);
+    }
+
+    @Test
+    void testTagCollidingWithRegularItemIsMaterialized()
+    {
+        final CoverageTag tag = tag(IMPL, "a", 1, 100);
+        final SpecificationItem colliding = SpecificationItem.builder() //
+                .id(tag.getId()) //
+                .build();
+        assertSameTrace(asList(dsn("a", IMPL), colliding), asList(tag));
+    }
+
+    @Test
+    void testTagCoveringDuplicateItemIsMaterialized()
+    {
+        final CoverageTag tag = tag(IMPL, "a", 1, 100);
+        final List<SpecificationItem> items = asList(dsn("a", IMPL), dsn("a", IMPL));
+        final List<LinkedSpecificationItem> linkedItems = link(items, asList(tag));
+        assertThat(linkedItems instanceof CompactLinkedItemList, equalTo(false));
+        assertSameTrace(items, asList(tag));
+    }
+
+    @Test
+    void testLinkWithoutTagsReturnsPlainList()
+    {
+        final List<LinkedSpecificationItem> linkedItems = link(asList(dsn("a", IMPL)),
+                emptyList());
+        assertThat(linkedItems instanceof CompactLinkedItemList, equalTo(false));
+        assertThat(linkedItems.size(), equalTo(1));
+    }
+
+    private static SpecificationItem dsn(final String name, final String neededArtifactType)
+    {
+        return SpecificationItem.builder() //
+                .id(DSN, name, 1) //
+                .addNeedsArtifactType(neededArtifactType) //
+                .build();
+    }
+
+    private static CoverageTag tag(final String artifactType, final String coveredName,
+            final int line, final long checksum)
+    {
+        return CoverageTag.builder() //
+                .coveringArtifactType(artifactType) //
+                .coveredId(createId(DSN, coveredName, 1)) //
+                .location(PATH, line) //
+                .checksum(checksum) //
+                .build();
+    }
+
+    private static List<LinkedSpecificationItem> link(final List<SpecificationItem> items,
+            final List<CoverageTag> tags)
+    {
+        return new Linker(new CompactItemList(items, tags)).link();
+    }
+
+    private static Trace assertSameTrace(final List<SpecificationItem> items,
+            final List<CoverageTag> tags)
+    {
+        final List<SpecificationItem> fullItems = new ArrayList<>(items);
+        tags.forEach(tag -> fullItems.add(tag.toSpecificationItem()));
+        final Trace expected = new Tracer().trace(new Linker(fullItems).link());
+        final Trace actual = new Tracer().trace(link(items, tags));
+        assertThat(actual.count(), equalTo(expected.count()));
+        assertThat(actual.countDefects(), equalTo(expected.countDefects()));
+        assertThat(defectsOf(actual), equalTo(defectsOf(expected)));
+        return actual;
+    }
+
+    private static List<String> defectsOf(final Trace trace)
+    {
+        return trace.getDefectItems().stream() //
+                .map(item -> item.getId() + "@" + item.getLocation() + ":"
+                        + item.getDeepCoverageStatus() + ":" + item.countOutgoingBadLinks())
+                .sorted() //
+                .collect(Collectors.toList());
+    }
+}
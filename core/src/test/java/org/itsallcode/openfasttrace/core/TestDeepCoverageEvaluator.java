@@ -0,0 +1,204 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.junit.jupiter.api.Test;
+
+class TestDeepCoverageEvaluator
+{
+    // [utest->dsn~tracing.deep-coverage~1]
+    @Test
+    void testChainCoveredDeeply()
+    {
+        final LinkedSpecificationItem feat = createItem("feat~a~1", "req");
+        final LinkedSpecificationItem req = createItem("req~a~1", "impl");
+        final LinkedSpecificationItem impl = createItem("impl~a~1");
+        cover(feat, req);
+        cover(req, impl);
+        new DeepCoverageEvaluator().evaluate(asList(feat, req, impl));
+        assertAll(() -> assertStatus(feat, DeepCoverageStatus.COVERED),
+                () -> assertStatus(req, DeepCoverageStatus.COVERED),
+                () -> assertStatus(impl, DeepCoverageStatus.COVERED));
+    }
+
+    // [utest->dsn~tracing.deep-coverage~1]
+    @Test
+    void testMissingCoverageAtTheEndOfTheChainPropagatesUpwards()
+    {
+        final LinkedSpecificationItem feat = createItem("feat~a~1", "req");
+        final LinkedSpecificationItem req = createItem("req~a~1", "impl");
+        cover(feat, req);
+        new DeepCoverageEvaluator().evaluate(asList(feat, req));
+        assertAll(() -> assertStatus(feat, DeepCoverageStatus.UNCOVERED),
+                () -> assertStatus(req, DeepCoverageStatus.UNCOVERED));
+    }
+
+    // [utest->dsn~tracing.deep-coverage~1]
+    @Test
+    void testSharedSubtreeIsEvaluatedForAllParents()
+    {
+        final LinkedSpecificationItem parentA = createItem("req~a~1", "dsn");
+        final LinkedSpecificationItem parentB = createItem("req~b~1", "dsn");
+        final LinkedSpecificationItem child = createItem("dsn~c~1", "impl");
+        cover(parentA, child);
+        cover(parentB, child);
+        new DeepCoverageEvaluator().evaluate(asList(child, parentA, parentB));
+        assertAll(() -> assertStatus(parentA, DeepCoverageStatus.UNCOVERED),
+                () -> assertStatus(parentB, DeepCoverageStatus.UNCOVERED),
+                () -> assertStatus(child, DeepCoverageStatus.UNCOVERED));
+    }
+
+    // [utest->dsn~tracing.link-cycle~1]
+    @Test
+    void testSelfLinkIsCycle()
+    {
+        final LinkedSpecificationItem item = createItem("dsn~a~1", "dsn");
+        cover(item, item);
+        new DeepCoverageEvaluator().evaluate(asList(item));
+        assertStatus(item, DeepCoverageStatus.CYCLE);
+    }
+
+    // [utest->dsn~tracing.link-cycle~1]
+    @Test
+    void testCycleBelowItemPropagatesUpwards()
+    {
+        final LinkedSpecificationItem feat = createItem("feat~a~1", "req");
+        final LinkedSpecificationItem reqA = createItem("req~a~1", "req");
+        final LinkedSpecificationItem reqB = createItem("req~b~1", "req");
+        cover(feat, reqA);
+        cover(reqA, reqB);
+        cover(reqB, reqA);
+        new DeepCoverageEvaluator().evaluate(asList(feat, reqA, reqB));
+        assertAll(() -> assertStatus(feat, DeepCoverageStatus.CYCLE),
+                () -> assertStatus(reqA, DeepCoverageStatus.CYCLE),
+                () -> assertStatus(reqB, DeepCoverageStatus.CYCLE));
+    }
+
+    // [utest->dsn~tracing.link-cycle~1]
+    @Test
+    void testItemOutsideCycleCoveringIsNotPartOfCycle()
+    {
+        final LinkedSpecificationItem reqA = createItem("req~a~1", "req", "impl");
+        final LinkedSpecificationItem reqB = createItem("req~b~1", "req");
+        final LinkedSpecificationItem impl = createItem("impl~a~1");
+        cover(reqA, reqB);
+        cover(reqB, reqA);
+        cover(reqA, impl);
+        new DeepCoverageEvaluator().evaluate(asList(impl, reqA, reqB));
+        assertAll(() -> assertStatus(impl, DeepCoverageStatus.COVERED),
+                () -> assertStatus(reqA, DeepCoverageStatus.CYCLE));
+    }
+
+    // [utest->dsn~tracing.link-cycle~1]
+    @Test
+    void testEvaluatingItemsOneByOneMatchesEvaluatingAllItems()
+    {
+        final LinkedSpecificationItem feat = createItem("feat~a~1", "req");
+        final LinkedSpecificationItem reqA = createItem("req~a~1", "req", "impl");
+        final LinkedSpecificationItem reqB = createItem("req~b~1", "req");
+        final LinkedSpecificationItem impl = createItem("impl~a~1");
+        cover(feat, reqA);
+        cover(reqA, reqB);
+        cover(reqB, reqA);
+        cover(reqA, impl);
+        final DeepCoverageEvaluator evaluator = new DeepCoverageEvaluator();
+        evaluator.evaluate(reqB);
+        evaluator.evaluate(impl);
+        evaluator.evaluate(feat);
+        assertAll(() -> assertStatus(feat, DeepCoverageStatus.CYCLE),
+                () -> assertStatus(reqA, DeepCoverageStatus.CYCLE),
+                () -> assertStatus(reqB, DeepCoverageStatus.CYCLE),
+                () -> assertStatus(impl, DeepCoverageStatus.COVERED));
+    }
+
+    @Test
+    void testAddingLinkDiscardsStoredStatus()
+    {
+        final LinkedSpecificationItem req = createItem("req~a~1", "impl");
+        final LinkedSpecificationItem impl = createItem("impl~a~1");
+        new DeepCoverageEvaluator().evaluate(asList(req, impl));
+        assertStatus(req, DeepCoverageStatus.UNCOVERED);
+        cover(req, impl);
+        assertStatus(req, DeepCoverageStatus.COVERED);
+    }
+
+    @Test
+    void testAddingLinkDiscardsStoredStatusOfCoveredItems()
+    {
+        final LinkedSpecificationItem feat = createItem("feat~a~1", "req");
+        final LinkedSpecificationItem req = createItem("req~a~1", "impl");
+        final LinkedSpecificationItem impl = createItem("impl~a~1");
+        cover(feat, req);
+        new DeepCoverageEvaluator().evaluate(asList(feat, req, impl));
+        assertStatus(feat, DeepCoverageStatus.UNCOVERED);
+        cover(req, impl);
+        assertAll(() -> assertStatus(feat, DeepCoverageStatus.COVERED),
+                () -> assertStatus(req, DeepCoverageStatus.COVERED),
+                () -> assertThat(feat.isDefect(), equalTo(false)));
+    }
+
+    @Test
+    void testAddingCycleDiscardsStoredStatusOfCoveredItems()
+    {
+        final LinkedSpecificationItem feat = createItem("feat~a~1", "req");
+        final LinkedSpecificationItem req = createItem("req~a~1", "feat");
+        cover(feat, req);
+        new DeepCoverageEvaluator().evaluate(asList(feat, req));
+        assertStatus(feat, DeepCoverageStatus.UNCOVERED);
+        cover(req, feat);
+        assertAll(() -> assertStatus(feat, DeepCoverageStatus.CYCLE),
+                () -> assertStatus(req, DeepCoverageStatus.CYCLE));
+    }
+
+    private static LinkedSpecificationItem createItem(final String id,
+            final String... neededArtifactTypes)
+    {
+        final SpecificationItem.Builder builder = SpecificationItem.builder()
+                .id(SpecificationItemId.parseId(id));
+        for (final String artifactType : neededArtifactTypes)
+        {
+            builder.addNeedsArtifactType(artifactType);
+        }
+        return new LinkedSpecificationItem(builder.build());
+    }
+
+    private static void cover(final LinkedSpecificationItem covered,
+            final LinkedSpecificationItem covering)
+    {
+        covering.addLinkToItemWithStatus(covered, LinkStatus.COVERS);
+        covered.addLinkToItemWithStatus(covering, LinkStatus.COVERED_SHALLOW);
+        covered.addCoveredArtifactType(covering.getArtifactType());
+    }
+
+    private static void assertStatus(final LinkedSpecificationItem item,
+            final DeepCoverageStatus expected)
+    {
+        assertThat(item.getId().toString(), item.getDeepCoverageStatus(), equalTo(expected));
+    }
+}
@@ -29,14 +29,12 @@ import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.when;
 
 import org.itsallcode.openfasttrace.api.core.*;
-import org.itsallcode.openfasttrace.core.LinkedItemIndex.SpecificationItemIdWithoutVersion;
+import org.itsallcode.openfasttrace.core.LinkedItemIndex.ItemRevisions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import nl.jqno.equalsverifier.EqualsVerifier;
-
 class TestLinkedItemIndex
 {
     private final static SpecificationItemId DUPLICATE_ID_1 = SpecificationItemId.createId("type",
@@ -63,12 +61,6 @@ class TestLinkedItemIndex
                 .thenReturn(DUPLICATE_ID_INGORING_VERSION);
     }
 
-    @Test
-    void equalsSpecificationItemIdWithoutVersionContract()
-    {
-        EqualsVerifier.forClass(SpecificationItemIdWithoutVersion.class).verify();
-    }
-
     @Test
     void testEmptyIndex()
     {
@@ -122,4 +114,75 @@ class TestLinkedItemIndex
                         LinkedItemInstanceMatcher
                                 .sameItemInstance(this.duplicateIdIgnoringVersionItemMock))));
     }
+
+    @Test
+    void testGetByRevisionWildcardId()
+    {
+        final LinkedItemIndex index = createIndex(this.duplicateIdItem1Mock,
+                this.duplicateIdIgnoringVersionItemMock, this.uniqueIdItemMock);
+        assertThat(index.getByIdIgnoringVersion(SpecificationItemId.createId("type", "name")),
+                hasSize(2));
+        assertThat(index.getByIdIgnoringVersion(SpecificationItemId.createId("type", "unknown")),
+                empty());
+    }
+
+    @Test
+    void testGetRevisionsKeepsInsertionOrderAndFindsEachRevision()
+    {
+        final SpecificationItem revision3 = createItem("type", "name", 3);
+        final SpecificationItem revision1 = createItem("type", "name", 1);
+        final SpecificationItem revision2 = createItem("type", "name", 2);
+        final LinkedItemIndex index = createIndex(revision3, revision1, revision2,
+                createItem("type", "other", 1));
+        final ItemRevisions revisions = index
+                .getRevisions(SpecificationItemId.createId("type", "name", 7));
+        assertThat(revisions.getItems(),
+                contains(LinkedItemInstanceMatcher.sameItemInstance(revision3),
+                        LinkedItemInstanceMatcher.sameItemInstance(revision1),
+                        LinkedItemInstanceMatcher.sameItemInstance(revision2)));
+        assertThat(revisions.getByRevision(1).getItem(), sameInstance(revision1));
+        assertThat(revisions.getByRevision(2).getItem(), sameInstance(revision2));
+        assertThat(revisions.getByRevision(3).getItem(), sameInstance(revision3));
+        assertThat(revisions.getByRevision(4), nullValue());
+        assertThat(index.size(), equalTo(4));
+        assertThat(index.sizeIgnoringVersion(), equalTo(2));
+    }
+
+    @Test
+    void testGetRevisionsForUnknownId()
+    {
+        final LinkedItemIndex index = createIndex(createItem("type", "name", 1));
+        assertThat(index.getRevisions(SpecificationItemId.createId("type", "unknown", 1)),
+                nullValue());
+        assertThat(index.getRevisions(SpecificationItemId.createId("unknown", "name", 1)),
+                nullValue());
+    }
+
+    // [utest->dsn~tracing.tracing.duplicate-items~1]
+    @Test
+    void testFirstOfThreeDuplicatesIsLinkedToTheOthers()
+    {
+        final SpecificationItem first = createItem("type", "name", 1);
+        final SpecificationItem second = createItem("type", "name", 1);
+        final SpecificationItem third = createItem("type", "name", 1);
+        final LinkedItemIndex index = createIndex(first, createItem("type", "name", 2), second,
+                third);
+        final LinkedSpecificationItem linkedFirst = index
+                .getById(SpecificationItemId.createId("type", "name", 1));
+        assertThat(index.size(), equalTo(2));
+        assertThat(linkedFirst.getItem(), sameInstance(first));
+        assertThat(linkedFirst.getLinksByStatus(LinkStatus.DUPLICATE),
+                contains(LinkedItemInstanceMatcher.sameItemInstance(second),
+                        LinkedItemInstanceMatcher.sameItemInstance(third)));
+        final LinkedSpecificationItem linkedThird = linkedFirst
+                .getLinksByStatus(LinkStatus.DUPLICATE).get(1);
+        assertThat(linkedThird.getLinksByStatus(LinkStatus.DUPLICATE),
+                contains(sameInstance(linkedFirst)));
+    }
+
+    private static SpecificationItem createItem(final String artifactType, final String name,
+            final int revision)
+    {
+        return SpecificationItem.builder().id(artifactType, name, revision).build();
+    }
 }
@@ -336,4 +336,56 @@ class TestLinker
         }
     }
 
+    @Test
+    void testLinkInParallelGivesSameResultAsSequentialLinking()
+    {
+        final List<SpecificationItem> items = createMixedItems(500);
+        final List<LinkedSpecificationItem> sequential = new Linker(items).link();
+        final List<LinkedSpecificationItem> parallel = new Linker(items, 4, 16).link();
+        assertThat(describeLinks(parallel), equalTo(describeLinks(sequential)));
+    }
+
+    private List<SpecificationItem> createMixedItems(final int count)
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (int i = 0; i < count; ++i)
+        {
+            items.add(SpecificationItem.builder() //
+                    .id(REQ, "req" + i, 2) //
+                    .addNeedsArtifactType(IMPL) //
+                    .build());
+            if (i % 7 == 0)
+            {
+                items.add(SpecificationItem.builder() //
+                        .id(REQ, "req" + i, 2) //
+                        .addNeedsArtifactType(IMPL) //
+                        .build());
+            }
+            items.add(SpecificationItem.builder() //
+                    .id(IMPL, "impl" + i, 1) //
+                    .addCoveredId(REQ, "req" + i, 2) //
+                    .addCoveredId(REQ, "req" + ((i * 31) % count), 1 + (i % 3)) //
+                    .addCoveredId(REQ, "missing" + (i % 5), 1) //
+                    .build());
+            items.add(SpecificationItem.builder() //
+                    .id(UTEST, "utest" + i, 1) //
+                    .addCoveredId(REQ, "req" + ((i * 17) % count), 2) //
+                    .build());
+        }
+        return items;
+    }
+
+    private List<String> describeLinks(final List<LinkedSpecificationItem> linkedItems)
+    {
+        return linkedItems.stream() //
+                .map(item -> item.getId() + " " + item.getLinks().entrySet().stream() //
+                        .map(entry -> entry.getKey() + "=" + entry.getValue().stream() //
+                                .map(target -> target.getId().toString()) //
+                                .collect(Collectors.joining(","))) //
+                        .collect(Collectors.joining(";")) //
+                        + " covered=" + item.getCoveredArtifactTypes() //
+                        + " over=" + item.getOverCoveredArtifactTypes()) //
+                .collect(Collectors.toList());
+    }
+
 }
@@ -0,0 +1,117 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.ReportSettings;
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Checks the default methods that keep implementations of {@link Oft} outside
+ * of this project working.
+ */
+class TestOft
+{
+    private static final Path PATH = Paths.get("myPath");
+
+    private Oft oft;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.oft = mock(Oft.class, Mockito.CALLS_REAL_METHODS);
+    }
+
+    @Test
+    void testLinkWithJobsLinksOnSingleThread()
+    {
+        final List<SpecificationItem> items = singletonList(createItem());
+        final List<LinkedSpecificationItem> linkedItems = singletonList(
+                new LinkedSpecificationItem(items.get(0)));
+        when(this.oft.link(items)).thenReturn(linkedItems);
+        assertThat(this.oft.link(items, 4), sameInstance(linkedItems));
+    }
+
+    @Test
+    void testTraceLazilyTracesAllItems()
+    {
+        final List<LinkedSpecificationItem> linkedItems = singletonList(
+                new LinkedSpecificationItem(createItem()));
+        final Trace trace = mock(Trace.class);
+        when(this.oft.trace(linkedItems)).thenReturn(trace);
+        assertThat(this.oft.traceLazily(linkedItems), sameInstance(trace));
+    }
+
+    @Test
+    void testConvertToPathImportsBeforeExporting()
+    {
+        final ImportSettings importSettings = ImportSettings.createDefault();
+        final ExportSettings exportSettings = ExportSettings.createDefault();
+        final List<SpecificationItem> items = singletonList(createItem());
+        when(this.oft.importItems(importSettings)).thenReturn(items);
+        this.oft.convertToPath(importSettings, PATH, exportSettings);
+        verify(this.oft).exportToPath(items, PATH, exportSettings);
+    }
+
+    @Test
+    void testAllTextFieldsAreRequired()
+    {
+        assertThat(this.oft.getRequiredTextFields(ReportSettings.createDefault()),
+                equalTo(EnumSet.allOf(ItemTextField.class)));
+    }
+
+    @Test
+    void testCompactCoverageTagsAreNotSupported()
+    {
+        assertThat(this.oft.supportsCompactCoverageTags(ReportSettings.createDefault()),
+                equalTo(false));
+    }
+
+    @Test
+    void testStatisticsAreEmpty()
+    {
+        assertThat(this.oft.getStatistics().getScannedFileCount(), equalTo(0));
+    }
+
+    private static SpecificationItem createItem()
+    {
+        return SpecificationItem.builder().id(SpecificationItemId.createId("dsn", "name", 1))
+                .build();
+    }
+}
@@ -34,6 +34,7 @@ import static org.mockito.Mockito.when;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -84,12 +85,12 @@ class TestOftRunner
         MockitoAnnotations.initMocks(this);
         oftRunner = new OftRunner(serviceFactoryMock);
 
-        when(serviceFactoryMock.createImporterService(any())).thenReturn(importerServiceMock);
+        when(serviceFactoryMock.createImporterService(any(), any())).thenReturn(importerServiceMock);
         when(importerServiceMock.createImporter()).thenReturn(multiFileImporterMock);
         when(multiFileImporterMock.importAny(any())).thenReturn(multiFileImporterMock);
         when(multiFileImporterMock.getImportedItems()).thenReturn(importedItems);
 
-        when(serviceFactoryMock.createLinker(same(importedItems))).thenReturn(linkerMock);
+        when(serviceFactoryMock.createLinker(same(importedItems), eq(1))).thenReturn(linkerMock);
         when(linkerMock.link()).thenReturn(linkedItems);
 
         when(serviceFactoryMock.createTracer()).thenReturn(tracerMock);
@@ -106,7 +107,7 @@ class TestOftRunner
         assertThat(oftRunner.importItems(), sameInstance(importedItems));
 
         final ArgumentCaptor<ImportSettings> arg = ArgumentCaptor.forClass(ImportSettings.class);
-        verify(serviceFactoryMock).createImporterService(arg.capture());
+        verify(serviceFactoryMock).createImporterService(arg.capture(), any());
         assertDefaultSettings(arg.getValue());
     }
 
@@ -122,7 +123,8 @@ class TestOftRunner
     {
         final ImportSettings importSettings = ImportSettings.createDefault();
         assertThat(oftRunner.importItems(importSettings), sameInstance(importedItems));
-        verify(serviceFactoryMock).createImporterService(same(importSettings));
+        verify(serviceFactoryMock).createImporterService(same(importSettings),
+                same(oftRunner.getStatistics()));
     }
 
     @Test
@@ -131,6 +133,13 @@ class TestOftRunner
         assertThat(oftRunner.link(importedItems), sameInstance(linkedItems));
     }
 
+    @Test
+    void testLinkInParallel()
+    {
+        when(serviceFactoryMock.createLinker(same(importedItems), eq(4))).thenReturn(linkerMock);
+        assertThat(oftRunner.link(importedItems, 4), sameInstance(linkedItems));
+    }
+
     @Test
     void testTrace()
     {
@@ -162,6 +171,19 @@ class TestOftRunner
         verify(exporterServiceMock).exportToPath(any(), same(PATH), same(settings));
     }
 
+    @Test
+    void testConvertToPath()
+    {
+        final ImportSettings importSettings = ImportSettings.createDefault();
+        final ExportSettings exportSettings = ExportSettings.createDefault();
+        when(multiFileImporterMock.streamAny(any())).thenReturn(importedItems.stream());
+        oftRunner.convertToPath(importSettings, PATH, exportSettings);
+
+        verify(serviceFactoryMock).createImporterService(same(importSettings),
+                same(oftRunner.getStatistics()));
+        verify(exporterServiceMock).exportToPath(any(), same(PATH), same(exportSettings));
+    }
+
     @Test
     void testReportToStdOutTrace()
     {
@@ -193,4 +215,36 @@ class TestOftRunner
         verify(reportServiceMock).reportTraceToPath(same(traceMock), same(PATH), eq("myFormat"));
     }
 
+    @Test
+    void testStatisticsCountItemsAndLinks()
+    {
+        importedItems.add(SpecificationItem.builder().id(SpecificationItemId.parseId("req~a~1"))
+                .build());
+        final LinkedSpecificationItem linkedItem = new LinkedSpecificationItem(
+                importedItems.get(0));
+        linkedItem.addLinkToItemWithStatus(linkedItem, LinkStatus.COVERS);
+        linkedItems.add(linkedItem);
+        when(traceMock.countDefects()).thenReturn(1);
+
+        oftRunner.trace(oftRunner.link(oftRunner.importItems()));
+
+        final TraceStatistics statistics = oftRunner.getStatistics();
+        assertThat(statistics.getImportedItemCount(), equalTo(1));
+        assertThat(statistics.getLinkedItemCount(), equalTo(1));
+        assertThat(statistics.getLinkCount(), equalTo(1L));
+        assertThat(statistics.getDefectItemCount(), equalTo(1));
+    }
+
+    @Test
+    void testStatisticsRecordPhaseDurations()
+    {
+        oftRunner.link(importedItems);
+        oftRunner.reportToStdOut(traceMock);
+        final TraceStatistics statistics = oftRunner.getStatistics();
+        assertThat(statistics.getDuration(TraceStatistics.Phase.LINK).isNegative(), is(false));
+        assertThat(statistics.getDuration(TraceStatistics.Phase.IMPORT), equalTo(Duration.ZERO));
+        assertThat(statistics.getTotalDuration(), equalTo(statistics
+                .getDuration(TraceStatistics.Phase.LINK)
+                .plus(statistics.getDuration(TraceStatistics.Phase.REPORT))));
+    }
 }
@@ -0,0 +1,115 @@
+package org.itsallcode.openfasttrace.core;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.time.Duration;
+
+import org.itsallcode.openfasttrace.core.TraceStatistics.Phase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestTraceStatistics
+{
+    private TraceStatistics statistics;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.statistics = new TraceStatistics();
+    }
+
+    @Test
+    void testDurationsAccumulatePerPhase()
+    {
+        this.statistics.addDuration(Phase.IMPORT, Duration.ofMillis(10));
+        this.statistics.addDuration(Phase.IMPORT, Duration.ofMillis(5));
+        this.statistics.addDuration(Phase.LINK, Duration.ofMillis(3));
+        assertThat(this.statistics.getDuration(Phase.IMPORT), equalTo(Duration.ofMillis(15)));
+        assertThat(this.statistics.getDuration(Phase.REPORT), equalTo(Duration.ZERO));
+        assertThat(this.statistics.getTotalDuration(), equalTo(Duration.ofMillis(18)));
+    }
+
+    @Test
+    void testScannedFilesAreCountedPerImporterType()
+    {
+        this.statistics.addScannedFile("MarkdownImporterFactory", 100);
+        this.statistics.addScannedFile("MarkdownImporterFactory", 50);
+        this.statistics.addScannedFile("TagImporterFactory", 7);
+        this.statistics.addScannedFile("CustomReader", 1);
+        assertThat(this.statistics.getScannedFiles().get("markdown"), equalTo(2));
+        assertThat(this.statistics.getScannedFiles().get("tag"), equalTo(1));
+        assertThat(this.statistics.getScannedFiles().get("CustomReader"), equalTo(1));
+        assertThat(this.statistics.getScannedFileCount(), equalTo(4));
+        assertThat(this.statistics.getBytesRead(), equalTo(158L));
+    }
+
+    @Test
+    void testToJson()
+    {
+        this.statistics.addDuration(Phase.TRACE, Duration.ofMillis(42));
+        this.statistics.addScannedFile("TagImporterFactory", 10);
+        this.statistics.addImportedItems(3);
+        this.statistics.addLinkedItems(3, 4);
+        this.statistics.addDefectItems(1);
+        this.statistics.addBytesWritten(20);
+        assertThat(this.statistics.toJson(), equalTo("{\n" //
+                + "  \"phases\": {\n" //
+                + "    \"import\": 0,\n" //
+                + "    \"link\": 0,\n" //
+                + "    \"trace\": 42,\n" //
+                + "    \"report\": 0,\n" //
+                + "    \"export\": 0\n" //
+                + "  },\n" //
+                + "  \"totalMillis\": 42,\n" //
+                + "  \"scannedFiles\": {\n" //
+                + "    \"tag\": 1\n" //
+                + "  },\n" //
+                + "  \"importedItems\": 3,\n" //
+                + "  \"linkedItems\": 3,\n" //
+                + "  \"links\": 4,\n" //
+                + "  \"defectItems\": 1,\n" //
+                + "  \"bytesRead\": 10,\n" //
+                + "  \"bytesWritten\": 20\n" //
+                + "}\n"));
+    }
+
+    @Test
+    void testToJsonWithoutScannedFiles()
+    {
+        assertThat(this.statistics.toJson(), containsString("\"scannedFiles\": {},"));
+    }
+
+    @Test
+    void testToString()
+    {
+        this.statistics.addScannedFile("MarkdownImporterFactory", 10);
+        this.statistics.addImportedItems(2);
+        assertThat(this.statistics.toString(), containsString("files    1 (markdown: 1)"));
+        assertThat(this.statistics.toString(),
+                containsString("items    2 imported, 0 linked, 0 defect"));
+    }
+}
@@ -27,6 +27,8 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -90,4 +92,26 @@ class TestTracer
                 () -> assertThat(trace.count(), equalTo(2)),
                 () -> assertThat(trace.getDefectIds(), containsInAnyOrder(ID_B)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTraceLazilyStopsAtFirstDefect()
+    {
+        when(this.aMock.isDefect()).thenReturn(true);
+        final Trace trace = new Tracer().traceLazily(Arrays.asList(this.aMock, this.bMock));
+        assertThat(trace.hasNoDefects(), equalTo(false));
+        verify(this.bMock, never()).isDefect();
+    }
+
+    @Test
+    void testTraceLazilyCollectsAllDefects()
+    {
+        when(this.aMock.isDefect()).thenReturn(true);
+        when(this.bMock.isDefect()).thenReturn(false);
+        when(this.cMock.isDefect()).thenReturn(true);
+        final Trace trace = new Tracer()
+                .traceLazily(Arrays.asList(this.aMock, this.bMock, this.cMock));
+        assertAll(() -> assertThat(trace.hasNoDefects(), equalTo(false)),
+                () -> assertThat(trace.getDefectIds(), containsInAnyOrder(ID_A, ID_C)),
+                () -> assertThat(trace.countDefects(), equalTo(2)));
+    }
+}
@@ -38,6 +38,7 @@ public class CommandLineArgumentsStub
     private List<String> unnamedValues;
     private String theLongParameter;
     private Boolean d;
+    private int e;
 
     public void setA(final String value)
     {
@@ -59,6 +60,11 @@ public class CommandLineArgumentsStub
         this.d = d;
     }
 
+    public void setE(final int e)
+    {
+        this.e = e;
+    }
+
     public void setUnnamedValues(final List<String> values)
     {
         this.unnamedValues = values;
@@ -90,6 +96,11 @@ public class CommandLineArgumentsStub
         return this.d;
     }
 
+    public int getE()
+    {
+        return this.e;
+    }
+
     public List<String> getUnnamedValues()
     {
         return this.unnamedValues;
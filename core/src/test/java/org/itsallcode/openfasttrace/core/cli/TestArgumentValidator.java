@@ -50,7 +50,7 @@ class TestArgumentValidator
     @Test
     void testNoCommandGivenIsInvalid()
     {
-        assertValidatorResult("Missing command", "Add one of 'convert','trace'");
+        assertValidatorResult("Missing command", "Add one of 'convert','trace','watch'");
     }
 
     @Test
@@ -60,6 +60,15 @@ class TestArgumentValidator
         assertValidatorResult("", "");
     }
 
+    @Test
+    void testJobsLessThanOneIsNotValid()
+    {
+        cliArgs.setUnnamedValues(asList("trace"));
+        cliArgs.setJobs(0);
+        assertValidatorResult("number of jobs must be at least 1 but was 0.",
+                "set '--jobs' to a positive number.");
+    }
+
     @Test
     void testTraceCommandQuietAndNoOutputFileGivenIsValid()
     {
@@ -79,6 +88,24 @@ class TestArgumentValidator
                 "remove output file parameter.");
     }
 
+    @Test
+    void testWatchCommandGivenIsValid()
+    {
+        cliArgs.setUnnamedValues(asList("watch"));
+        assertValidatorResult("", "");
+    }
+
+    @Test
+    void testWatchCommandQuietAndOutputFileGivenIsNotValid()
+    {
+        cliArgs.setUnnamedValues(asList("watch"));
+        cliArgs.setV(ReportVerbosity.QUIET);
+        cliArgs.setOutputFile("outputFile");
+        assertValidatorResult(
+                "combining stream verbosity 'quiet' and ouput to file is not supported.",
+                "remove output file parameter.");
+    }
+
     @Test
     void testConvertCommandGivenIsValid()
     {
@@ -92,7 +119,7 @@ class TestArgumentValidator
     {
         cliArgs.setUnnamedValues(asList("unknownCommand"));
         assertValidatorResult("'unknownCommand' is not an OFT command.",
-                "Choose one of 'convert','trace'.");
+                "Choose one of 'convert','trace','watch'.");
     }
 
     private void assertValidatorResult(String expectedError, String expectedSuggestion)
@@ -34,6 +34,7 @@ import org.itsallcode.openfasttrace.api.report.ReportConstants;
 import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
 import org.itsallcode.openfasttrace.core.cli.commands.ConvertCommand;
 import org.itsallcode.openfasttrace.core.cli.commands.TraceCommand;
+import org.itsallcode.openfasttrace.core.cli.commands.WatchCommand;
 import org.itsallcode.openfasttrace.core.exporter.ExporterConstants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -90,6 +91,14 @@ class TestCliArguments
                 equalTo(ReportConstants.DEFAULT_REPORT_FORMAT));
     }
 
+    @Test
+    void getStandardOutputFormatForWatch()
+    {
+        this.arguments.setUnnamedValues(asList(WatchCommand.COMMAND_NAME));
+        assertThat(this.arguments.getOutputFormat(),
+                equalTo(ReportConstants.DEFAULT_REPORT_FORMAT));
+    }
+
     @Test
     void testSetO()
     {
@@ -254,4 +263,70 @@ class TestCliArguments
         this.arguments.setS(true);
         assertThat(this.arguments.getShowOrigin(), is(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testJobsDefaultsToOne()
+    {
+        assertThat(this.arguments.getJobs(), equalTo(1));
+    }
+
+    @Test
+    void testSetJobs()
+    {
+        this.arguments.setJobs(8);
+        assertThat(this.arguments.getJobs(), equalTo(8));
+    }
+
+    @Test
+    void testExcludePatternsAreEmptyByDefault()
+    {
+        assertThat(this.arguments.getExcludePatterns(), emptyIterable());
+    }
+
+    @Test
+    void testSetExclude()
+    {
+        this.arguments.setExclude("target/, node_modules,*.bak");
+        assertThat(this.arguments.getExcludePatterns(),
+                contains("target/", "node_modules", "*.bak"));
+    }
+
+    @Test
+    void testCacheDirectoryDefaultsToNull()
+    {
+        assertThat(this.arguments.getCacheDirectory(), nullValue());
+    }
+
+    @Test
+    void testSetCacheDir()
+    {
+        this.arguments.setCacheDir("build/oft-cache");
+        assertThat(this.arguments.getCacheDirectory(), equalTo(Paths.get("build/oft-cache")));
+    }
+
+    @Test
+    void testStatsDefaultsToFalse()
+    {
+        assertThat(this.arguments.getStats(), equalTo(false));
+    }
+
+    @Test
+    void testSetStats()
+    {
+        this.arguments.setStats(true);
+        assertThat(this.arguments.getStats(), equalTo(true));
+    }
+
+    @Test
+    void testStatsFileDefaultsToNull()
+    {
+        assertThat(this.arguments.getStatsFile(), nullValue());
+    }
+
+    @Test
+    void testSetStatsFile()
+    {
+        this.arguments.setStatsFile("build/oft-stats.json");
+        assertThat(this.arguments.getStatsFile(), equalTo(Paths.get("build/oft-stats.json")));
+    }
+}
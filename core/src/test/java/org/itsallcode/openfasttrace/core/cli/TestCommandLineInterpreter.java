@@ -115,6 +115,20 @@ class TestCommandLineInterpreter
                 "Cannot convert value 'INVALID_VALUE' to enum org.itsallcode.openfasttrace.cli.CommandLineArgumentsStub$StubEnum");
     }
 
+    @Test
+    void testGetNamedIntegerParamter() throws CliException
+    {
+        final CommandLineArgumentsStub stub = parseArguments("-e", "42");
+        assertThat(stub.getE(), equalTo(42));
+    }
+
+    @Test
+    void testInvalidIntegerParamter()
+    {
+        expectParseException(new CommandLineArgumentsStub(), asList("-e", "many"),
+                "Cannot convert value 'many' to int");
+    }
+
     @Test
     void testGetUnnamedParamters() throws CliException
     {
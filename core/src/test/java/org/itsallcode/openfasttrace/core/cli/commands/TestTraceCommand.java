@@ -0,0 +1,94 @@
+package org.itsallcode.openfasttrace.core.cli.commands;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.EnumSet;
+
+import org.itsallcode.openfasttrace.api.cli.DirectoryService;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
+import org.itsallcode.openfasttrace.core.cli.CliArguments;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class TestTraceCommand
+{
+    @Mock
+    private DirectoryService directoryServiceMock;
+
+    private CliArguments arguments;
+
+    @BeforeEach
+    void setUp()
+    {
+        MockitoAnnotations.initMocks(this);
+        this.arguments = new CliArguments(this.directoryServiceMock);
+        this.arguments.setUnnamedValues(asList(TraceCommand.COMMAND_NAME, "input"));
+    }
+
+    @Test
+    void testPlainTextReportLoadsItemTextLazily()
+    {
+        assertThat(isLazyText(new TraceCommand(this.arguments)), equalTo(true));
+    }
+
+    @Test
+    void testPlainTextReportShowingAllLoadsItemTextDuringImport()
+    {
+        this.arguments.setReportVerbosity(ReportVerbosity.ALL);
+        assertThat(isLazyText(new TraceCommand(this.arguments)), equalTo(false));
+    }
+
+    @Test
+    void testHtmlReportLoadsItemTextDuringImport()
+    {
+        this.arguments.setOutputFormat("html");
+        assertThat(isLazyText(new TraceCommand(this.arguments)), equalTo(false));
+    }
+
+    @Test
+    void testWatchLoadsItemTextDuringImport()
+    {
+        this.arguments.setUnnamedValues(asList(WatchCommand.COMMAND_NAME, "input"));
+        assertThat(isLazyText(new WatchCommand(this.arguments)), equalTo(false));
+    }
+
+    @Test
+    void testHtmlReportRequiresAllTextFields()
+    {
+        this.arguments.setOutputFormat("html");
+        assertThat(new TraceCommand(this.arguments).createImportSettingsFromArguments()
+                .getRequiredTextFields(), equalTo(EnumSet.allOf(ItemTextField.class)));
+    }
+
+    private static boolean isLazyText(final AbstractCommand command)
+    {
+        return command.createImportSettingsFromArguments().isLazyText();
+    }
+}
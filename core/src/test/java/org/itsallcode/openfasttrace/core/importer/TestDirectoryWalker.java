@@ -0,0 +1,194 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class TestDirectoryWalker
+{
+    private Path root;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir) throws IOException
+    {
+        this.root = tempDir;
+        createFiles("README.md", "doc/spec.md", "doc/design/design.md", "src/Main.java",
+                "src/build/Generated.java", "build/out.md", "target/classes/spec.md",
+                "node_modules/lib/README.md", "notes.bak", "doc/old.bak");
+    }
+
+    private void createFiles(final String... paths) throws IOException
+    {
+        for (final String path : paths)
+        {
+            writeFile(path, "content");
+        }
+    }
+
+    private void writeFile(final String path, final String content) throws IOException
+    {
+        final Path file = this.root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFindsFilesInWalkOrder() throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(this.root))
+        {
+            assertThat(createWalker().findFiles(this.root),
+                    equalTo(paths.filter(Files::isRegularFile).collect(Collectors.toList())));
+        }
+    }
+
+    @Test
+    void testFindsFilesInParallelInSameOrder() throws IOException
+    {
+        for (int i = 0; i < 10; ++i)
+        {
+            createFiles("wide/dir" + i + "/a.md", "wide/dir" + i + "/sub/b.md",
+                    "wide/file" + i + ".md");
+        }
+        assertThat(new DirectoryWalker(Collections.emptyList(), 4).findFiles(this.root),
+                equalTo(createWalker().findFiles(this.root)));
+    }
+
+    @Test
+    void testSkipsExcludedDirectories()
+    {
+        assertThat(findFiles("target/", "node_modules"), containsInAnyOrder( //
+                file("README.md"), file("doc/spec.md"), file("doc/design/design.md"),
+                file("src/Main.java"), file("src/build/Generated.java"), file("build/out.md"),
+                file("notes.bak"), file("doc/old.bak")));
+    }
+
+    @Test
+    void testDirectoryPatternDoesNotMatchFiles() throws IOException
+    {
+        createFiles("doc/target");
+        assertThat(findFiles("target/"), containsInAnyOrder(file("README.md"),
+                file("doc/spec.md"), file("doc/design/design.md"), file("doc/target"),
+                file("src/Main.java"), file("src/build/Generated.java"), file("build/out.md"),
+                file("node_modules/lib/README.md"), file("notes.bak"), file("doc/old.bak")));
+    }
+
+    @Test
+    void testAnchoredPatternMatchesOnlyBelowInputDirectory()
+    {
+        assertThat(findFiles("/build", "target", "node_modules", "*.bak", "doc/design"),
+                containsInAnyOrder(file("README.md"), file("doc/spec.md"),
+                        file("src/Main.java"), file("src/build/Generated.java")));
+    }
+
+    @Test
+    void testNegatedPatternIncludesFileAgain()
+    {
+        assertThat(findFiles("*.md", "!spec.md", "*.bak", "src"),
+                containsInAnyOrder(file("doc/spec.md"), file("target/classes/spec.md")));
+    }
+
+    @Test
+    void testIgnoreFileExcludesPathsBelowItsDirectory() throws IOException
+    {
+        writeFile("src/" + DirectoryWalker.IGNORE_FILE_NAME, "# generated sources\nbuild/\n");
+        writeFile(DirectoryWalker.IGNORE_FILE_NAME, "target\nnode_modules\n*.bak\n");
+        assertThat(createWalker().findFiles(this.root), containsInAnyOrder(file("README.md"),
+                file(DirectoryWalker.IGNORE_FILE_NAME), file("doc/spec.md"),
+                file("doc/design/design.md"), file("src/Main.java"),
+                file("src/" + DirectoryWalker.IGNORE_FILE_NAME), file("build/out.md")));
+    }
+
+    @Test
+    void testIgnoreFileOverridesExcludePatterns() throws IOException
+    {
+        writeFile("doc/" + DirectoryWalker.IGNORE_FILE_NAME, "!*.bak\n");
+        assertThat(findFiles("*.bak", "*.md", "*.java", DirectoryWalker.IGNORE_FILE_NAME),
+                containsInAnyOrder(file("doc/old.bak")));
+    }
+
+    @Test
+    void testFindFilesBelowSubdirectoryAppliesParentIgnoreFiles() throws IOException
+    {
+        writeFile(DirectoryWalker.IGNORE_FILE_NAME, "design\n");
+        assertThat(createWalker().findFiles(this.root, this.root.resolve("doc")),
+                containsInAnyOrder(file("doc/spec.md"), file("doc/old.bak")));
+    }
+
+    @Test
+    void testFindDirectoriesSkipsExcludedDirectories()
+    {
+        final DirectoryWalker walker = new DirectoryWalker(asList("build/", "target"), 1);
+        assertThat(walker.findDirectories(this.root, this.root), containsInAnyOrder(this.root,
+                file("doc"), file("doc/design"), file("src"), file("node_modules"),
+                file("node_modules/lib")));
+    }
+
+    @Test
+    void testIsExcluded() throws IOException
+    {
+        writeFile("doc/" + DirectoryWalker.IGNORE_FILE_NAME, "/design/\n");
+        final DirectoryWalker walker = new DirectoryWalker(asList("target/", "*.bak"), 1);
+        assertThat(walker.isExcluded(this.root, this.root), equalTo(false));
+        assertThat(walker.isExcluded(this.root, file("doc/spec.md")), equalTo(false));
+        assertThat(walker.isExcluded(this.root, file("doc/old.bak")), equalTo(true));
+        assertThat(walker.isExcluded(this.root, file("doc/design/design.md")), equalTo(true));
+        assertThat(walker.isExcluded(this.root, file("target/classes/spec.md")),
+                equalTo(true));
+        assertThat(walker.isExcluded(this.root, file("target/new")), equalTo(true));
+    }
+
+    private DirectoryWalker createWalker()
+    {
+        return new DirectoryWalker(Collections.emptyList(), 1);
+    }
+
+    private List<Path> findFiles(final String... excludePatterns)
+    {
+        return new DirectoryWalker(asList(excludePatterns), 1).findFiles(this.root);
+    }
+
+    private Path file(final String path)
+    {
+        return this.root.resolve(path);
+    }
+}
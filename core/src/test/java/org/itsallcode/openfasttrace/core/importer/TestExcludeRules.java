@@ -0,0 +1,135 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+import org.junit.jupiter.api.Test;
+
+class TestExcludeRules
+{
+    private static final Path BASE = Paths.get("project");
+
+    @Test
+    void testNoRulesExcludeNothing()
+    {
+        assertThat(ExcludeRules.none().isExcluded(BASE.resolve("a"), false), equalTo(false));
+    }
+
+    @Test
+    void testBlankLinesAndCommentsAreIgnored()
+    {
+        final ExcludeRules rules = ExcludeRules.none();
+        assertThat(rules.withPatterns(BASE, asList("", "  ", "# comment")),
+                sameInstance(rules));
+    }
+
+    @Test
+    void testNamePatternMatchesAtAnyDepth()
+    {
+        final ExcludeRules rules = createRules("*.bak");
+        assertThat(isExcluded(rules, "a.bak"), equalTo(true));
+        assertThat(isExcluded(rules, "doc/sub/a.bak"), equalTo(true));
+        assertThat(isExcluded(rules, "doc/a.md"), equalTo(false));
+    }
+
+    @Test
+    void testTrailingSlashMatchesDirectoriesOnly()
+    {
+        final ExcludeRules rules = createRules("target/");
+        assertThat(rules.isExcluded(BASE.resolve("src/target"), true), equalTo(true));
+        assertThat(rules.isExcluded(BASE.resolve("src/target"), false), equalTo(false));
+    }
+
+    @Test
+    void testPatternWithSlashIsAnchored()
+    {
+        final ExcludeRules rules = createRules("/build", "doc/generated");
+        assertThat(isExcluded(rules, "build"), equalTo(true));
+        assertThat(isExcluded(rules, "src/build"), equalTo(false));
+        assertThat(isExcluded(rules, "doc/generated"), equalTo(true));
+        assertThat(isExcluded(rules, "src/doc/generated"), equalTo(false));
+    }
+
+    @Test
+    void testLeadingDoubleStarMatchesAnyDirectory()
+    {
+        final ExcludeRules rules = createRules("**/gen/out", "**/tmp");
+        assertThat(isExcluded(rules, "gen/out"), equalTo(true));
+        assertThat(isExcluded(rules, "a/b/gen/out"), equalTo(true));
+        assertThat(isExcluded(rules, "tmp"), equalTo(true));
+        assertThat(isExcluded(rules, "a/tmp"), equalTo(true));
+    }
+
+    @Test
+    void testTrailingDoubleStarMatchesContent()
+    {
+        final ExcludeRules rules = createRules("doc/**");
+        assertThat(isExcluded(rules, "doc"), equalTo(false));
+        assertThat(isExcluded(rules, "doc/a/b.md"), equalTo(true));
+    }
+
+    @Test
+    void testLastMatchingPatternWins()
+    {
+        final ExcludeRules rules = createRules("*.md", "!keep*.md", "keep_not.md");
+        assertThat(isExcluded(rules, "a.md"), equalTo(true));
+        assertThat(isExcluded(rules, "keep.md"), equalTo(false));
+        assertThat(isExcluded(rules, "keep_not.md"), equalTo(true));
+    }
+
+    @Test
+    void testPatternsOfSubdirectoryAreRelativeToIt()
+    {
+        final ExcludeRules rules = createRules("*.md").withPatterns(BASE.resolve("doc"),
+                asList("!/spec.md"));
+        assertThat(isExcluded(rules, "doc/spec.md"), equalTo(false));
+        assertThat(isExcluded(rules, "spec.md"), equalTo(true));
+        assertThat(isExcluded(rules, "doc/sub/spec.md"), equalTo(true));
+    }
+
+    @Test
+    void testInvalidPatternThrowsException()
+    {
+        final ExcludeRules rules = ExcludeRules.none();
+        assertThrows(ImporterException.class, () -> rules.withPatterns(BASE, asList("[a")));
+    }
+
+    private static ExcludeRules createRules(final String... patterns)
+    {
+        return ExcludeRules.none().withPatterns(BASE, asList(patterns));
+    }
+
+    private static boolean isExcluded(final ExcludeRules rules, final String path)
+    {
+        return rules.isExcluded(BASE.resolve(path), false);
+    }
+}
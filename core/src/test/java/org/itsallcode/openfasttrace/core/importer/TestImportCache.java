@@ -0,0 +1,501 @@
+package org.itsallcode.openfasttrace.core.importer;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
+import org.itsallcode.openfasttrace.api.importer.ImportEventReplay;
+import org.itsallcode.openfasttrace.api.importer.Importer;
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class TestImportCache
+{
+    private static final ImporterFactory FACTORY = new FirstImporterFactory();
+    private static final FileTime MODIFIED = FileTime.fromMillis(1_500_000_000_000L);
+
+    private Path cacheDir;
+    private Path sourceFile;
+    private InputFile input;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir) throws IOException
+    {
+        this.cacheDir = tempDir.resolve("cache");
+        this.sourceFile = tempDir.resolve("source.md");
+        this.input = RealFileInput.forPath(this.sourceFile);
+        writeSource("content A", MODIFIED);
+    }
+
+    @Test
+    void testCreatesCacheDirectory()
+    {
+        createCache();
+        assertThat(Files.isDirectory(this.cacheDir), equalTo(true));
+    }
+
+    @Test
+    void testMissOnEmptyCache()
+    {
+        final ImportCache cache = createCache();
+        assertThat(cache.lookup(this.input, FACTORY).getRecording().isPresent(), equalTo(false));
+        assertThat(cache.getHits(), equalTo(0));
+        assertThat(cache.getMisses(), equalTo(1));
+    }
+
+    @Test
+    void testHitAfterStore()
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        final ImportCache cache = createCache();
+        final List<SpecificationItem> items = cache.lookup(this.input, FACTORY).getRecording().get().getItems();
+        assertThat(items, hasSize(1));
+        assertFullItem(items.get(0));
+        assertThat(cache.getHits(), equalTo(1));
+        assertThat(cache.getMisses(), equalTo(0));
+    }
+
+    @Test
+    void testHitForFileWithoutItems()
+    {
+        storeItems(createCache(), Collections.emptyList());
+        assertThat(createCache().lookup(this.input, FACTORY).getRecording().get().getItems(), empty());
+    }
+
+    @Test
+    void testRoundTripOfMinimalItem()
+    {
+        final SpecificationItem minimalItem = SpecificationItem.builder()
+                .id(SpecificationItemId.parseId("impl~minimal~0")).build();
+        storeItems(createCache(), asList(minimalItem));
+        final SpecificationItem item = createCache().lookup(this.input, FACTORY).getRecording().get().getItems()
+                .get(0);
+        assertThat(item.getId(), equalTo(minimalItem.getId()));
+        assertThat(item.getTitle(), equalTo(minimalItem.getTitle()));
+        assertThat(item.getDescription(), equalTo(""));
+        assertThat(item.getStatus(), equalTo(ItemStatus.APPROVED));
+        assertThat(item.getLocation(), equalTo(null));
+        assertThat(item.getCoveredIds(), empty());
+        assertThat(item.getTags(), empty());
+    }
+
+    @Test
+    void testKeepsTextRangesOfCachedFile()
+    {
+        final TextRange.Source source = TextRange.Source.forFile(this.sourceFile,
+                StandardCharsets.UTF_8);
+        storeItems(createCache(), asList(createItemWithDescription(source.range(2, 7))));
+        final SpecificationItem item = createCache().lookup(this.input, FACTORY).getRecording().get().getItems()
+                .get(0);
+        final TextRange range = item.getTextRange(ItemTextField.DESCRIPTION);
+        assertThat(range.getStart(), equalTo(2L));
+        assertThat(range.getEnd(), equalTo(7L));
+        assertThat(item.getDescription(), equalTo("ntent"));
+    }
+
+    @Test
+    void testStoresTextRangesOfOtherFilesAsText(@TempDir final Path tempDir)
+            throws IOException
+    {
+        final Path otherFile = tempDir.resolve("other.md");
+        Files.write(otherFile, "other text".getBytes(StandardCharsets.UTF_8));
+        final TextRange.Source source = TextRange.Source.forFile(otherFile,
+                StandardCharsets.UTF_8);
+        storeItems(createCache(), asList(createItemWithDescription(source.range(6, 10))));
+        final SpecificationItem item = createCache().lookup(this.input, FACTORY).getRecording().get().getItems()
+                .get(0);
+        assertThat(item.getTextRange(ItemTextField.DESCRIPTION), equalTo(null));
+        assertThat(item.getDescription(), equalTo("text"));
+    }
+
+    @Test
+    void testKeepsOrderOfItemsAndCoverageTags()
+    {
+        final CoverageTag tag = createCoverageTag();
+        final ImportRecording.Recorder recorder = createRecorder();
+        ImportEventReplay.replay(createFullItem(), recorder);
+        recorder.addCoverageTag(tag);
+        ImportEventReplay.replay(tag.toSpecificationItem(), recorder);
+        final ImportCache cache = createCache();
+        cache.lookup(this.input, FACTORY).store(recorder.build());
+        cache.awaitStores();
+        final ImportRecording recording = createCache().lookup(this.input, FACTORY)
+                .getRecording().get();
+        assertThat(recording.size(), equalTo(3));
+        assertThat(recording.isCoverageTag(0), equalTo(false));
+        assertThat(recording.isCoverageTag(1), equalTo(true));
+        assertThat(recording.isCoverageTag(2), equalTo(false));
+        assertThat(recording.getCoverageTags(), hasSize(1));
+        assertCoverageTag(recording.getCoverageTags().get(0), tag);
+        assertFullItem(recording.getItems().get(0));
+        assertThat(recording.getItems().get(1), equalTo(tag.toSpecificationItem()));
+    }
+
+    @Test
+    void testRegularItemShapedLikeCoverageTagStaysRegularItem()
+    {
+        final CoverageTag tag = createCoverageTag();
+        final ImporterFactory factory = new ReplayingImporterFactory(
+                asList(tag.toSpecificationItem()));
+        final ImportRecording.Recorder coldRun = createRecorder();
+        final ImportCache coldCache = createCache();
+        new CachingImporter(coldCache, this.input, factory, coldRun).runImport();
+        coldCache.awaitStores();
+        final ImportRecording.Recorder warmRun = createRecorder();
+        final ImportCache cache = createCache();
+        new CachingImporter(cache, this.input, factory, warmRun).runImport();
+        assertThat(cache.getHits(), equalTo(1));
+        final ImportRecording recording = warmRun.build();
+        assertThat(recording.getCoverageTags(), empty());
+        assertThat(recording.getItems(), contains(tag.toSpecificationItem()));
+        assertThat(coldRun.build().getItems(), contains(tag.toSpecificationItem()));
+        assertThat(coldRun.build().getCoverageTags(), empty());
+    }
+
+    @Test
+    void testMissAfterContentChanged() throws IOException
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        writeSource("content B", FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+        assertMiss(createCache());
+    }
+
+    @Test
+    void testMissAfterSizeChanged() throws IOException
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        writeSource("content AB", MODIFIED);
+        assertMiss(createCache());
+    }
+
+    @Test
+    void testMissAfterOnlyModificationTimeChangedForEntryWithoutHash() throws IOException
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        Files.setLastModifiedTime(this.sourceFile,
+                FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+        assertMiss(createCache());
+    }
+
+    @Test
+    void testHitAfterOnlyModificationTimeChangedForEntryWithHash() throws IOException
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        Files.setLastModifiedTime(this.sourceFile,
+                FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+        storeItems(createCache(), asList(createFullItem()));
+        Files.setLastModifiedTime(this.sourceFile,
+                FileTime.fromMillis(MODIFIED.toMillis() + 2000));
+        final ImportCache cache = createCache();
+        assertThat(cache.lookup(this.input, FACTORY).getRecording().isPresent(), equalTo(true));
+    }
+
+    @Test
+    void testMissAfterContentChangedForEntryWithHash() throws IOException
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        Files.setLastModifiedTime(this.sourceFile,
+                FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+        storeItems(createCache(), asList(createFullItem()));
+        writeSource("content B", FileTime.fromMillis(MODIFIED.toMillis() + 2000));
+        assertMiss(createCache());
+    }
+
+    @Test
+    void testMissForDifferentImporter()
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        final ImportCache cache = createCache();
+        assertThat(cache.lookup(this.input, new SecondImporterFactory()).getRecording().isPresent(),
+                equalTo(false));
+    }
+
+    @Test
+    void testMissForDifferentPathConfigs()
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        final PathConfig pathConfig = PathConfig.builder() //
+                .patternPathMatcher("glob:**/*.md") //
+                .coveredItemArtifactType("dsn") //
+                .tagArtifactType("impl") //
+                .build();
+        assertMiss(new ImportCache(this.cacheDir, asList(pathConfig)));
+    }
+
+    @Test
+    void testMissForDifferentRequiredTextFields()
+    {
+        storeItems(new ImportCache(this.cacheDir, Collections.emptyList(),
+                EnumSet.noneOf(ItemTextField.class)), asList(createFullItem()));
+        assertMiss(createCache());
+    }
+
+    @Test
+    void testImporterFromClassDirectoryIsCacheable()
+    {
+        assertThat(createCache().isCacheable(FACTORY), equalTo(true));
+    }
+
+    @Test
+    void testNoFingerprintForClassWithoutCodeSource()
+    {
+        assertThat(ImportCache.fingerprintCodeSource(String.class).isPresent(), equalTo(false));
+    }
+
+    @Test
+    void testNoFingerprintForMissingCodeSource()
+    {
+        assertThat(ImportCache.fingerprintPath(this.cacheDir.resolve("missing.jar")).isPresent(),
+                equalTo(false));
+    }
+
+    @Test
+    void testJarFingerprintChangesWithModificationTime() throws IOException
+    {
+        final Path jar = this.sourceFile.resolveSibling("importer.jar");
+        Files.write(jar, new byte[] { 1, 2, 3 });
+        Files.setLastModifiedTime(jar, MODIFIED);
+        final String fingerprint = ImportCache.fingerprintPath(jar).get();
+        assertThat(ImportCache.fingerprintPath(jar).get(), equalTo(fingerprint));
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(MODIFIED.toMillis() + 1000));
+        assertThat(ImportCache.fingerprintPath(jar).get(), not(equalTo(fingerprint)));
+    }
+
+    @Test
+    void testClassDirectoryFingerprintChangesWithContainedFile() throws IOException
+    {
+        final Path classes = this.sourceFile.resolveSibling("classes");
+        final Path classFile = classes.resolve("org/example/Importer.class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, new byte[] { 1, 2, 3 });
+        Files.setLastModifiedTime(classFile, MODIFIED);
+        final String fingerprint = ImportCache.fingerprintPath(classes).get();
+        assertThat(ImportCache.fingerprintPath(classes).get(), equalTo(fingerprint));
+        Files.write(classFile, new byte[] { 1, 2, 3, 4 });
+        Files.setLastModifiedTime(classFile, MODIFIED);
+        assertThat(ImportCache.fingerprintPath(classes).get(), not(equalTo(fingerprint)));
+    }
+
+    @Test
+    void testMissForCorruptEntry() throws IOException
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        for (final Path entry : listCacheDirectory())
+        {
+            Files.write(entry, new byte[] { 1, 2, 3 });
+        }
+        assertMiss(createCache());
+    }
+
+    @Test
+    void testStoreLeavesNoTemporaryFiles() throws IOException
+    {
+        storeItems(createCache(), asList(createFullItem()));
+        final List<Path> entries = listCacheDirectory();
+        assertThat(entries, hasSize(1));
+        assertThat(entries.get(0).getFileName().toString().endsWith(".oftcache"), equalTo(true));
+    }
+
+    @Test
+    void testAwaitStoresWaitsForMoreEntriesThanCanBePending(@TempDir final Path tempDir)
+            throws IOException
+    {
+        final ImportCache cache = createCache();
+        final int fileCount = 100;
+        for (int i = 0; i < fileCount; ++i)
+        {
+            final Path file = tempDir.resolve("source" + i + ".md");
+            Files.write(file, ("content " + i).getBytes(StandardCharsets.UTF_8));
+            cache.lookup(RealFileInput.forPath(file), FACTORY).store(
+                    new ImportRecording(asList(createFullItem()), Collections.emptyList(),
+                            new BitSet()));
+        }
+        cache.awaitStores();
+        assertThat(listCacheDirectory(), hasSize(fileCount));
+    }
+
+    private List<Path> listCacheDirectory() throws IOException
+    {
+        try (Stream<Path> entries = Files.list(this.cacheDir))
+        {
+            return entries.collect(Collectors.toList());
+        }
+    }
+
+    private ImportCache createCache()
+    {
+        return new ImportCache(this.cacheDir, Collections.emptyList());
+    }
+
+    private void storeItems(final ImportCache cache, final List<SpecificationItem> items)
+    {
+        final ImportCache.Entry entry = cache.lookup(this.input, FACTORY);
+        entry.store(new ImportRecording(items, Collections.emptyList(), new BitSet()));
+        cache.awaitStores();
+    }
+
+    private void assertMiss(final ImportCache cache)
+    {
+        assertThat(cache.lookup(this.input, FACTORY).getRecording().isPresent(), equalTo(false));
+        assertThat(cache.getMisses(), equalTo(1));
+    }
+
+    private void writeSource(final String content, final FileTime lastModified)
+            throws IOException
+    {
+        Files.write(this.sourceFile, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(this.sourceFile, lastModified);
+    }
+
+    private static SpecificationItem createFullItem()
+    {
+        return SpecificationItem.builder() //
+                .id(SpecificationItemId.parseId("dsn~full-item~2")) //
+                .title("Full item") //
+                .status(ItemStatus.PROPOSED) //
+                .description("Description\nwith two lines") //
+                .rationale("Rationale") //
+                .comment("Comment") //
+                .addCoveredId(SpecificationItemId.parseId("req~covered~1")) //
+                .addDependOnId(SpecificationItemId.parseId("dsn~other~3")) //
+                .addNeedsArtifactType("impl") //
+                .addNeedsArtifactType("utest") //
+                .addTag("tag1") //
+                .location(Location.create("some/file.md", 42)) //
+                .forwards(false) //
+                .build();
+    }
+
+    private static SpecificationItem createItemWithDescription(final TextRange description)
+    {
+        return SpecificationItem.builder() //
+                .id(SpecificationItemId.parseId("dsn~lazy-item~1")) //
+                .descriptionRange(description) //
+                .build();
+    }
+
+    private static ImportRecording.Recorder createRecorder()
+    {
+        return ImportRecording.recorder(SpecificationListBuilder.create());
+    }
+
+    private static CoverageTag createCoverageTag()
+    {
+        return CoverageTag.builder() //
+                .coveringArtifactType("impl") //
+                .coveredId(SpecificationItemId.parseId("dsn~covered~2")) //
+                .location("src/Main.java", 17) //
+                .checksum(123456789L) //
+                .build();
+    }
+
+    private static void assertCoverageTag(final CoverageTag actual, final CoverageTag expected)
+    {
+        assertThat(actual.getCoveringArtifactType(), equalTo(expected.getCoveringArtifactType()));
+        assertThat(actual.getCoveredId(), equalTo(expected.getCoveredId()));
+        assertThat(actual.getPath(), equalTo(expected.getPath()));
+        assertThat(actual.getLine(), equalTo(expected.getLine()));
+        assertThat(actual.getChecksum(), equalTo(expected.getChecksum()));
+    }
+
+    private static void assertFullItem(final SpecificationItem item)
+    {
+        final SpecificationItem expected = createFullItem();
+        assertThat(item.getId(), equalTo(expected.getId()));
+        assertThat(item.getTitle(), equalTo(expected.getTitle()));
+        assertThat(item.getStatus(), equalTo(expected.getStatus()));
+        assertThat(item.getDescription(), equalTo(expected.getDescription()));
+        assertThat(item.getRationale(), equalTo(expected.getRationale()));
+        assertThat(item.getComment(), equalTo(expected.getComment()));
+        assertThat(item.getCoveredIds(), contains(expected.getCoveredIds().toArray()));
+        assertThat(item.getDependOnIds(), contains(expected.getDependOnIds().toArray()));
+        assertThat(item.getNeedsArtifactTypes(), contains("impl", "utest"));
+        assertThat(item.getTags(), contains("tag1"));
+        assertThat(item.getLocation(), equalTo(expected.getLocation()));
+        assertThat(item.isForwarding(), equalTo(false));
+    }
+
+    private static class FirstImporterFactory extends ImporterFactory
+    {
+        @Override
+        public boolean supportsFile(final InputFile file)
+        {
+            return true;
+        }
+
+        @Override
+        public Importer createImporter(final InputFile file, final ImportEventListener listener)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class SecondImporterFactory extends FirstImporterFactory
+    {
+    }
+
+    private static class ReplayingImporterFactory extends FirstImporterFactory
+    {
+        private final List<SpecificationItem> items;
+
+        private ReplayingImporterFactory(final List<SpecificationItem> items)
+        {
+            this.items = items;
+        }
+
+        @Override
+        public Importer createImporter(final InputFile file, final ImportEventListener listener)
+        {
+            return () -> this.items.forEach(item -> ImportEventReplay.replay(item, listener));
+        }
+    }
+}
@@ -24,31 +24,44 @@ package org.itsallcode.openfasttrace.core.importer;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
 import org.itsallcode.openfasttrace.api.importer.*;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
 import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.core.TraceStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 class TestMultiFileImporter
 {
     private static final Path FOLDER = Paths.get("src/test/resources/markdown");
     private static final Path PATH1 = FOLDER.resolve("sample_design.md");
+    private static final Path PATH2 = FOLDER.resolve("sample_system_requirements.md");
     private static final InputFile FILE1 = RealFileInput.forPath(PATH1);
     private static final Path NON_EXISTING_FILE = FOLDER.resolve("does_not_exist");
 
@@ -120,4 +133,126 @@ class TestMultiFileImporter
 
         assertThat(this.multiFileImporter.getImportedItems(), sameInstance(expected));
     }
+
+    @Test
+    void testParallelImportKeepsSerialItemOrder()
+    {
+        final List<String> serialNames = importFolderWithJobs(1);
+        final List<String> parallelNames = importFolderWithJobs(4);
+        assertThat(parallelNames, equalTo(serialNames));
+        assertThat(parallelNames.size(), equalTo(2));
+    }
+
+    @Test
+    void testImportRecordsScannedFiles() throws IOException
+    {
+        final TraceStatistics statistics = new TraceStatistics();
+        new MultiFileImporterImpl(this.specItemBuilderMock, this.factoryLoaderMock,
+                SpecificationListBuilder::create, 1, createWalker(), null, statistics) //
+                        .importRecursiveDir(FOLDER, "**/*.md");
+        assertThat(statistics.getScannedFileCount(), equalTo(2));
+        assertThat(statistics.getBytesRead(), equalTo(Files.size(PATH1) + Files.size(PATH2)));
+    }
+
+    @Test
+    void testImportRecursiveDirSkipsExcludedFiles() throws IOException
+    {
+        final TraceStatistics statistics = new TraceStatistics();
+        final DirectoryWalker walker = new DirectoryWalker(asList("sample_design.md"), 1);
+        new MultiFileImporterImpl(this.specItemBuilderMock, this.factoryLoaderMock,
+                SpecificationListBuilder::create, 1, walker, null, statistics) //
+                        .importRecursiveDir(FOLDER, "**/*.md");
+        assertThat(statistics.getScannedFileCount(), equalTo(1));
+        assertThat(statistics.getBytesRead(), equalTo(Files.size(PATH2)));
+    }
+
+    private static DirectoryWalker createWalker()
+    {
+        return new DirectoryWalker(Collections.emptyList(), 1);
+    }
+
+    @Test
+    void testStreamAnyImportsFilesWhenStreamIsConsumed()
+    {
+        final TraceStatistics statistics = new TraceStatistics();
+        final ImporterFactoryLoader loader = mock(ImporterFactoryLoader.class);
+        when(loader.supportsFile(any())).thenReturn(true);
+        when(loader.getImporterFactory(any())).thenReturn(createFactoryEmittingOneItemPerFile());
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        final Stream<SpecificationItem> items = new MultiFileImporterImpl(builder, loader,
+                SpecificationListBuilder::create, 1, createWalker(), null, statistics) //
+                        .streamAny(asList(FOLDER, NON_EXISTING_FILE));
+        assertThat(statistics.getScannedFileCount(), equalTo(0));
+        assertThat(items.map(SpecificationItem::getName).collect(Collectors.toList()),
+                equalTo(importFolderWithJobs(1)));
+        assertThat(statistics.getScannedFileCount(), equalTo(2));
+        assertThat(builder.build(), empty());
+    }
+
+    @Test
+    void testImportAnyAndStreamAnyFindSameFiles()
+    {
+        final List<Path> paths = asList(PATH1, NON_EXISTING_FILE, FOLDER);
+        final List<String> importedNames = createImporterEmittingOneItemPerFile(1)
+                .importAny(paths) //
+                .getImportedItems() //
+                .stream() //
+                .map(SpecificationItem::getName) //
+                .collect(Collectors.toList());
+        final List<String> streamedNames = createImporterEmittingOneItemPerFile(1)
+                .streamAny(paths) //
+                .map(SpecificationItem::getName) //
+                .collect(Collectors.toList());
+        assertThat(streamedNames, equalTo(importedNames));
+        assertThat(streamedNames.size(), equalTo(3));
+    }
+
+    @Test
+    void testDefaultStreamAnyStreamsImportedItems()
+    {
+        final MultiFileImporter importer = mock(MultiFileImporter.class,
+                Mockito.CALLS_REAL_METHODS);
+        final List<SpecificationItem> items = asList(
+                SpecificationItem.builder().id("dsn", "default", 1).build());
+        doReturn(importer).when(importer).importAny(asList(FOLDER));
+        doReturn(items).when(importer).getImportedItems();
+        assertThat(importer.streamAny(asList(FOLDER)).collect(Collectors.toList()),
+                equalTo(items));
+    }
+
+    private List<String> importFolderWithJobs(final int jobs)
+    {
+        return createImporterEmittingOneItemPerFile(jobs).importAny(asList(FOLDER)) //
+                .getImportedItems() //
+                .stream() //
+                .map(SpecificationItem::getName) //
+                .collect(Collectors.toList());
+    }
+
+    private MultiFileImporter createImporterEmittingOneItemPerFile(final int jobs)
+    {
+        final ImporterFactory factory = createFactoryEmittingOneItemPerFile();
+        final ImporterFactoryLoader loader = mock(ImporterFactoryLoader.class);
+        when(loader.supportsFile(any())).thenReturn(true);
+        when(loader.getImporterFactory(any())).thenReturn(factory);
+        return new MultiFileImporterImpl(SpecificationListBuilder.create(), loader,
+                SpecificationListBuilder::create, jobs,
+                new DirectoryWalker(Collections.emptyList(), jobs), null, new TraceStatistics());
+    }
+
+    private ImporterFactory createFactoryEmittingOneItemPerFile()
+    {
+        final ImporterFactory factory = mock(ImporterFactory.class);
+        when(factory.createImporter(any(), any())).thenAnswer(invocation -> {
+            final InputFile file = invocation.getArgument(0);
+            final ImportEventListener listener = invocation.getArgument(1);
+            return (Importer) () -> {
+                listener.beginSpecificationItem();
+                listener.setId(SpecificationItemId.createId("dsn",
+                        file.toPath().getFileName().toString().replace(".md", ""), 1));
+                listener.endSpecificationItem();
+            };
+        });
+        return factory;
+    }
 }
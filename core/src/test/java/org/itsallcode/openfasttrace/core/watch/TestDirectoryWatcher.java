@@ -0,0 +1,115 @@
+package org.itsallcode.openfasttrace.core.watch;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class TestDirectoryWatcher
+{
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final long QUIET_PERIOD_MILLIS = 50;
+
+    private Path tempDir;
+    private DirectoryWatcher watcher;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir) throws IOException
+    {
+        this.tempDir = tempDir;
+        Files.createDirectories(tempDir.resolve("sub"));
+        Files.writeString(tempDir.resolve("sub/existing.md"), "old");
+        this.watcher = new DirectoryWatcher(asList(tempDir), QUIET_PERIOD_MILLIS);
+    }
+
+    @AfterEach
+    void afterEach() throws IOException
+    {
+        this.watcher.close();
+    }
+
+    @Test
+    void testDetectsCreatedFile() throws IOException
+    {
+        final Path file = Files.writeString(this.tempDir.resolve("created.md"), "new");
+        assertThat(waitForChanges(), hasItem(file));
+    }
+
+    @Test
+    void testDetectsModifiedFileInSubdirectory() throws IOException
+    {
+        final Path file = Files.writeString(this.tempDir.resolve("sub/existing.md"), "changed");
+        assertThat(waitForChanges(), hasItem(file));
+    }
+
+    @Test
+    void testDetectsDeletedFile() throws IOException
+    {
+        final Path file = this.tempDir.resolve("sub/existing.md");
+        Files.delete(file);
+        assertThat(waitForChanges(), hasItem(file));
+    }
+
+    @Test
+    void testWatchesCreatedDirectories() throws IOException
+    {
+        final Path directory = Files.createDirectory(this.tempDir.resolve("created"));
+        assertThat(waitForChanges(), hasItem(directory));
+        final Path file = Files.writeString(directory.resolve("file.md"), "new");
+        assertThat(waitForChanges(), hasItem(file));
+    }
+
+    @Test
+    void testWatchesParentDirectoryOfInputFile() throws IOException
+    {
+        this.watcher.close();
+        final Path file = this.tempDir.resolve("sub/existing.md");
+        this.watcher = new DirectoryWatcher(asList(file), QUIET_PERIOD_MILLIS);
+        Files.writeString(file, "changed");
+        final Set<Path> changes = waitForChanges();
+        assertThat(changes, hasItem(file.toAbsolutePath()));
+        assertThat(changes, not(hasItem(this.tempDir.resolve("sub"))));
+    }
+
+    private Set<Path> waitForChanges()
+    {
+        return assertTimeoutPreemptively(TIMEOUT, () -> this.watcher.waitForChanges());
+    }
+}
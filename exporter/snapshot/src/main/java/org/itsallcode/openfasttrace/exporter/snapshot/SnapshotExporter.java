@@ -0,0 +1,78 @@
+package org.itsallcode.openfasttrace.exporter.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.exporter.Exporter;
+import org.itsallcode.openfasttrace.api.exporter.ExporterException;
+
+/**
+ * An {@link Exporter} that writes a binary snapshot of the items, which the
+ * snapshot importer can read much faster than the original sources.
+ */
+class SnapshotExporter implements Exporter
+{
+    private final Stream<SpecificationItem> itemStream;
+    private final OutputStream output;
+    private final boolean compress;
+
+    SnapshotExporter(final Stream<SpecificationItem> itemStream, final OutputStream output,
+            final boolean compress)
+    {
+        this.itemStream = itemStream;
+        this.output = output;
+        this.compress = compress;
+    }
+
+    @Override
+    public void runExport()
+    {
+        try (OutputStream stream = this.output)
+        {
+            final SnapshotWriter writer = new SnapshotWriter(stream, this.compress);
+            this.itemStream.forEachOrdered(item -> write(writer, item));
+            writer.finish();
+        }
+        catch (final IOException | UncheckedIOException e)
+        {
+            throw new ExporterException("Error exporting snapshot", e);
+        }
+    }
+
+    private static void write(final SnapshotWriter writer, final SpecificationItem item)
+    {
+        try
+        {
+            writer.write(item);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.itsallcode.openfasttrace.exporter.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.itsallcode.openfasttrace.api.core.Newline;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.exporter.Exporter;
+import org.itsallcode.openfasttrace.api.exporter.ExporterException;
+import org.itsallcode.openfasttrace.api.exporter.ExporterFactory;
+
+/**
+ * {@link ExporterFactory} for creating {@link Exporter}s that write binary
+ * snapshots.
+ * 
+ * <p>
+ * Format {@value #SUPPORTED_FORMAT} writes compressed blocks, format
+ * {@value #UNCOMPRESSED_FORMAT} writes them uncompressed. Snapshots are binary,
+ * so the charset and newline settings do not apply.
+ * </p>
+ */
+public class SnapshotExporterFactory extends ExporterFactory
+{
+    public static final String SUPPORTED_FORMAT = "snapshot";
+    public static final String UNCOMPRESSED_FORMAT = "snapshot-uncompressed";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public SnapshotExporterFactory()
+    {
+        super(SUPPORTED_FORMAT);
+    }
+
+    @Override
+    public boolean supportsFormat(final String format)
+    {
+        return super.supportsFormat(format) || UNCOMPRESSED_FORMAT.equals(format);
+    }
+
+    @Override
+    public Exporter createExporter(final Path file, final String format, final Charset charset,
+            final Newline newline, final Stream<SpecificationItem> itemStream)
+    {
+        if (!supportsFormat(format))
+        {
+            throw new ExporterException("Output format '" + format + "' not supported for export");
+        }
+        return new SnapshotExporter(itemStream, createOutputStream(file),
+                SUPPORTED_FORMAT.equals(format));
+    }
+
+    private static OutputStream createOutputStream(final Path file)
+    {
+        if (file == null)
+        {
+            return new BufferedOutputStream(getStdOutStream(), BUFFER_SIZE);
+        }
+        try
+        {
+            return new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+        }
+        catch (final IOException e)
+        {
+            throw new ExporterException("Error creating output stream for file " + file, e);
+        }
+    }
+
+    // Using System.out by intention
+    @SuppressWarnings("squid:S106")
+    private static PrintStream getStdOutStream()
+    {
+        return System.out;
+    }
+
+    @Override
+    protected Exporter createExporter(final Writer writer,
+            final Stream<SpecificationItem> itemStream, final Newline newline)
+    {
+        throw new UnsupportedOperationException("Snapshots are binary and cannot be written to a "
+                + Writer.class.getSimpleName());
+    }
+}
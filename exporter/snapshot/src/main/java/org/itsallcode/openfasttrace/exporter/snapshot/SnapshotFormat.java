@@ -0,0 +1,67 @@
+package org.itsallcode.openfasttrace.exporter.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Constants of the binary snapshot format.
+ * 
+ * <p>
+ * A snapshot starts with a header containing {@link #MAGIC}, the
+ * {@link #VERSION} and the flags. The items follow in blocks of up to
+ * {@link #ITEMS_PER_BLOCK} items. Each block starts with the number of items
+ * and the length of its payload as variable-length integers. The payload holds
+ * the items in the shared
+ * {@link org.itsallcode.openfasttrace.api.core.SpecificationItemEncoder item
+ * encoding} and is compressed with a {@link java.util.zip.Deflater} if the
+ * {@link #FLAG_DEFLATE} flag is set.
+ * </p>
+ * <p>
+ * After the blocks follows the
+ * {@link org.itsallcode.openfasttrace.api.core.StringDictionary string
+ * dictionary} with the artifact types, names, paths, tags and needed artifact
+ * types of all items. Items refer to these strings by their index. Then comes the index block with the number of
+ * items and the file offset of each block. The snapshot ends with a footer of
+ * fixed size holding the offsets of the dictionary and of the index, so that
+ * a reader can access any block directly.
+ * </p>
+ * <p>
+ * The importer in module <code>importer/snapshot</code> reads this format and
+ * must be kept in sync with these constants.
+ * </p>
+ */
+final class SnapshotFormat
+{
+    /** Magic number at the start and at the end of a snapshot: "OFTS" */
+    static final int MAGIC = 0x4F465453;
+    /** Version of the format */
+    static final byte VERSION = 3;
+    /** Flag for blocks and dictionary compressed with a Deflater */
+    static final byte FLAG_DEFLATE = 1;
+    /** Maximum number of items in a block */
+    static final int ITEMS_PER_BLOCK = 1024;
+
+    private SnapshotFormat()
+    {
+        // not instantiable
+    }
+}
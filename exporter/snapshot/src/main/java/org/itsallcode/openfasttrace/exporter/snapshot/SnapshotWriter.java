@@ -0,0 +1,180 @@
+package org.itsallcode.openfasttrace.exporter.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Writes {@link SpecificationItem}s in the binary snapshot format described
+ * in {@link SnapshotFormat}.
+ * 
+ * <p>
+ * Items are buffered until a block is complete, so that the writer holds at
+ * most {@link SnapshotFormat#ITEMS_PER_BLOCK} encoded items and the string
+ * dictionary in memory.
+ * </p>
+ */
+class SnapshotWriter
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream output;
+    private final boolean compress;
+    private final StringDictionary dictionary = new StringDictionary();
+    private final List<long[]> blocks = new ArrayList<>();
+    private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final SpecificationItemEncoder encoder = new SpecificationItemEncoder(
+            new DataOutputStream(this.blockBuffer), this.dictionary);
+    private int blockItemCount = 0;
+    private long position = 0;
+
+    /**
+     * Create a new {@link SnapshotWriter} and write the header
+     * 
+     * @param output
+     *            stream to which the snapshot is written
+     * @param compress
+     *            <code>true</code> if blocks are compressed
+     * @throws IOException
+     *             if writing the header fails
+     */
+    SnapshotWriter(final OutputStream output, final boolean compress) throws IOException
+    {
+        this.output = output;
+        this.compress = compress;
+        final DataOutputStream header = new DataOutputStream(output);
+        header.writeInt(SnapshotFormat.MAGIC);
+        header.writeByte(SnapshotFormat.VERSION);
+        header.writeByte(compress ? SnapshotFormat.FLAG_DEFLATE : 0);
+        this.position += Integer.BYTES + 2;
+    }
+
+    /**
+     * Append an item to the snapshot
+     * 
+     * @param item
+     *            the item to append
+     * @throws IOException
+     *             if writing fails
+     */
+    void write(final SpecificationItem item) throws IOException
+    {
+        this.encoder.write(item);
+        if (++this.blockItemCount == SnapshotFormat.ITEMS_PER_BLOCK)
+        {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException
+    {
+        if (this.blockItemCount == 0)
+        {
+            return;
+        }
+        this.blocks.add(new long[] { this.position, this.blockItemCount });
+        writeSection(this.blockItemCount, this.blockBuffer.toByteArray());
+        this.blockBuffer.reset();
+        this.blockItemCount = 0;
+    }
+
+    private void writeSection(final int count, final byte[] payload) throws IOException
+    {
+        final byte[] data = this.compress ? deflate(payload) : payload;
+        final ByteArrayOutputStream sectionHeader = new ByteArrayOutputStream(10);
+        final DataOutputStream header = new DataOutputStream(sectionHeader);
+        writeNumber(header, count);
+        writeNumber(header, data.length);
+        sectionHeader.writeTo(this.output);
+        this.output.write(data);
+        this.position += sectionHeader.size() + data.length;
+    }
+
+    private static byte[] deflate(final byte[] payload) throws IOException
+    {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try
+        {
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(
+                    payload.length / 2);
+            try (DeflaterOutputStream stream = new DeflaterOutputStream(compressed, deflater))
+            {
+                stream.write(payload);
+            }
+            return compressed.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Write the last block, the dictionary, the index and the footer
+     * 
+     * @throws IOException
+     *             if writing fails
+     */
+    void finish() throws IOException
+    {
+        flushBlock();
+        final long dictionaryOffset = this.position;
+        writeSection(this.dictionary.size(), encodeDictionary());
+        final long indexOffset = this.position;
+        final DataOutputStream index = new DataOutputStream(this.output);
+        writeNumber(index, this.blocks.size());
+        for (final long[] entry : this.blocks)
+        {
+            writeNumber(index, (int) entry[1]);
+            index.writeLong(entry[0]);
+        }
+        index.writeLong(dictionaryOffset);
+        index.writeLong(indexOffset);
+        index.writeInt(SnapshotFormat.MAGIC);
+        index.flush();
+    }
+
+    private byte[] encodeDictionary() throws IOException
+    {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+        this.dictionary.writeEntries(new DataOutputStream(buffer));
+        return buffer.toByteArray();
+    }
+
+    private static void writeNumber(final DataOutput output, final int value) throws IOException
+    {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0)
+        {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+}
@@ -0,0 +1,71 @@
+package org.itsallcode.openfasttrace.exporter.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringWriter;
+import java.util.stream.Stream;
+
+import org.itsallcode.openfasttrace.api.core.Newline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestSnapshotExporterFactory
+{
+    private SnapshotExporterFactory factory;
+
+    @BeforeEach
+    void setUp()
+    {
+        this.factory = new SnapshotExporterFactory();
+    }
+
+    @Test
+    void testSupportsCompressedFormat()
+    {
+        assertThat(this.factory.supportsFormat("snapshot"), equalTo(true));
+    }
+
+    @Test
+    void testSupportsUncompressedFormat()
+    {
+        assertThat(this.factory.supportsFormat("snapshot-uncompressed"), equalTo(true));
+    }
+
+    @Test
+    void testDoesNotSupportOtherFormats()
+    {
+        assertThat(this.factory.supportsFormat("specobject"), equalTo(false));
+    }
+
+    @Test
+    void testCreateExporterForWriterNotSupported()
+    {
+        final StringWriter writer = new StringWriter();
+        assertThrows(UnsupportedOperationException.class,
+                () -> this.factory.createExporter(writer, Stream.empty(), Newline.UNIX));
+    }
+}
@@ -22,15 +22,11 @@ package org.itsallcode.openfasttrace.exporter.specobject;
  * #L%
  */
 
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toList;
-
 import java.io.IOException;
 import java.io.Writer;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.stream.Stream;
@@ -44,6 +40,14 @@ import org.itsallcode.openfasttrace.api.exporter.ExporterException;
 
 /**
  * An {@link Exporter} for the specobject XML format.
+ * 
+ * <p>
+ * The items are grouped by doctype in the order in which the doctypes first
+ * occur. Items of the first doctype are written as soon as they arrive, items
+ * of all other doctypes are spilled to temporary files and appended after the
+ * first group. This way the exporter never holds more than a single item in
+ * memory.
+ * </p>
  */
 class SpecobjectExporter implements Exporter
 {
@@ -51,25 +55,21 @@ class SpecobjectExporter implements Exporter
 
     private final XMLStreamWriter writer;
     private final Writer originalWriter;
-    private final Map<String, List<SpecificationItem>> items;
+    private final Stream<SpecificationItem> itemStream;
     private final Newline newline;
+    private final Map<String, SpilledItemGroup> spilledGroups = new LinkedHashMap<>();
+    private String firstDoctype = null;
+    private int firstDoctypeItemCount = 0;
 
     public SpecobjectExporter(final Stream<SpecificationItem> itemStream,
             final XMLStreamWriter xmlWriter, final Writer originalWriter, final Newline newline)
     {
         this.newline = newline;
-        this.items = groupByDoctype(itemStream);
+        this.itemStream = itemStream;
         this.writer = xmlWriter;
         this.originalWriter = originalWriter;
     }
 
-    private Map<String, List<SpecificationItem>> groupByDoctype(
-            final Stream<SpecificationItem> itemStream)
-    {
-        return itemStream.collect(
-                groupingBy(SpecificationItem::getArtifactType, LinkedHashMap::new, toList()));
-    }
-
     @Override
     // [impl->dsn~conversion.reqm2-export~1]
     public void runExport()
@@ -106,28 +106,70 @@ class SpecobjectExporter implements Exporter
     {
         this.writer.writeStartDocument("UTF-8", "1.0");
         this.writer.writeStartElement("specdocument");
-
-        for (final Entry<String, List<SpecificationItem>> entry : this.items.entrySet())
+        try
         {
-            final String doctype = entry.getKey();
-            final List<SpecificationItem> specItems = entry.getValue();
-            writeItems(doctype, specItems);
+            this.itemStream.forEachOrdered(this::exportItem);
+            if (this.firstDoctype != null)
+            {
+                this.writer.writeEndElement();
+                LOG.finest(() -> "Wrote " + this.firstDoctypeItemCount + " items with doctype "
+                        + this.firstDoctype);
+            }
+            for (final SpilledItemGroup group : this.spilledGroups.values())
+            {
+                writeSpilledItems(group);
+            }
+        }
+        finally
+        {
+            this.spilledGroups.values().forEach(SpilledItemGroup::close);
         }
-
         this.writer.writeEndElement();
         this.writer.writeEndDocument();
     }
 
-    private void writeItems(final String doctype, final List<SpecificationItem> specItems)
-            throws XMLStreamException
+    private void exportItem(final SpecificationItem item)
     {
-        LOG.finest(() -> "Writing " + specItems.size() + " items with doctype " + doctype);
-        this.writer.writeStartElement("specobjects");
-        this.writer.writeAttribute("doctype", doctype);
-        for (final SpecificationItem item : specItems)
+        final String doctype = item.getArtifactType();
+        if (this.firstDoctype == null)
+        {
+            this.firstDoctype = doctype;
+            writeUnchecked(() -> writeStartSpecobjects(doctype));
+        }
+        if (this.firstDoctype.equals(doctype))
+        {
+            writeUnchecked(() -> writeItem(item));
+            ++this.firstDoctypeItemCount;
+        }
+        else
         {
-            writeItem(item);
+            this.spilledGroups.computeIfAbsent(doctype, SpilledItemGroup::create).add(item);
         }
+    }
+
+    private static void writeUnchecked(final XmlWriteAction action)
+    {
+        try
+        {
+            action.run();
+        }
+        catch (final XMLStreamException e)
+        {
+            throw new ExporterException("Error exporting to specobject format", e);
+        }
+    }
+
+    private void writeStartSpecobjects(final String doctype) throws XMLStreamException
+    {
+        this.writer.writeStartElement("specobjects");
+        this.writer.writeAttribute("doctype", doctype);
+    }
+
+    private void writeSpilledItems(final SpilledItemGroup group) throws XMLStreamException
+    {
+        LOG.finest(() -> "Writing " + group.size() + " items with doctype " + group.getDoctype());
+        writeStartSpecobjects(group.getDoctype());
+        group.forEach(this::writeItem);
         this.writer.writeEndElement();
     }
 
@@ -257,4 +299,10 @@ class SpecobjectExporter implements Exporter
             writeElement("sourceline", location.getLine());
         }
     }
+
+    @FunctionalInterface
+    private interface XmlWriteAction
+    {
+        void run() throws XMLStreamException;
+    }
 }
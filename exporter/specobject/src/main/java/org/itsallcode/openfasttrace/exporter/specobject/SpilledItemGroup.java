@@ -0,0 +1,213 @@
+package org.itsallcode.openfasttrace.exporter.specobject;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.exporter.ExporterException;
+
+/**
+ * Temporary file holding the items of one doctype until the exporter writes
+ * them to the output.
+ * 
+ * <p>
+ * Items are stored in the shared {@link SpecificationItemEncoder item encoding}
+ * with all strings inline and read back one at a time, so that only a single
+ * item of the group is in memory while writing. The file is deleted when the
+ * group is closed.
+ * </p>
+ */
+class SpilledItemGroup implements Closeable
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String doctype;
+    private final Path file;
+    private DataOutputStream output;
+    private SpecificationItemEncoder encoder;
+    private int itemCount = 0;
+
+    private SpilledItemGroup(final String doctype, final Path file, final DataOutputStream output)
+    {
+        this.doctype = doctype;
+        this.file = file;
+        this.output = output;
+        this.encoder = SpecificationItemEncoder.inline(output);
+    }
+
+    /**
+     * Create a new group backed by a temporary file
+     * 
+     * @param doctype
+     *            doctype of the items in this group
+     * @return the new group
+     */
+    static SpilledItemGroup create(final String doctype)
+    {
+        try
+        {
+            final Path file = Files.createTempFile("oft-export-", ".tmp");
+            final DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+            return new SpilledItemGroup(doctype, file, output);
+        }
+        catch (final IOException e)
+        {
+            throw new ExporterException("Error creating temporary file for doctype " + doctype,
+                    e);
+        }
+    }
+
+    /**
+     * Get the doctype of the items in this group
+     * 
+     * @return the doctype
+     */
+    String getDoctype()
+    {
+        return this.doctype;
+    }
+
+    /**
+     * Get the temporary file backing this group
+     * 
+     * @return the temporary file
+     */
+    Path getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Get the number of items in this group
+     * 
+     * @return the number of items
+     */
+    int size()
+    {
+        return this.itemCount;
+    }
+
+    /**
+     * Append an item to the temporary file
+     * 
+     * @param item
+     *            the item to append
+     */
+    void add(final SpecificationItem item)
+    {
+        try
+        {
+            this.encoder.write(item);
+            ++this.itemCount;
+        }
+        catch (final IOException e)
+        {
+            throw new ExporterException("Error writing item " + item.getId() + " to "
+                    + this.file, e);
+        }
+    }
+
+    /**
+     * Read the items back in the order in which they were added
+     * 
+     * @param consumer
+     *            consumer for the items
+     * @throws E
+     *             if the consumer fails
+     * @param <E>
+     *            type of the exception thrown by the consumer
+     */
+    <E extends Exception> void forEach(final ItemConsumer<E> consumer) throws E
+    {
+        finishWriting();
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(this.file), BUFFER_SIZE)))
+        {
+            final SpecificationItemDecoder decoder = SpecificationItemDecoder.inline(input);
+            for (int i = 0; i < this.itemCount; ++i)
+            {
+                consumer.accept(decoder.read());
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new ExporterException("Error reading items from " + this.file, e);
+        }
+    }
+
+    private void finishWriting()
+    {
+        if (this.output != null)
+        {
+            try
+            {
+                this.output.close();
+                this.output = null;
+                this.encoder = null;
+            }
+            catch (final IOException e)
+            {
+                throw new ExporterException("Error writing " + this.file, e);
+            }
+        }
+    }
+
+    /**
+     * Delete the temporary file
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            finishWriting();
+        }
+        finally
+        {
+            try
+            {
+                Files.deleteIfExists(this.file);
+            }
+            catch (final IOException e)
+            {
+                throw new ExporterException("Error deleting temporary file " + this.file, e);
+            }
+        }
+    }
+
+    /**
+     * Consumer for items read back from a {@link SpilledItemGroup}
+     * 
+     * @param <E>
+     *            type of the exception thrown by the consumer
+     */
+    @FunctionalInterface
+    interface ItemConsumer<E extends Exception>
+    {
+        void accept(SpecificationItem item) throws E;
+    }
+}
@@ -159,6 +159,61 @@ class TestSpecobjectExporter
         assertThat(actual, matchesAllLines(expected));
     }
 
+    @Test
+    void testExportGroupsInterleavedDoctypes() throws IOException, XMLStreamException
+    {
+        final SpecificationItem itemA = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("foo", "a", 1)) //
+                .build();
+        final SpecificationItem itemB = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("baz", "b", 1)) //
+                .description("spilled \u00e4") //
+                .build();
+        final SpecificationItem itemC = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("foo", "c", 2)) //
+                .build();
+        final SpecificationItem itemD = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("baz", "d", 1)) //
+                .addCoveredId("foo", "a", 1) //
+                .build();
+        final String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+                + "<specdocument>\n" //
+                + " <specobjects doctype=\"foo\">\n" //
+                + "  <specobject>\n" //
+                + "   <id>a</id>\n" //
+                + "   <status>approved</status>\n" //
+                + "   <version>1</version>\n" //
+                + "  </specobject>\n" //
+                + "  <specobject>\n" //
+                + "   <id>c</id>\n" //
+                + "   <status>approved</status>\n" //
+                + "   <version>2</version>\n" //
+                + "  </specobject>\n" //
+                + " </specobjects>\n" //
+                + " <specobjects doctype=\"baz\">\n" //
+                + "  <specobject>\n" //
+                + "   <id>b</id>\n" //
+                + "   <status>approved</status>\n" //
+                + "   <version>1</version>\n" //
+                + "   <description>spilled \u00e4</description>\n" //
+                + "  </specobject>\n" //
+                + "  <specobject>\n" //
+                + "   <id>d</id>\n" //
+                + "   <status>approved</status>\n" //
+                + "   <version>1</version>\n" //
+                + "   <providescoverage>\n" //
+                + "    <provcov>\n" //
+                + "     <linksto>foo:a</linksto>\n" //
+                + "     <dstversion>1</dstversion>\n" //
+                + "    </provcov>\n" //
+                + "   </providescoverage>\n" //
+                + "  </specobject>\n" //
+                + " </specobjects>\n" //
+                + "</specdocument>\n";
+        final String actual = exportToString(itemA, itemB, itemC, itemD);
+        assertThat(actual, matchesAllLines(expected));
+    }
+
     @Test
     void testExportClosesWriters() throws XMLStreamException, IOException
     {
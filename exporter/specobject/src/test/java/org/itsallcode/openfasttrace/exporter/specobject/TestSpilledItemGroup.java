@@ -0,0 +1,82 @@
+package org.itsallcode.openfasttrace.exporter.specobject;
+
+/*-
+ * #%L
+ \* OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2017 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.junit.jupiter.api.Test;
+
+class TestSpilledItemGroup
+{
+    @Test
+    void testReadBackItemsInOrder()
+    {
+        final SpecificationItem full = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "full", 2)) //
+                .title("title") //
+                .status(ItemStatus.DRAFT) //
+                .description("line 1\nline 2 \u00e4") //
+                .rationale("rationale") //
+                .comment("comment") //
+                .addCoveredId("feat", "covered", 1) //
+                .addDependOnId("req", "depend-on", 3) //
+                .addNeedsArtifactType("impl") //
+                .addTag("tag") //
+                .location("/the/file", 42) //
+                .forwards(true) //
+                .build();
+        final SpecificationItem minimal = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "minimal", 1)) //
+                .build();
+        final List<SpecificationItem> readItems = new ArrayList<>();
+        try (SpilledItemGroup group = SpilledItemGroup.create("req"))
+        {
+            group.add(full);
+            group.add(minimal);
+            group.forEach(readItems::add);
+            assertThat(group.getDoctype(), equalTo("req"));
+            assertThat(group.size(), equalTo(2));
+        }
+        assertThat(readItems, contains(full, minimal));
+        assertThat(readItems.get(0).getLocation(), equalTo(full.getLocation()));
+        assertThat(readItems.get(0).isForwarding(), equalTo(true));
+    }
+
+    @Test
+    void testCloseDeletesTemporaryFile()
+    {
+        final SpilledItemGroup group = SpilledItemGroup.create("req");
+        final Path file = group.getFile();
+        assertThat(Files.exists(file), equalTo(true));
+        group.close();
+        assertThat(Files.exists(file), equalTo(false));
+    }
+}
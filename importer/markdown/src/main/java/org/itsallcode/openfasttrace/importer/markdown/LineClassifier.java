@@ -0,0 +1,194 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Lexer that determines the {@link LineFeature}s of a line once, before the
+ * {@link MarkdownImporterStateMachine} looks for a matching transition.
+ * 
+ * The features are necessary conditions for the {@link MdPattern}s. They are
+ * checked character by character without regular expressions and use the same
+ * character classes as the patterns.
+ */
+final class LineClassifier
+{
+    private static final int MAX_BULLET_INDENTATION = 3;
+    private static final LineFeature[] KEYWORDS = { LineFeature.COMMENT_KEYWORD,
+            LineFeature.COVERS_KEYWORD, LineFeature.DEPENDS_KEYWORD,
+            LineFeature.DESCRIPTION_KEYWORD, LineFeature.NEEDS_KEYWORD,
+            LineFeature.RATIONALE_KEYWORD, LineFeature.STATUS_KEYWORD,
+            LineFeature.TAGS_KEYWORD };
+
+    private LineClassifier()
+    {
+        // not instantiable
+    }
+
+    /**
+     * Classify a line
+     * 
+     * @param line
+     *            the line to classify
+     * @return bit set of the {@link LineFeature#getMask() masks} of all
+     *         features the line has
+     */
+    static int classify(final String line)
+    {
+        int features = classifyCharacters(line);
+        if (line.isEmpty())
+        {
+            return features;
+        }
+        if (line.charAt(0) == '#')
+        {
+            features |= LineFeature.HEADING.getMask();
+        }
+        if (findBullet(line) >= 0)
+        {
+            features |= LineFeature.BULLET.getMask();
+        }
+        if (isIdStart(line))
+        {
+            features |= LineFeature.ID.getMask();
+        }
+        if (line.contains(MarkdownForwardingSpecificationItem.FORWARD_MARKER))
+        {
+            features |= LineFeature.FORWARD.getMask();
+        }
+        for (final LineFeature keyword : KEYWORDS)
+        {
+            if (line.startsWith(keyword.getKeyword()))
+            {
+                features |= keyword.getMask();
+                break;
+            }
+        }
+        return features;
+    }
+
+    private static int classifyCharacters(final String line)
+    {
+        boolean lineFeedOrCarriageReturn = false;
+        boolean lineTerminator = false;
+        for (int index = 0; index < line.length(); ++index)
+        {
+            final char character = line.charAt(index);
+            if (character == '\n' || character == '\r')
+            {
+                lineFeedOrCarriageReturn = true;
+                lineTerminator = true;
+            }
+            else if (character >= '\u0085' && (character == '\u0085' || character == '\u2028'
+                    || character == '\u2029'))
+            {
+                lineTerminator = true;
+            }
+        }
+        int features = 0;
+        if (isBlank(line))
+        {
+            features |= LineFeature.BLANK.getMask();
+        }
+        if (!lineTerminator)
+        {
+            features |= LineFeature.SINGLE_LINE.getMask();
+        }
+        if (!line.isEmpty() && !lineFeedOrCarriageReturn)
+        {
+            features |= LineFeature.NOT_EMPTY.getMask();
+        }
+        return features;
+    }
+
+    private static boolean isBlank(final String line)
+    {
+        for (int index = 0; index < line.length(); ++index)
+        {
+            if (!isWhitespace(line.charAt(index)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the bullet of a list entry that is indented by at most three
+     * whitespaces
+     * 
+     * @param line
+     *            the line to search
+     * @return position of the bullet or <code>-1</code> if the line does not
+     *         start with a bullet
+     */
+    static int findBullet(final String line)
+    {
+        int position = 0;
+        while (position < MAX_BULLET_INDENTATION && position < line.length()
+                && isWhitespace(line.charAt(position)))
+        {
+            ++position;
+        }
+        if (position == line.length())
+        {
+            return -1;
+        }
+        final char character = line.charAt(position);
+        return (character == '+' || character == '*' || character == '-') ? position : -1;
+    }
+
+    private static boolean isIdStart(final String line)
+    {
+        final int start = (line.charAt(0) == '`') ? 1 : 0;
+        int position = start;
+        while (position < line.length() && isLetter(line.charAt(position)))
+        {
+            ++position;
+        }
+        if (position == start || position + 1 >= line.length())
+        {
+            return false;
+        }
+        final char separator = line.charAt(position);
+        return separator == '~' || (separator == ':' && isLetter(line.charAt(position + 1)));
+    }
+
+    // Same as \s without the UNICODE_CHARACTER_CLASS flag
+    static boolean isWhitespace(final char character)
+    {
+        return character == ' ' || character == '\t' || character == '\n'
+                || character == '\u000B' || character == '\f' || character == '\r';
+    }
+
+    // Same as \p{Alpha} without the UNICODE_CHARACTER_CLASS flag
+    static boolean isLetter(final char character)
+    {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+    }
+
+    // Same as \w without the UNICODE_CHARACTER_CLASS flag
+    static boolean isWordCharacter(final char character)
+    {
+        return isLetter(character) || (character >= '0' && character <= '9') || character == '_';
+    }
+}
@@ -0,0 +1,104 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Features of a line that the {@link LineClassifier} recognizes in a single
+ * pass. Each {@link MdPattern} can only match lines with its feature, so the
+ * state machine skips all patterns whose feature the line lacks.
+ */
+enum LineFeature
+{
+    /** Line contains only whitespace or is empty */
+    BLANK,
+    /** Line contains no line terminator characters */
+    SINGLE_LINE,
+    /** Line is not empty and contains no line feed or carriage return */
+    NOT_EMPTY,
+    /** Line starts with a hash */
+    HEADING,
+    /** Line starts with a bullet indented by at most three whitespaces */
+    BULLET,
+    /**
+     * Line starts with letters followed by an artifact type separator or by a
+     * colon and a letter, optionally preceded by a backtick
+     */
+    ID,
+    /** Line contains a forward marker */
+    FORWARD,
+    COMMENT_KEYWORD("Comment:"),
+    COVERS_KEYWORD("Covers:"),
+    DEPENDS_KEYWORD("Depends:"),
+    DESCRIPTION_KEYWORD("Description:"),
+    NEEDS_KEYWORD("Needs:"),
+    RATIONALE_KEYWORD("Rationale:"),
+    STATUS_KEYWORD("Status:"),
+    TAGS_KEYWORD("Tags:");
+
+    private final String keyword;
+    private final int mask;
+
+    LineFeature()
+    {
+        this(null);
+    }
+
+    LineFeature(final String keyword)
+    {
+        this.keyword = keyword;
+        this.mask = 1 << ordinal();
+    }
+
+    /**
+     * Get the keyword a line with this feature starts with
+     * 
+     * @return keyword or <code>null</code> if this is not a keyword feature
+     */
+    String getKeyword()
+    {
+        return this.keyword;
+    }
+
+    /**
+     * Get the bit that represents this feature in the result of
+     * {@link LineClassifier#classify(String)}
+     * 
+     * @return bit mask
+     */
+    int getMask()
+    {
+        return this.mask;
+    }
+
+    /**
+     * Check if a classified line has this feature
+     * 
+     * @param features
+     *            features of the line
+     * @return <code>true</code> if the line has this feature
+     */
+    boolean isIn(final int features)
+    {
+        return (features & this.mask) != 0;
+    }
+}
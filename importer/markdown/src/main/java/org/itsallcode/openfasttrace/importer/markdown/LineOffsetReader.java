@@ -0,0 +1,226 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads lines exactly like {@link java.io.BufferedReader#readLine()} and keeps
+ * track of the byte offsets of each line in the file the characters were
+ * decoded from.
+ * 
+ * The offsets are calculated from the encoded length of the characters. This
+ * is only possible for charsets in which each character has a fixed encoding,
+ * see {@link #supports(Charset)}.
+ */
+final class LineOffsetReader
+{
+    private static final int BUFFER_SIZE = 8192;
+    private final Reader reader;
+    private final boolean singleByteCharset;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private boolean skipLineFeed = false;
+    private long offset = 0;
+    private long lineStart = 0;
+    private long lineEnd = 0;
+
+    /**
+     * Create a new {@link LineOffsetReader}
+     * 
+     * @param reader
+     *            reader that decodes the file
+     * @param charset
+     *            charset the reader uses, must be supported
+     */
+    LineOffsetReader(final Reader reader, final Charset charset)
+    {
+        if (!supports(charset))
+        {
+            throw new IllegalArgumentException(
+                    "Byte offsets cannot be tracked for charset " + charset);
+        }
+        this.reader = reader;
+        this.singleByteCharset = !StandardCharsets.UTF_8.equals(charset);
+    }
+
+    /**
+     * Check if byte offsets can be tracked for a charset
+     * 
+     * @param charset
+     *            the charset to check
+     * @return <code>true</code> for UTF-8, US-ASCII and ISO-8859-1
+     */
+    static boolean supports(final Charset charset)
+    {
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /**
+     * Read the next line
+     * 
+     * @return the line without line terminator or <code>null</code> at the
+     *         end of the file
+     * @throws IOException
+     *             if reading fails
+     */
+    String readLine() throws IOException
+    {
+        if (!skipPendingLineFeed())
+        {
+            return null;
+        }
+        this.lineStart = this.offset;
+        StringBuilder longLine = null;
+        while (true)
+        {
+            final int start = this.position;
+            final int end = findLineTerminator(start);
+            this.offset += countBytes(start, end);
+            this.position = end;
+            if (end < this.limit)
+            {
+                this.lineEnd = this.offset;
+                this.skipLineFeed = (this.buffer[end] == '\r');
+                ++this.position;
+                ++this.offset;
+                return (longLine == null) ? new String(this.buffer, start, end - start)
+                        : longLine.append(this.buffer, start, end - start).toString();
+            }
+            if (longLine == null)
+            {
+                longLine = new StringBuilder(2 * (end - start));
+            }
+            longLine.append(this.buffer, start, end - start);
+            if (!fill())
+            {
+                this.lineEnd = this.offset;
+                return longLine.toString();
+            }
+        }
+    }
+
+    /**
+     * Get the byte offset of the first character of the last line read
+     * 
+     * @return start offset of the line
+     */
+    long getLineStart()
+    {
+        return this.lineStart;
+    }
+
+    /**
+     * Get the byte offset after the last character of the last line read,
+     * i.e. the offset of its line terminator
+     * 
+     * @return end offset of the line
+     */
+    long getLineEnd()
+    {
+        return this.lineEnd;
+    }
+
+    private boolean skipPendingLineFeed() throws IOException
+    {
+        if (this.position >= this.limit && !fill())
+        {
+            return false;
+        }
+        if (this.skipLineFeed)
+        {
+            this.skipLineFeed = false;
+            if (this.buffer[this.position] == '\n')
+            {
+                ++this.position;
+                ++this.offset;
+                return (this.position < this.limit) || fill();
+            }
+        }
+        return true;
+    }
+
+    private int findLineTerminator(final int start)
+    {
+        for (int i = start; i < this.limit; ++i)
+        {
+            final char character = this.buffer[i];
+            if (character == '\n' || character == '\r')
+            {
+                return i;
+            }
+        }
+        return this.limit;
+    }
+
+    private long countBytes(final int start, final int end)
+    {
+        if (this.singleByteCharset)
+        {
+            return end - start;
+        }
+        long count = 0;
+        for (int i = start; i < end; ++i)
+        {
+            final char character = this.buffer[i];
+            if (character < 0x80)
+            {
+                ++count;
+            }
+            else if (character < 0x800 || Character.isSurrogate(character))
+            {
+                count += 2;
+            }
+            else
+            {
+                count += 3;
+            }
+        }
+        return count;
+    }
+
+    private boolean fill() throws IOException
+    {
+        int read;
+        do
+        {
+            read = this.reader.read(this.buffer, 0, this.buffer.length);
+        }
+        while (read == 0);
+        if (read < 0)
+        {
+            this.position = 0;
+            this.limit = 0;
+            return false;
+        }
+        this.position = 0;
+        this.limit = read;
+        return true;
+    }
+}
@@ -26,10 +26,15 @@ import static org.itsallcode.openfasttrace.importer.markdown.State.*;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import org.itsallcode.openfasttrace.api.core.ItemStatus;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.itsallcode.openfasttrace.api.core.TextRange;
 import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
 import org.itsallcode.openfasttrace.api.importer.Importer;
 import org.itsallcode.openfasttrace.api.importer.ImporterException;
@@ -163,18 +168,44 @@ class MarkdownImporter implements Importer
 
     private final InputFile file;
     private final ImportEventListener listener;
+    private final TextRange.Source textSource;
+    private final Set<ItemTextField> requiredTextFields;
     private final MarkdownImporterStateMachine stateMachine;
     private String lastTitle = null;
     private boolean inSpecificationItem;
-    private StringBuilder lastDescription;
-    private StringBuilder lastRationale;
-    private StringBuilder lastComment;
+    private TextBlock lastDescription;
+    private TextBlock lastRationale;
+    private TextBlock lastComment;
+    private LineOffsetReader lineReader;
     private int lineNumber = 0;
 
     MarkdownImporter(final InputFile fileName, final ImportEventListener listener)
+    {
+        this(fileName, listener, null, EnumSet.allOf(ItemTextField.class));
+    }
+
+    /**
+     * Create a new {@link MarkdownImporter}
+     * 
+     * @param fileName
+     *            the file to import
+     * @param listener
+     *            listener that receives the import events
+     * @param textSource
+     *            source for reading descriptions, rationales and comments
+     *            lazily or <code>null</code> to pass them to the listener as
+     *            strings
+     * @param requiredTextFields
+     *            text fields passed to the listener, all other texts are
+     *            skipped
+     */
+    MarkdownImporter(final InputFile fileName, final ImportEventListener listener,
+            final TextRange.Source textSource, final Set<ItemTextField> requiredTextFields)
     {
         this.file = fileName;
         this.listener = listener;
+        this.textSource = textSource;
+        this.requiredTextFields = requiredTextFields;
         this.stateMachine = new MarkdownImporterStateMachine(this.transitions);
     }
 
@@ -186,7 +217,9 @@ class MarkdownImporter implements Importer
         this.lineNumber = 0;
         try (BufferedReader reader = this.file.createReader())
         {
-            while ((line = reader.readLine()) != null)
+            this.lineReader = new LineOffsetReader(reader, (this.textSource == null)
+                    ? StandardCharsets.UTF_8 : this.textSource.getCharset());
+            while ((line = this.lineReader.readLine()) != null)
             {
                 ++this.lineNumber;
                 this.stateMachine.step(line);
@@ -238,7 +271,7 @@ class MarkdownImporter implements Importer
         this.listener.beginSpecificationItem();
         this.listener.setId(id);
         this.listener.setLocation(this.file.getPath(), this.lineNumber);
-        if (this.lastTitle != null)
+        if ((this.lastTitle != null) && this.requiredTextFields.contains(ItemTextField.TITLE))
         {
             this.listener.setTitle(this.lastTitle);
         }
@@ -256,63 +289,77 @@ class MarkdownImporter implements Importer
         this.listener.setStatus(ItemStatus.parseString(this.stateMachine.getLastToken()));
     }
 
+    // The description either starts with the text of the current line or,
+    // after a "Description:" keyword, with the next line.
     private void beginDescription()
     {
-        this.lastDescription = new StringBuilder(this.stateMachine.getLastToken());
+        final boolean startsWithCurrentLine = !this.stateMachine.getLastToken().isEmpty();
+        this.lastDescription = startTextBlock(ItemTextField.DESCRIPTION,
+                startsWithCurrentLine ? this.lineReader.getLineStart()
+                        : this.lineReader.getLineEnd());
+        appendDescription();
     }
 
     private void appendDescription()
     {
-        this.lastDescription.append(System.lineSeparator())
-                .append(this.stateMachine.getLastToken());
+        appendLastToken(this.lastDescription);
     }
 
     private void endDescription()
     {
-        this.listener.appendDescription(this.lastDescription.toString().trim());
+        this.lastDescription.finish(this.listener::appendDescription,
+                this.listener::appendDescription);
         this.lastDescription = null;
     }
 
     private void beginRationale()
     {
-        this.lastRationale = new StringBuilder();
+        this.lastRationale = startTextBlockAfterCurrentLine(ItemTextField.RATIONALE);
     }
 
     private void appendRationale()
     {
-        if (this.lastRationale.length() > 0)
-        {
-            this.lastRationale.append(System.lineSeparator());
-        }
-        this.lastRationale.append(this.stateMachine.getLastToken());
+        appendLastToken(this.lastRationale);
     }
 
     private void endRationale()
     {
-        this.listener.appendRationale(this.lastRationale.toString().trim());
+        this.lastRationale.finish(this.listener::appendRationale, this.listener::appendRationale);
         this.lastRationale = null;
     }
 
     private void beginComment()
     {
-        this.lastComment = new StringBuilder();
+        this.lastComment = startTextBlockAfterCurrentLine(ItemTextField.COMMENT);
     }
 
     private void appendComment()
     {
-        if (this.lastComment.length() > 0)
-        {
-            this.lastComment.append(System.lineSeparator());
-        }
-        this.lastComment.append(this.stateMachine.getLastToken());
+        appendLastToken(this.lastComment);
     }
 
     private void endComment()
     {
-        this.listener.appendComment(this.lastComment.toString().trim());
+        this.lastComment.finish(this.listener::appendComment, this.listener::appendComment);
         this.lastComment = null;
     }
 
+    private TextBlock startTextBlockAfterCurrentLine(final ItemTextField field)
+    {
+        return startTextBlock(field, this.lineReader.getLineEnd());
+    }
+
+    private TextBlock startTextBlock(final ItemTextField field, final long start)
+    {
+        return this.requiredTextFields.contains(field) ? TextBlock.start(this.textSource, start)
+                : TextBlock.discard();
+    }
+
+    private void appendLastToken(final TextBlock textBlock)
+    {
+        textBlock.appendLine(this.stateMachine.getLastToken(), this.lineReader.getLineEnd());
+    }
+
     private void addDependency()
     {
         final SpecificationItemId.Builder builder = new SpecificationItemId.Builder(
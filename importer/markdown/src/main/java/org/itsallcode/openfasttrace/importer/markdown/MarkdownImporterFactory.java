@@ -22,22 +22,57 @@ package org.itsallcode.openfasttrace.importer.markdown;
  * #L%
  */
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
+import org.itsallcode.openfasttrace.api.core.TextRange;
 import org.itsallcode.openfasttrace.api.importer.*;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
 
 /**
  * {@link ImporterFactory} for Markdown files
  */
 public class MarkdownImporterFactory extends RegexMatchingImporterFactory
 {
+    private boolean lazyText = false;
+    private Set<ItemTextField> requiredTextFields = EnumSet.allOf(ItemTextField.class);
+
     public MarkdownImporterFactory()
     {
         super("(?i).*\\.markdown", "(?i).*\\.md");
     }
 
+    @Override
+    public void init(final ImporterContext context)
+    {
+        super.init(context);
+        final ImportSettings settings = context.getImportSettings();
+        this.lazyText = (settings != null) && settings.isLazyText();
+        if (settings != null)
+        {
+            this.requiredTextFields = settings.getRequiredTextFields();
+        }
+    }
+
     @Override
     public Importer createImporter(final InputFile fileName, final ImportEventListener listener)
     {
-        return new MarkdownImporter(fileName, listener);
+        return new MarkdownImporter(fileName, listener, createTextSource(fileName),
+                this.requiredTextFields);
+    }
+
+    private TextRange.Source createTextSource(final InputFile file)
+    {
+        if (this.lazyText && (file instanceof RealFileInput))
+        {
+            final RealFileInput realFile = (RealFileInput) file;
+            if (LineOffsetReader.supports(realFile.getCharset()))
+            {
+                return TextRange.Source.forFile(realFile.toPath(), realFile.getCharset());
+            }
+        }
+        return null;
     }
 }
@@ -24,6 +24,7 @@ import java.util.logging.Logger;
  * #L%
  */
 
+import java.util.Arrays;
 import java.util.regex.Matcher;
 
 /**
@@ -36,6 +37,12 @@ import java.util.regex.Matcher;
  * input. The machine checks the current state and the input on each step and
  * decides on resulting state and action depending on the configuration provided
  * in the transition table.
+ *
+ * The machine groups the transitions by their source state and classifies each
+ * line once with the {@link LineClassifier}. Patterns that require a
+ * {@link LineFeature} the line lacks are skipped. The remaining patterns are
+ * checked with their {@link TokenMatcher} if they have one, else with their
+ * regular expression. The first matching transition in table order wins.
  */
 public class MarkdownImporterStateMachine
 {
@@ -44,7 +51,7 @@ public class MarkdownImporterStateMachine
 
     private State state = State.START;
     private String lastToken = "";
-    private final Transition[] transitions;
+    private final Transition[][] transitionsByState;
 
     /**
      * Create a new instance of the {@link MarkdownImporterStateMachine}
@@ -55,7 +62,20 @@ public class MarkdownImporterStateMachine
      */
     public MarkdownImporterStateMachine(final Transition[] transitions)
     {
-        this.transitions = transitions;
+        this.transitionsByState = groupByState(transitions);
+    }
+
+    private static Transition[][] groupByState(final Transition[] transitions)
+    {
+        final State[] states = State.values();
+        final Transition[][] transitionsByState = new Transition[states.length][];
+        for (final State state : states)
+        {
+            transitionsByState[state.ordinal()] = Arrays.stream(transitions) //
+                    .filter(transition -> transition.getFrom() == state) //
+                    .toArray(Transition[]::new);
+        }
+        return transitionsByState;
     }
 
     /**
@@ -67,9 +87,10 @@ public class MarkdownImporterStateMachine
      */
     public void step(final String line)
     {
-        for (final Transition entry : this.transitions)
+        final int features = LineClassifier.classify(line);
+        for (final Transition entry : this.transitionsByState[this.state.ordinal()])
         {
-            if ((this.state == entry.getFrom()) && matchToken(line, entry))
+            if (matchToken(line, features, entry))
             {
                 LOG.finest(() -> entry + " : '" + line + "'");
                 entry.getTransition().transit();
@@ -79,10 +100,25 @@ public class MarkdownImporterStateMachine
         }
     }
 
-    private boolean matchToken(final String line, final Transition entry)
+    private boolean matchToken(final String line, final int features, final Transition entry)
     {
+        final MdPattern pattern = entry.getMarkdownPattern();
+        if (!pattern.getFeature().isIn(features))
+        {
+            return false;
+        }
+        if (pattern.getTokenMatcher() != null && LineFeature.SINGLE_LINE.isIn(features))
+        {
+            final String token = pattern.getTokenMatcher().match(line);
+            if (token == null)
+            {
+                return false;
+            }
+            this.lastToken = token;
+            return true;
+        }
         boolean matches = false;
-        final Matcher matcher = entry.getMarkdownPattern().getPattern().matcher(line);
+        final Matcher matcher = pattern.getPattern().matcher(line);
         if (matcher.matches())
         {
             this.lastToken = (matcher.groupCount() == 0) ? "" : matcher.group(1);
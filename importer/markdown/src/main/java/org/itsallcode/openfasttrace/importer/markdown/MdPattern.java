@@ -22,6 +22,9 @@ package org.itsallcode.openfasttrace.importer.markdown;
  * #L%
  */
 
+import static org.itsallcode.openfasttrace.importer.markdown.TokenMatchers.keyword;
+import static org.itsallcode.openfasttrace.importer.markdown.TokenMatchers.keywordList;
+
 import java.util.regex.Pattern;
 
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
@@ -29,6 +32,11 @@ import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
 /**
  * Patterns that describe tokens to be recognized within Markdown-style
  * specifications.
+ *
+ * Each pattern has a {@link LineFeature} that all lines it matches have. This
+ * allows ruling out most patterns for a line without running the regular
+ * expression. Most patterns also have a {@link TokenMatcher} that replaces the
+ * regular expression for lines without line terminator characters.
  */
 public enum MdPattern
 {
@@ -36,14 +44,14 @@ public enum MdPattern
     // [impl->dsn~md.artifact-forwarding-notation~1]
 
     // @formatter:off
-    COMMENT("Comment:\\s*"),
-    COVERS("Covers:\\s*"),
-    COVERS_REF(PatternConstants.REFERENCE_AFTER_BULLET),
-    DEPENDS("Depends:\\s*"),
-    DEPENDS_REF(PatternConstants.REFERENCE_AFTER_BULLET),
-    DESCRIPTION("Description:\\s*"),
-    EMPTY("(\\s*)"),
-    EVERYTHING("(.*)"),
+    COMMENT("Comment:\\s*", LineFeature.COMMENT_KEYWORD, keyword(LineFeature.COMMENT_KEYWORD)),
+    COVERS("Covers:\\s*", LineFeature.COVERS_KEYWORD, keyword(LineFeature.COVERS_KEYWORD)),
+    COVERS_REF(PatternConstants.REFERENCE_AFTER_BULLET, LineFeature.BULLET, TokenMatchers::matchReference),
+    DEPENDS("Depends:\\s*", LineFeature.DEPENDS_KEYWORD, keyword(LineFeature.DEPENDS_KEYWORD)),
+    DEPENDS_REF(PatternConstants.REFERENCE_AFTER_BULLET, LineFeature.BULLET, TokenMatchers::matchReference),
+    DESCRIPTION("Description:\\s*", LineFeature.DESCRIPTION_KEYWORD, keyword(LineFeature.DESCRIPTION_KEYWORD)),
+    EMPTY("(\\s*)", LineFeature.BLANK, TokenMatchers::matchWholeLine),
+    EVERYTHING("(.*)", LineFeature.SINGLE_LINE, TokenMatchers::matchWholeLine),
     FORWARD(".*?("
             + PatternConstants.ARTIFACT_TYPE
             + "\\s*"
@@ -57,30 +65,40 @@ public enum MdPattern
             + MarkdownForwardingSpecificationItem.ORIGINAL_MARKER
             + "\\s*"
             + SpecificationItemId.ID_PATTERN
-            + ").*?"),
-    ID("`?((?:" + SpecificationItemId.ID_PATTERN + ")|(?:" + SpecificationItemId.LEGACY_ID_PATTERN + "))`?.*"),
-    NEEDS_INT("Needs:\\s*(\\w+(?:,\\s*\\w+)*)"),
-    NEEDS("Needs:\\s*"),
+            + ").*?", LineFeature.FORWARD),
+    ID("`?((?:" + SpecificationItemId.ID_PATTERN + ")|(?:" + SpecificationItemId.LEGACY_ID_PATTERN + "))`?.*", LineFeature.ID, TokenMatchers::matchId),
+    NEEDS_INT("Needs:\\s*(\\w+(?:,\\s*\\w+)*)", LineFeature.NEEDS_KEYWORD, keywordList(LineFeature.NEEDS_KEYWORD)),
+    NEEDS("Needs:\\s*", LineFeature.NEEDS_KEYWORD, keyword(LineFeature.NEEDS_KEYWORD)),
     NEEDS_REF(PatternConstants.UP_TO_3_WHITESPACES + PatternConstants.BULLETS
             + "(?:.*\\W)?" //
             + "(\\p{Alpha}+)" //
-            + "(?:\\W.*)?"),
-    NOT_EMPTY("([^\n\r]+)"),
-    RATIONALE("Rationale:\\s*"),
-    STATUS("Status:\\s*(approved|proposed|draft)\\s*"),
-    TAGS_INT("Tags:\\s*(\\w+(?:,\\s*\\w+)*)"),
-    TAGS("Tags:\\s*"),
+            + "(?:\\W.*)?", LineFeature.BULLET, TokenMatchers::matchNeededArtifactType),
+    NOT_EMPTY("([^\n\r]+)", LineFeature.NOT_EMPTY, TokenMatchers::matchWholeLine),
+    RATIONALE("Rationale:\\s*", LineFeature.RATIONALE_KEYWORD, keyword(LineFeature.RATIONALE_KEYWORD)),
+    STATUS("Status:\\s*(approved|proposed|draft)\\s*", LineFeature.STATUS_KEYWORD, TokenMatchers::matchStatus),
+    TAGS_INT("Tags:\\s*(\\w+(?:,\\s*\\w+)*)", LineFeature.TAGS_KEYWORD, keywordList(LineFeature.TAGS_KEYWORD)),
+    TAGS("Tags:\\s*", LineFeature.TAGS_KEYWORD, keyword(LineFeature.TAGS_KEYWORD)),
     TAG_ENTRY(PatternConstants.UP_TO_3_WHITESPACES + PatternConstants.BULLETS
             + "\\s*" //
-            + "(.*)"),
-    TITLE("#+\\s*(.*)");
+            + "(.*)", LineFeature.BULLET, TokenMatchers::matchTagEntry),
+    TITLE("#+\\s*(.*)", LineFeature.HEADING, TokenMatchers::matchTitle);
     // @formatter:on
 
     private final Pattern pattern;
+    private final LineFeature feature;
+    private final TokenMatcher tokenMatcher;
+
+    MdPattern(final String regularExpression, final LineFeature feature)
+    {
+        this(regularExpression, feature, null);
+    }
 
-    MdPattern(final String regularExpression)
+    MdPattern(final String regularExpression, final LineFeature feature,
+            final TokenMatcher tokenMatcher)
     {
         this.pattern = Pattern.compile(regularExpression);
+        this.feature = feature;
+        this.tokenMatcher = tokenMatcher;
     }
 
     /**
@@ -93,6 +111,29 @@ public enum MdPattern
         return this.pattern;
     }
 
+    /**
+     * Get the line feature that is a precondition for this pattern. The
+     * pattern never matches a line without this feature.
+     *
+     * @return the line feature
+     */
+    LineFeature getFeature()
+    {
+        return this.feature;
+    }
+
+    /**
+     * Get the hand-written matcher that replaces the regular expression for
+     * lines without line terminator characters
+     *
+     * @return the token matcher or <code>null</code> if the regular expression
+     *         must always be used
+     */
+    TokenMatcher getTokenMatcher()
+    {
+        return this.tokenMatcher;
+    }
+
     private static class PatternConstants
     {
         private PatternConstants()
@@ -0,0 +1,132 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.function.Consumer;
+
+import org.itsallcode.openfasttrace.api.core.TextRange;
+
+/**
+ * Collects the lines of a description, rationale or comment.
+ * 
+ * The lines are joined with the system line separator and surrounding
+ * whitespace is removed. If the block has a {@link TextRange.Source} only the
+ * byte range of the lines is recorded instead, and the text is read from the
+ * file when it is requested.
+ */
+final class TextBlock
+{
+    private static final TextBlock DISCARDED = new TextBlock(null, 0, false);
+
+    private final boolean kept;
+    private final TextRange.Source source;
+    private final StringBuilder text;
+    private final long start;
+    private long end;
+
+    private TextBlock(final TextRange.Source source, final long start, final boolean kept)
+    {
+        this.kept = kept;
+        this.source = source;
+        this.text = (kept && (source == null)) ? new StringBuilder() : null;
+        this.start = start;
+        this.end = start;
+    }
+
+    /**
+     * Start a new text block
+     * 
+     * @param source
+     *            source of the text or <code>null</code> to collect the text
+     *            as a string
+     * @param start
+     *            byte offset of the block in the source
+     * @return the new text block
+     */
+    static TextBlock start(final TextRange.Source source, final long start)
+    {
+        return new TextBlock(source, start, true);
+    }
+
+    /**
+     * Get a text block that ignores all lines and never hands over any text.
+     * It is used for texts the import does not need. The block is shared by
+     * all importers and never changes its state.
+     * 
+     * @return the discarding text block
+     */
+    static TextBlock discard()
+    {
+        return DISCARDED;
+    }
+
+    /**
+     * Append a line
+     * 
+     * @param line
+     *            the line to append
+     * @param lineEnd
+     *            byte offset of the end of the line in the source
+     */
+    void appendLine(final String line, final long lineEnd)
+    {
+        if (!this.kept)
+        {
+            return;
+        }
+        if (this.text != null)
+        {
+            if (this.text.length() > 0)
+            {
+                this.text.append(System.lineSeparator());
+            }
+            this.text.append(line);
+        }
+        this.end = lineEnd;
+    }
+
+    /**
+     * Hand the collected text over to the consumer matching the kind of this
+     * block
+     * 
+     * @param textConsumer
+     *            consumer for text collected as a string
+     * @param rangeConsumer
+     *            consumer for a text range
+     */
+    void finish(final Consumer<String> textConsumer, final Consumer<TextRange> rangeConsumer)
+    {
+        if (!this.kept)
+        {
+            return;
+        }
+        if (this.text != null)
+        {
+            textConsumer.accept(this.text.toString().trim());
+        }
+        else
+        {
+            rangeConsumer.accept(this.source.range(this.start, this.end));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Hand-written equivalent of the regular expression of an {@link MdPattern}
+ * for lines that contain no line terminator characters.
+ */
+@FunctionalInterface
+interface TokenMatcher
+{
+    /**
+     * Match a line against the pattern
+     * 
+     * @param line
+     *            line without line terminator characters
+     * @return the token the regular expression captures in its first group, an
+     *         empty string if it has no group or <code>null</code> if the line
+     *         does not match
+     */
+    String match(String line);
+}
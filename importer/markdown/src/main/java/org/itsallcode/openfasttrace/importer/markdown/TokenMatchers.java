@@ -0,0 +1,327 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.itsallcode.openfasttrace.importer.markdown.LineClassifier.isLetter;
+import static org.itsallcode.openfasttrace.importer.markdown.LineClassifier.isWhitespace;
+import static org.itsallcode.openfasttrace.importer.markdown.LineClassifier.isWordCharacter;
+
+/**
+ * {@link TokenMatcher}s for the {@link MdPattern}s.
+ * 
+ * The patterns are deterministic on single lines: wherever the regular
+ * expression could backtrack, only one choice can lead to a match. The
+ * matchers therefore scan each line once from left to right and return the
+ * same tokens as the regular expressions. Only the reference patterns try
+ * several start positions, from right to left like the greedy prefix of the
+ * expressions does.
+ */
+final class TokenMatchers
+{
+    private static final int NO_MATCH = -1;
+    private static final char NONE = '\0';
+    private static final String[] STATUS_VALUES = { "approved", "proposed", "draft" };
+
+    private TokenMatchers()
+    {
+        // not instantiable
+    }
+
+    // (.*), (\s*) and ([^\n\r]+) for lines with the respective feature
+    static String matchWholeLine(final String line)
+    {
+        return line;
+    }
+
+    // #+\s*(.*)
+    static String matchTitle(final String line)
+    {
+        int position = 0;
+        while (charAt(line, position) == '#')
+        {
+            ++position;
+        }
+        return (position == 0) ? null : line.substring(skipWhitespace(line, position));
+    }
+
+    /**
+     * Create a matcher for a keyword followed by whitespace only
+     * 
+     * @param keyword
+     *            the keyword feature
+     * @return matcher for <code>Keyword:\s*</code>
+     */
+    static TokenMatcher keyword(final LineFeature keyword)
+    {
+        final String text = keyword.getKeyword();
+        return line -> (line.startsWith(text)
+                && skipWhitespace(line, text.length()) == line.length()) ? "" : null;
+    }
+
+    /**
+     * Create a matcher for a keyword followed by a comma separated list of
+     * words
+     * 
+     * @param keyword
+     *            the keyword feature
+     * @return matcher for <code>Keyword:\s*(\w+(?:,\s*\w+)*)</code>
+     */
+    static TokenMatcher keywordList(final LineFeature keyword)
+    {
+        final String text = keyword.getKeyword();
+        return line -> {
+            if (!line.startsWith(text))
+            {
+                return null;
+            }
+            final int start = skipWhitespace(line, text.length());
+            int position = skipWordCharacters(line, start);
+            if (position == start)
+            {
+                return null;
+            }
+            while (charAt(line, position) == ',')
+            {
+                final int wordStart = skipWhitespace(line, position + 1);
+                position = skipWordCharacters(line, wordStart);
+                if (position == wordStart)
+                {
+                    return null;
+                }
+            }
+            return (position == line.length()) ? line.substring(start) : null;
+        };
+    }
+
+    // Status:\s*(approved|proposed|draft)\s*
+    static String matchStatus(final String line)
+    {
+        final String keyword = LineFeature.STATUS_KEYWORD.getKeyword();
+        if (!line.startsWith(keyword))
+        {
+            return null;
+        }
+        final int start = skipWhitespace(line, keyword.length());
+        for (final String status : STATUS_VALUES)
+        {
+            if (line.startsWith(status, start)
+                    && skipWhitespace(line, start + status.length()) == line.length())
+            {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    // `?((?:<id>)|(?:<legacy id>))`?.*
+    static String matchId(final String line)
+    {
+        final int start = (charAt(line, 0) == '`') ? 1 : 0;
+        int end = matchIdEnd(line, start);
+        if (end == NO_MATCH)
+        {
+            end = matchLegacyIdEnd(line, start);
+        }
+        return (end == NO_MATCH) ? null : line.substring(start, end);
+    }
+
+    // \s{0,3}[+*-](?:.*\W)?((?:<id>)|(?:<legacy id>))(?:\W.*)?
+    static String matchReference(final String line)
+    {
+        final int bullet = LineClassifier.findBullet(line);
+        if (bullet < 0)
+        {
+            return null;
+        }
+        for (int start = line.length() - 1; start > bullet; --start)
+        {
+            if (start == bullet + 1 || !isWordCharacter(line.charAt(start - 1)))
+            {
+                int end = matchIdEnd(line, start);
+                if (end == NO_MATCH || !isWordEnd(line, end))
+                {
+                    end = matchLegacyIdEnd(line, start);
+                }
+                if (end != NO_MATCH && isWordEnd(line, end))
+                {
+                    return line.substring(start, end);
+                }
+            }
+        }
+        return null;
+    }
+
+    // \s{0,3}[+*-](?:.*\W)?(\p{Alpha}+)(?:\W.*)?
+    static String matchNeededArtifactType(final String line)
+    {
+        final int bullet = LineClassifier.findBullet(line);
+        if (bullet < 0)
+        {
+            return null;
+        }
+        for (int start = line.length() - 1; start > bullet; --start)
+        {
+            if (start == bullet + 1 || !isWordCharacter(line.charAt(start - 1)))
+            {
+                final int end = skipLetters(line, start);
+                if (end > start && isWordEnd(line, end))
+                {
+                    return line.substring(start, end);
+                }
+            }
+        }
+        return null;
+    }
+
+    // \s{0,3}[+*-]\s*(.*)
+    static String matchTagEntry(final String line)
+    {
+        final int bullet = LineClassifier.findBullet(line);
+        return (bullet < 0) ? null : line.substring(skipWhitespace(line, bullet + 1));
+    }
+
+    // <letters>~<name>~<digits>
+    private static int matchIdEnd(final String line, final int start)
+    {
+        final int artifactTypeEnd = skipLetters(line, start);
+        if (artifactTypeEnd == start || charAt(line, artifactTypeEnd) != '~')
+        {
+            return NO_MATCH;
+        }
+        final int nameEnd = matchName(line, artifactTypeEnd + 1);
+        if (nameEnd == NO_MATCH || charAt(line, nameEnd) != '~')
+        {
+            return NO_MATCH;
+        }
+        return matchDigits(line, nameEnd + 1);
+    }
+
+    // <letters>(?:~<letters>)?:<name>, *v<digits>
+    private static int matchLegacyIdEnd(final String line, final int start)
+    {
+        int position = skipLetters(line, start);
+        if (position == start)
+        {
+            return NO_MATCH;
+        }
+        if (charAt(line, position) == '~')
+        {
+            final int subTypeEnd = skipLetters(line, position + 1);
+            if (subTypeEnd == position + 1)
+            {
+                return NO_MATCH;
+            }
+            position = subTypeEnd;
+        }
+        if (charAt(line, position) != ':')
+        {
+            return NO_MATCH;
+        }
+        final int nameEnd = matchName(line, position + 1);
+        if (nameEnd == NO_MATCH || charAt(line, nameEnd) != ',')
+        {
+            return NO_MATCH;
+        }
+        position = nameEnd + 1;
+        while (charAt(line, position) == ' ')
+        {
+            ++position;
+        }
+        return (charAt(line, position) == 'v') ? matchDigits(line, position + 1) : NO_MATCH;
+    }
+
+    // \p{Alpha}[\w-]*(?:\.\p{Alpha}[\w-]*)*
+    private static int matchName(final String line, final int start)
+    {
+        if (!isLetter(charAt(line, start)))
+        {
+            return NO_MATCH;
+        }
+        int position = skipNameCharacters(line, start + 1);
+        while (charAt(line, position) == '.' && isLetter(charAt(line, position + 1)))
+        {
+            position = skipNameCharacters(line, position + 2);
+        }
+        return position;
+    }
+
+    private static int matchDigits(final String line, final int start)
+    {
+        int position = start;
+        while (charAt(line, position) >= '0' && charAt(line, position) <= '9')
+        {
+            ++position;
+        }
+        return (position == start) ? NO_MATCH : position;
+    }
+
+    private static boolean isWordEnd(final String line, final int position)
+    {
+        return position == line.length() || !isWordCharacter(line.charAt(position));
+    }
+
+    private static int skipWhitespace(final String line, final int start)
+    {
+        int position = start;
+        while (position < line.length() && isWhitespace(line.charAt(position)))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static int skipLetters(final String line, final int start)
+    {
+        int position = start;
+        while (isLetter(charAt(line, position)))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static int skipWordCharacters(final String line, final int start)
+    {
+        int position = start;
+        while (isWordCharacter(charAt(line, position)))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static int skipNameCharacters(final String line, final int start)
+    {
+        int position = start;
+        while (isWordCharacter(charAt(line, position)) || charAt(line, position) == '-')
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static char charAt(final String line, final int position)
+    {
+        return (position < line.length()) ? line.charAt(position) : NONE;
+    }
+}
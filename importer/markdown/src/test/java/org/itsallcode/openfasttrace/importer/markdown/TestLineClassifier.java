@@ -0,0 +1,150 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.regex.Matcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class TestLineClassifier
+{
+    private static final String[] SAMPLES = { "", " ", "\t  ", "text", "  text  ", "#", "# Title",
+            "##Title  ", " # Title", "Title #", "req~foo~1", "`req~foo~1`", "`req~foo~1` text",
+            "req~foo~1<a id=\"req~foo~1\"></a>", "req~4foo~1", "req~foo~", "req~foo~1a",
+            "req:foo", "req:foo, v1.2", "req:foo,v1", "`req:foo, v1.2` text", "Needs:", "Needs: impl",
+            "Needs: impl, utest,itest", "Needs: impl,", "Needs:impl utest", "Needs :", "Status: draft",
+            "Status:approved  ", "Status: rejected", "Status: drafted", "Tags:", "Tags: a, b",
+            "Tags: a b", "Covers:", "Covers: ", "Depends:", "Description:", "Rationale:",
+            "Comment:", "Comment: text", "* req~foo~1", "- req~foo~1", "+ req~foo~1",
+            "   * req~foo~1", "    * req~foo~1", "*req~foo~1", "* `req~foo~1`",
+            "* [link](#req~foo~1)", "* [link](#req~foo~1) trailing", "* text req~foo~1",
+            "* req~foo~1 req~bar~2", "* req:foo, v1", "* impl", "* impl,", "  - impl ",
+            "* impl utest", "* tag", "*", "* ", "ä~foo~1", "a~b~0", "req~a.b_c-d~12",
+            "req~foo~1~2", "req~foo~-1", "* req~foo~1.", "* req~foo~1`", "text\u2028more" };
+
+    @Test
+    void testClassifyBlankLines()
+    {
+        assertFeatures("", LineFeature.BLANK, LineFeature.SINGLE_LINE);
+        assertFeatures(" \t ", LineFeature.BLANK, LineFeature.SINGLE_LINE,
+                LineFeature.NOT_EMPTY);
+    }
+
+    @Test
+    void testClassifyHeading()
+    {
+        assertFeatures("# Title", LineFeature.SINGLE_LINE, LineFeature.NOT_EMPTY,
+                LineFeature.HEADING);
+    }
+
+    @Test
+    void testClassifyKeyword()
+    {
+        assertFeatures("Needs: impl", LineFeature.SINGLE_LINE, LineFeature.NOT_EMPTY,
+                LineFeature.NEEDS_KEYWORD);
+    }
+
+    @Test
+    void testClassifyBulletWithId()
+    {
+        assertFeatures("* `req~foo~1`", LineFeature.SINGLE_LINE, LineFeature.NOT_EMPTY,
+                LineFeature.BULLET);
+        assertFeatures("`req~foo~1`", LineFeature.SINGLE_LINE, LineFeature.NOT_EMPTY,
+                LineFeature.ID);
+    }
+
+    @Test
+    void testClassifyLineWithTerminatorIsNotSingleLine()
+    {
+        assertFeatures("text\u2028more", LineFeature.NOT_EMPTY);
+    }
+
+    @Test
+    void testFindBullet()
+    {
+        assertThat(LineClassifier.findBullet("* a"), equalTo(0));
+        assertThat(LineClassifier.findBullet("   - a"), equalTo(3));
+        assertThat(LineClassifier.findBullet("    + a"), equalTo(-1));
+        assertThat(LineClassifier.findBullet("a * b"), equalTo(-1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(MdPattern.class)
+    void testFeatureIsPresentWheneverPatternMatches(final MdPattern pattern)
+    {
+        for (final String sample : SAMPLES)
+        {
+            if (pattern.getPattern().matcher(sample).matches())
+            {
+                assertThat(pattern + " matches \"" + sample + "\" without its feature",
+                        pattern.getFeature().isIn(LineClassifier.classify(sample)),
+                        equalTo(true));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(MdPattern.class)
+    void testTokenMatcherAgreesWithPattern(final MdPattern pattern)
+    {
+        final TokenMatcher tokenMatcher = pattern.getTokenMatcher();
+        if (tokenMatcher == null)
+        {
+            return;
+        }
+        for (final String sample : SAMPLES)
+        {
+            final int features = LineClassifier.classify(sample);
+            if (LineFeature.SINGLE_LINE.isIn(features) && pattern.getFeature().isIn(features))
+            {
+                assertThat(pattern + " token of \"" + sample + "\"", tokenMatcher.match(sample),
+                        equalTo(matchWithPattern(pattern, sample)));
+            }
+        }
+    }
+
+    private static String matchWithPattern(final MdPattern pattern, final String line)
+    {
+        final Matcher matcher = pattern.getPattern().matcher(line);
+        if (!matcher.matches())
+        {
+            return null;
+        }
+        return (matcher.groupCount() == 0) ? "" : matcher.group(1);
+    }
+
+    private static void assertFeatures(final String line, final LineFeature... expected)
+    {
+        int mask = 0;
+        for (final LineFeature feature : expected)
+        {
+            mask |= feature.getMask();
+        }
+        assertThat("features of \"" + line + "\"", LineClassifier.classify(line), equalTo(mask));
+    }
+}
@@ -0,0 +1,192 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TestLineOffsetReader
+{
+    @Test
+    void testReadsLinesLikeBufferedReader() throws IOException
+    {
+        for (final String text : new String[] { "", "a", "a\n", "a\nb", "a\r\nb\r\n", "a\rb\r",
+                "\n\n", "\r\r\n\n\r", "a\r\n\r\nb", "\r", "line 1\nline 2\r\nline 3" })
+        {
+            assertThat("lines of \"" + text + "\"", readAll(new StringReader(text)),
+                    equalTo(readWithBufferedReader(text)));
+        }
+    }
+
+    @Test
+    void testReadsLinesAcrossBufferBoundaries() throws IOException
+    {
+        final String longLine = repeat('x', 20000);
+        final String text = "a\r\n" + longLine + "\r\nb\r\n\r\n" + longLine + "\r";
+        assertThat(readAll(new ChunkedReader(text, 3)), equalTo(readWithBufferedReader(text)));
+        assertThat(readAll(new StringReader(text)), equalTo(readWithBufferedReader(text)));
+    }
+
+    @Test
+    void testOffsetsWithMixedLineTerminators() throws IOException
+    {
+        final LineOffsetReader reader = new LineOffsetReader(
+                new ChunkedReader("ab\r\ncd\ref\n\ngh", 1), StandardCharsets.UTF_8);
+        assertLine(reader, "ab", 0, 2);
+        assertLine(reader, "cd", 4, 6);
+        assertLine(reader, "ef", 7, 9);
+        assertLine(reader, "", 10, 10);
+        assertLine(reader, "gh", 11, 13);
+        assertThat(reader.readLine(), nullValue());
+    }
+
+    @Test
+    void testOffsetsCountUtf8Bytes() throws IOException
+    {
+        final LineOffsetReader reader = new LineOffsetReader(
+                new StringReader("\u00e4\u20ac\ud834\udd1e\nx"), StandardCharsets.UTF_8);
+        assertLine(reader, "\u00e4\u20ac\ud834\udd1e", 0, 9);
+        assertLine(reader, "x", 10, 11);
+    }
+
+    @Test
+    void testOffsetsCountSingleByteCharsets() throws IOException
+    {
+        final LineOffsetReader reader = new LineOffsetReader(new StringReader("\u00e4\u00f6\nx"),
+                StandardCharsets.ISO_8859_1);
+        assertLine(reader, "\u00e4\u00f6", 0, 2);
+        assertLine(reader, "x", 3, 4);
+    }
+
+    @Test
+    void testSupportedCharsets()
+    {
+        assertThat(LineOffsetReader.supports(StandardCharsets.UTF_8), equalTo(true));
+        assertThat(LineOffsetReader.supports(StandardCharsets.US_ASCII), equalTo(true));
+        assertThat(LineOffsetReader.supports(StandardCharsets.ISO_8859_1), equalTo(true));
+        assertThat(LineOffsetReader.supports(StandardCharsets.UTF_16), equalTo(false));
+    }
+
+    @Test
+    void testUnsupportedCharsetFails()
+    {
+        final Charset charset = StandardCharsets.UTF_16;
+        assertThrows(IllegalArgumentException.class,
+                () -> new LineOffsetReader(new StringReader(""), charset));
+    }
+
+    private static void assertLine(final LineOffsetReader reader, final String expectedLine,
+            final long expectedStart, final long expectedEnd) throws IOException
+    {
+        assertThat(reader.readLine(), equalTo(expectedLine));
+        assertThat("start of line \"" + expectedLine + "\"", reader.getLineStart(),
+                equalTo(expectedStart));
+        assertThat("end of line \"" + expectedLine + "\"", reader.getLineEnd(),
+                equalTo(expectedEnd));
+    }
+
+    private static List<String> readAll(final Reader input) throws IOException
+    {
+        final LineOffsetReader reader = new LineOffsetReader(input, StandardCharsets.UTF_8);
+        final List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private static List<String> readWithBufferedReader(final String text) throws IOException
+    {
+        final List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(text)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static String repeat(final char character, final int count)
+    {
+        final StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; ++i)
+        {
+            builder.append(character);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reader that returns at most a given number of characters per call.
+     */
+    private static class ChunkedReader extends Reader
+    {
+        private final String text;
+        private final int chunkSize;
+        private int position = 0;
+
+        private ChunkedReader(final String text, final int chunkSize)
+        {
+            this.text = text;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length)
+        {
+            if (this.position >= this.text.length())
+            {
+                return -1;
+            }
+            final int count = Math.min(Math.min(length, this.chunkSize),
+                    this.text.length() - this.position);
+            this.text.getChars(this.position, this.position + count, buffer, offset);
+            this.position += count;
+            return count;
+        }
+
+        @Override
+        public void close()
+        {
+            // nothing to close
+        }
+    }
+}
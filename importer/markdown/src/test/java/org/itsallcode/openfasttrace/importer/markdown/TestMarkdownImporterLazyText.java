@@ -0,0 +1,167 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.importer.ImporterContext;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+/**
+ * Tests for importing descriptions, rationales and comments lazily
+ */
+@ExtendWith(TempDirectory.class)
+class TestMarkdownImporterLazyText
+{
+    private static final String NL = System.lineSeparator();
+    private static final String SPECIFICATION = String.join("\n", //
+            "# Title", //
+            "`dsn~first~1`", //
+            "First line of the", //
+            "  description \u00e4\u20ac", //
+            "", //
+            "Rationale:", //
+            "", //
+            "  The rationale  ", //
+            "", //
+            "Comment:", //
+            "The comment", //
+            "Needs: impl", //
+            "", //
+            "`dsn~second~2`", //
+            "Description:", //
+            "", //
+            "Second description", //
+            "Covers:", //
+            "", //
+            "  * dsn~first~1", //
+            "", //
+            "`dsn~third~3`", //
+            "Description:");
+    private Path tempDir;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.tempDir = tempDir;
+    }
+
+    @Test
+    void testLazyTextWithLineFeeds() throws IOException
+    {
+        assertLazyTextEqualsEagerText(SPECIFICATION);
+    }
+
+    @Test
+    void testLazyTextWithCarriageReturnLineFeeds() throws IOException
+    {
+        assertLazyTextEqualsEagerText(SPECIFICATION.replace("\n", "\r\n"));
+    }
+
+    @Test
+    void testLazyTextWithCarriageReturns() throws IOException
+    {
+        assertLazyTextEqualsEagerText(SPECIFICATION.replace("\n", "\r"));
+    }
+
+    @Test
+    void testLazyText() throws IOException
+    {
+        final List<SpecificationItem> items = importFile(writeSpecification(SPECIFICATION),
+                true);
+        assertThat(items.get(0).getDescription(),
+                equalTo("First line of the" + NL + "  description \u00e4\u20ac"));
+        assertThat(items.get(0).getRationale(), equalTo("The rationale"));
+        assertThat(items.get(0).getComment(), equalTo("The comment"));
+        assertThat(items.get(1).getDescription(), equalTo("Second description"));
+        assertThat(items.get(2).getDescription(), equalTo(""));
+    }
+
+    @Test
+    void testLazyTextIsReadWhenRequested() throws IOException
+    {
+        final Path file = writeSpecification(SPECIFICATION);
+        final List<SpecificationItem> items = importFile(file, true);
+        Files.delete(file);
+        assertThrows(UncheckedIOException.class, items.get(0)::getDescription);
+    }
+
+    @Test
+    void testEagerTextSurvivesDeletedFile() throws IOException
+    {
+        final Path file = writeSpecification(SPECIFICATION);
+        final List<SpecificationItem> items = importFile(file, false);
+        Files.delete(file);
+        assertThat(items.get(1).getDescription(), equalTo("Second description"));
+    }
+
+    private void assertLazyTextEqualsEagerText(final String specification) throws IOException
+    {
+        final Path file = writeSpecification(specification);
+        final List<SpecificationItem> eagerItems = importFile(file, false);
+        final List<SpecificationItem> lazyItems = importFile(file, true);
+        assertThat(lazyItems.size(), equalTo(eagerItems.size()));
+        for (int i = 0; i < eagerItems.size(); ++i)
+        {
+            final SpecificationItem eager = eagerItems.get(i);
+            final SpecificationItem lazy = lazyItems.get(i);
+            assertThat(lazy.getId(), equalTo(eager.getId()));
+            assertThat(lazy.getDescription(), equalTo(eager.getDescription()));
+            assertThat(lazy.getRationale(), equalTo(eager.getRationale()));
+            assertThat(lazy.getComment(), equalTo(eager.getComment()));
+        }
+    }
+
+    private Path writeSpecification(final String specification) throws IOException
+    {
+        final Path file = this.tempDir.resolve("spec.md");
+        Files.write(file, specification.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<SpecificationItem> importFile(final Path file, final boolean lazyText)
+    {
+        final MarkdownImporterFactory factory = new MarkdownImporterFactory();
+        factory.init(new ImporterContext(ImportSettings.builder().lazyText(lazyText).build()));
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        factory.createImporter(RealFileInput.forPath(file), builder).runImport();
+        return builder.build();
+    }
+}
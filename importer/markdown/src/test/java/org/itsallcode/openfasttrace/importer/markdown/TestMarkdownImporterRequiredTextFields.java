@@ -0,0 +1,112 @@
+package org.itsallcode.openfasttrace.importer.markdown;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.importer.ImporterContext;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.testutil.importer.input.StreamInput;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for skipping texts that the import does not need
+ */
+class TestMarkdownImporterRequiredTextFields
+{
+    private static final String SPECIFICATION = String.join("\n", //
+            "# The title", //
+            "`dsn~first~1`", //
+            "The description", //
+            "", //
+            "Rationale:", //
+            "The rationale", //
+            "", //
+            "Comment:", //
+            "The comment", //
+            "Needs: impl", //
+            "", //
+            "`dsn~second~2`", //
+            "Covers:", //
+            "", //
+            "  * dsn~first~1");
+
+    @Test
+    void testAllTextFieldsRequiredByDefault()
+    {
+        final SpecificationItem item = importSpecification(
+                EnumSet.allOf(ItemTextField.class)).get(0);
+        assertThat(item.getTitle(), equalTo("The title"));
+        assertThat(item.getDescription(), equalTo("The description"));
+        assertThat(item.getRationale(), equalTo("The rationale"));
+        assertThat(item.getComment(), equalTo("The comment"));
+    }
+
+    @Test
+    void testOnlyDescriptionRequired()
+    {
+        final SpecificationItem item = importSpecification(
+                EnumSet.of(ItemTextField.DESCRIPTION)).get(0);
+        assertThat(item.getTitle(), equalTo(""));
+        assertThat(item.getDescription(), equalTo("The description"));
+        assertThat(item.getRationale(), equalTo(""));
+        assertThat(item.getComment(), equalTo(""));
+    }
+
+    @Test
+    void testNoTextFieldRequiredKeepsTraceInformation()
+    {
+        final List<SpecificationItem> items = importSpecification(
+                EnumSet.noneOf(ItemTextField.class));
+        final SpecificationItem first = items.get(0);
+        assertThat(first.getTitle(), equalTo(""));
+        assertThat(first.getDescription(), equalTo(""));
+        assertThat(first.getRationale(), equalTo(""));
+        assertThat(first.getComment(), equalTo(""));
+        assertThat(first.getNeedsArtifactTypes().contains("impl"), equalTo(true));
+        assertThat(items.get(1).getCoveredIds().contains(SpecificationItemId.parseId("dsn~first~1")),
+                equalTo(true));
+    }
+
+    private static List<SpecificationItem> importSpecification(
+            final Set<ItemTextField> requiredTextFields)
+    {
+        final MarkdownImporterFactory factory = new MarkdownImporterFactory();
+        factory.init(new ImporterContext(
+                ImportSettings.builder().requiredTextFields(requiredTextFields).build()));
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        factory.createImporter(StreamInput.forContent(Paths.get("spec.md"), SPECIFICATION),
+                builder).runImport();
+        return builder.build();
+    }
+}
@@ -0,0 +1,51 @@
+package org.itsallcode.openfasttrace.importer.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Constants of the binary snapshot format.
+ * 
+ * <p>
+ * The format is written by the exporter in module
+ * <code>exporter/snapshot</code>, which documents the layout. These
+ * constants must be kept in sync with the exporter.
+ * </p>
+ */
+final class SnapshotFormat
+{
+    /** Magic number at the start and at the end of a snapshot: "OFTS" */
+    static final int MAGIC = 0x4F465453;
+    /** Version of the format */
+    static final byte VERSION = 3;
+    /** Flag for blocks and dictionary compressed with a Deflater */
+    static final byte FLAG_DEFLATE = 1;
+    /** Size of the header: magic, version and flags */
+    static final int HEADER_SIZE = Integer.BYTES + 2;
+    /** Size of the footer: dictionary offset, index offset and magic */
+    static final int FOOTER_SIZE = 2 * Long.BYTES + Integer.BYTES;
+
+    private SnapshotFormat()
+    {
+        // not instantiable
+    }
+}
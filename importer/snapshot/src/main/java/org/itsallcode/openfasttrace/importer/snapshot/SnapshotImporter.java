@@ -0,0 +1,86 @@
+package org.itsallcode.openfasttrace.importer.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Logger;
+
+import org.itsallcode.openfasttrace.api.importer.*;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+
+/**
+ * {@link Importer} for binary snapshots written by the snapshot exporter. The
+ * items of the snapshot are passed on to the {@link ImportEventListener}, so
+ * that filters apply as for any other import.
+ */
+class SnapshotImporter implements Importer
+{
+    private static final Logger LOG = Logger.getLogger(SnapshotImporter.class.getName());
+
+    private final InputFile file;
+    private final ImportEventListener listener;
+
+    SnapshotImporter(final InputFile file, final ImportEventListener listener)
+    {
+        this.file = file;
+        this.listener = listener;
+    }
+
+    @Override
+    public void runImport()
+    {
+        try (SnapshotReader reader = openReader())
+        {
+            LOG.fine(() -> "Importing " + reader.getItemCount() + " items from snapshot '"
+                    + this.file + "'");
+            reader.forEach(item -> ImportEventReplay.replay(item, this.listener));
+        }
+        catch (final IOException e)
+        {
+            throw new ImporterException("Error reading snapshot \"" + this.file + "\"", e);
+        }
+    }
+
+    /**
+     * Open the snapshot. Snapshots that are not real files, e.g. inside a ZIP
+     * file, are read into memory completely, because the reader needs random
+     * access.
+     */
+    private SnapshotReader openReader() throws IOException
+    {
+        if (this.file.isRealFile())
+        {
+            return SnapshotReader.open(this.file.toPath());
+        }
+        try (InputStream stream = this.file.createInputStream())
+        {
+            return SnapshotReader.open(this.file.getPath(), stream.readAllBytes());
+        }
+        catch (final UnsupportedOperationException e)
+        {
+            throw new ImporterException(
+                    "Unable to read binary content of snapshot \"" + this.file + "\"", e);
+        }
+    }
+}
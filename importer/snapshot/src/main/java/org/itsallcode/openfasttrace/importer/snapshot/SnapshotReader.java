@@ -0,0 +1,468 @@
+package org.itsallcode.openfasttrace.importer.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Reads {@link SpecificationItem}s from a binary snapshot.
+ * 
+ * <p>
+ * Opening a snapshot reads only the footer, the string dictionary and the
+ * index. Item blocks are read on demand, either all in order with
+ * {@link #forEach(Consumer)} or a single block for {@link #readItem(int)}.
+ * Snapshots are read from a file or from a byte array, e.g. for snapshots
+ * inside a ZIP file.
+ * </p>
+ */
+class SnapshotReader implements Closeable
+{
+    private final String file;
+    private final Source source;
+    private boolean compressed;
+    private long dictionaryOffset;
+    private String[] dictionary;
+    private long[] blockOffsets;
+    private int[] blockFirstItems;
+    private int itemCount;
+
+    private SnapshotReader(final String file, final Source source)
+    {
+        this.file = file;
+        this.source = source;
+    }
+
+    /**
+     * Open a snapshot file
+     * 
+     * @param file
+     *            the snapshot file
+     * @return a reader for the snapshot
+     * @throws IOException
+     *             if the file cannot be read or is not a valid snapshot
+     */
+    static SnapshotReader open(final Path file) throws IOException
+    {
+        return open(file.toString(),
+                new FileSource(FileChannel.open(file, StandardOpenOption.READ)));
+    }
+
+    /**
+     * Open a snapshot held in memory
+     * 
+     * @param name
+     *            name of the snapshot used in error messages
+     * @param content
+     *            the complete snapshot
+     * @return a reader for the snapshot
+     * @throws IOException
+     *             if the content is not a valid snapshot
+     */
+    static SnapshotReader open(final String name, final byte[] content) throws IOException
+    {
+        return open(name, new MemorySource(content));
+    }
+
+    private static SnapshotReader open(final String name, final Source source)
+            throws IOException
+    {
+        final SnapshotReader reader = new SnapshotReader(name, source);
+        try
+        {
+            reader.readStructure();
+            return reader;
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            source.close();
+            throw e;
+        }
+    }
+
+    private void readStructure() throws IOException
+    {
+        final long size = this.source.size();
+        if (size < SnapshotFormat.HEADER_SIZE + SnapshotFormat.FOOTER_SIZE)
+        {
+            throw new IOException("File " + this.file + " is too short for a snapshot");
+        }
+        final ByteBuffer header = read(0, SnapshotFormat.HEADER_SIZE);
+        checkMagic(header.getInt());
+        final byte version = header.get();
+        if (version != SnapshotFormat.VERSION)
+        {
+            throw new IOException("Unsupported snapshot version " + version + " in " + this.file);
+        }
+        this.compressed = (header.get() & SnapshotFormat.FLAG_DEFLATE) != 0;
+        final long footerOffset = size - SnapshotFormat.FOOTER_SIZE;
+        final ByteBuffer footer = read(footerOffset, SnapshotFormat.FOOTER_SIZE);
+        this.dictionaryOffset = footer.getLong();
+        final long indexOffset = footer.getLong();
+        checkMagic(footer.getInt());
+        if (this.dictionaryOffset < SnapshotFormat.HEADER_SIZE
+                || indexOffset < this.dictionaryOffset || indexOffset > footerOffset)
+        {
+            throw new IOException("Invalid offsets in snapshot " + this.file);
+        }
+        this.dictionary = readDictionary(readSection(this.dictionaryOffset, indexOffset));
+        readIndex(read(indexOffset, footerOffset - indexOffset));
+    }
+
+    private void checkMagic(final int magic) throws IOException
+    {
+        if (magic != SnapshotFormat.MAGIC)
+        {
+            throw new IOException("File " + this.file + " is not a snapshot");
+        }
+    }
+
+    private String[] readDictionary(final Section section) throws IOException
+    {
+        try
+        {
+            return StringDictionary.readEntries(section.createInput(), section.count);
+        }
+        catch (final IOException e)
+        {
+            throw new IOException("Corrupt dictionary in snapshot " + this.file, e);
+        }
+    }
+
+    private void readIndex(final ByteBuffer index) throws IOException
+    {
+        final int blockCount = readNumber(index);
+        this.blockOffsets = new long[blockCount];
+        this.blockFirstItems = new int[blockCount];
+        int firstItem = 0;
+        for (int i = 0; i < blockCount; ++i)
+        {
+            this.blockFirstItems[i] = firstItem;
+            firstItem += readNumber(index);
+            this.blockOffsets[i] = index.getLong();
+        }
+        this.itemCount = firstItem;
+    }
+
+    /**
+     * Get the number of items in the snapshot
+     * 
+     * @return the number of items
+     */
+    int getItemCount()
+    {
+        return this.itemCount;
+    }
+
+    /**
+     * Read all items in the order in which they were written
+     * 
+     * @param consumer
+     *            consumer for the items
+     * @throws IOException
+     *             if reading fails
+     */
+    void forEach(final Consumer<SpecificationItem> consumer) throws IOException
+    {
+        for (int block = 0; block < this.blockOffsets.length; ++block)
+        {
+            final Section section = readBlock(block);
+            final SpecificationItemDecoder decoder = createDecoder(section);
+            for (int i = 0; i < section.count; ++i)
+            {
+                consumer.accept(readItem(decoder));
+            }
+        }
+    }
+
+    /**
+     * Read a single item using the index
+     * 
+     * @param itemIndex
+     *            position of the item in the snapshot
+     * @return the item
+     * @throws IOException
+     *             if reading fails
+     */
+    SpecificationItem readItem(final int itemIndex) throws IOException
+    {
+        if (itemIndex < 0 || itemIndex >= this.itemCount)
+        {
+            throw new IndexOutOfBoundsException(
+                    "Item " + itemIndex + " not in snapshot with " + this.itemCount + " items");
+        }
+        final int block = findBlock(itemIndex);
+        final SpecificationItemDecoder decoder = createDecoder(readBlock(block));
+        for (int i = this.blockFirstItems[block]; i < itemIndex; ++i)
+        {
+            readItem(decoder);
+        }
+        return readItem(decoder);
+    }
+
+    private int findBlock(final int itemIndex)
+    {
+        int low = 0;
+        int high = this.blockFirstItems.length - 1;
+        while (low < high)
+        {
+            final int middle = (low + high + 1) >>> 1;
+            if (this.blockFirstItems[middle] <= itemIndex)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private Section readBlock(final int block) throws IOException
+    {
+        final long end = (block + 1 < this.blockOffsets.length) ? this.blockOffsets[block + 1]
+                : this.dictionaryOffset;
+        return readSection(this.blockOffsets[block], end);
+    }
+
+    private Section readSection(final long offset, final long end) throws IOException
+    {
+        final ByteBuffer raw = read(offset, end - offset);
+        final int count = readNumber(raw);
+        final int length = readNumber(raw);
+        if (count < 0 || length != raw.remaining())
+        {
+            throw new IOException("Invalid section length at offset " + offset + " in snapshot "
+                    + this.file);
+        }
+        return new Section(count, this.compressed ? inflate(raw) : raw);
+    }
+
+    private ByteBuffer inflate(final ByteBuffer raw) throws IOException
+    {
+        final Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(raw.array(), raw.arrayOffset() + raw.position(), raw.remaining());
+            byte[] buffer = new byte[Math.max(raw.remaining() * 4, 1024)];
+            int length = 0;
+            while (!inflater.finished())
+            {
+                if (length == buffer.length)
+                {
+                    final byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, length);
+                    buffer = larger;
+                }
+                final int inflated = inflater.inflate(buffer, length, buffer.length - length);
+                if (inflated == 0 && !inflater.finished()
+                        && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    throw new IOException("Truncated compressed data in snapshot " + this.file);
+                }
+                length += inflated;
+            }
+            return ByteBuffer.wrap(buffer, 0, length);
+        }
+        catch (final DataFormatException e)
+        {
+            throw new IOException("Corrupt compressed data in snapshot " + this.file, e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    private ByteBuffer read(final long offset, final long length) throws IOException
+    {
+        if (length < 0 || length > Integer.MAX_VALUE)
+        {
+            throw new IOException("Invalid section length " + length + " in snapshot "
+                    + this.file);
+        }
+        final ByteBuffer buffer = this.source.read(offset, (int) length);
+        if (buffer == null)
+        {
+            throw new IOException("Unexpected end of snapshot " + this.file);
+        }
+        return buffer;
+    }
+
+    private SpecificationItemDecoder createDecoder(final Section section)
+    {
+        return new SpecificationItemDecoder(section.createInput(),
+                StringDictionary.reader(this.dictionary));
+    }
+
+    private SpecificationItem readItem(final SpecificationItemDecoder decoder) throws IOException
+    {
+        try
+        {
+            return decoder.read();
+        }
+        catch (final IOException e)
+        {
+            throw new IOException("Corrupt item data in snapshot " + this.file, e);
+        }
+    }
+
+    /**
+     * Read an unsigned variable-length integer of up to 32 bits.
+     */
+    private static int readNumber(final ByteBuffer data) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7)
+        {
+            final int next = Byte.toUnsignedInt(data.get());
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Number too long");
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.source.close();
+    }
+
+    /**
+     * Random access to the bytes of a snapshot
+     */
+    private interface Source extends Closeable
+    {
+        long size() throws IOException;
+
+        /**
+         * Read a range of bytes into a heap buffer
+         * 
+         * @return buffer positioned at the first byte or <code>null</code> if
+         *         the range exceeds the snapshot
+         */
+        ByteBuffer read(long offset, int length) throws IOException;
+    }
+
+    private static final class FileSource implements Source
+    {
+        private final FileChannel channel;
+
+        private FileSource(final FileChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        @Override
+        public long size() throws IOException
+        {
+            return this.channel.size();
+        }
+
+        @Override
+        public ByteBuffer read(final long offset, final int length) throws IOException
+        {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            long position = offset;
+            while (buffer.hasRemaining())
+            {
+                final int read = this.channel.read(buffer, position);
+                if (read < 0)
+                {
+                    return null;
+                }
+                position += read;
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this.channel.close();
+        }
+    }
+
+    private static final class MemorySource implements Source
+    {
+        private final byte[] content;
+
+        private MemorySource(final byte[] content)
+        {
+            this.content = content;
+        }
+
+        @Override
+        public long size()
+        {
+            return this.content.length;
+        }
+
+        @Override
+        public ByteBuffer read(final long offset, final int length)
+        {
+            if (offset < 0 || offset + length > this.content.length)
+            {
+                return null;
+            }
+            return ByteBuffer.wrap(this.content, (int) offset, length).slice();
+        }
+
+        @Override
+        public void close()
+        {
+            // Nothing to release
+        }
+    }
+
+    private static final class Section
+    {
+        private final int count;
+        private final ByteBuffer data;
+
+        private Section(final int count, final ByteBuffer data)
+        {
+            this.count = count;
+            this.data = data;
+        }
+
+        private DataInputStream createInput()
+        {
+            return new DataInputStream(new ByteArrayInputStream(this.data.array(),
+                    this.data.arrayOffset() + this.data.position(), this.data.remaining()));
+        }
+    }
+}
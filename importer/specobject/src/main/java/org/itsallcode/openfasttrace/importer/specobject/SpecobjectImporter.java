@@ -24,10 +24,13 @@ package org.itsallcode.openfasttrace.importer.specobject;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.EnumSet;
+import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
 
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
 import org.itsallcode.openfasttrace.api.importer.Importer;
 import org.itsallcode.openfasttrace.api.importer.ImporterException;
@@ -49,13 +52,21 @@ class SpecobjectImporter implements Importer
     private final ImportEventListener listener;
     private final InputFile file;
     private final SAXParserFactory saxParserFactory;
+    private final Set<ItemTextField> requiredTextFields;
 
     SpecobjectImporter(final InputFile file, final SAXParserFactory saxParserFactory,
             final ImportEventListener listener)
+    {
+        this(file, saxParserFactory, listener, EnumSet.allOf(ItemTextField.class));
+    }
+
+    SpecobjectImporter(final InputFile file, final SAXParserFactory saxParserFactory,
+            final ImportEventListener listener, final Set<ItemTextField> requiredTextFields)
     {
         this.file = file;
         this.saxParserFactory = saxParserFactory;
         this.listener = listener;
+        this.requiredTextFields = requiredTextFields;
     }
 
     @Override
@@ -66,7 +77,7 @@ class SpecobjectImporter implements Importer
             final XMLReader xmlReader = this.saxParserFactory.newSAXParser().getXMLReader();
             xmlReader.setEntityResolver(new IgnoringEntityResolver());
             final SpecDocumentHandlerBuilder config = new SpecDocumentHandlerBuilder(this.file,
-                    this.listener);
+                    this.listener, this.requiredTextFields);
             final TreeContentHandler treeContentHandler = config.build();
             new ContentHandlerAdapter(this.file.getPath(), xmlReader,
                     new TreeBuildingContentHandler(treeContentHandler)).registerListener();
@@ -22,8 +22,12 @@ package org.itsallcode.openfasttrace.importer.specobject;
  * #L%
  */
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import javax.xml.parsers.SAXParserFactory;
 
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.importer.*;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
 import org.itsallcode.openfasttrace.importer.specobject.xml.SaxParserConfigurator;
@@ -34,6 +38,7 @@ import org.itsallcode.openfasttrace.importer.specobject.xml.SaxParserConfigurato
 public class SpecobjectImporterFactory extends RegexMatchingImporterFactory
 {
     private final SAXParserFactory saxParserFactory;
+    private Set<ItemTextField> requiredTextFields = EnumSet.allOf(ItemTextField.class);
 
     public SpecobjectImporterFactory()
     {
@@ -41,9 +46,21 @@ public class SpecobjectImporterFactory extends RegexMatchingImporterFactory
         this.saxParserFactory = SaxParserConfigurator.createSaxParserFactory();
     }
 
+    @Override
+    public void init(final ImporterContext context)
+    {
+        super.init(context);
+        final ImportSettings settings = context.getImportSettings();
+        if (settings != null)
+        {
+            this.requiredTextFields = settings.getRequiredTextFields();
+        }
+    }
+
     @Override
     public Importer createImporter(final InputFile file, final ImportEventListener listener)
     {
-        return new SpecobjectImporter(file, this.saxParserFactory, listener);
+        return new SpecobjectImporter(file, this.saxParserFactory, listener,
+                this.requiredTextFields);
     }
 }
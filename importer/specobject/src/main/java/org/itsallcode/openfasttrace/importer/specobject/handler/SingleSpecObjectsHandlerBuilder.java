@@ -22,7 +22,11 @@ package org.itsallcode.openfasttrace.importer.specobject.handler;
  * #L%
  */
 
+import java.util.Set;
+import java.util.function.Consumer;
+
 import org.itsallcode.openfasttrace.api.core.ItemStatus;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.Location;
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
 import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
@@ -34,15 +38,18 @@ public class SingleSpecObjectsHandlerBuilder
     private final ImportEventListener listener;
     private final SpecificationItemId.Builder idBuilder;
     private final Location.Builder locationBuilder;
+    private final Set<ItemTextField> requiredTextFields;
     private String containedFileName = null;
     private int containedLine = -1;
 
     public SingleSpecObjectsHandlerBuilder(final ImportEventListener listener,
-            final SpecificationItemId.Builder idBuilder, final Location.Builder locationBuilder)
+            final SpecificationItemId.Builder idBuilder, final Location.Builder locationBuilder,
+            final Set<ItemTextField> requiredTextFields)
     {
         this.listener = listener;
         this.idBuilder = idBuilder;
         this.locationBuilder = locationBuilder;
+        this.requiredTextFields = requiredTextFields;
         this.handler = new CallbackContentHandler();
     }
 
@@ -71,13 +78,27 @@ public class SingleSpecObjectsHandlerBuilder
     {
         this.handler.addCharacterDataListener("id", this::removeArtifactTypeFromName)
                 .addIntDataListener("version", this.idBuilder::revision)
-                .addCharacterDataListener("description", this.listener::appendDescription)
-                .addCharacterDataListener("rationale", this.listener::appendRationale)
-                .addCharacterDataListener("comment", this.listener::appendComment)
                 .addCharacterDataListener("status", this::setStatus)
-                .addCharacterDataListener("shortdesc", this.listener::setTitle)
                 .addCharacterDataListener("sourcefile", this::rememberSourceFile)
                 .addIntDataListener("sourceline", this::rememberSourceLine);
+        addTextDataListener("description", ItemTextField.DESCRIPTION,
+                this.listener::appendDescription);
+        addTextDataListener("rationale", ItemTextField.RATIONALE, this.listener::appendRationale);
+        addTextDataListener("comment", ItemTextField.COMMENT, this.listener::appendComment);
+        addTextDataListener("shortdesc", ItemTextField.TITLE, this.listener::setTitle);
+    }
+
+    private void addTextDataListener(final String element, final ItemTextField field,
+            final Consumer<String> textListener)
+    {
+        if (this.requiredTextFields.contains(field))
+        {
+            this.handler.addCharacterDataListener(element, textListener);
+        }
+        else
+        {
+            this.handler.addIgnoredElement(element);
+        }
     }
 
     private void setStatus(final String statusAsText)
@@ -94,7 +115,7 @@ public class SingleSpecObjectsHandlerBuilder
     {
         for (final String element : elements)
         {
-            this.handler.addCharacterDataListener(element, text -> {});
+            this.handler.addIgnoredElement(element);
         }
     }
 
@@ -22,8 +22,10 @@ package org.itsallcode.openfasttrace.importer.specobject.handler;
  * #L%
  */
 
+import java.util.Set;
 import java.util.logging.Logger;
 
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
 import org.itsallcode.openfasttrace.api.importer.ImporterException;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
@@ -39,11 +41,14 @@ public class SpecDocumentHandlerBuilder
     private final CallbackContentHandler handler;
     private final InputFile file;
     private final ImportEventListener listener;
+    private final Set<ItemTextField> requiredTextFields;
 
-    public SpecDocumentHandlerBuilder(final InputFile file, final ImportEventListener listener)
+    public SpecDocumentHandlerBuilder(final InputFile file, final ImportEventListener listener,
+            final Set<ItemTextField> requiredTextFields)
     {
         this.file = file;
         this.listener = listener;
+        this.requiredTextFields = requiredTextFields;
         this.handler = new CallbackContentHandler();
     }
 
@@ -76,8 +81,8 @@ public class SpecDocumentHandlerBuilder
 
             final String defaultDoctype = doctypeAttribute.getValue();
             this.handler.pushDelegate(
-                    new SpecObjectsHandlerBuilder(this.file, defaultDoctype, this.listener)
-                            .build());
+                    new SpecObjectsHandlerBuilder(this.file, defaultDoctype, this.listener,
+                            this.requiredTextFields).build());
         });
 
         return this.handler;
@@ -22,6 +22,9 @@ package org.itsallcode.openfasttrace.importer.specobject.handler;
  * #L%
  */
 
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.Location;
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId.Builder;
@@ -35,17 +38,19 @@ public class SpecObjectsHandlerBuilder
     private final CallbackContentHandler handler;
     private final InputFile file;
     private final ImportEventListener listener;
+    private final Set<ItemTextField> requiredTextFields;
 
     private Builder idBuilder = new Builder();
     private final String defaultDoctype;
     private Location.Builder locationBuilder;
 
     public SpecObjectsHandlerBuilder(final InputFile file, final String defaultDoctype,
-            final ImportEventListener listener)
+            final ImportEventListener listener, final Set<ItemTextField> requiredTextFields)
     {
         this.file = file;
         this.defaultDoctype = defaultDoctype;
         this.listener = listener;
+        this.requiredTextFields = requiredTextFields;
         this.handler = new CallbackContentHandler();
     }
 
@@ -65,7 +70,7 @@ public class SpecObjectsHandlerBuilder
         this.idBuilder = new SpecificationItemId.Builder() //
                 .artifactType(this.defaultDoctype);
         this.handler.pushDelegate(new SingleSpecObjectsHandlerBuilder(this.listener, this.idBuilder,
-                this.locationBuilder).build());
+                this.locationBuilder, this.requiredTextFields).build());
     }
 
     private void handleEndElement()
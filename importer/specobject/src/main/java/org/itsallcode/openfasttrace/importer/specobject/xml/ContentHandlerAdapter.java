@@ -96,7 +96,7 @@ public class ContentHandlerAdapter extends DefaultHandler implements ContentHand
     @Override
     public void characters(final char[] ch, final int start, final int length)
     {
-        this.delegate.characters(new String(ch, start, length));
+        this.delegate.characters(ch, start, length);
     }
 
     @Override
@@ -31,7 +31,7 @@ public interface EventContentHandler
 
     void endElement(EndElementEvent event);
 
-    void characters(String characters);
+    void characters(char[] ch, int start, int length);
 
     void init(ContentHandlerAdapterController contentHandlerAdapter);
 }
@@ -140,6 +140,12 @@ public class CallbackContentHandler implements TreeContentHandler
         return this;
     }
 
+    public CallbackContentHandler addIgnoredElement(final String elementName)
+    {
+        addElementListener(elementName, TreeElement::discardCharacterData);
+        return this;
+    }
+
     public CallbackContentHandler addCharacterDataListener(final String elementName,
             final Consumer<String> listener)
     {
@@ -67,13 +67,14 @@ public class TreeBuildingContentHandler implements EventContentHandler, TreePars
     }
 
     @Override
-    public void characters(final String characters)
+    public void characters(final char[] ch, final int start, final int length)
     {
         if (this.stack.isEmpty())
         {
-            throw new IllegalStateException("Got characters " + characters + " but stack is empty");
+            throw new IllegalStateException(
+                    "Got characters " + new String(ch, start, length) + " but stack is empty");
         }
-        this.stack.peek().addCharacterData(characters);
+        this.stack.peek().addCharacterData(ch, start, length);
     }
 
     @Override
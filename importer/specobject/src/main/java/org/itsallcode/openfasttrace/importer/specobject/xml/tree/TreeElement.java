@@ -33,7 +33,8 @@ import org.itsallcode.openfasttrace.importer.specobject.xml.event.StartElementEv
 public class TreeElement
 {
     private final StartElementEvent element;
-    private final StringBuilder characterData = new StringBuilder();
+    private StringBuilder characterData;
+    private boolean characterDataDiscarded = false;
     private final List<Consumer<TreeElement>> endElementListeners = new LinkedList<>();
     private final TreeElement parent;
 
@@ -50,7 +51,7 @@ public class TreeElement
 
     public String getCharacterData()
     {
-        return this.characterData.toString();
+        return (this.characterData == null) ? "" : this.characterData.toString();
     }
 
     public boolean isRootElement()
@@ -58,9 +59,27 @@ public class TreeElement
         return this.parent == null;
     }
 
-    void addCharacterData(final String characters)
+    void addCharacterData(final char[] ch, final int start, final int length)
     {
-        this.characterData.append(characters);
+        if (this.characterDataDiscarded)
+        {
+            return;
+        }
+        if (this.characterData == null)
+        {
+            this.characterData = new StringBuilder(length);
+        }
+        this.characterData.append(ch, start, length);
+    }
+
+    /**
+     * Drop the character data of this element instead of collecting it. This
+     * saves copying texts that are never used.
+     */
+    public void discardCharacterData()
+    {
+        this.characterDataDiscarded = true;
+        this.characterData = null;
     }
 
     void setEndElementListener(final Consumer<TreeElement> newEndElementListener)
@@ -71,7 +90,7 @@ public class TreeElement
     @Override
     public String toString()
     {
-        return "TreeElement [element=" + this.element + ", characterData=" + this.characterData
+        return "TreeElement [element=" + this.element + ", characterData=" + getCharacterData()
                 + ", endElementListeners=" + this.endElementListeners + "]";
     }
 
@@ -29,10 +29,13 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import java.io.BufferedReader;
 import java.io.StringReader;
 import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Set;
 
 import javax.xml.parsers.SAXParserFactory;
 
 import org.itsallcode.openfasttrace.api.core.ItemStatus;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.Location;
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
 import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
@@ -62,6 +65,12 @@ class TestSpecobjectImporter
     }
 
     private ImportEventListener importFromString(final String text)
+    {
+        return importFromString(text, EnumSet.allOf(ItemTextField.class));
+    }
+
+    private ImportEventListener importFromString(final String text,
+            final Set<ItemTextField> requiredTextFields)
     {
         final ImportEventListener listenerMock = mock(ImportEventListener.class);
         final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
@@ -69,7 +78,7 @@ class TestSpecobjectImporter
         final InputFile file = StreamInput.forReader(Paths.get(PSEUDO_FILENAME),
                 new BufferedReader(stringReader));
         final SpecobjectImporter importer = new SpecobjectImporter(file, saxParserFactory,
-                listenerMock);
+                listenerMock, requiredTextFields);
         importer.runImport();
         return listenerMock;
     }
@@ -103,6 +112,27 @@ class TestSpecobjectImporter
         verifyNoMoreInteractions(listenerMock);
     }
 
+    @Test
+    void testImportSkipsTextFieldsThatAreNotRequired()
+    {
+        final ImportEventListener listenerMock = importFromString("<specobjects doctype=\"req\">\n" //
+                + "  <specobject>\n" //
+                + "    <id>complex</id>\n" //
+                + "    <version>2</version>\n" //
+                + "    <shortdesc>my short description</shortdesc>\n" //
+                + "    <description>the description</description>\n" //
+                + "    <rationale>the rationale</rationale>" //
+                + "    <comment>the comment</comment>\n" //
+                + "  </specobject>\n" //
+                + "</specobjects>", EnumSet.of(ItemTextField.DESCRIPTION));
+        verify(listenerMock).beginSpecificationItem();
+        verify(listenerMock).setLocation(STANDARD_LOCATION);
+        verify(listenerMock).setId(SpecificationItemId.parseId("req~complex~2"));
+        verify(listenerMock).appendDescription("the description");
+        verify(listenerMock).endSpecificationItem();
+        verifyNoMoreInteractions(listenerMock);
+    }
+
     @Test
     void testImportOnlyShortDescription()
     {
@@ -0,0 +1,265 @@
+package org.itsallcode.openfasttrace.importer.tag;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+
+/**
+ * Reads a file on disk as raw bytes and passes only the lines that contain an
+ * opening bracket to a {@link TagScanner}.
+ * 
+ * Unlike the {@link LineReader} this reader does not decode the file. It
+ * counts line terminators in the raw bytes and lets the scanner look at the
+ * bytes of a line through a {@link CharSequence} view. Only the text of the
+ * tags the scanner finds becomes a {@link String}. This works for all
+ * charsets in which the ASCII characters of the tag syntax and the line
+ * terminators are single bytes that never occur inside other characters.
+ * 
+ * The read buffer is reused for all files read on the same thread. It only
+ * grows if a single line does not fit into it.
+ */
+class ByteLineReader
+{
+    private static final List<Charset> SUPPORTED_CHARSETS = Arrays.asList(
+            StandardCharsets.UTF_8, StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1);
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal
+            .withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte TAG_START = '[';
+    private static final int NO_TAG_START = -1;
+
+    private final RealFileInput file;
+    private final ByteSequence line = new ByteSequence();
+    private byte[] buffer;
+    private int lineNumber;
+
+    private ByteLineReader(final RealFileInput file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Check if a file can be read as raw bytes
+     * 
+     * @param file
+     *            the file to check
+     * @return <code>true</code> if the file is a real file with a supported
+     *         charset
+     */
+    static boolean supports(final InputFile file)
+    {
+        return (file instanceof RealFileInput)
+                && SUPPORTED_CHARSETS.contains(((RealFileInput) file).getCharset());
+    }
+
+    /**
+     * Create a new {@link ByteLineReader}
+     * 
+     * @param file
+     *            the file to read, see {@link #supports(InputFile)}
+     * @return a new reader
+     */
+    static ByteLineReader create(final InputFile file)
+    {
+        if (!supports(file))
+        {
+            throw new IllegalArgumentException("File '" + file + "' can not be read as bytes");
+        }
+        return new ByteLineReader((RealFileInput) file);
+    }
+
+    /**
+     * Read the file and scan all lines that contain an opening bracket
+     * 
+     * @param scanner
+     *            scanner for the lines
+     */
+    void readLines(final TagScanner scanner)
+    {
+        this.buffer = BUFFER.get();
+        this.lineNumber = 0;
+        try (final InputStream stream = Files.newInputStream(this.file.toPath()))
+        {
+            readLines(stream, scanner);
+        }
+        catch (final IOException exception)
+        {
+            throw new ImporterException(
+                    "Error reading \"" + this.file + "\" at line " + this.lineNumber, exception);
+        }
+        finally
+        {
+            BUFFER.set(this.buffer);
+            this.buffer = null;
+        }
+    }
+
+    private void readLines(final InputStream stream, final TagScanner scanner) throws IOException
+    {
+        int lineStart = 0;
+        int position = 0;
+        int limit = 0;
+        int tagStart = NO_TAG_START;
+        boolean afterCarriageReturn = false;
+        int bytesRead;
+        while ((bytesRead = stream.read(this.buffer, limit, this.buffer.length - limit)) >= 0)
+        {
+            limit += bytesRead;
+            for (; position < limit; ++position)
+            {
+                final byte current = this.buffer[position];
+                if (current == LINE_FEED && afterCarriageReturn)
+                {
+                    lineStart = position + 1;
+                    afterCarriageReturn = false;
+                }
+                else if (current == LINE_FEED || current == CARRIAGE_RETURN)
+                {
+                    ++this.lineNumber;
+                    if (tagStart != NO_TAG_START)
+                    {
+                        scanLine(scanner, lineStart, position, tagStart);
+                        tagStart = NO_TAG_START;
+                    }
+                    lineStart = position + 1;
+                    afterCarriageReturn = (current == CARRIAGE_RETURN);
+                }
+                else
+                {
+                    if (current == TAG_START && tagStart == NO_TAG_START)
+                    {
+                        tagStart = position;
+                    }
+                    afterCarriageReturn = false;
+                }
+            }
+            final int shift = keepIncompleteLine(lineStart, limit);
+            lineStart -= shift;
+            position -= shift;
+            limit -= shift;
+            if (tagStart != NO_TAG_START)
+            {
+                tagStart -= shift;
+            }
+        }
+        if (lineStart < limit)
+        {
+            ++this.lineNumber;
+            if (tagStart != NO_TAG_START)
+            {
+                scanLine(scanner, lineStart, limit, tagStart);
+            }
+        }
+    }
+
+    /**
+     * Move the start of an incomplete line to the beginning of the buffer and
+     * grow the buffer if the line fills all of it.
+     * 
+     * @return the number of bytes the line moved
+     */
+    private int keepIncompleteLine(final int lineStart, final int limit)
+    {
+        final int length = limit - lineStart;
+        if (lineStart == 0 && length == this.buffer.length)
+        {
+            this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+        }
+        else if (lineStart > 0)
+        {
+            System.arraycopy(this.buffer, lineStart, this.buffer, 0, length);
+        }
+        return lineStart;
+    }
+
+    private void scanLine(final TagScanner scanner, final int start, final int end,
+            final int tagStart)
+    {
+        this.line.set(this.buffer, start, end - start);
+        try
+        {
+            scanner.scanLine(this.lineNumber, this.line, tagStart - start);
+        }
+        catch (final Exception e)
+        {
+            throw LineReader.createProcessingException(this.file, this.lineNumber,
+                    new String(this.buffer, start, end - start, this.file.getCharset()), e);
+        }
+    }
+
+    /**
+     * View on the bytes of a line that treats each byte as a character. This
+     * is correct for all ASCII characters in the supported charsets.
+     */
+    private static final class ByteSequence implements CharSequence
+    {
+        private byte[] bytes;
+        private int offset;
+        private int length;
+
+        private void set(final byte[] bytes, final int offset, final int length)
+        {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length()
+        {
+            return this.length;
+        }
+
+        @Override
+        public char charAt(final int index)
+        {
+            return (char) (this.bytes[this.offset + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end)
+        {
+            final ByteSequence sequence = new ByteSequence();
+            sequence.set(this.bytes, this.offset + start, end - start);
+            return sequence;
+        }
+
+        @Override
+        public String toString()
+        {
+            return new String(this.bytes, this.offset, this.length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -70,11 +70,17 @@ public class LineReader
         }
         catch (final Exception e)
         {
-            throw new ImporterException("Error processing line " + this.file.getPath() + ":"
-                    + currentLineNumber + " (" + line + "): " + e.getMessage(), e);
+            throw createProcessingException(this.file, currentLineNumber, line, e);
         }
     }
 
+    static ImporterException createProcessingException(final InputFile file,
+            final int lineNumber, final String line, final Exception cause)
+    {
+        return new ImporterException("Error processing line " + file.getPath() + ":" + lineNumber
+                + " (" + line + "): " + cause.getMessage(), cause);
+    }
+
     @FunctionalInterface
     public interface LineConsumer
     {
@@ -0,0 +1,87 @@
+package org.itsallcode.openfasttrace.importer.tag;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+import java.util.logging.Logger;
+
+import org.itsallcode.openfasttrace.api.core.CoverageTag;
+import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+
+/**
+ * Creates a {@link CoverageTag} for each long tag
+ * (<code>[impl-&gt;dsn~name~1]</code>) that the {@link TagScanner} found. All
+ * tags of a file share the same path instance.
+ */
+// [impl->dsn~import.full-coverage-tag~1]
+class LongTagHandler
+{
+    private static final Logger LOG = Logger.getLogger(LongTagHandler.class.getName());
+
+    private final InputFile file;
+    private final ImportEventListener listener;
+    private String path;
+
+    LongTagHandler(final InputFile file, final ImportEventListener listener)
+    {
+        this.file = file;
+        this.listener = listener;
+    }
+
+    void handleTag(final int lineNumber, final int lineMatchCount,
+            final String coveringArtifactType, final String coveredIdText)
+    {
+        final SpecificationItemId coveredId = SpecificationItemId.parseId(coveredIdText);
+        final String path = getPath();
+        final CoverageTag tag = CoverageTag.builder() //
+                .coveringArtifactType(coveringArtifactType) //
+                .coveredId(coveredId) //
+                .location(path, lineNumber) //
+                .checksum(calculateChecksum(path, coveredId, lineNumber, lineMatchCount)) //
+                .build();
+        LOG.finest(() -> "File " + this.file + ":" + lineNumber + ": found '" + tag.getId()
+                + "' covering id '" + coveredId + "'");
+        this.listener.addCoverageTag(tag);
+    }
+
+    private String getPath()
+    {
+        if (this.path == null)
+        {
+            this.path = this.file.getPath();
+        }
+        return this.path;
+    }
+
+    private static long calculateChecksum(final String path, final SpecificationItemId coveredId,
+            final int lineNumber, final int counter)
+    {
+        final String uniqueName = new StringBuilder() //
+                .append(path) //
+                .append(lineNumber) //
+                .append(counter) //
+                .append(coveredId) //
+                .toString();
+        return ChecksumCalculator.calculateCrc32(uniqueName);
+    }
+}
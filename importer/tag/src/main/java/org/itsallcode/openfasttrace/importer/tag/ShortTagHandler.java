@@ -23,7 +23,6 @@ package org.itsallcode.openfasttrace.importer.tag;
  */
 
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
 
 import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
 import org.itsallcode.openfasttrace.api.importer.ImportEventListener;
@@ -31,38 +30,31 @@ import org.itsallcode.openfasttrace.api.importer.ImporterException;
 import org.itsallcode.openfasttrace.api.importer.input.InputFile;
 import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
 
+/**
+ * Creates a specification item for each short tag
+ * (<code>[[name:1]]</code>) that the {@link TagScanner} found. The artifact
+ * types and the name prefix come from the {@link PathConfig} of the file.
+ */
 // [impl->dsn~import.short-coverage-tag~1]
-class ShortTagImportingLineConsumer extends RegexLineConsumer
+class ShortTagHandler
 {
-    private static final Logger LOG = Logger
-            .getLogger(ShortTagImportingLineConsumer.class.getName());
-
-    private static final String TAG_PREFIX = "\\[\\[";
-    private static final String TAG_SUFFIX = "\\]\\]";
-    private static final String TAG_REGEX = TAG_PREFIX //
-            + SpecificationItemId.ITEM_NAME_PATTERN //
-            + ":" //
-            + "(\\w+)" //
-            + TAG_SUFFIX;
+    private static final Logger LOG = Logger.getLogger(ShortTagHandler.class.getName());
 
     private final PathConfig pathConfig;
     private final ImportEventListener listener;
     private final InputFile file;
 
-    ShortTagImportingLineConsumer(final PathConfig pathConfig, final InputFile file,
+    ShortTagHandler(final PathConfig pathConfig, final InputFile file,
             final ImportEventListener listener)
     {
-        super(TAG_REGEX);
         this.pathConfig = pathConfig;
         this.file = file;
         this.listener = listener;
     }
 
-    @Override
-    void processMatch(final Matcher matcher, final int lineNumber, final int lineMatchCount)
+    void handleTag(final int lineNumber, final int lineMatchCount,
+            final String coveredItemName, final String coveredItemRevision)
     {
-        final String coveredItemName = matcher.group(1);
-        final String coveredItemRevision = matcher.group(2);
         final SpecificationItemId coveredId = createCoveredItem(coveredItemName,
                 coveredItemRevision);
 
@@ -0,0 +1,310 @@
+package org.itsallcode.openfasttrace.importer.tag;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.importer.tag.LineReader.LineConsumer;
+
+/**
+ * {@link LineConsumer} that finds long tags (<code>[impl-&gt;dsn~name~1]</code>)
+ * and short tags (<code>[[name:1]]</code>) in a single pass over each line.
+ * 
+ * Most lines of a source file contain no opening bracket, so they are skipped
+ * after a single {@link String#indexOf(int)}. The remaining lines are scanned
+ * from one bracket to the next with a hand-written recognizer for the tag
+ * syntax instead of a regular expression.
+ * 
+ * The recognizer accepts exactly what the patterns in
+ * {@link org.itsallcode.openfasttrace.api.core.SpecificationItemId} accept.
+ * Each tag kind continues searching after the end of its last match, just like
+ * {@link java.util.regex.Matcher#find()}. Handlers receive all long tags of a
+ * line before its short tags.
+ */
+class TagScanner implements LineConsumer
+{
+    private static final int NO_MATCH = -1;
+    private static final char NONE = '\0';
+    private static final char TAG_START = '[';
+    private static final char TAG_END = ']';
+    private static final String ARROW = "->";
+    private static final char ID_SEPARATOR = '~';
+    private static final char NAME_SEGMENT_SEPARATOR = '.';
+    private static final char SHORT_TAG_REVISION_SEPARATOR = ':';
+
+    private final LongTagHandler longTagHandler;
+    private final ShortTagHandler shortTagHandler;
+    private final List<String> shortTagParts = new ArrayList<>();
+
+    /**
+     * Create a new {@link TagScanner}.
+     * 
+     * @param longTagHandler
+     *            handler for long tags
+     * @param shortTagHandler
+     *            handler for short tags or <code>null</code> if short tags
+     *            should not be recognized
+     */
+    TagScanner(final LongTagHandler longTagHandler, final ShortTagHandler shortTagHandler)
+    {
+        this.longTagHandler = longTagHandler;
+        this.shortTagHandler = shortTagHandler;
+    }
+
+    @Override
+    public void readLine(final int lineNumber, final String line)
+    {
+        final int start = line.indexOf(TAG_START);
+        if (start >= 0)
+        {
+            scanLine(lineNumber, line, start);
+        }
+    }
+
+    /**
+     * Scan a line for tags starting at its first opening bracket.
+     * 
+     * @param lineNumber
+     *            number of the line in the file
+     * @param line
+     *            content of the line without line terminator
+     * @param firstTagStart
+     *            position of the first opening bracket in the line
+     */
+    void scanLine(final int lineNumber, final CharSequence line, final int firstTagStart)
+    {
+        int start = firstTagStart;
+        this.shortTagParts.clear();
+        int longTagCount = 0;
+        int nextLongTagStart = 0;
+        int nextShortTagStart = 0;
+        while (start >= 0)
+        {
+            if (start >= nextLongTagStart)
+            {
+                final int end = matchLongTag(line, start);
+                if (end != NO_MATCH)
+                {
+                    handleLongTag(lineNumber, longTagCount++, line, start, end);
+                    nextLongTagStart = end;
+                }
+            }
+            if (this.shortTagHandler != null && start >= nextShortTagStart)
+            {
+                final int end = matchShortTag(line, start);
+                if (end != NO_MATCH)
+                {
+                    collectShortTag(line, start, end);
+                    nextShortTagStart = end;
+                }
+            }
+            start = indexOf(line, TAG_START, start + 1);
+        }
+        handleShortTags(lineNumber);
+    }
+
+    private void handleLongTag(final int lineNumber, final int lineMatchCount,
+            final CharSequence line, final int start, final int end)
+    {
+        final int arrow = skipLetters(line, start + 1);
+        this.longTagHandler.handleTag(lineNumber, lineMatchCount,
+                substring(line, start + 1, arrow),
+                substring(line, arrow + ARROW.length(), end - 1));
+    }
+
+    private void collectShortTag(final CharSequence line, final int start, final int end)
+    {
+        final int nameEnd = matchName(line, start + 2);
+        this.shortTagParts.add(substring(line, start + 2, nameEnd));
+        this.shortTagParts.add(substring(line, nameEnd + 1, end - 2));
+    }
+
+    private void handleShortTags(final int lineNumber)
+    {
+        for (int index = 0; index < this.shortTagParts.size(); index += 2)
+        {
+            this.shortTagHandler.handleTag(lineNumber, index / 2, this.shortTagParts.get(index),
+                    this.shortTagParts.get(index + 1));
+        }
+    }
+
+    // [<letters>-><letters>~<name>~<digits>]
+    private static int matchLongTag(final CharSequence line, final int start)
+    {
+        final int arrow = skipLetters(line, start + 1);
+        if (arrow == start + 1 || !startsWith(line, ARROW, arrow))
+        {
+            return NO_MATCH;
+        }
+        final int idEnd = matchId(line, arrow + ARROW.length());
+        return (idEnd != NO_MATCH && charAt(line, idEnd) == TAG_END) ? idEnd + 1 : NO_MATCH;
+    }
+
+    private static int matchId(final CharSequence line, final int start)
+    {
+        final int artifactTypeEnd = skipLetters(line, start);
+        if (artifactTypeEnd == start || charAt(line, artifactTypeEnd) != ID_SEPARATOR)
+        {
+            return NO_MATCH;
+        }
+        final int nameEnd = matchName(line, artifactTypeEnd + 1);
+        if (nameEnd == NO_MATCH || charAt(line, nameEnd) != ID_SEPARATOR)
+        {
+            return NO_MATCH;
+        }
+        final int revisionEnd = skipDigits(line, nameEnd + 1);
+        return (revisionEnd == nameEnd + 1) ? NO_MATCH : revisionEnd;
+    }
+
+    // [[<name>:<word characters>]]
+    private static int matchShortTag(final CharSequence line, final int start)
+    {
+        if (charAt(line, start + 1) != TAG_START)
+        {
+            return NO_MATCH;
+        }
+        final int nameEnd = matchName(line, start + 2);
+        if (nameEnd == NO_MATCH || charAt(line, nameEnd) != SHORT_TAG_REVISION_SEPARATOR)
+        {
+            return NO_MATCH;
+        }
+        final int revisionEnd = skipWordCharacters(line, nameEnd + 1);
+        if (revisionEnd == nameEnd + 1 || charAt(line, revisionEnd) != TAG_END
+                || charAt(line, revisionEnd + 1) != TAG_END)
+        {
+            return NO_MATCH;
+        }
+        return revisionEnd + 2;
+    }
+
+    // Segments separated by dots, each starting with a letter followed by word
+    // characters or hyphens
+    private static int matchName(final CharSequence line, final int start)
+    {
+        if (!isLetter(charAt(line, start)))
+        {
+            return NO_MATCH;
+        }
+        int position = skipNameCharacters(line, start + 1);
+        while (charAt(line, position) == NAME_SEGMENT_SEPARATOR
+                && isLetter(charAt(line, position + 1)))
+        {
+            position = skipNameCharacters(line, position + 2);
+        }
+        return position;
+    }
+
+    private static int skipLetters(final CharSequence line, final int start)
+    {
+        int position = start;
+        while (isLetter(charAt(line, position)))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static int skipDigits(final CharSequence line, final int start)
+    {
+        int position = start;
+        while (isDigit(charAt(line, position)))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static int skipWordCharacters(final CharSequence line, final int start)
+    {
+        int position = start;
+        while (isWordCharacter(charAt(line, position)))
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static int skipNameCharacters(final CharSequence line, final int start)
+    {
+        int position = start;
+        char character = charAt(line, position);
+        while (isWordCharacter(character) || character == '-')
+        {
+            character = charAt(line, ++position);
+        }
+        return position;
+    }
+
+    private static char charAt(final CharSequence line, final int position)
+    {
+        return (position < line.length()) ? line.charAt(position) : NONE;
+    }
+
+    private static int indexOf(final CharSequence line, final char character, final int start)
+    {
+        for (int position = start; position < line.length(); ++position)
+        {
+            if (line.charAt(position) == character)
+            {
+                return position;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private static boolean startsWith(final CharSequence line, final String prefix,
+            final int start)
+    {
+        for (int index = 0; index < prefix.length(); ++index)
+        {
+            if (charAt(line, start + index) != prefix.charAt(index))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String substring(final CharSequence line, final int start, final int end)
+    {
+        return line.subSequence(start, end).toString();
+    }
+
+    // Same as \p{Alpha} without the UNICODE_CHARACTER_CLASS flag
+    private static boolean isLetter(final char character)
+    {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+    }
+
+    private static boolean isDigit(final char character)
+    {
+        return character >= '0' && character <= '9';
+    }
+
+    // Same as \w without the UNICODE_CHARACTER_CLASS flag
+    private static boolean isWordCharacter(final char character)
+    {
+        return isLetter(character) || isDigit(character) || character == '_';
+    }
+}
@@ -0,0 +1,209 @@
+package org.itsallcode.openfasttrace.importer.tag;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.testutil.importer.input.StreamInput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+// [utest->dsn~import.full-coverage-tag~1]
+// [utest->dsn~import.short-coverage-tag~1]
+@ExtendWith(TempDirectory.class)
+class TestByteLineReader
+{
+    private static final String LONG_TAG = longTag("impl", "dsn~name~1");
+    private static final String SHORT_TAG = "[[" + "name.suffix" + ":" + "2" + "]]";
+    private static final int LONG_LINE_LENGTH = 200 * 1024;
+
+    private Path file;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.file = tempDir.resolve("source.java");
+    }
+
+    @Test
+    void testSupportsRealFilesWithAsciiCompatibleCharset()
+    {
+        assertThat(ByteLineReader.supports(RealFileInput.forPath(this.file)), equalTo(true));
+        assertThat(ByteLineReader.supports(
+                RealFileInput.forPath(this.file, StandardCharsets.ISO_8859_1)), equalTo(true));
+        assertThat(ByteLineReader.supports(
+                RealFileInput.forPath(this.file, StandardCharsets.UTF_16)), equalTo(false));
+        assertThat(ByteLineReader.supports(StreamInput.forReader(this.file,
+                new BufferedReader(new StringReader("")))), equalTo(false));
+    }
+
+    @Test
+    void testCreateForUnsupportedFileThrowsException()
+    {
+        final InputFile utf16File = RealFileInput.forPath(this.file, StandardCharsets.UTF_16);
+        assertThrows(IllegalArgumentException.class, () -> ByteLineReader.create(utf16File));
+    }
+
+    @Test
+    void testEmptyFile() throws IOException
+    {
+        assertSameItemsAsLineReader("", 0);
+    }
+
+    @Test
+    void testFileWithoutTags() throws IOException
+    {
+        assertSameItemsAsLineReader("no tags\nin [this] file\r\n", 0);
+    }
+
+    @Test
+    void testTagInLastLineWithoutTerminator() throws IOException
+    {
+        assertSameItemsAsLineReader("line 1\nline 2 " + LONG_TAG, 1);
+    }
+
+    @Test
+    void testLineNumbersWithMixedLineTerminators() throws IOException
+    {
+        assertSameItemsAsLineReader(LONG_TAG + "\n" + LONG_TAG + "\r\n" + LONG_TAG + "\r"
+                + LONG_TAG + "\n\r" + LONG_TAG + "\r\r\n\n" + LONG_TAG, 6);
+    }
+
+    @Test
+    void testLongAndShortTagsInOneLine() throws IOException
+    {
+        assertSameItemsAsLineReader(SHORT_TAG + " " + LONG_TAG + " " + SHORT_TAG + "\n", 3);
+    }
+
+    @Test
+    void testTagsAfterNonAsciiCharacters() throws IOException
+    {
+        assertSameItemsAsLineReader("// äöü € 😀 " + LONG_TAG + "\nßé" + SHORT_TAG, 2);
+    }
+
+    @Test
+    void testTagsInIsoEncodedFile() throws IOException
+    {
+        final String content = "// äöü " + LONG_TAG + "\nßé" + SHORT_TAG;
+        Files.write(this.file, content.getBytes(StandardCharsets.ISO_8859_1));
+        assertThat(importItems(RealFileInput.forPath(this.file, StandardCharsets.ISO_8859_1)),
+                equalTo(importLines(content)));
+    }
+
+    @Test
+    void testLinesLongerThanBuffer() throws IOException
+    {
+        final String padding = repeat('x', LONG_LINE_LENGTH);
+        assertSameItemsAsLineReader(LONG_TAG + padding + LONG_TAG + "\n" + padding + "\n"
+                + padding + SHORT_TAG + "\r\n" + LONG_TAG, 4);
+    }
+
+    @Test
+    void testTagsAcrossBufferBoundaries() throws IOException
+    {
+        final StringBuilder content = new StringBuilder();
+        int lineLength = 1;
+        while (content.length() < LONG_LINE_LENGTH)
+        {
+            content.append(repeat(' ', lineLength % 97)).append(LONG_TAG).append("\r\n");
+            ++lineLength;
+        }
+        assertSameItemsAsLineReader(content.toString(), lineLength - 1);
+    }
+
+    @Test
+    void testErrorMessageContainsDecodedLine() throws IOException
+    {
+        final String line = "// ä " + "[[" + "name" + ":" + "invalid" + "]]";
+        Files.write(this.file, ("first line\n" + line).getBytes(StandardCharsets.UTF_8));
+        final ImporterException exception = assertThrows(ImporterException.class,
+                () -> importItems(RealFileInput.forPath(this.file)));
+        assertThat(exception.getMessage(), equalTo("Error processing line " + this.file + ":2 ("
+                + line + "): Error parsing revision 'invalid' for item 'name'."));
+    }
+
+    private void assertSameItemsAsLineReader(final String content, final int expectedItemCount)
+            throws IOException
+    {
+        Files.write(this.file, content.getBytes(StandardCharsets.UTF_8));
+        final List<SpecificationItem> items = importItems(RealFileInput.forPath(this.file));
+        assertThat(items, hasSize(expectedItemCount));
+        assertThat(items, equalTo(importLines(content)));
+    }
+
+    private List<SpecificationItem> importLines(final String content)
+    {
+        return importItems(
+                StreamInput.forReader(this.file, new BufferedReader(new StringReader(content))));
+    }
+
+    private static List<SpecificationItem> importItems(final InputFile input)
+    {
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        TagImporter.create(Optional.of(createPathConfig()), input, builder).runImport();
+        return builder.build();
+    }
+
+    private static PathConfig createPathConfig()
+    {
+        return PathConfig.builder() //
+                .patternPathMatcher("glob:**") //
+                .coveredItemArtifactType("dsn") //
+                .tagArtifactType("impl") //
+                .build();
+    }
+
+    private static String longTag(final String coveringArtifactType, final String coveredId)
+    {
+        return "[" + coveringArtifactType + "->" + coveredId + "]";
+    }
+
+    private static String repeat(final char character, final int count)
+    {
+        final char[] characters = new char[count];
+        Arrays.fill(characters, character);
+        return new String(characters);
+    }
+}
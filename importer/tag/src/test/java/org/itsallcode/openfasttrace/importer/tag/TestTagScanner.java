@@ -0,0 +1,207 @@
+package org.itsallcode.openfasttrace.importer.tag;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// [utest->dsn~import.full-coverage-tag~1]
+// [utest->dsn~import.short-coverage-tag~1]
+class TestTagScanner
+{
+    private List<String> tags;
+    private TagScanner scanner;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.tags = new ArrayList<>();
+        this.scanner = new TagScanner(new RecordingLongTagHandler(this.tags),
+                new RecordingShortTagHandler(this.tags));
+    }
+
+    @Test
+    void testLineWithoutBracket()
+    {
+        assertTags("no tag here -> dsn~name~1");
+    }
+
+    @Test
+    void testLongTag()
+    {
+        assertTags("// " + longTag("impl", "dsn~name~1"), "long 1 0 impl dsn~name~1");
+    }
+
+    @Test
+    void testLongTagWithDottedAndHyphenatedName()
+    {
+        assertTags(longTag("utest", "dsn~a.b-c_d.e9~12"), "long 1 0 utest dsn~a.b-c_d.e9~12");
+    }
+
+    @Test
+    void testShortTag()
+    {
+        assertTags("# " + shortTag("name.suffix", "2"), "short 1 0 name.suffix 2");
+    }
+
+    @Test
+    void testLongTagsReportedBeforeShortTags()
+    {
+        assertTags(shortTag("first", "1") + " " + longTag("impl", "dsn~second~2") + " "
+                + shortTag("third", "3") + " " + longTag("impl", "dsn~fourth~4"),
+                "long 1 0 impl dsn~second~2", "long 1 1 impl dsn~fourth~4",
+                "short 1 0 first 1", "short 1 1 third 3");
+    }
+
+    @Test
+    void testLongTagInsideDoubleBrackets()
+    {
+        assertTags("[" + longTag("impl", "dsn~name~1") + "]", "long 1 0 impl dsn~name~1");
+    }
+
+    @Test
+    void testAdjacentTags()
+    {
+        assertTags(longTag("a", "b~c~1") + longTag("a", "b~d~2") + shortTag("e", "3")
+                + shortTag("f", "4"), "long 1 0 a b~c~1",
+                "long 1 1 a b~d~2", "short 1 0 e 3", "short 1 1 f 4");
+    }
+
+    @Test
+    void testInvalidLongTags()
+    {
+        assertTags("[->dsn~a~1] [impl>dsn~a~1] [impl->dsn~a~] [impl->dsn~1a~1] [impl->dsn~a~1 "
+                + "[impl->dsn~~1] [impl->~a~1] [impl1->dsn~a~1] [impl->dsn~a~1x]");
+    }
+
+    @Test
+    void testInvalidShortTags()
+    {
+        assertTags("[name:1]] [[name:1] [[:1]] [[name:]] [[1name:1]] [[name:1-2]]");
+    }
+
+    @Test
+    void testNameEndsBeforeDotNotFollowedByLetter()
+    {
+        assertTags("[impl->dsn~a.1~1] [impl->dsn~a.~1] [[a.1:1]]");
+    }
+
+    @Test
+    void testNonAsciiLettersAreNotPartOfTags()
+    {
+        assertTags("[impl->dsn~ä~1] [[näme:1]]");
+    }
+
+    @Test
+    void testShortTagRevisionAcceptsWordCharacters()
+    {
+        assertTags(shortTag("name", "rev_1"), "short 1 0 name rev_1");
+    }
+
+    @Test
+    void testShortTagsIgnoredWithoutShortTagHandler()
+    {
+        this.scanner = new TagScanner(new RecordingLongTagHandler(this.tags), null);
+        assertTags(shortTag("name", "1") + " " + longTag("impl", "dsn~name~1"),
+                "long 1 0 impl dsn~name~1");
+    }
+
+    @Test
+    void testCountersRestartOnEachLine()
+    {
+        final String line = longTag("a", "b~c~1") + " " + shortTag("d", "1");
+        this.scanner.readLine(1, line);
+        this.scanner.readLine(2, line);
+        assertThat(this.tags, contains("long 1 0 a b~c~1", "short 1 0 d 1", "long 2 0 a b~c~1",
+                "short 2 0 d 1"));
+    }
+
+    // Tags are assembled at runtime, so that the self-trace does not find them
+    private static String longTag(final String coveringArtifactType, final String coveredId)
+    {
+        return "[" + coveringArtifactType + "->" + coveredId + "]";
+    }
+
+    private static String shortTag(final String name, final String revision)
+    {
+        return "[[" + name + ":" + revision + "]]";
+    }
+
+    private void assertTags(final String line, final String... expectedTags)
+    {
+        this.scanner.readLine(1, line);
+        if (expectedTags.length == 0)
+        {
+            assertThat(this.tags, empty());
+        }
+        else
+        {
+            assertThat(this.tags, contains(expectedTags));
+        }
+    }
+
+    private static class RecordingLongTagHandler extends LongTagHandler
+    {
+        private final List<String> tags;
+
+        private RecordingLongTagHandler(final List<String> tags)
+        {
+            super(null, null);
+            this.tags = tags;
+        }
+
+        @Override
+        void handleTag(final int lineNumber, final int lineMatchCount,
+                final String coveringArtifactType, final String coveredIdText)
+        {
+            this.tags.add("long " + lineNumber + " " + lineMatchCount + " "
+                    + coveringArtifactType + " " + coveredIdText);
+        }
+    }
+
+    private static class RecordingShortTagHandler extends ShortTagHandler
+    {
+        private final List<String> tags;
+
+        private RecordingShortTagHandler(final List<String> tags)
+        {
+            super(null, null, null);
+            this.tags = tags;
+        }
+
+        @Override
+        void handleTag(final int lineNumber, final int lineMatchCount,
+                final String coveredItemName, final String coveredItemRevision)
+        {
+            this.tags.add("short " + lineNumber + " " + lineMatchCount + " " + coveredItemName
+                    + " " + coveredItemRevision);
+        }
+    }
+}
@@ -85,6 +85,12 @@ public class ZipEntryInput implements InputFile
 
     @Override
     public BufferedReader createReader() throws IOException
+    {
+        return new BufferedReader(new InputStreamReader(createInputStream(), this.charset));
+    }
+
+    @Override
+    public InputStream createInputStream() throws IOException
     {
         final InputStream inputStream = this.zip.getInputStream(this.entry);
         if (inputStream == null)
@@ -92,7 +98,7 @@ public class ZipEntryInput implements InputFile
             throw new ImporterException(
                     "Entry '" + this.entry + "' does not exist in zip file " + this.zip.getName());
         }
-        return new BufferedReader(new InputStreamReader(inputStream, this.charset));
+        return inputStream;
     }
 
     @Override
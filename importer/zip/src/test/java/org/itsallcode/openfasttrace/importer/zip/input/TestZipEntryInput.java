@@ -30,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.zip.*;
@@ -141,6 +142,19 @@ class TestZipEntryInput
         }
     }
 
+    @Test
+    void testReadBinaryContent() throws IOException
+    {
+        final byte[] data = new byte[] { 0, (byte) 0xFF, 0x4F, (byte) 0x80 };
+        addEntryToZip("file", data);
+        try (final ZipFile zip = getZipFile();
+                final InputStream stream = ZipEntryInput.forZipEntry(zip, new ZipEntry("file"))
+                        .createInputStream())
+        {
+            assertThat(stream.readAllBytes(), equalTo(data));
+        }
+    }
+
     private String readContent(final InputFile inputFile) throws IOException
     {
         return inputFile.createReader().lines().collect(joining("\n"));
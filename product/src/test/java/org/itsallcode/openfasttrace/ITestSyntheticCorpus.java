@@ -0,0 +1,145 @@
+package org.itsallcode.openfasttrace;
+
+/*-
+ * #%L
+ * OpenFastTrace Product
+ * %%
+ * Copyright (C) 2016 - 2020 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusFormat;
+import org.itsallcode.openfasttrace.testutil.corpus.CorpusSettings;
+import org.itsallcode.openfasttrace.testutil.corpus.SyntheticCorpus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class ITestSyntheticCorpus
+{
+    private static final int ITEM_COUNT = 20_000;
+
+    private Path tempDir;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.tempDir = tempDir;
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CorpusFormat.class, names = { "MARKDOWN", "SPECOBJECT" })
+    void testTraceCorpusWithoutDefects(final CorpusFormat format) throws IOException
+    {
+        final SyntheticCorpus corpus = SyntheticCorpus.generate(CorpusSettings.builder() //
+                .itemCount(ITEM_COUNT) //
+                .specificationFormat(format) //
+                .build());
+        final Trace trace = trace(corpus);
+        assertThat(trace.count(), equalTo(corpus.getItemCount()));
+        assertThat(trace.countDefects(), equalTo(0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CorpusFormat.class, names = { "MARKDOWN", "SPECOBJECT" })
+    void testTraceCorpusWithDefectsAndCycles(final CorpusFormat format) throws IOException
+    {
+        final SyntheticCorpus corpus = SyntheticCorpus.generate(CorpusSettings.builder() //
+                .itemCount(ITEM_COUNT) //
+                .defectRatio(0.05) //
+                .cycleCount(4) //
+                .specificationFormat(format) //
+                .build());
+        final Trace trace = trace(corpus);
+        assertThat(trace.count(), equalTo(corpus.getItemCount()));
+        assertThat(countItems(trace,
+                item -> !item.getLinksByStatus(LinkStatus.PREDATED).isEmpty()),
+                equalTo(corpus.getDefectLinkCount()));
+        assertThat(countItems(trace, item -> item.getArtifactType().equals("feat")
+                && item.getDeepCoverageStatus() == DeepCoverageStatus.CYCLE),
+                equalTo(corpus.getCycleCount()));
+    }
+
+    private Trace trace(final SyntheticCorpus corpus) throws IOException
+    {
+        corpus.writeTo(this.tempDir);
+        final Oft oft = Oft.create();
+        final List<SpecificationItem> items = oft.importItems(ImportSettings.builder() //
+                .addInputs(this.tempDir) //
+                .pathConfigs(corpus.getPathConfigs()) //
+                .build());
+        return oft.trace(oft.link(items));
+    }
+
+    private static int countItems(final Trace trace,
+            final Predicate<LinkedSpecificationItem> predicate)
+    {
+        return (int) trace.getItems().stream().filter(predicate).count();
+    }
+
+    @Test
+    void testSameSeedCreatesSameCorpus() throws IOException
+    {
+        final CorpusSettings settings = CorpusSettings.builder().seed(42).itemCount(1000)
+                .defectRatio(0.1).build();
+        assertThat(readAll(SyntheticCorpus.generate(settings)),
+                equalTo(readAll(SyntheticCorpus.generate(settings))));
+    }
+
+    @Test
+    void testDifferentSeedCreatesDifferentCorpus() throws IOException
+    {
+        final CorpusSettings.Builder builder = CorpusSettings.builder().itemCount(1000);
+        assertThat(readAll(SyntheticCorpus.generate(builder.seed(1).build())),
+                not(equalTo(readAll(SyntheticCorpus.generate(builder.seed(2).build())))));
+    }
+
+    private static List<String> readAll(final SyntheticCorpus corpus) throws IOException
+    {
+        final List<String> contents = new ArrayList<>();
+        for (final InputFile file : corpus.getInputFiles())
+        {
+            try (BufferedReader reader = file.createReader())
+            {
+                contents.add(file.getPath() + "\n"
+                        + reader.lines().collect(Collectors.joining("\n")));
+            }
+        }
+        return contents;
+    }
+}
@@ -383,6 +383,23 @@ class TestCliStarter
         assertExitOkWithOutputFileStart(runnable, "ok - 3 total");
     }
 
+    @Test
+    void testTraceWritesStatisticsFile() throws IOException
+    {
+        final Path statsFile = this.outputFile.resolveSibling("stats.json");
+        final Runnable runnable = () -> runCliStarter( //
+                TRACE_COMMAND, this.DOC_DIR.toString(), //
+                OUTPUT_FILE_PARAMETER, this.outputFile.toString(), //
+                "--stats-file", statsFile.toString() //
+        );
+        assertExitOkWithOutputFileStart(runnable, "ok - 5 total");
+        final String stats = Files.readString(statsFile);
+        assertAll( //
+                () -> assertThat(stats, containsString("\"markdown\": 2")), //
+                () -> assertThat(stats, containsString("\"importedItems\": 5")), //
+                () -> assertThat(stats, containsString("\"linkedItems\": 5")));
+    }
+
     private void assertOutputFileContentStartsWith(final String content)
     {
         assertThat(getOutputFileContent(), startsWith(content));
@@ -34,8 +34,10 @@ import org.itsallcode.openfasttrace.api.exporter.ExporterContext;
 import org.itsallcode.openfasttrace.api.exporter.ExporterFactory;
 import org.itsallcode.openfasttrace.api.importer.ImporterContext;
 import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.exporter.snapshot.SnapshotExporterFactory;
 import org.itsallcode.openfasttrace.exporter.specobject.SpecobjectExporterFactory;
 import org.itsallcode.openfasttrace.importer.markdown.MarkdownImporterFactory;
+import org.itsallcode.openfasttrace.importer.snapshot.SnapshotImporterFactory;
 import org.itsallcode.openfasttrace.importer.specobject.SpecobjectImporterFactory;
 import org.itsallcode.openfasttrace.importer.tag.TagImporterFactory;
 import org.itsallcode.openfasttrace.importer.zip.ZipFileImporterFactory;
@@ -65,11 +67,12 @@ class TestInitializingServiceLoader
         final ImporterContext context = new ImporterContext(null);
         final List<ImporterFactory> services = getRegisteredServices(ImporterFactory.class,
                 context);
-        assertThat(services, hasSize(4));
+        assertThat(services, hasSize(5));
         assertThat(services, contains(instanceOf(MarkdownImporterFactory.class), //
                 instanceOf(SpecobjectImporterFactory.class), //
                 instanceOf(TagImporterFactory.class), //
-                instanceOf(ZipFileImporterFactory.class)));
+                instanceOf(ZipFileImporterFactory.class), //
+                instanceOf(SnapshotImporterFactory.class)));
         for (final ImporterFactory importerFactory : services)
         {
             assertThat(importerFactory.getContext(), sameInstance(context));
@@ -82,8 +85,9 @@ class TestInitializingServiceLoader
         final ExporterContext context = new ExporterContext();
         final List<ExporterFactory> services = getRegisteredServices(ExporterFactory.class,
                 context);
-        assertThat(services, hasSize(1));
-        assertThat(services, contains(instanceOf(SpecobjectExporterFactory.class)));
+        assertThat(services, hasSize(2));
+        assertThat(services, contains(instanceOf(SpecobjectExporterFactory.class), //
+                instanceOf(SnapshotExporterFactory.class)));
         for (final ExporterFactory factory : services)
         {
             assertThat(factory.getContext(), sameInstance(context));
@@ -0,0 +1,185 @@
+package org.itsallcode.openfasttrace.exporter.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.importer.snapshot.SnapshotImporterFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class TestSnapshotExportImport
+{
+    private Path snapshot;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.snapshot = tempDir.resolve("items.oftsnap");
+    }
+
+    @Test
+    void testExportImportItemWithMandatoryElements()
+    {
+        assertExportAndImport(SnapshotExporterFactory.SUPPORTED_FORMAT, SpecificationItem
+                .builder() //
+                .id(SpecificationItemId.createId("foo", "bar", 1)) //
+                .build());
+    }
+
+    @Test
+    void testExportImportItemWithOptionalElements()
+    {
+        assertExportAndImport(SnapshotExporterFactory.SUPPORTED_FORMAT, createFullItem(1));
+    }
+
+    @Test
+    void testExportImportUncompressed()
+    {
+        assertExportAndImport(SnapshotExporterFactory.UNCOMPRESSED_FORMAT, createFullItem(1),
+                createFullItem(2));
+    }
+
+    @Test
+    void testExportImportLocationWithoutPath()
+    {
+        final SpecificationItem itemWithoutPath = SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("foo", "no-path", 1)) //
+                .location(Location.builder().line(12).column(3).build()) //
+                .build();
+        assertExportAndImport(SnapshotExporterFactory.SUPPORTED_FORMAT, itemWithoutPath,
+                createFullItem(1));
+    }
+
+    @Test
+    void testExportImportEmpty()
+    {
+        assertExportAndImport(SnapshotExporterFactory.SUPPORTED_FORMAT);
+    }
+
+    @Test
+    void testExportImportEmptyUncompressed()
+    {
+        assertExportAndImport(SnapshotExporterFactory.UNCOMPRESSED_FORMAT);
+    }
+
+    @Test
+    void testExportImportManyBlocks()
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (int i = 0; i < 2500; ++i)
+        {
+            items.add(createFullItem(i));
+        }
+        assertExportAndImport(SnapshotExporterFactory.SUPPORTED_FORMAT,
+                items.toArray(new SpecificationItem[0]));
+    }
+
+    @Test
+    void testImportSnapshotInsideZip() throws IOException
+    {
+        final List<SpecificationItem> items = List.of(createFullItem(1), createFullItem(2));
+        export(SnapshotExporterFactory.SUPPORTED_FORMAT, items);
+        final Path zip = this.snapshot.resolveSibling("snapshots.zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip)))
+        {
+            output.putNextEntry(new ZipEntry("dir/items.oftsnap"));
+            output.write(Files.readAllBytes(this.snapshot));
+            output.closeEntry();
+        }
+        final List<SpecificationItem> importedItems = Oft.create()
+                .importItems(ImportSettings.builder().addInputs(zip).build());
+        assertThat(importedItems, equalTo(items));
+    }
+
+    @Test
+    void testCompressedSnapshotIsSmaller() throws IOException
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (int i = 0; i < 100; ++i)
+        {
+            items.add(createFullItem(i));
+        }
+        export(SnapshotExporterFactory.UNCOMPRESSED_FORMAT, items);
+        final long uncompressedSize = Files.size(this.snapshot);
+        export(SnapshotExporterFactory.SUPPORTED_FORMAT, items);
+        assertThat(Files.size(this.snapshot), lessThan(uncompressedSize));
+    }
+
+    static SpecificationItem createFullItem(final int number)
+    {
+        return SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "item-" + number, number)) //
+                .title("Title " + number) //
+                .status(ItemStatus.DRAFT) //
+                .description("First line\nsecond line with \u00e4\u00f6\u00fc " + number) //
+                .rationale("the rationale") //
+                .comment("the comment") //
+                .addCoveredId("feat", "covered", 1) //
+                .addCoveredId(SpecificationItemId.createId("feat", "any-revision",
+                        SpecificationItemId.REVISION_WILDCARD)) //
+                .addDependOnId("req", "depend-on", 1) //
+                .addNeedsArtifactType("impl") //
+                .addNeedsArtifactType("utest") //
+                .addTag("the tag") //
+                .location(Location.create("/the/file.md", number + 1)) //
+                .forwards(number % 2 == 0) //
+                .build();
+    }
+
+    private void assertExportAndImport(final String format, final SpecificationItem... items)
+    {
+        final List<SpecificationItem> expected = List.of(items);
+        export(format, expected);
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        new SnapshotImporterFactory()
+                .createImporter(RealFileInput.forPath(this.snapshot), builder).runImport();
+        assertThat(builder.build(), equalTo(expected));
+    }
+
+    private void export(final String format, final List<SpecificationItem> items)
+    {
+        new SnapshotExporterFactory().createExporter(this.snapshot, format,
+                StandardCharsets.UTF_8, Newline.UNIX, items.stream()).runExport();
+    }
+}
@@ -0,0 +1,163 @@
+package org.itsallcode.openfasttrace.importer.snapshot;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImporterException;
+import org.itsallcode.openfasttrace.api.importer.SpecificationListBuilder;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.exporter.snapshot.SnapshotExporterFactory;
+import org.itsallcode.openfasttrace.testutil.importer.input.InMemoryInput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class TestSnapshotReader
+{
+    private static final int ITEM_COUNT = 3000;
+
+    private Path snapshot;
+    private final List<SpecificationItem> items = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir)
+    {
+        this.snapshot = tempDir.resolve("items.oftsnap");
+        for (int i = 0; i < ITEM_COUNT; ++i)
+        {
+            this.items.add(SpecificationItem.builder() //
+                    .id(SpecificationItemId.createId("dsn", "item-" + i, 1)) //
+                    .description("description " + i) //
+                    .build());
+        }
+        new SnapshotExporterFactory().createExporter(this.snapshot,
+                SnapshotExporterFactory.SUPPORTED_FORMAT, StandardCharsets.UTF_8, Newline.UNIX,
+                this.items.stream()).runExport();
+    }
+
+    @Test
+    void testGetItemCount() throws IOException
+    {
+        try (SnapshotReader reader = SnapshotReader.open(this.snapshot))
+        {
+            assertThat(reader.getItemCount(), equalTo(ITEM_COUNT));
+        }
+    }
+
+    @Test
+    void testReadItemsByIndex() throws IOException
+    {
+        try (SnapshotReader reader = SnapshotReader.open(this.snapshot))
+        {
+            for (final int index : new int[] { 0, 1, 1023, 1024, 2047, 2048, ITEM_COUNT - 1 })
+            {
+                assertThat(reader.readItem(index), equalTo(this.items.get(index)));
+            }
+        }
+    }
+
+    @Test
+    void testReadItemOutOfRangeFails() throws IOException
+    {
+        try (SnapshotReader reader = SnapshotReader.open(this.snapshot))
+        {
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.readItem(ITEM_COUNT));
+        }
+    }
+
+    @Test
+    void testForEachReadsItemsInOrder() throws IOException
+    {
+        final List<SpecificationItem> readItems = new ArrayList<>();
+        try (SnapshotReader reader = SnapshotReader.open(this.snapshot))
+        {
+            reader.forEach(readItems::add);
+        }
+        assertThat(readItems, equalTo(this.items));
+    }
+
+    @Test
+    void testReadSnapshotFromMemory() throws IOException
+    {
+        final List<SpecificationItem> readItems = new ArrayList<>();
+        try (SnapshotReader reader = SnapshotReader.open("items.oftsnap",
+                Files.readAllBytes(this.snapshot)))
+        {
+            assertThat(reader.readItem(ITEM_COUNT - 1), equalTo(this.items.get(ITEM_COUNT - 1)));
+            reader.forEach(readItems::add);
+        }
+        assertThat(readItems, equalTo(this.items));
+    }
+
+    @Test
+    void testOpenTruncatedSnapshotFromMemoryFails() throws IOException
+    {
+        final byte[] content = Files.readAllBytes(this.snapshot);
+        final byte[] truncated = new byte[content.length - 1];
+        System.arraycopy(content, 1, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> SnapshotReader.open("truncated", truncated));
+    }
+
+    @Test
+    void testImportSnapshotWithoutBinaryContentFails()
+    {
+        final SnapshotImporter importer = new SnapshotImporter(
+                InMemoryInput.forContent("items.oftsnap", "text"),
+                SpecificationListBuilder.create());
+        assertThrows(ImporterException.class, importer::runImport);
+    }
+
+    @Test
+    void testOpenFileThatIsNoSnapshotFails() throws IOException
+    {
+        Files.write(this.snapshot, "# Not a snapshot\n\nJust some markdown text.\n"
+                .getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> SnapshotReader.open(this.snapshot));
+    }
+
+    @Test
+    void testImportTruncatedSnapshotFails() throws IOException
+    {
+        final byte[] content = Files.readAllBytes(this.snapshot);
+        final byte[] truncated = new byte[content.length / 2];
+        System.arraycopy(content, 0, truncated, 0, truncated.length);
+        Files.write(this.snapshot, truncated);
+        final SnapshotImporter importer = new SnapshotImporter(
+                RealFileInput.forPath(this.snapshot), SpecificationListBuilder.create());
+        assertThrows(ImporterException.class, importer::runImport);
+    }
+}
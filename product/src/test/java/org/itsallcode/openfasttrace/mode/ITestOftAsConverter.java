@@ -29,6 +29,7 @@ import java.util.List;
 
 import org.itsallcode.openfasttrace.api.core.SpecificationItem;
 import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.ExportSettings;
 import org.itsallcode.openfasttrace.core.Oft;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -58,6 +59,14 @@ public class ITestOftAsConverter extends AbstractOftTest
         assertStandardFileExportResult();
     }
 
+    @Test
+    void testConvertToSpecobjectFileWhileImporting() throws IOException
+    {
+        final ImportSettings settings = ImportSettings.builder().addInputs(this.docDir).build();
+        this.oft.convertToPath(settings, this.outputFile, ExportSettings.createDefault());
+        assertStandardFileExportResult();
+    }
+
     private void assertStandardFileExportResult() throws IOException
     {
         assertOutputFileExists(true);
@@ -0,0 +1,150 @@
+package org.itsallcode.openfasttrace.mode;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.core.watch.IncrementalImporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.junitpioneer.jupiter.TempDirectory.TempDir;
+
+@ExtendWith(TempDirectory.class)
+class ITestOftIncrementalImport
+{
+    private static final String SPEC = "# Spec\n\n" //
+            + "`feat~first~1`\n\nFirst feature.\n\nNeeds: req\n\n" //
+            + "`req~first~1`\n\nFirst requirement.\n\nCovers:\n\n* `feat~first~1`\n";
+    private static final String SOURCE = "// [impl->req~first~1]\n";
+
+    private Path inputDir;
+    private OftRunner oft;
+    private IncrementalImporter importer;
+
+    @BeforeEach
+    void beforeEach(@TempDir final Path tempDir) throws IOException
+    {
+        this.inputDir = tempDir;
+        Files.createDirectories(tempDir.resolve("doc"));
+        Files.writeString(tempDir.resolve("doc/spec.md"), SPEC);
+        Files.writeString(tempDir.resolve("Source.java"), SOURCE);
+        Files.writeString(tempDir.resolve("unsupported.bin"), "ignored");
+        this.oft = new OftRunner();
+        this.importer = this.oft.createIncrementalImporter(
+                ImportSettings.builder().addInputs(tempDir).build());
+    }
+
+    @Test
+    void testImportAllEqualsRegularImport()
+    {
+        final List<SpecificationItem> expected = this.oft
+                .importItems(ImportSettings.builder().addInputs(this.inputDir).build());
+        assertThat(this.importer.importAll(), containsInAnyOrder(expected.toArray()));
+        assertThat(this.importer.getFileCount(), equalTo(2));
+    }
+
+    @Test
+    void testUpdateImportsChangedFileAgain() throws IOException
+    {
+        this.importer.importAll();
+        final Path spec = Files.writeString(this.inputDir.resolve("doc/spec.md"),
+                SPEC.replace("req~first~1", "req~first~2"));
+        assertThat(this.importer.update(asList(spec)), equalTo(true));
+        assertThat(getIds(), hasItem("req~first~2"));
+        assertThat(getIds(), not(hasItem("req~first~1")));
+    }
+
+    @Test
+    void testUpdateWithUnchangedContentReportsNoChange() throws IOException
+    {
+        this.importer.importAll();
+        final Path spec = Files.writeString(this.inputDir.resolve("doc/spec.md"), SPEC);
+        assertThat(this.importer.update(asList(spec)), equalTo(false));
+    }
+
+    @Test
+    void testUpdateIgnoresUnsupportedFiles() throws IOException
+    {
+        this.importer.importAll();
+        final Path file = Files.writeString(this.inputDir.resolve("unsupported.bin"), "other");
+        assertThat(this.importer.update(asList(file)), equalTo(false));
+    }
+
+    @Test
+    void testUpdateRemovesDeletedFile() throws IOException
+    {
+        this.importer.importAll();
+        final Path source = this.inputDir.resolve("Source.java");
+        Files.delete(source);
+        assertThat(this.importer.update(asList(source)), equalTo(true));
+        assertThat(countItemsOfType("impl"), equalTo(0L));
+    }
+
+    @Test
+    void testUpdateRemovesDeletedDirectory() throws IOException
+    {
+        this.importer.importAll();
+        final Path docDir = this.inputDir.resolve("doc");
+        Files.delete(docDir.resolve("spec.md"));
+        Files.delete(docDir);
+        assertThat(this.importer.update(asList(docDir)), equalTo(true));
+        assertThat(countItemsOfType("impl"), equalTo((long) getIds().size()));
+    }
+
+    @Test
+    void testUpdateImportsCreatedDirectory() throws IOException
+    {
+        this.importer.importAll();
+        final Path newDir = Files.createDirectories(this.inputDir.resolve("new"));
+        Files.writeString(newDir.resolve("Other.java"), "// [impl->feat~first~1]\n");
+        assertThat(this.importer.update(asList(newDir)), equalTo(true));
+        assertThat(this.importer.getFileCount(), equalTo(3));
+    }
+
+    private long countItemsOfType(final String artifactType)
+    {
+        return this.importer.getItems().stream() //
+                .filter(item -> item.getArtifactType().equals(artifactType)) //
+                .count();
+    }
+
+    private List<String> getIds()
+    {
+        return this.importer.getItems().stream() //
+                .map(item -> item.getId().toString()) //
+                .collect(toList());
+    }
+}
@@ -31,11 +31,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.EnumSet;
 
 import org.itsallcode.io.Capturable;
 import org.itsallcode.junit.sysextensions.SystemOutGuard;
 import org.itsallcode.junit.sysextensions.SystemOutGuard.SysOut;
 import org.itsallcode.openfasttrace.api.ReportSettings;
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.Trace;
 import org.itsallcode.openfasttrace.api.exporter.ExporterException;
 import org.itsallcode.openfasttrace.api.report.ReportException;
@@ -127,6 +129,42 @@ class TestReportService
         }
     }
 
+    @Test
+    void testPlainTextSummaryRequiresNoTextFields()
+    {
+        final ReportSettings settings = ReportSettings.builder() //
+                .verbosity(ReportVerbosity.FAILURE_SUMMARIES) //
+                .build();
+        assertThat(createService(settings).getRequiredTextFields(settings.getOutputFormat()),
+                equalTo(EnumSet.noneOf(ItemTextField.class)));
+    }
+
+    @Test
+    void testPlainTextDetailsRequireDescriptions()
+    {
+        final ReportSettings settings = ReportSettings.builder() //
+                .verbosity(ReportVerbosity.FAILURE_DETAILS) //
+                .build();
+        assertThat(createService(settings).getRequiredTextFields(settings.getOutputFormat()),
+                equalTo(EnumSet.of(ItemTextField.DESCRIPTION)));
+    }
+
+    @Test
+    void testHtmlRequiresAllTextFields()
+    {
+        final ReportSettings settings = ReportSettings.builder().outputFormat("html").build();
+        assertThat(createService(settings).getRequiredTextFields(settings.getOutputFormat()),
+                equalTo(EnumSet.allOf(ItemTextField.class)));
+    }
+
+    @Test
+    void testInvalidReportFormatRequiresAllTextFields()
+    {
+        final ReportSettings settings = ReportSettings.builder().outputFormat("invalid").build();
+        assertThat(createService(settings).getRequiredTextFields(settings.getOutputFormat()),
+                equalTo(EnumSet.allOf(ItemTextField.class)));
+    }
+
     private ReportService createService(ReportSettings settings)
     {
         return new ReportService(new ReporterFactoryLoader(new ReporterContext(settings)));
@@ -22,6 +22,8 @@ package org.itsallcode.openfasttrace.report.html;
  * #L%
  */
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URL;
 import java.util.Comparator;
@@ -29,6 +31,7 @@ import java.util.List;
 
 import org.itsallcode.openfasttrace.api.core.LinkedSpecificationItem;
 import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.report.ReportException;
 import org.itsallcode.openfasttrace.api.report.Reportable;
 import org.itsallcode.openfasttrace.report.html.view.ViewFactory;
 import org.itsallcode.openfasttrace.report.html.view.Viewable;
@@ -39,6 +42,7 @@ public class HtmlReport implements Reportable
 {
     private final Trace trace;
     private static final String REPORT_CSS_FILE = "/css/report.css";
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     /**
      * Create a new instance of an {@link HtmlReport}
@@ -63,6 +67,21 @@ public class HtmlReport implements Reportable
 
     @Override
     public void renderToStream(final OutputStream outputStream)
+    {
+        final BufferedOutputStream bufferedStream = new BufferedOutputStream(outputStream,
+                BUFFER_SIZE);
+        renderToBufferedStream(bufferedStream);
+        try
+        {
+            bufferedStream.flush();
+        }
+        catch (final IOException e)
+        {
+            throw new ReportException("Error writing HTML report", e);
+        }
+    }
+
+    private void renderToBufferedStream(final OutputStream outputStream)
     {
         final ViewFactory factory = HtmlViewFactory.create(outputStream, getCssUrl());
         final ViewableContainer view = factory.createView("",
@@ -90,25 +109,50 @@ public class HtmlReport implements Reportable
         return items;
     }
 
+    /**
+     * Add a section for each artifact type. The sections only know the range
+     * of items they contain. The view of an item is created when the section
+     * renders it and dropped right after that, so the memory needed for the
+     * report does not grow with the number of items.
+     * 
+     * @param factory
+     *            factory for the views
+     * @param view
+     *            view that receives the sections
+     * @param items
+     *            items sorted by artifact type
+     */
     protected void addSectionedItems(final ViewFactory factory, final ViewableContainer view,
             final List<LinkedSpecificationItem> items)
     {
-        String artifactType = "\0";
-        ViewableContainer section = factory.createSection(artifactType, artifactType);
-        for (final LinkedSpecificationItem item : items)
+        int sectionStart = 0;
+        while (sectionStart < items.size())
         {
-            final String currentArtifactType = item.getArtifactType();
-            if (!artifactType.equals(currentArtifactType))
+            final String artifactType = items.get(sectionStart).getArtifactType();
+            int sectionEnd = sectionStart + 1;
+            while (sectionEnd < items.size()
+                    && artifactType.equals(items.get(sectionEnd).getArtifactType()))
             {
-                artifactType = currentArtifactType;
-                section = factory.createSection(artifactType, artifactType);
-                view.add(section);
+                ++sectionEnd;
             }
-            final Viewable itemView = factory.createSpecificationItem(item);
-            section.add(itemView);
+            final ViewableContainer section = factory.createSection(artifactType, artifactType);
+            section.add(createItemViews(factory, items.subList(sectionStart, sectionEnd)));
+            view.add(section);
+            sectionStart = sectionEnd;
         }
     }
 
+    private static Viewable createItemViews(final ViewFactory factory,
+            final List<LinkedSpecificationItem> items)
+    {
+        return level -> {
+            for (final LinkedSpecificationItem item : items)
+            {
+                factory.createSpecificationItem(item).render(level);
+            }
+        };
+    }
+
     protected ViewableContainer createSummary(final ViewableContainer view,
             final ViewFactory factory)
     {
@@ -40,12 +40,14 @@ public class HtmlSpecificationItem implements Viewable
 
     private final LinkedSpecificationItem item;
     private final PrintStream stream;
-    private final MarkdownConverter converter = new MarkdownConverter();
+    private final MarkdownConverter converter;
 
-    public HtmlSpecificationItem(final PrintStream stream, final LinkedSpecificationItem item)
+    public HtmlSpecificationItem(final PrintStream stream, final LinkedSpecificationItem item,
+            final MarkdownConverter converter)
     {
         this.stream = stream;
         this.item = item;
+        this.converter = converter;
     }
 
     @Override
@@ -40,6 +40,7 @@ public class HtmlViewFactory extends AbstractViewFactory
 {
     private static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
     private final URL cssUrl;
+    private final MarkdownConverter markdownConverter = new MarkdownConverter();
 
     HtmlViewFactory(final PrintStream stream, final URL cssUrl)
     {
@@ -92,7 +93,7 @@ public class HtmlViewFactory extends AbstractViewFactory
     @Override
     public Viewable createSpecificationItem(final LinkedSpecificationItem item)
     {
-        return new HtmlSpecificationItem(this.outputStream, item);
+        return new HtmlSpecificationItem(this.outputStream, item, this.markdownConverter);
     }
 
     @Override
@@ -22,6 +22,14 @@ package org.itsallcode.openfasttrace.report.html.view.html;
  * #L%
  */
 
+/**
+ * Converts Markdown text to HTML.
+ * 
+ * <p>
+ * A converter can be shared by all items of a report. It is safe to use from
+ * multiple threads.
+ * </p>
+ */
 public class MarkdownConverter
 {
     private final MarkdownLineStateMachine machine = new MarkdownLineStateMachine();
@@ -24,20 +24,31 @@ package org.itsallcode.openfasttrace.report.html.view.html;
 
 import static org.itsallcode.openfasttrace.report.html.view.html.MarkdownLineState.*;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
+/**
+ * Converts Markdown text to HTML line by line.
+ * 
+ * <p>
+ * The transitions and their patterns are compiled once when the state machine
+ * is created. After that the state machine is not modified anymore, so that a
+ * single instance can convert all texts of a report, also from multiple
+ * threads.
+ * </p>
+ */
 public class MarkdownLineStateMachine
 {
-    private static final int INCLUDE_EMPTY_STRINGS = -1;
+    private static final Pattern BULLET = Pattern.compile("^ {0,3}[-+*]");
     private static final String P_ANY = ".*";
     private static final String P_OL_LI = "^ {0,3}[0-9]+\\..*";
     private static final String P_UL_LI = "^ {0,3}[-+*].*";
     private static final String P_PRE = "^    .*";
     private static final String P_LIST_CONT = ".+";
     private static final String P_TERM = "^$";
-    private final List<MarkdownLineTransition> transitions = new ArrayList<>();
+    private final Map<MarkdownLineState, List<MarkdownLineTransition>> transitions = //
+            new EnumMap<>(MarkdownLineState.class);
 
     public MarkdownLineStateMachine()
     {
@@ -87,34 +98,73 @@ public class MarkdownLineStateMachine
     private void t(final MarkdownLineState from, final MarkdownLineState to, final String pattern,
             final String postfix, final String prefix, final UnaryOperator<String> conversion)
     {
-        this.transitions
+        this.transitions.computeIfAbsent(from, key -> new ArrayList<>())
                 .add(new MarkdownLineTransition(from, to, pattern, prefix, postfix, conversion));
     }
 
     public String run(final String input)
     {
-        final StringBuilder builder = new StringBuilder();
+        final StringBuilder builder = new StringBuilder(input.length() + 32);
         MarkdownLineState state = START;
-        for (final String line : input.split("(?:\n\r?|\r)", INCLUDE_EMPTY_STRINGS))
+        int lineStart = 0;
+        while (true)
         {
-            for (final MarkdownLineTransition transition : this.transitions)
+            final int lineEnd = findLineEnd(input, lineStart);
+            state = convertLine(input.substring(lineStart, lineEnd), state, builder);
+            if (lineEnd == input.length())
             {
-                if (transition.getFrom() == state
-                        && transition.getPattern().matcher(line).matches())
-                {
-                    builder.append(transition.getPostfix());
-                    builder.append(transition.getPrefix());
-                    builder.append(MarkdownSpanConverter
-                            .convertLineContent(transition.getConversion().apply(line)));
-                    state = transition.getTo();
-                    break;
-                }
+                break;
             }
+            lineStart = skipLineSeparator(input, lineEnd);
         }
         closeLastLineState(builder, state);
         return builder.toString();
     }
 
+    private static int findLineEnd(final String input, final int lineStart)
+    {
+        for (int i = lineStart; i < input.length(); ++i)
+        {
+            final char character = input.charAt(i);
+            if (character == '\n' || character == '\r')
+            {
+                return i;
+            }
+        }
+        return input.length();
+    }
+
+    // A line feed may be followed by a carriage return, a carriage return
+    // always ends the line on its own.
+    private static int skipLineSeparator(final String input, final int lineEnd)
+    {
+        final int next = lineEnd + 1;
+        if (input.charAt(lineEnd) == '\n' && next < input.length()
+                && input.charAt(next) == '\r')
+        {
+            return next + 1;
+        }
+        return next;
+    }
+
+    private MarkdownLineState convertLine(final String line, final MarkdownLineState state,
+            final StringBuilder builder)
+    {
+        for (final MarkdownLineTransition transition : this.transitions
+                .getOrDefault(state, Collections.emptyList()))
+        {
+            if (transition.getPattern().matcher(line).matches())
+            {
+                builder.append(transition.getPostfix());
+                builder.append(transition.getPrefix());
+                builder.append(MarkdownSpanConverter
+                        .convertLineContent(transition.getConversion().apply(line)));
+                return transition.getTo();
+            }
+        }
+        return state;
+    }
+
     protected void closeLastLineState(final StringBuilder builder, final MarkdownLineState state)
     {
         switch (state)
@@ -156,6 +206,6 @@ public class MarkdownLineStateMachine
 
     protected UnaryOperator<String> trimBullet()
     {
-        return s -> s.replaceFirst("^ {0,3}[-+*]", "").trim();
+        return s -> BULLET.matcher(s).replaceFirst("").trim();
     }
 }
@@ -22,21 +22,299 @@ package org.itsallcode.openfasttrace.report.html.view.html;
  * #L%
  */
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts the Markdown span elements inside a single line to HTML.
+ * 
+ * <p>
+ * The converter reads the line once from left to right and supports code
+ * spans, links, strong emphasis and emphasis, in this order of priority. While
+ * looking for the end of a span, spans of higher priority are skipped as a
+ * whole. The content of code spans and the targets of links are copied
+ * unchanged. All other content may contain spans of a different type. Emphasis
+ * must start and end with a letter.
+ * </p>
+ * 
+ * <p>
+ * Each line is converted by its own instance, which remembers the spans of
+ * higher priority it already looked for. So
+ * {@link #convertLineContent(String)} can be used from multiple threads.
+ * </p>
+ */
 public final class MarkdownSpanConverter
 {
-    // Prevent instantiation
-    private MarkdownSpanConverter()
+    private static final int NO_MATCH = -1;
+    private static final int NONE = 0;
+    private static final int CODE = 1;
+    private static final int LINK = 1 << 1;
+    private static final int STRONG = 1 << 2;
+    private static final int EMPHASIS = 1 << 3;
+    private static final int LOWEST_PRIORITY = EMPHASIS;
+    private static final int TYPE_BITS = 4;
+
+    private final String text;
+    private final StringBuilder builder;
+    private final Map<Long, Integer> spanEnds = new HashMap<>();
+
+    private MarkdownSpanConverter(final String text)
     {
+        this.text = text;
+        this.builder = new StringBuilder(text.length() + 32);
     }
 
     public static String convertLineContent(final String input)
     {
-        String text = input;
-        text = text.replaceAll("(    .*[\n])+", "<pre>$1</pre>");
-        text = text.replaceAll("`(.*?)`", "<code>$1</code>");
-        text = text.replaceAll("\\[(.*?)\\]\\((.*?)\\)", "<a href=\"$2\">$1</a>");
-        text = text.replaceAll("(__|\\*\\*)(\\p{L}(?:.*?\\p{L}))\\1", "<strong>$2</strong>");
-        text = text.replaceAll("([_*])(\\p{L}(?:.*?\\p{L}))\\1", "<em>$2</em>");
-        return text;
+        if (!containsMarkup(input))
+        {
+            return input;
+        }
+        final MarkdownSpanConverter converter = new MarkdownSpanConverter(input);
+        converter.convertSpans(0, input.length(), NONE);
+        return converter.builder.toString();
+    }
+
+    private static boolean containsMarkup(final String input)
+    {
+        for (int i = 0; i < input.length(); ++i)
+        {
+            if (isMarkupCharacter(input.charAt(i)))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMarkupCharacter(final char character)
+    {
+        return character == '`' || character == '[' || character == '*' || character == '_';
+    }
+
+    /**
+     * Convert the text between start and end, leaving out the span types that
+     * enclose the text.
+     */
+    private void convertSpans(final int start, final int end, final int enclosingTypes)
+    {
+        int position = start;
+        while (position < end)
+        {
+            final int next = convertSpan(position, end, enclosingTypes);
+            if (next == NO_MATCH)
+            {
+                this.builder.append(this.text.charAt(position));
+                ++position;
+            }
+            else
+            {
+                position = next;
+            }
+        }
+    }
+
+    private int convertSpan(final int position, final int end, final int enclosingTypes)
+    {
+        if (!isMarkupCharacter(this.text.charAt(position)))
+        {
+            return NO_MATCH;
+        }
+        for (int type = CODE; type <= LOWEST_PRIORITY; type <<= 1)
+        {
+            if ((enclosingTypes & type) == NONE)
+            {
+                final int closing = findClosing(type, position, end, enclosingTypes);
+                if (closing != NO_MATCH)
+                {
+                    appendSpan(type, position, closing, enclosingTypes);
+                    return closing + getClosingLength(type);
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private void appendSpan(final int type, final int position, final int closing,
+            final int enclosingTypes)
+    {
+        switch (type)
+        {
+        case CODE:
+            this.builder.append("<code>").append(this.text, position + 1, closing)
+                    .append("</code>");
+            break;
+        case LINK:
+            final int labelEnd = findLabelEnd(position, closing, enclosingTypes);
+            this.builder.append("<a href=\"").append(this.text, labelEnd + 2, closing)
+                    .append("\">");
+            convertSpans(position + 1, labelEnd, enclosingTypes | LINK);
+            this.builder.append("</a>");
+            break;
+        case STRONG:
+            appendEmphasis("strong", position + 2, closing, enclosingTypes | STRONG);
+            break;
+        default:
+            appendEmphasis("em", position + 1, closing, enclosingTypes | EMPHASIS);
+            break;
+        }
+    }
+
+    private void appendEmphasis(final String tag, final int start, final int end,
+            final int enclosingTypes)
+    {
+        this.builder.append('<').append(tag).append('>');
+        convertSpans(start, end, enclosingTypes);
+        this.builder.append("</").append(tag).append('>');
+    }
+
+    private static int getClosingLength(final int type)
+    {
+        return (type == STRONG) ? 2 : 1;
+    }
+
+    /**
+     * Find the position of the closing delimiter of a span of the given type
+     * that starts at the given position.
+     */
+    private int findClosing(final int type, final int position, final int end,
+            final int enclosingTypes)
+    {
+        switch (type)
+        {
+        case CODE:
+            return findCodeClosing(position, end);
+        case LINK:
+            final int labelEnd = findLabelEnd(position, end, enclosingTypes);
+            return (labelEnd == NO_MATCH) //
+                    ? NO_MATCH //
+                    : find(labelEnd + 2, end, ")", LINK, enclosingTypes);
+        case STRONG:
+            return findEmphasisClosing(position, end, 2, STRONG, enclosingTypes);
+        default:
+            return findEmphasisClosing(position, end, 1, EMPHASIS, enclosingTypes);
+        }
+    }
+
+    private int findCodeClosing(final int position, final int end)
+    {
+        if (this.text.charAt(position) != '`')
+        {
+            return NO_MATCH;
+        }
+        final int closing = this.text.indexOf('`', position + 1);
+        return (closing < 0 || closing >= end) ? NO_MATCH : closing;
+    }
+
+    private int findLabelEnd(final int position, final int end, final int enclosingTypes)
+    {
+        return (this.text.charAt(position) == '[')
+                ? find(position + 1, end, "](", LINK, enclosingTypes)
+                : NO_MATCH;
+    }
+
+    private int findEmphasisClosing(final int position, final int end,
+            final int delimiterLength, final int type, final int enclosingTypes)
+    {
+        final int contentStart = position + delimiterLength;
+        final char delimiter = this.text.charAt(position);
+        if (contentStart >= end || (delimiter != '*' && delimiter != '_')
+                || (delimiterLength == 2 && this.text.charAt(position + 1) != delimiter))
+        {
+            return NO_MATCH;
+        }
+        final int firstCodePoint = this.text.codePointAt(contentStart);
+        if (!Character.isLetter(firstCodePoint))
+        {
+            return NO_MATCH;
+        }
+        final int lastLetterStart = contentStart + Character.charCount(firstCodePoint);
+        final String closingDelimiter = this.text.substring(position, contentStart);
+        int closing = find(lastLetterStart, end, closingDelimiter, type, enclosingTypes);
+        while (closing != NO_MATCH)
+        {
+            final int lastCodePoint = this.text.codePointBefore(closing);
+            if (Character.isLetter(lastCodePoint)
+                    && closing - Character.charCount(lastCodePoint) >= lastLetterStart)
+            {
+                return closing;
+            }
+            closing = find(closing + 1, end, closingDelimiter, type, enclosingTypes);
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Find the next occurrence of a delimiter, skipping all spans with higher
+     * priority than the given type.
+     */
+    private int find(final int start, final int end, final String delimiter, final int type,
+            final int enclosingTypes)
+    {
+        final int first = this.text.indexOf(delimiter, start);
+        if (first < 0 || first + delimiter.length() > end)
+        {
+            return NO_MATCH;
+        }
+        int position = start;
+        while (position + delimiter.length() <= end)
+        {
+            final int spanEnd = findHigherPrioritySpanEnd(position, end, type, enclosingTypes);
+            if (spanEnd != NO_MATCH)
+            {
+                position = spanEnd;
+            }
+            else if (this.text.startsWith(delimiter, position))
+            {
+                return position;
+            }
+            else
+            {
+                ++position;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private int findHigherPrioritySpanEnd(final int position, final int end, final int type,
+            final int enclosingTypes)
+    {
+        if (!isMarkupCharacter(this.text.charAt(position)))
+        {
+            return NO_MATCH;
+        }
+        for (int higher = CODE; higher < type; higher <<= 1)
+        {
+            if ((enclosingTypes & higher) == NONE)
+            {
+                final int spanEnd = findSpanEnd(higher, position, end, enclosingTypes);
+                if (spanEnd != NO_MATCH)
+                {
+                    return spanEnd;
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Get the end of a span while looking for the closing delimiter of a span
+     * with lower priority. Several spans with lower priority may look at the
+     * same position, so the result is remembered.
+     */
+    private int findSpanEnd(final int type, final int position, final int end,
+            final int enclosingTypes)
+    {
+        final long key = (((long) end * this.text.length() + position) << (2 * TYPE_BITS))
+                | (enclosingTypes << TYPE_BITS) | type;
+        final Integer knownSpanEnd = this.spanEnds.get(key);
+        if (knownSpanEnd != null)
+        {
+            return knownSpanEnd;
+        }
+        final int closing = findClosing(type, position, end, enclosingTypes);
+        final int spanEnd = (closing == NO_MATCH) ? NO_MATCH : closing + getClosingLength(type);
+        this.spanEnds.put(key, spanEnd);
+        return spanEnd;
     }
-}
\ No newline at end of file
+}
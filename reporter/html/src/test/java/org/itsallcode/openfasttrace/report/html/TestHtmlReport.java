@@ -89,4 +89,41 @@ class TestHtmlReport
                 () -> assertThat(outputAsString, containsString("2 total")),
                 () -> assertThat(outputAsString, endsWith("</html>")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRenderItemsSectionBySection()
+    {
+        final LinkedSpecificationItem itemA2 = createItem("a", "a-item-2", "A2");
+        final LinkedSpecificationItem itemB = createItem("b", "b-item", "B");
+        final LinkedSpecificationItem itemA1 = createItem("a", "a-item-1", "A1");
+        when(this.traceMock.getItems()).thenReturn(Arrays.asList(itemA2, itemB, itemA1));
+        when(this.traceMock.count()).thenReturn(3);
+        final String outputAsString = renderToString();
+        final int sectionA = outputAsString.indexOf("<section id=\"a\">");
+        final int itemA1Position = indexOfItem(outputAsString, itemA1);
+        final int itemA2Position = indexOfItem(outputAsString, itemA2);
+        final int sectionB = outputAsString.indexOf("<section id=\"b\">");
+        final int itemBPosition = indexOfItem(outputAsString, itemB);
+        assertAll(() -> assertThat(sectionA, greaterThan(0)),
+                () -> assertThat(itemA1Position, greaterThan(sectionA)),
+                () -> assertThat(itemA2Position, greaterThan(itemA1Position)),
+                () -> assertThat(sectionB, greaterThan(itemA2Position)),
+                () -> assertThat(itemBPosition, greaterThan(sectionB)),
+                () -> assertThat(outputAsString, containsString(
+                        "<a href=\"#a\">a</a> &middot; <a href=\"#b\">b</a>")));
+    }
+
+    private static int indexOfItem(final String output, final LinkedSpecificationItem item)
+    {
+        return output.indexOf("<section class=\"sitem\" id=\"" + item.getId() + "\">");
+    }
+
+    private static LinkedSpecificationItem createItem(final String artifactType,
+            final String name, final String title)
+    {
+        return new LinkedSpecificationItem(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId(artifactType, name, 1)) //
+                .title(title) //
+                .build());
+    }
+}
@@ -201,4 +201,56 @@ class TestMarkdownConverter
         assertConverted("This **is very important**, believe me!",
                 "<p>This <strong>is very important</strong>, believe me!</p>");
     }
+
+    @Test
+    void testConvertCodeKeepsContent()
+    {
+        assertConverted("Call `snake_case_name(**args)` here",
+                "<p>Call <code>snake_case_name(**args)</code> here</p>");
+    }
+
+    @Test
+    void testConvertLinkKeepsTarget()
+    {
+        assertConverted("See [the _first_ step](#step_one_a) first",
+                "<p>See <a href=\"#step_one_a\">the <em>first</em> step</a> first</p>");
+    }
+
+    @Test
+    void testConvertEmphasisInsideStrong()
+    {
+        assertConverted("This is **very _much_ important**",
+                "<p>This is <strong>very <em>much</em> important</strong></p>");
+    }
+
+    @Test
+    void testStrongTakesPrecedenceOverEmphasis()
+    {
+        assertConverted("a*b **strong words**", "<p>a*b <strong>strong words</strong></p>");
+    }
+
+    @Test
+    void testEmphasisNeedsTwoLetters()
+    {
+        assertConverted("x *y* z", "<p>x *y* z</p>");
+    }
+
+    @Test
+    void testUnclosedSpansStayText()
+    {
+        assertConverted("a `b [c](d e_f **g", "<p>a `b [c](d e_f **g</p>");
+    }
+
+    @Test
+    void testConvertWindowsLineEnding()
+    {
+        assertConverted("First\r\nSecond", "<p>First</p><p>Second</p>");
+    }
+
+    @Test
+    void testConverterCanBeReused()
+    {
+        assertConverted("* item", "<ul><li>item</li></ul>");
+        assertConverted("Text", "<p>Text</p>");
+    }
 }
@@ -22,7 +22,12 @@ package org.itsallcode.openfasttrace.report.plaintext;
  * #L%
  */
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.core.ItemTextField;
 import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
 import org.itsallcode.openfasttrace.api.report.Reportable;
 import org.itsallcode.openfasttrace.api.report.ReporterFactory;
 
@@ -45,4 +50,40 @@ public class PlaintextReporterFactory extends ReporterFactory
     {
         return new PlainTextReport(trace, getContext().getSettings());
     }
+
+    /**
+     * The plain text report shows no item titles, rationales or comments. It
+     * only shows descriptions when it lists details of items.
+     */
+    @Override
+    public Set<ItemTextField> getRequiredTextFields()
+    {
+        switch (getContext().getSettings().getReportVerbosity())
+        {
+        case FAILURE_DETAILS:
+        case ALL:
+            return EnumSet.of(ItemTextField.DESCRIPTION);
+        default:
+            return EnumSet.noneOf(ItemTextField.class);
+        }
+    }
+
+    /**
+     * The plain text report only lists links and item details from verbosity
+     * {@link ReportVerbosity#FAILURE_SUMMARIES} upwards.
+     */
+    @Override
+    public boolean supportsCompactCoverageTags()
+    {
+        switch (getContext().getSettings().getReportVerbosity())
+        {
+        case QUIET:
+        case MINIMAL:
+        case SUMMARY:
+        case FAILURES:
+            return true;
+        default:
+            return false;
+        }
+    }
 }
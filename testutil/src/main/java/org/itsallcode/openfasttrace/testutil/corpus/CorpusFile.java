@@ -0,0 +1,55 @@
+package org.itsallcode.openfasttrace.testutil.corpus;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * A generated file of a {@link SyntheticCorpus}
+ */
+final class CorpusFile
+{
+    private final String path;
+    private final CorpusFormat format;
+    private final String content;
+
+    CorpusFile(final String path, final CorpusFormat format, final String content)
+    {
+        this.path = path;
+        this.format = format;
+        this.content = content;
+    }
+
+    String getPath()
+    {
+        return this.path;
+    }
+
+    CorpusFormat getFormat()
+    {
+        return this.format;
+    }
+
+    String getContent()
+    {
+        return this.content;
+    }
+}
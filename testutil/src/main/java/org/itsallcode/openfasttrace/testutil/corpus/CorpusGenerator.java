@@ -0,0 +1,420 @@
+package org.itsallcode.openfasttrace.testutil.corpus;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.*;
+
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+
+/**
+ * Generates the files of a {@link SyntheticCorpus}. All random decisions are
+ * taken in a fixed order from a single seeded generator, so the same settings
+ * always produce the same files.
+ */
+final class CorpusGenerator
+{
+    private static final String NAME_PREFIX = "corpus.";
+    private static final String FEATURE = "feat";
+    private static final String REQUIREMENT = "req";
+    private static final String DESIGN = "dsn";
+    private static final String IMPLEMENTATION = "impl";
+    private static final String UNIT_TEST = "utest";
+    private static final int OUTDATED_REVISION = 2;
+    private static final int TAG_POOL_SIZE = 10;
+    private static final String[] WORDS = { "system", "shall", "import", "export", "trace",
+            "report", "item", "user", "file", "link", "coverage", "artifact", "must", "the",
+            "a", "valid", "each", "requirement", "design", "within", "time", "data", "when",
+            "all", "is", "and", "of", "to", "be", "displayed" };
+    private static final PathConfig SHORT_TAG_CONFIG = PathConfig.builder() //
+            .patternPathMatcher("glob:{src/test/java/**,**/src/test/java/**}") //
+            .coveredItemNamePrefix(NAME_PREFIX) //
+            .coveredItemArtifactType(DESIGN) //
+            .tagArtifactType(UNIT_TEST) //
+            .build();
+
+    private final CorpusSettings settings;
+    private final Random random;
+    private final List<SpecItem> features = new ArrayList<>();
+    private final List<SpecItem> requirements = new ArrayList<>();
+    private final List<SpecItem> designs = new ArrayList<>();
+    private final List<CoverageTag> implementationTags = new ArrayList<>();
+    private final List<CoverageTag> testTags = new ArrayList<>();
+    private int defectLinkCount = 0;
+
+    CorpusGenerator(final CorpusSettings settings)
+    {
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+    }
+
+    SyntheticCorpus generate()
+    {
+        final int fanOut = this.settings.getFanOut();
+        final int treeSize = 1 + fanOut + 3 * fanOut * fanOut;
+        final int treeCount = (this.settings.getItemCount() + treeSize - 1) / treeSize;
+        final Set<Integer> cycleTrees = chooseCycleTrees(treeCount);
+        for (int tree = 0; tree < treeCount; ++tree)
+        {
+            generateTree(tree, cycleTrees.contains(tree));
+        }
+        final List<CorpusFile> files = new ArrayList<>();
+        renderSpecificationFiles(files, FEATURE, this.features);
+        renderSpecificationFiles(files, REQUIREMENT, this.requirements);
+        renderSpecificationFiles(files, DESIGN, this.designs);
+        renderTagFiles(files, "src/main/java/corpus/Impl%05d.java", this.implementationTags);
+        renderTagFiles(files, "src/test/java/corpus/Test%05d.java", this.testTags);
+        return new SyntheticCorpus(files, treeCount * treeSize, this.defectLinkCount,
+                cycleTrees.size(), Collections.singletonList(SHORT_TAG_CONFIG));
+    }
+
+    private Set<Integer> chooseCycleTrees(final int treeCount)
+    {
+        final int cycleCount = this.settings.getCycleCount();
+        if (cycleCount > treeCount)
+        {
+            throw new IllegalArgumentException("Cannot create " + cycleCount
+                    + " cycles in a corpus with only " + treeCount + " feature trees");
+        }
+        final List<Integer> trees = new ArrayList<>(treeCount);
+        for (int tree = 0; tree < treeCount; ++tree)
+        {
+            trees.add(tree);
+        }
+        Collections.shuffle(trees, this.random);
+        return new HashSet<>(trees.subList(0, cycleCount));
+    }
+
+    private void generateTree(final int tree, final boolean withCycle)
+    {
+        final SpecItem feature = createSpecItem(FEATURE, NAME_PREFIX + "f" + tree,
+                "Feature " + tree);
+        feature.needs.add(REQUIREMENT);
+        this.features.add(feature);
+        for (int requirementIndex = 0; requirementIndex < this.settings
+                .getFanOut(); ++requirementIndex)
+        {
+            final SpecItem requirement = createSpecItem(REQUIREMENT,
+                    feature.name + ".r" + requirementIndex, "Requirement " + requirementIndex);
+            requirement.covered.add(feature.getId());
+            requirement.needs.add(DESIGN);
+            this.requirements.add(requirement);
+            for (int designIndex = 0; designIndex < this.settings.getFanOut(); ++designIndex)
+            {
+                generateDesign(requirement, designIndex);
+            }
+        }
+        if (withCycle)
+        {
+            final int designsPerTree = this.settings.getFanOut() * this.settings.getFanOut();
+            final SpecItem firstDesign = this.designs.get(this.designs.size() - designsPerTree);
+            firstDesign.needs.add(FEATURE);
+            feature.covered.add(firstDesign.getId());
+        }
+    }
+
+    private void generateDesign(final SpecItem requirement, final int designIndex)
+    {
+        final SpecItem design = createSpecItem(DESIGN, requirement.name + ".d" + designIndex,
+                "Design " + designIndex);
+        design.covered.add(requirement.getId());
+        design.needs.add(IMPLEMENTATION);
+        design.needs.add(UNIT_TEST);
+        addDependencies(design);
+        addTags(design);
+        this.designs.add(design);
+        this.implementationTags.add(createCoverageTag(design));
+        this.testTags.add(createCoverageTag(design));
+    }
+
+    private void addDependencies(final SpecItem design)
+    {
+        if (this.designs.isEmpty())
+        {
+            return;
+        }
+        for (int i = 0; i < this.settings.getDependencyCount(); ++i)
+        {
+            final String dependency = this.designs.get(this.random.nextInt(this.designs.size()))
+                    .getId();
+            if (!design.dependencies.contains(dependency))
+            {
+                design.dependencies.add(dependency);
+            }
+        }
+    }
+
+    private void addTags(final SpecItem design)
+    {
+        final int tagCount = this.random.nextInt(3);
+        for (int i = 0; i < tagCount; ++i)
+        {
+            final String tag = "tag" + this.random.nextInt(TAG_POOL_SIZE);
+            if (!design.tags.contains(tag))
+            {
+                design.tags.add(tag);
+            }
+        }
+    }
+
+    private CoverageTag createCoverageTag(final SpecItem design)
+    {
+        final boolean defect = this.random.nextDouble() < this.settings.getDefectRatio();
+        if (defect)
+        {
+            ++this.defectLinkCount;
+        }
+        return new CoverageTag(design.name, defect ? OUTDATED_REVISION : 1);
+    }
+
+    private SpecItem createSpecItem(final String artifactType, final String name,
+            final String title)
+    {
+        return new SpecItem(artifactType, name, title, createSentence(8, 20),
+                createSentence(4, 10));
+    }
+
+    private String createSentence(final int minWords, final int maxWords)
+    {
+        final int wordCount = minWords + this.random.nextInt(maxWords - minWords + 1);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordCount; ++i)
+        {
+            final String word = WORDS[this.random.nextInt(WORDS.length)];
+            if (i == 0)
+            {
+                builder.append(Character.toUpperCase(word.charAt(0))).append(word, 1,
+                        word.length());
+            }
+            else
+            {
+                builder.append(' ').append(word);
+            }
+        }
+        return builder.append('.').toString();
+    }
+
+    private void renderSpecificationFiles(final List<CorpusFile> files, final String artifactType,
+            final List<SpecItem> items)
+    {
+        final boolean markdown = this.settings.getSpecificationFormat() == CorpusFormat.MARKDOWN;
+        final String pathPattern = "doc/" + artifactType + "/" + artifactType + "_%05d"
+                + (markdown ? ".md" : ".oreqm");
+        int fileIndex = 0;
+        for (final List<SpecItem> chunk : chunk(items))
+        {
+            final String path = String.format(pathPattern, fileIndex++);
+            final String content = markdown ? renderMarkdown(chunk)
+                    : renderSpecobjects(artifactType, path, chunk);
+            files.add(new CorpusFile(path, this.settings.getSpecificationFormat(), content));
+        }
+    }
+
+    private static String renderMarkdown(final List<SpecItem> items)
+    {
+        final StringBuilder builder = new StringBuilder("# Synthetic Specification\n\n");
+        for (final SpecItem item : items)
+        {
+            builder.append("## ").append(item.title).append("\n`").append(item.getId())
+                    .append("`\n\n").append(item.description).append("\n\nRationale:\n\n")
+                    .append(item.rationale).append("\n\n");
+            appendMarkdownList(builder, "Covers", item.covered);
+            appendMarkdownList(builder, "Depends", item.dependencies);
+            builder.append("Needs: ").append(String.join(", ", item.needs)).append("\n\n");
+            if (!item.tags.isEmpty())
+            {
+                builder.append("Tags: ").append(String.join(", ", item.tags)).append("\n\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void appendMarkdownList(final StringBuilder builder, final String keyword,
+            final List<String> ids)
+    {
+        if (!ids.isEmpty())
+        {
+            builder.append(keyword).append(":\n\n");
+            for (final String id : ids)
+            {
+                builder.append("  * `").append(id).append("`\n");
+            }
+            builder.append('\n');
+        }
+    }
+
+    private static String renderSpecobjects(final String artifactType, final String path,
+            final List<SpecItem> items)
+    {
+        final StringBuilder builder = new StringBuilder(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<specdocument>\n");
+        builder.append("    <specobjects doctype=\"").append(artifactType).append("\">\n");
+        int line = 1;
+        for (final SpecItem item : items)
+        {
+            builder.append("        <specobject>\n");
+            appendElement(builder, 3, "id", item.name);
+            appendElement(builder, 3, "shortdesc", item.title);
+            appendElement(builder, 3, "status", "approved");
+            appendElement(builder, 3, "version", "1");
+            appendElement(builder, 3, "sourcefile", path);
+            appendElement(builder, 3, "sourceline", String.valueOf(line++));
+            appendElement(builder, 3, "description", item.description);
+            appendElement(builder, 3, "rationale", item.rationale);
+            builder.append("            <needscoverage>\n");
+            for (final String neededArtifactType : item.needs)
+            {
+                appendElement(builder, 4, "needsobj", neededArtifactType);
+            }
+            builder.append("            </needscoverage>\n");
+            if (!item.covered.isEmpty())
+            {
+                builder.append("            <providescoverage>\n");
+                for (final String coveredId : item.covered)
+                {
+                    final String[] parts = coveredId.split("~");
+                    builder.append("                <provcov>\n");
+                    appendElement(builder, 5, "linksto", parts[0] + ":" + parts[1]);
+                    appendElement(builder, 5, "dstversion", parts[2]);
+                    builder.append("                </provcov>\n");
+                }
+                builder.append("            </providescoverage>\n");
+            }
+            if (!item.dependencies.isEmpty())
+            {
+                builder.append("            <dependencies>\n");
+                for (final String dependency : item.dependencies)
+                {
+                    appendElement(builder, 4, "dependson", dependency);
+                }
+                builder.append("            </dependencies>\n");
+            }
+            if (!item.tags.isEmpty())
+            {
+                builder.append("            <tags>\n");
+                for (final String tag : item.tags)
+                {
+                    appendElement(builder, 4, "tag", tag);
+                }
+                builder.append("            </tags>\n");
+            }
+            builder.append("        </specobject>\n");
+        }
+        return builder.append("    </specobjects>\n</specdocument>\n").toString();
+    }
+
+    private static void appendElement(final StringBuilder builder, final int indentation,
+            final String element, final String value)
+    {
+        for (int i = 0; i < indentation; ++i)
+        {
+            builder.append("    ");
+        }
+        builder.append('<').append(element).append('>').append(value).append("</")
+                .append(element).append(">\n");
+    }
+
+    private void renderTagFiles(final List<CorpusFile> files, final String pathPattern,
+            final List<CoverageTag> tags)
+    {
+        final boolean shortTags = tags == this.testTags;
+        int fileIndex = 0;
+        for (final List<CoverageTag> chunk : chunk(tags))
+        {
+            final String className = (shortTags ? "Test" : "Impl")
+                    + String.format("%05d", fileIndex);
+            final StringBuilder builder = new StringBuilder("package corpus;\n\nclass ")
+                    .append(className).append("\n{\n");
+            int methodIndex = 0;
+            for (final CoverageTag tag : chunk)
+            {
+                builder.append("    // ");
+                if (shortTags)
+                {
+                    builder.append("[[").append(tag.designName.substring(NAME_PREFIX.length()))
+                            .append(':').append(tag.revision).append("]]");
+                }
+                else
+                {
+                    builder.append("[impl->dsn~").append(tag.designName).append('~')
+                            .append(tag.revision).append(']');
+                }
+                builder.append("\n    void method").append(methodIndex++).append("()\n    {\n")
+                        .append("        process(").append(methodIndex).append(");\n    }\n\n");
+            }
+            builder.append("}\n");
+            files.add(new CorpusFile(String.format(pathPattern, fileIndex++), CorpusFormat.TAG,
+                    builder.toString()));
+        }
+    }
+
+    private <T> List<List<T>> chunk(final List<T> elements)
+    {
+        final int chunkSize = this.settings.getItemsPerFile();
+        final List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < elements.size(); start += chunkSize)
+        {
+            chunks.add(elements.subList(start, Math.min(start + chunkSize, elements.size())));
+        }
+        return chunks;
+    }
+
+    private static final class SpecItem
+    {
+        private final String artifactType;
+        private final String name;
+        private final String title;
+        private final String description;
+        private final String rationale;
+        private final List<String> covered = new ArrayList<>(1);
+        private final List<String> dependencies = new ArrayList<>(1);
+        private final List<String> needs = new ArrayList<>(2);
+        private final List<String> tags = new ArrayList<>(2);
+
+        private SpecItem(final String artifactType, final String name, final String title,
+                final String description, final String rationale)
+        {
+            this.artifactType = artifactType;
+            this.name = name;
+            this.title = title;
+            this.description = description;
+            this.rationale = rationale;
+        }
+
+        private String getId()
+        {
+            return this.artifactType + "~" + this.name + "~1";
+        }
+    }
+
+    private static final class CoverageTag
+    {
+        private final String designName;
+        private final int revision;
+
+        private CoverageTag(final String designName, final int revision)
+        {
+            this.designName = designName;
+            this.revision = revision;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package org.itsallcode.openfasttrace.testutil.corpus;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Settings for generating a {@link SyntheticCorpus}
+ */
+public class CorpusSettings
+{
+    private final long seed;
+    private final int itemCount;
+    private final int fanOut;
+    private final int dependencyCount;
+    private final double defectRatio;
+    private final int cycleCount;
+    private final int itemsPerFile;
+    private final CorpusFormat specificationFormat;
+
+    private CorpusSettings(final Builder builder)
+    {
+        this.seed = builder.seed;
+        this.itemCount = builder.itemCount;
+        this.fanOut = builder.fanOut;
+        this.dependencyCount = builder.dependencyCount;
+        this.defectRatio = builder.defectRatio;
+        this.cycleCount = builder.cycleCount;
+        this.itemsPerFile = builder.itemsPerFile;
+        this.specificationFormat = builder.specificationFormat;
+    }
+
+    /**
+     * Get the seed of the random generator. The same settings always produce
+     * the same corpus.
+     * 
+     * @return seed
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+
+    /**
+     * Get the minimum number of specification items in the corpus. The actual
+     * number is rounded up to complete feature trees.
+     * 
+     * @return minimum number of items
+     */
+    public int getItemCount()
+    {
+        return this.itemCount;
+    }
+
+    /**
+     * Get the number of requirements per feature and of designs per
+     * requirement
+     * 
+     * @return fan-out of the coverage tree
+     */
+    public int getFanOut()
+    {
+        return this.fanOut;
+    }
+
+    /**
+     * Get the number of other designs each design depends on
+     * 
+     * @return number of dependencies per design
+     */
+    public int getDependencyCount()
+    {
+        return this.dependencyCount;
+    }
+
+    /**
+     * Get the fraction of coverage tags that point to an outdated revision of
+     * the covered item
+     * 
+     * @return defect ratio between <code>0</code> and <code>1</code>
+     */
+    public double getDefectRatio()
+    {
+        return this.defectRatio;
+    }
+
+    /**
+     * Get the number of coverage link cycles
+     * 
+     * @return number of cycles
+     */
+    public int getCycleCount()
+    {
+        return this.cycleCount;
+    }
+
+    /**
+     * Get the maximum number of items or coverage tags per file
+     * 
+     * @return items per file
+     */
+    public int getItemsPerFile()
+    {
+        return this.itemsPerFile;
+    }
+
+    /**
+     * Get the format of the specification documents
+     * 
+     * @return {@link CorpusFormat#MARKDOWN} or
+     *         {@link CorpusFormat#SPECOBJECT}
+     */
+    public CorpusFormat getSpecificationFormat()
+    {
+        return this.specificationFormat;
+    }
+
+    /**
+     * Create a builder for {@link CorpusSettings}
+     * 
+     * @return builder
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link CorpusSettings}
+     */
+    public static class Builder
+    {
+        private long seed = 1;
+        private int itemCount = 10_000;
+        private int fanOut = 3;
+        private int dependencyCount = 1;
+        private double defectRatio = 0;
+        private int cycleCount = 0;
+        private int itemsPerFile = 1000;
+        private CorpusFormat specificationFormat = CorpusFormat.MARKDOWN;
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Set the seed of the random generator
+         * 
+         * @param seed
+         *            seed
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder seed(final long seed)
+        {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Set the minimum number of specification items
+         * 
+         * @param itemCount
+         *            minimum number of items, must be at least <code>1</code>
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder itemCount(final int itemCount)
+        {
+            this.itemCount = requireAtLeast("item count", itemCount, 1);
+            return this;
+        }
+
+        /**
+         * Set the fan-out of the coverage tree
+         * 
+         * @param fanOut
+         *            requirements per feature and designs per requirement,
+         *            must be at least <code>1</code>
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder fanOut(final int fanOut)
+        {
+            this.fanOut = requireAtLeast("fan-out", fanOut, 1);
+            return this;
+        }
+
+        /**
+         * Set the number of dependencies per design
+         * 
+         * @param dependencyCount
+         *            number of dependencies, must not be negative
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder dependencyCount(final int dependencyCount)
+        {
+            this.dependencyCount = requireAtLeast("dependency count", dependencyCount, 0);
+            return this;
+        }
+
+        /**
+         * Set the fraction of coverage tags that point to an outdated revision
+         * 
+         * @param defectRatio
+         *            ratio between <code>0</code> and <code>1</code>
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder defectRatio(final double defectRatio)
+        {
+            if (defectRatio < 0 || defectRatio > 1)
+            {
+                throw new IllegalArgumentException(
+                        "Defect ratio must be between 0 and 1 but was " + defectRatio);
+            }
+            this.defectRatio = defectRatio;
+            return this;
+        }
+
+        /**
+         * Set the number of coverage link cycles
+         * 
+         * @param cycleCount
+         *            number of cycles, must not be negative
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder cycleCount(final int cycleCount)
+        {
+            this.cycleCount = requireAtLeast("cycle count", cycleCount, 0);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of items or coverage tags per file
+         * 
+         * @param itemsPerFile
+         *            items per file, must be at least <code>1</code>
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder itemsPerFile(final int itemsPerFile)
+        {
+            this.itemsPerFile = requireAtLeast("items per file", itemsPerFile, 1);
+            return this;
+        }
+
+        /**
+         * Set the format of the specification documents
+         * 
+         * @param specificationFormat
+         *            {@link CorpusFormat#MARKDOWN} or
+         *            {@link CorpusFormat#SPECOBJECT}
+         * @return <code>this</code> for fluent programming
+         */
+        public Builder specificationFormat(final CorpusFormat specificationFormat)
+        {
+            if (specificationFormat == CorpusFormat.TAG)
+            {
+                throw new IllegalArgumentException(
+                        "Specification documents cannot use format " + specificationFormat);
+            }
+            this.specificationFormat = specificationFormat;
+            return this;
+        }
+
+        private static int requireAtLeast(final String name, final int value, final int minimum)
+        {
+            if (value < minimum)
+            {
+                throw new IllegalArgumentException(
+                        "The " + name + " must be at least " + minimum + " but was " + value);
+            }
+            return value;
+        }
+
+        /**
+         * Create new {@link CorpusSettings}
+         * 
+         * @return settings
+         */
+        public CorpusSettings build()
+        {
+            return new CorpusSettings(this);
+        }
+    }
+}
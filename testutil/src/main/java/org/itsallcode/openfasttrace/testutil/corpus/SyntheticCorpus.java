@@ -0,0 +1,177 @@
+package org.itsallcode.openfasttrace.testutil.corpus;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.testutil.importer.input.InMemoryInput;
+
+/**
+ * Synthetic, deterministic input for scale tests and benchmarks.
+ * 
+ * <p>
+ * The corpus consists of feature trees. Each <code>feat</code> item is covered
+ * by {@link CorpusSettings#getFanOut()} <code>req</code> items, which are
+ * covered by the same number of <code>dsn</code> items each. Every design needs
+ * <code>impl</code> and <code>utest</code> coverage, provided by long coverage
+ * tags in main sources and short coverage tags in test sources. Designs depend
+ * on randomly chosen earlier designs.
+ * </p>
+ * <p>
+ * Defects are coverage tags that point to an outdated revision of a design.
+ * A cycle lets a feature cover the first design of its own tree.
+ * </p>
+ * <p>
+ * The files can be used in memory via {@link #getInputFiles()} or written to
+ * disk with {@link #writeTo(Path)}. Short tags are only imported with the
+ * configuration from {@link #getPathConfigs()}.
+ * </p>
+ */
+public class SyntheticCorpus
+{
+    private final List<CorpusFile> files;
+    private final int itemCount;
+    private final int defectLinkCount;
+    private final int cycleCount;
+    private final List<PathConfig> pathConfigs;
+
+    SyntheticCorpus(final List<CorpusFile> files, final int itemCount, final int defectLinkCount,
+            final int cycleCount, final List<PathConfig> pathConfigs)
+    {
+        this.files = files;
+        this.itemCount = itemCount;
+        this.defectLinkCount = defectLinkCount;
+        this.cycleCount = cycleCount;
+        this.pathConfigs = pathConfigs;
+    }
+
+    /**
+     * Generate a new corpus
+     * 
+     * @param settings
+     *            corpus settings
+     * @return generated corpus
+     */
+    public static SyntheticCorpus generate(final CorpusSettings settings)
+    {
+        return new CorpusGenerator(settings).generate();
+    }
+
+    /**
+     * Get all files of the corpus as in-memory input
+     * 
+     * @return input files
+     */
+    public List<InputFile> getInputFiles()
+    {
+        return this.files.stream() //
+                .map(file -> InMemoryInput.forContent(file.getPath(), file.getContent())) //
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the files of the corpus with the given format as in-memory input
+     * 
+     * @param format
+     *            file format
+     * @return input files
+     */
+    public List<InputFile> getInputFiles(final CorpusFormat format)
+    {
+        return this.files.stream() //
+                .filter(file -> file.getFormat() == format) //
+                .map(file -> InMemoryInput.forContent(file.getPath(), file.getContent())) //
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Write all files of the corpus to a directory
+     * 
+     * @param directory
+     *            target directory, created if missing
+     * @return paths of the written files
+     * @throws IOException
+     *             if writing a file fails
+     */
+    public List<Path> writeTo(final Path directory) throws IOException
+    {
+        final List<Path> paths = new ArrayList<>(this.files.size());
+        for (final CorpusFile file : this.files)
+        {
+            final Path path = directory.resolve(file.getPath());
+            Files.createDirectories(path.getParent());
+            Files.write(path, file.getContent().getBytes(StandardCharsets.UTF_8));
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Get the path configurations required to import the short coverage tags
+     * 
+     * @return path configurations
+     */
+    public List<PathConfig> getPathConfigs()
+    {
+        return this.pathConfigs;
+    }
+
+    /**
+     * Get the number of specification items the corpus contains, including the
+     * items created from coverage tags
+     * 
+     * @return number of items
+     */
+    public int getItemCount()
+    {
+        return this.itemCount;
+    }
+
+    /**
+     * Get the number of coverage tags that point to an outdated revision
+     * 
+     * @return number of defect links
+     */
+    public int getDefectLinkCount()
+    {
+        return this.defectLinkCount;
+    }
+
+    /**
+     * Get the number of coverage link cycles
+     * 
+     * @return number of cycles
+     */
+    public int getCycleCount()
+    {
+        return this.cycleCount;
+    }
+}
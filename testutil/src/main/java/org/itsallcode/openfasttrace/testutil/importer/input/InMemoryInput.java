@@ -0,0 +1,91 @@
+package org.itsallcode.openfasttrace.testutil.importer.input;
+
+/*-
+ * #%L
+ * OpenFastTrace
+ * %%
+ * Copyright (C) 2016 - 2018 itsallcode.org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.itsallcode.openfasttrace.api.importer.input.InputFile;
+
+/**
+ * {@link InputFile} that keeps its content in memory. Unlike
+ * {@link StreamInput} it can be read any number of times, which makes it
+ * suitable for benchmarks that import the same input repeatedly.
+ */
+public class InMemoryInput implements InputFile
+{
+    private final String path;
+    private final String content;
+
+    private InMemoryInput(final String path, final String content)
+    {
+        this.path = path;
+        this.content = content;
+    }
+
+    /**
+     * Create an {@link InputFile} for a given file content.
+     * 
+     * @param path
+     *            a dummy path.
+     * @param content
+     *            the file content.
+     * @return an {@link InputFile}.
+     */
+    public static InputFile forContent(final String path, final String content)
+    {
+        return new InMemoryInput(path, content);
+    }
+
+    @Override
+    public BufferedReader createReader()
+    {
+        return new BufferedReader(new StringReader(this.content));
+    }
+
+    @Override
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getPath();
+    }
+
+    @Override
+    public boolean isRealFile()
+    {
+        return false;
+    }
+
+    @Override
+    public Path toPath()
+    {
+        return Paths.get(this.path);
+    }
+}